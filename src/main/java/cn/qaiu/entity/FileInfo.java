@@ -1,5 +1,6 @@
 package cn.qaiu.entity;
 
+import java.util.HashMap;
 import java.util.Map;
 
 public class FileInfo {
@@ -231,6 +232,31 @@ public class FileInfo {
         return this;
     }
 
+    /**
+     * 复制一份, extParameters 复制为新的 Map(其中的值不复制)
+     */
+    public FileInfo copy() {
+        FileInfo copy = new FileInfo();
+        copy.fileName = fileName;
+        copy.fileId = fileId;
+        copy.fileIcon = fileIcon;
+        copy.size = size;
+        copy.sizeStr = sizeStr;
+        copy.fileType = fileType;
+        copy.filePath = filePath;
+        copy.createTime = createTime;
+        copy.updateTime = updateTime;
+        copy.createBy = createBy;
+        copy.description = description;
+        copy.downloadCount = downloadCount;
+        copy.panType = panType;
+        copy.parserUrl = parserUrl;
+        copy.previewUrl = previewUrl;
+        copy.hash = hash;
+        copy.extParameters = extParameters == null ? null : new HashMap<>(extParameters);
+        return copy;
+    }
+
     @Override
     public String toString() {
         return "FileInfo{" +
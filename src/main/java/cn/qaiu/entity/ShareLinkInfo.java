@@ -22,6 +22,11 @@ public class ShareLinkInfo {
      */
     private Map<String, Object> otherParam;
 
+    /**
+     * 解析截止时间(毫秒时间戳), 0 表示不限; 解析工具发出的每个请求以剩余时间作为超时上限
+     */
+    private long deadline;
+
     private ShareLinkInfo(Builder builder) {
         this.shareKey = builder.shareKey;
         this.panName = builder.panName;
@@ -30,6 +35,7 @@ public class ShareLinkInfo {
         this.shareUrl = builder.shareUrl;
         this.standardUrl = builder.standardUrl;
         this.otherParam = builder.otherParam;
+        this.deadline = builder.deadline;
     }
 
     // Getter和Setter方法
@@ -100,6 +106,27 @@ public class ShareLinkInfo {
         return otherParam;
     }
 
+    public long getDeadline() {
+        return deadline;
+    }
+
+    /**
+     * 设置解析截止时间, 需在创建解析工具之前设置
+     *
+     * @param deadline 毫秒时间戳, 0 表示不限
+     */
+    public ShareLinkInfo setDeadline(long deadline) {
+        this.deadline = deadline;
+        return this;
+    }
+
+    /**
+     * 剩余的解析时间(毫秒), 未设置截止时间时为 {@link Long#MAX_VALUE}
+     */
+    public long remainingMillis() {
+        return deadline == 0 ? Long.MAX_VALUE : Math.max(0, deadline - System.currentTimeMillis());
+    }
+
     // 静态方法创建建造者对象
     public static ShareLinkInfo.Builder newBuilder() {
         return new ShareLinkInfo.Builder();
@@ -114,6 +141,7 @@ public class ShareLinkInfo {
         private String shareUrl;      // 原始分享链接
         private String standardUrl;   // 规范化的标准链接
         private Map<String, Object> otherParam = new HashMap<>();   // 其他参数
+        private long deadline;        // 解析截止时间(毫秒时间戳)
 
         public Builder shareKey(String shareKey) {
             this.shareKey = shareKey;
@@ -150,6 +178,11 @@ public class ShareLinkInfo {
             return this;
         }
 
+        public Builder deadline(long deadline) {
+            this.deadline = deadline;
+            return this;
+        }
+
         public ShareLinkInfo build() {
             return new ShareLinkInfo(this);
         }
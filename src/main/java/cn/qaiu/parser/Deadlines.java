@@ -0,0 +1,59 @@
+package cn.qaiu.parser;
+
+import cn.qaiu.entity.ShareLinkInfo;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 解析截止时间({@link ShareLinkInfo#getDeadline()})
+ * <p>
+ * 截止时间在解析工具创建时传给它的 HTTP 客户端, 每个请求以剩余时间为超时上限, 超时后不再发出新请求;
+ * {@link #bound} 保证解析结果最迟在截止时间到达时以超时失败并取消超时的解析, 不依赖工具自身正确传递失败。
+ * </p>
+ */
+public final class Deadlines {
+
+    private Deadlines() {
+    }
+
+    /**
+     * 截止时间到达时仍未完成的解析以 {@link FailureType#TRANSIENT} 的 {@link ParseFailureException} 失败,
+     * 并取消原解析(中断其进行中的请求); 未设置截止时间时原样返回。
+     * 返回值由 future 派生, 取消返回值同样会取消原解析
+     */
+    public static <T> Future<T> bound(Future<T> future, ShareLinkInfo shareLinkInfo) {
+        long deadline = shareLinkInfo.getDeadline();
+        if (deadline <= 0 || future.isComplete()) {
+            return future;
+        }
+        AtomicReference<ScheduledFuture<?>> timer = new AtomicReference<>();
+        // 按时完成或被取消时撤销计时, 不在事件循环中残留
+        Runnable stop = () -> {
+            ScheduledFuture<?> scheduled = timer.get();
+            if (scheduled != null) {
+                scheduled.cancel(false);
+            }
+        };
+        Future<T> bounded = future.transform(ar -> {
+            stop.run();
+            return ar;
+        });
+        bounded.onCancel(stop);
+        timer.set(Vertx.eventLoops().schedule(() -> {
+                    bounded.fail(new ParseFailureException(
+                            shareLinkInfo.getPanName() + "-" + shareLinkInfo.getType() + ": 解析超时, 已超过截止时间",
+                            FailureType.TRANSIENT));
+                    future.cancel();
+                },
+                Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS));
+        if (bounded.isComplete()) {
+            // 计时登记前已完成
+            stop.run();
+        }
+        return bounded;
+    }
+}
@@ -0,0 +1,78 @@
+package cn.qaiu.parser;
+
+import java.io.IOException;
+import java.util.Locale;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 解析失败的类型
+ * <ul>
+ *     <li>PERMANENT: 分享已删除/失效/过期、提取码错误等, 重试结果不会改变</li>
+ *     <li>TRANSIENT: 网络异常、超时、限流等, 或无法判断的失败, 重试可能成功</li>
+ * </ul>
+ */
+public enum FailureType {
+    PERMANENT,
+    TRANSIENT;
+
+    /**
+     * 出现即视为临时失败, 优先于永久失败的关键字
+     */
+    private static final String[] TRANSIENT_KEYWORDS = {
+            "请求异常", "超时", "繁忙", "频繁", "稍后", "限流", "网络",
+            "timeout", "timed out", "connect", "reset", "too many", "429", "502", "503", "504"
+    };
+
+    private static final String[] PERMANENT_KEYWORDS = {
+            "失效", "过期", "取消分享", "已取消", "删除", "不存在", "未找到文件", "封禁", "违规", "屏蔽",
+            "密码错误", "密码不正确", "提取码错误", "提取码不正确", "需要访问密码", "需要提取码",
+            "expired", "not exist", "deleted", "invalid password", "wrong password"
+    };
+
+    /**
+     * 按失败消息分类, 无法判断时为 TRANSIENT
+     */
+    public static FailureType classify(String message) {
+        if (message == null || message.isEmpty()) {
+            return TRANSIENT;
+        }
+        String text = message.toLowerCase(Locale.ROOT);
+        for (String keyword : TRANSIENT_KEYWORDS) {
+            if (text.contains(keyword)) {
+                return TRANSIENT;
+            }
+        }
+        for (String keyword : PERMANENT_KEYWORDS) {
+            if (text.contains(keyword)) {
+                return PERMANENT;
+            }
+        }
+        return TRANSIENT;
+    }
+
+    /**
+     * 按异常分类: 网络异常为 TRANSIENT, 其余按消息分类
+     */
+    public static FailureType classify(Throwable t, String message) {
+        for (Throwable cause = t; cause != null; cause = cause.getCause()) {
+            if (cause instanceof IOException || cause instanceof TimeoutException) {
+                return TRANSIENT;
+            }
+            if (cause.getCause() == cause) {
+                break;
+            }
+        }
+        return classify(message);
+    }
+
+    /**
+     * 读取失败异常携带的类型, 不是 {@link ParseFailureException} 时为 TRANSIENT
+     */
+    public static FailureType of(Throwable t) {
+        if (t instanceof CompletionException && t.getCause() != null) {
+            t = t.getCause();
+        }
+        return t instanceof ParseFailureException ? ((ParseFailureException) t).getFailureType() : TRANSIENT;
+    }
+}
@@ -0,0 +1,215 @@
+package cn.qaiu.parser;
+
+import cn.qaiu.parser.cache.CacheEntry;
+import cn.qaiu.parser.cache.InMemoryResultCache;
+import cn.qaiu.parser.cache.ResultCache;
+import cn.qaiu.parser.cache.SingleFlight;
+import cn.qaiu.util.HttpResponseHelper;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.client.HttpResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.function.Function;
+
+/**
+ * 自建网盘(通用域名)的程序识别
+ * <p>
+ * 对同一 host 并发发出全部特征请求, 按优先级取第一个肯定结果(优先级更高的探测尚未结束时等待其结果),
+ * 确定后取消其余请求。识别结果按 host 缓存在有界 LRU 中, 同一 host 的后续链接不再探测;
+ * 全部探测都是网络错误时不缓存。同一 host 的并发识别只探测一次。
+ * </p>
+ */
+public final class GenericHostProbe {
+    private static final Logger log = LoggerFactory.getLogger(GenericHostProbe.class);
+
+    /**
+     * 识别结果
+     */
+    public enum Fingerprint {
+        CLOUDREVE_V4,
+        CLOUDREVE_V3,
+        /**
+         * 没有匹配的特征, 交给后续的通用解析器
+         */
+        UNKNOWN
+    }
+
+    /**
+     * 特征请求, 按优先级排列
+     */
+    private static final List<Probe> PROBES = List.of(
+            new Probe(Fingerprint.CLOUDREVE_V4, "/api/v4/site/ping"),
+            new Probe(Fingerprint.CLOUDREVE_V3, "/api/v3/site/ping"));
+
+    public static final Duration DEFAULT_TTL = Duration.ofMinutes(30);
+
+    private static final ResultCache HOSTS = new InMemoryResultCache(InMemoryResultCache.DEFAULT_MAX_ENTRIES);
+
+    private static final SingleFlight<Fingerprint> IN_FLIGHT = new SingleFlight<>();
+
+    private static volatile long ttlMillis = DEFAULT_TTL.toMillis();
+
+    private GenericHostProbe() {
+    }
+
+    /**
+     * 识别 host 上运行的网盘程序
+     *
+     * @param baseUrl 协议 + host(+ 端口), 如 https://pan.example.com
+     * @param get     发送 GET 请求, 由调用方决定使用的客户端(会话、代理)
+     * @return 识别结果, 不会失败
+     */
+    public static Future<Fingerprint> probe(String baseUrl, Function<String, Future<HttpResponse<Buffer>>> get) {
+        CacheEntry cached = HOSTS.get(baseUrl);
+        if (cached != null && !cached.isExpired(System.currentTimeMillis())) {
+            return Future.succeededFuture((Fingerprint) cached.getValue());
+        }
+        return IN_FLIGHT.execute(baseUrl, () -> new Race(baseUrl, get).start());
+    }
+
+    /**
+     * 已缓存的识别结果, 没有时返回 null
+     */
+    public static Fingerprint cached(String baseUrl) {
+        CacheEntry cached = HOSTS.get(baseUrl);
+        return cached == null || cached.isExpired(System.currentTimeMillis()) ? null : (Fingerprint) cached.getValue();
+    }
+
+    public static void invalidate(String baseUrl) {
+        HOSTS.invalidate(baseUrl);
+    }
+
+    public static void clear() {
+        HOSTS.clear();
+    }
+
+    public static void setTtl(Duration ttl) {
+        ttlMillis = ttl.toMillis();
+    }
+
+    private static final class Probe {
+        final Fingerprint fingerprint;
+        final String path;
+
+        Probe(Fingerprint fingerprint, String path) {
+            this.fingerprint = fingerprint;
+            this.path = path;
+        }
+
+        /**
+         * 返回 200 且响应体为非空 JSON 对象
+         */
+        boolean matches(HttpResponse<Buffer> res) {
+            if (res.statusCode() != 200) {
+                return false;
+            }
+            try {
+                JsonObject json = HttpResponseHelper.asJson(res);
+                return json != null && !json.isEmpty();
+            } catch (Exception e) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * 一次并发探测
+     */
+    private static final class Race {
+        private static final int PENDING = 0;
+        private static final int NEGATIVE = 1;
+        private static final int POSITIVE = 2;
+        private static final int ERROR = 3;
+
+        private final String baseUrl;
+        private final Function<String, Future<HttpResponse<Buffer>>> get;
+        private final int[] states = new int[PROBES.size()];
+        private final List<Future<HttpResponse<Buffer>>> requests = new ArrayList<>(Collections.nCopies(PROBES.size(), null));
+        private final Promise<Fingerprint> promise = Promise.promise();
+        private boolean decided;
+
+        Race(String baseUrl, Function<String, Future<HttpResponse<Buffer>>> get) {
+            this.baseUrl = baseUrl;
+            this.get = get;
+        }
+
+        Future<Fingerprint> start() {
+            for (int i = 0; i < PROBES.size(); i++) {
+                synchronized (this) {
+                    if (decided) {
+                        break;
+                    }
+                }
+                Future<HttpResponse<Buffer>> request;
+                try {
+                    request = get.apply(baseUrl + PROBES.get(i).path);
+                } catch (Exception e) {
+                    request = Future.failedFuture(e);
+                }
+                synchronized (this) {
+                    requests.set(i, request);
+                }
+                int index = i;
+                request.onComplete(ar -> {
+                    int state;
+                    if (ar.failed()) {
+                        state = ERROR;
+                    } else {
+                        state = PROBES.get(index).matches(ar.result()) ? POSITIVE : NEGATIVE;
+                    }
+                    onResult(index, state);
+                });
+            }
+            return promise.future();
+        }
+
+        private void onResult(int index, int state) {
+            Fingerprint result = null;
+            boolean cache = false;
+            synchronized (this) {
+                if (decided) {
+                    return;
+                }
+                states[index] = state;
+                boolean responded = false;
+                boolean pending = false;
+                for (int i = 0; i < states.length && result == null; i++) {
+                    if (states[i] == POSITIVE && !pending) {
+                        result = PROBES.get(i).fingerprint;
+                        cache = true;
+                    }
+                    pending |= states[i] == PENDING;
+                    responded |= states[i] == NEGATIVE || states[i] == POSITIVE;
+                }
+                if (result == null && !pending) {
+                    result = Fingerprint.UNKNOWN;
+                    // 全部是网络错误时可能是暂时不可达, 不缓存
+                    cache = responded;
+                }
+                if (result == null) {
+                    return;
+                }
+                decided = true;
+            }
+            for (Future<HttpResponse<Buffer>> request : requests) {
+                if (request != null && !request.isComplete()) {
+                    request.fail(new CancellationException("已识别为 " + result));
+                }
+            }
+            if (cache) {
+                HOSTS.put(baseUrl, new CacheEntry(result, null, System.currentTimeMillis() + ttlMillis));
+            }
+            log.debug("通用域名识别: {} -> {}", baseUrl, result);
+            promise.complete(result);
+        }
+    }
+}
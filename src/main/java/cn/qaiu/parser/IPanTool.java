@@ -6,10 +6,18 @@ import cn.qaiu.parser.clientlink.ClientLinkGeneratorFactory;
 import cn.qaiu.parser.clientlink.ClientLinkType;
 import io.vertx.core.Future;
 import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
 
 import java.util.List;
 import java.util.Map;
 
+/**
+ * 网盘解析工具
+ * <p>
+ * 同步方法(xxxSync)阻塞当前线程等待结果, 不能在事件循环线程上调用: HTTP 回调会回到发起请求的事件循环执行,
+ * 阻塞它会导致死锁, 此时直接抛出 {@link IllegalStateException}。事件循环上请使用异步方法。
+ * </p>
+ */
 public interface IPanTool {
 
     /**
@@ -18,7 +26,11 @@ public interface IPanTool {
      */
     Future<String> parse();
 
+    /**
+     * 同步解析, 不能在事件循环线程上调用
+     */
     default String parseSync() {
+        checkNotOnEventLoop();
         try {
             return parse().toCompletionStage().toCompletableFuture().join();
         } catch (Exception e) {
@@ -40,7 +52,11 @@ public interface IPanTool {
         return promise.future();
     }
 
+    /**
+     * 同步解析文件列表, 不能在事件循环线程上调用
+     */
     default List<FileInfo> parseFileListSync() {
+        checkNotOnEventLoop();
         try {
             return parseFileList().toCompletionStage().toCompletableFuture().join();
         } catch (Exception e) {
@@ -62,7 +78,11 @@ public interface IPanTool {
         return promise.future();
     }
 
+    /**
+     * 同步获取下载链接, 不能在事件循环线程上调用
+     */
     default String parseByIdSync() {
+        checkNotOnEventLoop();
         try {
             return parseById().toCompletionStage().toCompletableFuture().join();
         } catch (Exception e) {
@@ -146,10 +166,11 @@ public interface IPanTool {
     }
 
     /**
-     * 解析文件并生成客户端下载链接（同步版本）
+     * 解析文件并生成客户端下载链接（同步版本）, 不能在事件循环线程上调用
      * @return Map<ClientLinkType, String> 客户端下载链接集合
      */
     default Map<ClientLinkType, String> parseWithClientLinksSync() {
+        checkNotOnEventLoop();
         try {
             return parseWithClientLinks().toCompletionStage().toCompletableFuture().join();
         } catch (Exception e) {
@@ -169,4 +190,14 @@ public interface IPanTool {
     default ShareLinkInfo getShareLinkInfo() {
         return null;
     }
+
+    /**
+     * 同步等待前检查: 事件循环线程上阻塞等待会使 HTTP 回调无法执行
+     */
+    private static void checkNotOnEventLoop() {
+        if (Vertx.eventLoops().inEventLoop()) {
+            throw new IllegalStateException("不能在事件循环线程上同步等待解析结果: " + Thread.currentThread().getName()
+                    + ", 请使用异步方法");
+        }
+    }
 }
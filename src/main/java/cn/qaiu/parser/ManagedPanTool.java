@@ -0,0 +1,71 @@
+package cn.qaiu.parser;
+
+import cn.qaiu.entity.FileInfo;
+import cn.qaiu.entity.ShareLinkInfo;
+import cn.qaiu.parser.breaker.CircuitBreakers;
+import cn.qaiu.parser.cache.ParseCoordinator;
+import cn.qaiu.parser.cache.ParseCoordinator.Operation;
+import io.vertx.core.Future;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * 经 {@link ParseCoordinator} 协调的解析工具
+ * <p>
+ * 相同分享链接的并发解析只执行一次, 所有调用方得到同一结果。实际的解析工具延迟创建,
+ * 作为 follower 复用他人结果时不会实例化。实际解析在所属网盘的熔断器({@link CircuitBreakers})保护下执行,
+ * 网盘不可用期间快速失败。通过 {@link ParserCreate#createManagedTool()} 获取。
+ * </p>
+ */
+public class ManagedPanTool implements IPanTool {
+
+    private final ShareLinkInfo shareLinkInfo;
+    private final Supplier<IPanTool> factory;
+    private final ParseCoordinator coordinator;
+    private IPanTool delegate;
+
+    public ManagedPanTool(ShareLinkInfo shareLinkInfo, Supplier<IPanTool> factory, ParseCoordinator coordinator) {
+        this.shareLinkInfo = shareLinkInfo;
+        this.factory = factory;
+        this.coordinator = coordinator;
+    }
+
+    @Override
+    public Future<String> parse() {
+        return coordinator.execute(Operation.PARSE, shareLinkInfo, () -> guarded(() -> delegate().parse()));
+    }
+
+    @Override
+    public Future<List<FileInfo>> parseFileList() {
+        return coordinator.execute(Operation.FILE_LIST, shareLinkInfo, () -> guarded(() -> delegate().parseFileList()));
+    }
+
+    @Override
+    public Future<String> parseById() {
+        return coordinator.execute(Operation.BY_ID, shareLinkInfo, () -> guarded(() -> delegate().parseById()));
+    }
+
+    /**
+     * 在网盘的熔断器保护下执行实际解析, 命中缓存和复用他人结果时不经过熔断器;
+     * 超过截止时间计为一次失败
+     */
+    private <T> Future<T> guarded(Supplier<Future<T>> task) {
+        return CircuitBreakers.forShareLink(shareLinkInfo).execute(() -> Deadlines.bound(task.get(), shareLinkInfo));
+    }
+
+    @Override
+    public ShareLinkInfo getShareLinkInfo() {
+        return shareLinkInfo;
+    }
+
+    /**
+     * 实际的解析工具, 首次使用时创建
+     */
+    public synchronized IPanTool delegate() {
+        if (delegate == null) {
+            delegate = factory.get();
+        }
+        return delegate;
+    }
+}
@@ -2,19 +2,21 @@ package cn.qaiu.parser;
 
 import cn.qaiu.WebClientVertxInit;
 import cn.qaiu.entity.ShareLinkInfo;
+import cn.qaiu.parser.ratelimit.PanRateLimiter;
+import cn.qaiu.parser.ratelimit.PanRateLimits;
 import cn.qaiu.util.HttpResponseHelper;
+import io.vertx.core.CancellationToken;
 import io.vertx.core.Future;
 import io.vertx.core.Handler;
 import io.vertx.core.MultiMap;
 import io.vertx.core.Promise;
 import io.vertx.core.json.JsonObject;
 import io.vertx.core.net.ProxyOptions;
-import io.vertx.core.net.ProxyType;
+import io.vertx.ext.web.client.HedgePolicy;
 import io.vertx.ext.web.client.HttpResponse;
 import io.vertx.ext.web.client.WebClient;
 import io.vertx.ext.web.client.WebClientOptions;
 import io.vertx.ext.web.client.WebClientSession;
-import cn.qaiu.util.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -35,6 +37,11 @@ public abstract class PanBase implements IPanTool {
 
     protected Promise<String> promise = Promise.promise();
 
+    /**
+     * 随 promise 取消而取消, 解析中发出的请求都挂载此令牌: 取消后进行中的请求被中断, 后续请求直接失败
+     */
+    protected final CancellationToken cancellation = CancellationToken.of(promise.future());
+
     /**
      * Http client
      */
@@ -42,9 +49,9 @@ public abstract class PanBase implements IPanTool {
             new WebClientOptions());
 
     /**
-     * Http client session (会话管理, 带cookie请求)
+     * Http client session (会话管理, 带cookie请求), 在 client 确定后由构造方法创建
      */
-    protected WebClientSession clientSession = WebClientSession.create(client);
+    protected WebClientSession clientSession;
 
     /**
      * Http client 不自动跳转
@@ -73,32 +80,31 @@ public abstract class PanBase implements IPanTool {
      */
     public PanBase(ShareLinkInfo shareLinkInfo) {
         this.shareLinkInfo = shareLinkInfo;
-        if (shareLinkInfo.getOtherParam().containsKey("proxy")) {
-            JsonObject proxy = (JsonObject) shareLinkInfo.getOtherParam().get("proxy");
-            ProxyOptions proxyOptions = new ProxyOptions()
-                    .setType(ProxyType.valueOf(proxy.getString("type").toUpperCase()))
-                    .setHost(proxy.getString("host"))
-                    .setPort(proxy.getInteger("port"));
-            if (StringUtils.isNotEmpty(proxy.getString("username"))) {
-                proxyOptions.setUsername(proxy.getString("username"));
-            }
-            if (StringUtils.isNotEmpty(proxy.getString("password"))) {
-                proxyOptions.setPassword(proxy.getString("password"));
-            }
+        ProxyOptions proxyOptions = ParseContext.proxyOptions(shareLinkInfo);
+        if (proxyOptions != null) {
             this.client = WebClient.create(WebClientVertxInit.get(),
                     new WebClientOptions()
                             .setUserAgentEnabled(false)
                             .setProxyOptions(proxyOptions));
-
-            this.clientSession = WebClientSession.create(client);
             this.clientNoRedirects = WebClient.create(WebClientVertxInit.get(),
                     new WebClientOptions().setFollowRedirects(false)
                             .setUserAgentEnabled(false)
                             .setProxyOptions(proxyOptions));
         }
+        PanRateLimiter rateLimiter = PanRateLimits.limiter(shareLinkInfo.getType());
+        HedgePolicy hedgePolicy = PanHedging.policy(shareLinkInfo.getType());
+        long deadline = shareLinkInfo.getDeadline();
+        this.client = client.withThrottle(rateLimiter).withHedging(hedgePolicy).withDeadline(deadline)
+                .withCancellation(cancellation);
+        this.clientSession = WebClientSession.create(client);
+        this.clientNoRedirects = clientNoRedirects.withThrottle(rateLimiter).withHedging(hedgePolicy)
+                .withDeadline(deadline).withCancellation(cancellation);
+        this.clientDisableUA = clientDisableUA.withThrottle(rateLimiter).withHedging(hedgePolicy)
+                .withDeadline(deadline).withCancellation(cancellation);
     }
 
     protected PanBase() {
+        this.clientSession = WebClientSession.create(client);
     }
 
     protected String baseMsg() {
@@ -121,12 +127,13 @@ public abstract class PanBase implements IPanTool {
         try {
             // 判断是否已经完成
             if (promise.future().isComplete()) {
-                log.warn("Promise 已经完成, 无法再次失败: {}, {}", errorMsg, promise.future().cause());
+                logAlreadyComplete(errorMsg);
                 return;
             }
             String s = String.format(errorMsg.replaceAll("\\{}", "%s"), args);
             log.error("解析异常: " + s, t.fillInStackTrace());
-            promise.fail(baseMsg() + ": 解析异常: " + s + " -> " + t);
+            promise.fail(new ParseFailureException(baseMsg() + ": 解析异常: " + s + " -> " + t,
+                    FailureType.classify(t, s + " " + t.getMessage())));
         } catch (Exception e) {
             log.error("ErrorMsg format fail. The parameter has been discarded", e);
             log.error("解析异常: " + errorMsg, t.fillInStackTrace());
@@ -134,7 +141,8 @@ public abstract class PanBase implements IPanTool {
                 log.warn("ErrorMsg format. Promise 已经完成, 无法再次失败: {}", errorMsg);
                 return;
             }
-            promise.fail(baseMsg() + ": 解析异常: " + errorMsg + " -> " + t);
+            promise.fail(new ParseFailureException(baseMsg() + ": 解析异常: " + errorMsg + " -> " + t,
+                    FailureType.classify(t, errorMsg + " " + t.getMessage())));
         }
     }
 
@@ -148,18 +156,18 @@ public abstract class PanBase implements IPanTool {
         try {
             // 判断是否已经完成
             if (promise.future().isComplete()) {
-                log.warn("Promise 已经完成, 无法再次失败: {}, {}", errorMsg, promise.future().cause());
+                logAlreadyComplete(errorMsg);
                 return;
             }
             String s = String.format(errorMsg.replaceAll("\\{}", "%s"), args);
-            promise.fail(baseMsg() + " - 解析异常: " + s);
+            promise.fail(new ParseFailureException(baseMsg() + " - 解析异常: " + s, classify(s, args)));
         } catch (Exception e) {
             if (promise.future().isComplete()) {
                 log.warn("ErrorMsg format. Promise 已经完成, 无法再次失败: {}", errorMsg);
                 return;
             }
             log.error("ErrorMsg format fail. The parameter has been discarded", e);
-            promise.fail(baseMsg() + " - 解析异常: " + errorMsg);
+            promise.fail(new ParseFailureException(baseMsg() + " - 解析异常: " + errorMsg, classify(errorMsg, args)));
         }
     }
 
@@ -167,6 +175,31 @@ public abstract class PanBase implements IPanTool {
         fail("");
     }
 
+    /**
+     * 结果已确定后的失败: 解析被取消时, 进行中的请求以取消失败属于预期, 不告警
+     */
+    private void logAlreadyComplete(String errorMsg) {
+        if (promise.future().isCancelled()) {
+            log.debug("解析已取消, 忽略失败: {}", errorMsg);
+        } else {
+            log.warn("Promise 已经完成, 无法再次失败: {}, {}", errorMsg, promise.future().cause());
+        }
+    }
+
+    /**
+     * 失败分类: 参数中带有异常(如 {@link #handleFail})时按异常判断, 否则按消息判断
+     */
+    static FailureType classify(String message, Object... args) {
+        if (args != null) {
+            for (Object arg : args) {
+                if (arg instanceof Throwable) {
+                    return FailureType.classify((Throwable) arg, message);
+                }
+            }
+        }
+        return FailureType.classify(message);
+    }
+
     /**
      * 生成失败Future的处理器
      *
@@ -249,17 +282,10 @@ public abstract class PanBase implements IPanTool {
                 if (iterator.hasNext()) {
                     PanDomainTemplate next = iterator.next();
                     log.debug("规则不匹配, 处理解析器转发: {} -> {}", shareLinkInfo.getPanName(), next.getDisplayName());
-                    ParserCreate.fromType(next.name())
+                    delegateTo(ParserCreate.fromType(next.name())
                             .fromAnyShareUrl(shareLinkInfo.getShareUrl())
                             .createTool()
-                            .parse()
-                            .onComplete(result -> {
-                                if (result.succeeded()) {
-                                    promise.complete(result.result());
-                                } else {
-                                    promise.fail(result.cause());
-                                }
-                            });
+                            .parse());
                 } else {
                     fail("error: 没有下一个解析处理器");
                 }
@@ -267,6 +293,21 @@ public abstract class PanBase implements IPanTool {
         }
     }
 
+    /**
+     * 上报业务层面的限流(接口返回 200 但业务码表示请求过于频繁), 降低对该主机的请求速率
+     */
+    protected void reportThrottled(String host) {
+        PanRateLimits.reportThrottled(shareLinkInfo.getType(), host, 0);
+    }
+
+    /**
+     * 以其他解析器的结果作为本次结果; 本次解析被取消时一并取消转发的解析
+     */
+    protected void delegateTo(Future<String> delegate) {
+        promise.future().onCancel(delegate::cancel);
+        delegate.onComplete(promise::handle);
+    }
+
     protected String getDomainName(){
         return shareLinkInfo.getOtherParam().getOrDefault("domainName", "").toString();
     }
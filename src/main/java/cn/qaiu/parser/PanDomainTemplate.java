@@ -1,9 +1,13 @@
 package cn.qaiu.parser;
 
+import cn.qaiu.entity.ShareLinkInfo;
 import cn.qaiu.parser.impl.*;
+import cn.qaiu.parser.ratelimit.RateLimit;
 
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.time.Duration;
+import java.util.function.Function;
 import java.util.regex.Pattern;
 
 import static java.util.regex.Pattern.compile;
@@ -372,6 +376,9 @@ public enum PanDomainTemplate {
     // 指向解析工具IPanTool实现类
     private final Class<? extends IPanTool> toolClass;
 
+    // 枚举初始化时解析好的工具构造器
+    private final Function<ShareLinkInfo, IPanTool> toolFactory;
+
     PanDomainTemplate(String displayName, Pattern pattern, String standardUrlTemplate,
                       Class<? extends IPanTool> toolClass) {
         this.displayName = displayName;
@@ -379,6 +386,7 @@ public enum PanDomainTemplate {
         this.regex = pattern.pattern();
         this.standardUrlTemplate = standardUrlTemplate;
         this.toolClass = toolClass;
+        this.toolFactory = ToolFactories.forClass(toolClass);
     }
 
     PanDomainTemplate(String displayName, Pattern pattern, String standardUrlTemplate, String panDomain,
@@ -389,6 +397,7 @@ public enum PanDomainTemplate {
         this.standardUrlTemplate = standardUrlTemplate;
         this.panDomain = panDomain;
         this.toolClass = toolClass;
+        this.toolFactory = ToolFactories.forClass(toolClass);
     }
 
     public String getDisplayName() {
@@ -411,6 +420,39 @@ public enum PanDomainTemplate {
         return toolClass;
     }
 
+    /**
+     * 工具工厂, 创建解析工具时不经过反射
+     */
+    public Function<ShareLinkInfo, IPanTool> getToolFactory() {
+        return toolFactory;
+    }
+
+    /**
+     * 解析结果的默认缓存时长, 直链本身带有过期时间时取两者较小值
+     */
+    public Duration getCacheTtl() {
+        return switch (this) {
+            // 直链有效期短或与请求IP/Cookie绑定
+            case QQ, QQW, QQSC, YE, P115, UC, QK, MQQS, MQQ, MKGS, MKGS2, MKG, MKWS, MMGS -> Duration.ofMinutes(5);
+            // 自建网盘, 站点不确定
+            case CE, KD, OTHER -> Duration.ofMinutes(5);
+            case POD, PGD, PIC, PDB -> Duration.ofMinutes(30);
+            default -> Duration.ofMinutes(10);
+        };
+    }
+
+    /**
+     * 默认的请求限速, 按主机分别计数; null 表示不限速
+     */
+    public RateLimit getRateLimit() {
+        return switch (this) {
+            // 突发请求容易触发限流或封禁
+            case YE, QK, UC -> RateLimit.of(5, 10);
+            case LZ, IZ -> RateLimit.of(8, 16);
+            default -> null;
+        };
+    }
+
     public String getPanDomain() {
         if (panDomain == null) {
             String url = standardUrlTemplate
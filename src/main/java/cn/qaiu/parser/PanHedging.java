@@ -0,0 +1,60 @@
+package cn.qaiu.parser;
+
+import io.vertx.ext.web.client.HedgePolicy;
+
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 按网盘类型管理对冲请求策略
+ * <p>
+ * 默认不对冲。为某个网盘类型注册 {@link HedgePolicy} 后, 之后创建的解析工具发出的 GET/HEAD 请求
+ * 超过策略给出的延迟仍未返回时, 会再发一个相同的请求, 先返回的作为结果。
+ * 策略上的计数可用于观察对冲触发和胜出的频率。
+ * </p>
+ */
+public final class PanHedging {
+
+    private static final Map<String, HedgePolicy> POLICIES = new ConcurrentHashMap<>();
+
+    private PanHedging() {
+    }
+
+    /**
+     * 为网盘类型注册对冲策略, 传入 null 时移除
+     */
+    public static void register(String type, HedgePolicy policy) {
+        if (policy == null) {
+            remove(type);
+            return;
+        }
+        POLICIES.put(type.toLowerCase(Locale.ROOT), policy);
+    }
+
+    /**
+     * 获取网盘类型的对冲策略, 未注册时返回 null
+     */
+    public static HedgePolicy policy(String type) {
+        if (type == null || POLICIES.isEmpty()) {
+            return null;
+        }
+        return POLICIES.get(type.toLowerCase(Locale.ROOT));
+    }
+
+    public static HedgePolicy remove(String type) {
+        return POLICIES.remove(type.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * 已注册的全部策略(只读视图)
+     */
+    public static Map<String, HedgePolicy> policies() {
+        return Collections.unmodifiableMap(POLICIES);
+    }
+
+    public static void clear() {
+        POLICIES.clear();
+    }
+}
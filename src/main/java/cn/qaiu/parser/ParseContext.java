@@ -0,0 +1,232 @@
+package cn.qaiu.parser;
+
+import cn.qaiu.entity.ShareLinkInfo;
+import cn.qaiu.parser.ratelimit.PanRateLimiter;
+import cn.qaiu.parser.ratelimit.PanRateLimits;
+import cn.qaiu.util.StringUtils;
+import io.vertx.core.CancellationToken;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Promise;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.net.ProxyOptions;
+import io.vertx.core.net.ProxyType;
+import io.vertx.ext.web.client.HedgePolicy;
+import io.vertx.ext.web.client.WebClient;
+import io.vertx.ext.web.client.WebClientOptions;
+import io.vertx.ext.web.client.WebClientSession;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 单次解析的上下文, 供 {@link SharedPanTool} 使用
+ * <p>
+ * 持有本次解析的分享信息和结果 promise。无代理时 HTTP 客户端为全局共享实例的轻量包装(挂载本次解析的截止时间和取消令牌),
+ * 带 Cookie 的会话在首次使用时才创建, 不需要会话的解析不产生额外开销。
+ * 结果方法(complete/fail/handleFail)与 {@link PanBase} 中的同名方法一致。
+ * </p>
+ */
+public class ParseContext {
+    private static final Logger log = LoggerFactory.getLogger(ParseContext.class);
+
+    private static final WebClient SHARED_CLIENT = WebClient.create(new WebClientOptions());
+
+    private static final WebClient SHARED_CLIENT_NO_REDIRECTS = WebClient.create(new WebClientOptions().setFollowRedirects(false));
+
+    private static final WebClient SHARED_CLIENT_DISABLE_UA = WebClient.create(new WebClientOptions().setUserAgentEnabled(false));
+
+    private static final WebClient[] SHARED_CLIENTS =
+            {SHARED_CLIENT, SHARED_CLIENT_NO_REDIRECTS, SHARED_CLIENT_DISABLE_UA};
+
+    /**
+     * 挂载了限速器或对冲策略的共享客户端, 按 [限速器, 对冲策略] 缓存
+     */
+    private static final Map<List<Object>, WebClient[]> THROTTLED_SHARED_CLIENTS = new ConcurrentHashMap<>();
+
+    private final ShareLinkInfo shareLinkInfo;
+    private final Promise<String> promise = Promise.promise();
+    /**
+     * 随 {@link #future()} 取消而取消, 本次解析的客户端都挂载此令牌
+     */
+    private final CancellationToken cancellation = CancellationToken.of(promise.future());
+    private final WebClient client;
+    private final WebClient clientNoRedirects;
+    private final WebClient clientDisableUA;
+    private WebClientSession clientSession;
+
+    public ParseContext(ShareLinkInfo shareLinkInfo) {
+        this.shareLinkInfo = shareLinkInfo;
+        PanRateLimiter rateLimiter = PanRateLimits.limiter(shareLinkInfo.getType());
+        HedgePolicy hedgePolicy = PanHedging.policy(shareLinkInfo.getType());
+        ProxyOptions proxyOptions = proxyOptions(shareLinkInfo);
+        if (proxyOptions == null) {
+            WebClient[] shared = rateLimiter == null && hedgePolicy == null ? SHARED_CLIENTS
+                    : THROTTLED_SHARED_CLIENTS.computeIfAbsent(Arrays.asList(rateLimiter, hedgePolicy),
+                    key -> throttled(rateLimiter, hedgePolicy));
+            long deadline = shareLinkInfo.getDeadline();
+            this.client = shared[0].withDeadline(deadline).withCancellation(cancellation);
+            this.clientNoRedirects = shared[1].withDeadline(deadline).withCancellation(cancellation);
+            this.clientDisableUA = shared[2].withDeadline(deadline).withCancellation(cancellation);
+        } else {
+            this.client = WebClient.create(new WebClientOptions()
+                            .setUserAgentEnabled(false)
+                            .setProxyOptions(proxyOptions))
+                    .withThrottle(rateLimiter)
+                    .withHedging(hedgePolicy)
+                    .withDeadline(shareLinkInfo.getDeadline())
+                    .withCancellation(cancellation);
+            this.clientNoRedirects = WebClient.create(new WebClientOptions()
+                            .setFollowRedirects(false)
+                            .setUserAgentEnabled(false)
+                            .setProxyOptions(proxyOptions))
+                    .withThrottle(rateLimiter)
+                    .withHedging(hedgePolicy)
+                    .withDeadline(shareLinkInfo.getDeadline())
+                    .withCancellation(cancellation);
+            this.clientDisableUA = client;
+        }
+    }
+
+    private static WebClient[] throttled(PanRateLimiter rateLimiter, HedgePolicy hedgePolicy) {
+        WebClient[] clients = new WebClient[SHARED_CLIENTS.length];
+        for (int i = 0; i < clients.length; i++) {
+            clients[i] = SHARED_CLIENTS[i].withThrottle(rateLimiter).withHedging(hedgePolicy);
+        }
+        return clients;
+    }
+
+    /**
+     * 从 otherParam 的 proxy 参数生成代理配置, 未配置时返回 null
+     */
+    static ProxyOptions proxyOptions(ShareLinkInfo shareLinkInfo) {
+        if (!shareLinkInfo.getOtherParam().containsKey("proxy")) {
+            return null;
+        }
+        JsonObject proxy = (JsonObject) shareLinkInfo.getOtherParam().get("proxy");
+        ProxyOptions proxyOptions = new ProxyOptions()
+                .setType(ProxyType.valueOf(proxy.getString("type").toUpperCase()))
+                .setHost(proxy.getString("host"))
+                .setPort(proxy.getInteger("port"));
+        if (StringUtils.isNotEmpty(proxy.getString("username"))) {
+            proxyOptions.setUsername(proxy.getString("username"));
+        }
+        if (StringUtils.isNotEmpty(proxy.getString("password"))) {
+            proxyOptions.setPassword(proxy.getString("password"));
+        }
+        return proxyOptions;
+    }
+
+    public ShareLinkInfo getShareLinkInfo() {
+        return shareLinkInfo;
+    }
+
+    public WebClient client() {
+        return client;
+    }
+
+    /**
+     * 不自动跳转的客户端
+     */
+    public WebClient clientNoRedirects() {
+        return clientNoRedirects;
+    }
+
+    /**
+     * 不发送 User-Agent 头的客户端, 使用代理时与 {@link #client()} 相同
+     */
+    public WebClient clientDisableUA() {
+        return clientDisableUA;
+    }
+
+    /**
+     * 本次解析独享的 Cookie 会话, 首次调用时创建
+     */
+    public WebClientSession clientSession() {
+        if (clientSession == null) {
+            clientSession = WebClientSession.create(client);
+        }
+        return clientSession;
+    }
+
+    public Future<String> future() {
+        return promise.future();
+    }
+
+    /**
+     * 本次解析的取消令牌, 供不经过 {@link #client()} 的异步操作登记取消动作
+     */
+    public CancellationToken cancellation() {
+        return cancellation;
+    }
+
+    public String baseMsg() {
+        if (shareLinkInfo.getShareUrl() != null) {
+            return shareLinkInfo.getPanName() + "-" + shareLinkInfo.getType() + ": url=" + shareLinkInfo.getShareUrl();
+        }
+        return shareLinkInfo.getPanName() + "-" + shareLinkInfo.getType() + ": key=" + shareLinkInfo.getShareKey() +
+                ";pwd=" + shareLinkInfo.getSharePassword();
+    }
+
+    public void complete(String url) {
+        shareLinkInfo.getOtherParam().put("downloadUrl", url);
+        promise.complete(url);
+    }
+
+    /**
+     * 完成解析并存储下载请求头
+     */
+    public void completeWithMeta(String url, Map<String, String> headers) {
+        shareLinkInfo.getOtherParam().put("downloadUrl", url);
+        if (headers != null && !headers.isEmpty()) {
+            shareLinkInfo.getOtherParam().put("downloadHeaders", headers);
+        }
+        promise.complete(url);
+    }
+
+    /**
+     * 失败, 消息中的 {} 依次替换为 args
+     */
+    public void fail(String errorMsg, Object... args) {
+        if (promise.future().isComplete()) {
+            if (promise.future().isCancelled()) {
+                log.debug("解析已取消, 忽略失败: {}", errorMsg);
+            } else {
+                log.warn("Promise 已经完成, 无法再次失败: {}", errorMsg);
+            }
+            return;
+        }
+        String s;
+        try {
+            s = String.format(errorMsg.replaceAll("\\{}", "%s"), args);
+        } catch (Exception e) {
+            log.error("ErrorMsg format fail. The parameter has been discarded", e);
+            s = errorMsg;
+        }
+        promise.fail(new ParseFailureException(baseMsg() + " - 解析异常: " + s, PanBase.classify(s, args)));
+    }
+
+    public void fail(Throwable t, String errorMsg, Object... args) {
+        fail(errorMsg + " -> {}", append(args, t));
+    }
+
+    /**
+     * 生成失败Future的处理器
+     */
+    public Handler<Throwable> handleFail(String errorMsg) {
+        return t -> fail("请求异常 {}: -> {}", errorMsg, t);
+    }
+
+    private static Object[] append(Object[] args, Object last) {
+        Object[] all = new Object[(args == null ? 0 : args.length) + 1];
+        if (args != null) {
+            System.arraycopy(args, 0, all, 0, args.length);
+        }
+        all[all.length - 1] = last;
+        return all;
+    }
+}
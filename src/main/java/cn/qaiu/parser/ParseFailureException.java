@@ -0,0 +1,24 @@
+package cn.qaiu.parser;
+
+/**
+ * 解析失败异常, 由 {@link PanBase} 的 fail 方法生成, 携带 {@link FailureType}
+ */
+public class ParseFailureException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final FailureType failureType;
+
+    public ParseFailureException(String message, FailureType failureType) {
+        super(message);
+        this.failureType = failureType;
+    }
+
+    public FailureType getFailureType() {
+        return failureType;
+    }
+
+    public boolean isPermanent() {
+        return failureType == FailureType.PERMANENT;
+    }
+}
@@ -1,6 +1,7 @@
 package cn.qaiu.parser;
 
 import cn.qaiu.entity.ShareLinkInfo;
+import cn.qaiu.parser.cache.ParseCoordinator;
 import cn.qaiu.parser.custom.CustomParserConfig;
 import cn.qaiu.parser.custom.CustomParserRegistry;
 import cn.qaiu.parser.customjs.JsParserExecutor;
@@ -152,19 +153,16 @@ public class ParserCreate {
         
         // 自定义解析器处理
         if (isCustomParser) {
+            SharedPanTool sharedTool = SharedPanTools.get(shareLinkInfo.getType());
+            if (sharedTool != null) {
+                return SharedPanTools.bind(sharedTool, shareLinkInfo);
+            }
             // 检查是否为JavaScript解析器
             if (customParserConfig.isJsParser()) {
                 return new JsParserExecutor(shareLinkInfo, customParserConfig);
             } else {
                 // Java实现的解析器
-                try {
-                    return this.customParserConfig.getToolClass()
-                            .getDeclaredConstructor(ShareLinkInfo.class)
-                            .newInstance(shareLinkInfo);
-                } catch (Exception e) {
-                    throw new RuntimeException("无法创建自定义工具实例: " + 
-                            customParserConfig.getToolClass().getName(), e);
-                }
+                return this.customParserConfig.getToolFactory().apply(shareLinkInfo);
             }
         }
         
@@ -172,13 +170,28 @@ public class ParserCreate {
         if (StringUtils.isEmpty(shareLinkInfo.getShareKey())) {
             this.normalizeShareLink();
         }
-        try {
-            return this.panDomainTemplate.getToolClass()
-                    .getDeclaredConstructor(ShareLinkInfo.class)
-                    .newInstance(shareLinkInfo);
-        } catch (Exception e) {
-            throw new RuntimeException("无法创建工具实例: " + panDomainTemplate.getToolClass().getName(), e);
+        SharedPanTool sharedTool = SharedPanTools.get(shareLinkInfo.getType());
+        if (sharedTool == null) {
+            sharedTool = SharedPanTools.builtIn(panDomainTemplate);
+        }
+        if (sharedTool != null) {
+            return SharedPanTools.bind(sharedTool, shareLinkInfo);
         }
+        return this.panDomainTemplate.getToolFactory().apply(shareLinkInfo);
+    }
+
+    /**
+     * 创建经 {@link ParseCoordinator} 协调的解析工具, 相同分享链接的并发解析只执行一次
+     */
+    public IPanTool createManagedTool() {
+        if (shareLinkInfo == null || StringUtils.isEmpty(shareLinkInfo.getType())) {
+            throw new IllegalArgumentException("ShareLinkInfo not init or type is empty");
+        }
+        // 合并键依赖 shareKey, 需要在创建工具之前完成规范化
+        if (!isCustomParser && StringUtils.isEmpty(shareLinkInfo.getShareKey())) {
+            this.normalizeShareLink();
+        }
+        return new ManagedPanTool(shareLinkInfo, this::createTool, ParseCoordinator.getInstance());
     }
 
     // set share key
@@ -248,69 +261,67 @@ public class ParserCreate {
     }
 
     // 根据分享链接获取PanDomainTemplate实例（优先匹配自定义解析器）
-    public synchronized static ParserCreate fromShareUrl(String shareUrl) {
-        // 优先查找支持正则匹配的自定义解析器
-        for (CustomParserConfig customConfig : CustomParserRegistry.getAll().values()) {
-            if (customConfig.supportsFromShareUrl()) {
-                Matcher matcher = customConfig.getMatchPattern().matcher(shareUrl);
-                if (matcher.matches()) {
-                    ShareLinkInfo shareLinkInfo = ShareLinkInfo.newBuilder()
-                            .type(customConfig.getType())
-                            .panName(customConfig.getDisplayName())
-                            .shareUrl(shareUrl)
-                            .build();
-                    
-                    // 提取分享键和密码
-                    try {
-                        String shareKey = matcher.group("KEY");
-                        if (shareKey != null) {
-                            shareLinkInfo.setShareKey(shareKey);
-                        }
-                    } catch (Exception ignored) {}
-                    
-                    try {
-                        String password = matcher.group("PWD");
-                        if (password != null) {
-                            shareLinkInfo.setSharePassword(password);
-                        }
-                    } catch (Exception ignored) {}
-                    
-                    // 设置标准URL（如果有模板）
-                    if (customConfig.getStandardUrlTemplate() != null) {
-                        String standardUrl = customConfig.getStandardUrlTemplate()
-                                .replace("{shareKey}", shareLinkInfo.getShareKey() != null ? shareLinkInfo.getShareKey() : "");
-                        
-                        // 处理密码替换
-                        if (shareLinkInfo.getSharePassword() != null && !shareLinkInfo.getSharePassword().isEmpty()) {
-                            standardUrl = standardUrl.replace("{pwd}", shareLinkInfo.getSharePassword());
-                        } else {
-                            // 如果密码为空，移除包含 {pwd} 的部分
-                            standardUrl = standardUrl.replaceAll("\\?pwd=\\{pwd\\}", "").replaceAll("&pwd=\\{pwd\\}", "");
-                        }
-                        
-                        shareLinkInfo.setStandardUrl(standardUrl);
-                    }
-                    
-                    return new ParserCreate(customConfig, shareLinkInfo);
-                }
+    public static ParserCreate fromShareUrl(String shareUrl) {
+        return ShareUrlDispatcher.current().dispatch(shareUrl);
+    }
+
+    /**
+     * 按自定义解析器的匹配结果创建, matcher 需已匹配成功
+     */
+    static ParserCreate fromCustomMatch(CustomParserConfig customConfig, Matcher matcher, String shareUrl) {
+        ShareLinkInfo shareLinkInfo = ShareLinkInfo.newBuilder()
+                .type(customConfig.getType())
+                .panName(customConfig.getDisplayName())
+                .shareUrl(shareUrl)
+                .build();
+
+        // 提取分享键和密码
+        try {
+            String shareKey = matcher.group("KEY");
+            if (shareKey != null) {
+                shareLinkInfo.setShareKey(shareKey);
             }
-        }
-        
-        // 查找内置解析器
-        for (PanDomainTemplate panDomainTemplate : PanDomainTemplate.values()) {
-            if (panDomainTemplate.getPattern().matcher(shareUrl).matches()) {
-                ShareLinkInfo shareLinkInfo = ShareLinkInfo.newBuilder()
-                        .type(panDomainTemplate.name().toLowerCase())
-                        .panName(panDomainTemplate.getDisplayName())
-                        .shareUrl(shareUrl).build();
-                if (panDomainTemplate.ordinal() >= PanDomainTemplate.CE.ordinal()) {
-                    shareLinkInfo.setStandardUrl(shareUrl);
-                }
-                ParserCreate parserCreate = new ParserCreate(panDomainTemplate, shareLinkInfo);
-                return parserCreate.normalizeShareLink();
+        } catch (Exception ignored) {}
+
+        try {
+            String password = matcher.group("PWD");
+            if (password != null) {
+                shareLinkInfo.setSharePassword(password);
+            }
+        } catch (Exception ignored) {}
+
+        // 设置标准URL（如果有模板）
+        if (customConfig.getStandardUrlTemplate() != null) {
+            String standardUrl = customConfig.getStandardUrlTemplate()
+                    .replace("{shareKey}", shareLinkInfo.getShareKey() != null ? shareLinkInfo.getShareKey() : "");
+
+            // 处理密码替换
+            if (shareLinkInfo.getSharePassword() != null && !shareLinkInfo.getSharePassword().isEmpty()) {
+                standardUrl = standardUrl.replace("{pwd}", shareLinkInfo.getSharePassword());
+            } else {
+                // 如果密码为空，移除包含 {pwd} 的部分
+                standardUrl = standardUrl.replaceAll("\\?pwd=\\{pwd\\}", "").replaceAll("&pwd=\\{pwd\\}", "");
             }
+
+            shareLinkInfo.setStandardUrl(standardUrl);
+        }
+
+        return new ParserCreate(customConfig, shareLinkInfo);
+    }
+
+    /**
+     * 按内置解析器创建, 分享链接需已匹配该网盘的正则
+     */
+    static ParserCreate fromTemplateMatch(PanDomainTemplate panDomainTemplate, String shareUrl) {
+        ShareLinkInfo shareLinkInfo = ShareLinkInfo.newBuilder()
+                .type(panDomainTemplate.name().toLowerCase())
+                .panName(panDomainTemplate.getDisplayName())
+                .shareUrl(shareUrl).build();
+        if (panDomainTemplate.ordinal() >= PanDomainTemplate.CE.ordinal()) {
+            shareLinkInfo.setStandardUrl(shareUrl);
         }
-        throw new IllegalArgumentException("Unsupported share URL");
+        ParserCreate parserCreate = new ParserCreate(panDomainTemplate, shareLinkInfo);
+        return parserCreate.normalizeShareLink();
     }
 
     // 根据type获取枚举实例（优先查找自定义解析器）
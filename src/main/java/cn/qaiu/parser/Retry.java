@@ -0,0 +1,254 @@
+package cn.qaiu.parser;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.ext.web.client.HttpResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * 异步重试, 失败后按指数退避(带随机抖动)延迟重试
+ * <p>
+ * 等待在事件循环的定时器上进行, 不占用线程。默认只重试 {@link FailureType#TRANSIENT} 的解析失败和网络异常,
+ * 可用 {@link #setRetryOn} 按异常、{@link #setRetryStatusCodes} 按 HTTP 状态码调整。
+ * 返回的 Future 被取消时, 进行中的尝试随之取消, 不再安排后续重试。
+ * </p>
+ * <blockquote><pre>
+ *  new Retry().setMaxAttempts(4).setRetryStatusCodes(502, 503)
+ *          .execute(() -&gt; client.getAbs(url).send());
+ * </pre></blockquote>
+ */
+public class Retry {
+    private static final Logger log = LoggerFactory.getLogger(Retry.class);
+
+    public static final int DEFAULT_MAX_ATTEMPTS = 3;
+    public static final Duration DEFAULT_INITIAL_DELAY = Duration.ofMillis(200);
+    public static final Duration DEFAULT_MAX_DELAY = Duration.ofSeconds(5);
+    public static final double DEFAULT_MULTIPLIER = 2;
+    public static final double DEFAULT_JITTER = 0.5;
+
+    private int maxAttempts = DEFAULT_MAX_ATTEMPTS;
+    private Duration initialDelay = DEFAULT_INITIAL_DELAY;
+    private Duration maxDelay = DEFAULT_MAX_DELAY;
+    private double multiplier = DEFAULT_MULTIPLIER;
+    private double jitter = DEFAULT_JITTER;
+    private Predicate<Throwable> retryOn = Retry::isRetryable;
+    private Set<Integer> retryStatusCodes = Set.of();
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    /**
+     * 最多尝试次数(含第一次)
+     */
+    public Retry setMaxAttempts(int maxAttempts) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("maxAttempts必须大于0: " + maxAttempts);
+        }
+        this.maxAttempts = maxAttempts;
+        return this;
+    }
+
+    public Duration getInitialDelay() {
+        return initialDelay;
+    }
+
+    /**
+     * 第一次重试前的等待, 之后每次乘以 {@link #setMultiplier multiplier}
+     */
+    public Retry setInitialDelay(Duration initialDelay) {
+        if (initialDelay.isNegative()) {
+            throw new IllegalArgumentException("initialDelay不能为负: " + initialDelay);
+        }
+        this.initialDelay = initialDelay;
+        return this;
+    }
+
+    public Duration getMaxDelay() {
+        return maxDelay;
+    }
+
+    /**
+     * 单次等待的上限
+     */
+    public Retry setMaxDelay(Duration maxDelay) {
+        if (maxDelay.isNegative()) {
+            throw new IllegalArgumentException("maxDelay不能为负: " + maxDelay);
+        }
+        this.maxDelay = maxDelay;
+        return this;
+    }
+
+    public double getMultiplier() {
+        return multiplier;
+    }
+
+    public Retry setMultiplier(double multiplier) {
+        if (!(multiplier >= 1)) {
+            throw new IllegalArgumentException("multiplier不能小于1: " + multiplier);
+        }
+        this.multiplier = multiplier;
+        return this;
+    }
+
+    public double getJitter() {
+        return jitter;
+    }
+
+    /**
+     * 随机抖动比例, 取值 [0, 1]: 实际等待在 [退避时间 * (1 - jitter), 退避时间] 间随机,
+     * 避免同时失败的调用同时重试
+     */
+    public Retry setJitter(double jitter) {
+        if (!(jitter >= 0 && jitter <= 1)) {
+            throw new IllegalArgumentException("jitter必须在[0, 1]之间: " + jitter);
+        }
+        this.jitter = jitter;
+        return this;
+    }
+
+    /**
+     * 哪些失败需要重试; 取消始终不重试
+     * <p>
+     * 默认只重试 {@link FailureType#TRANSIENT} 的 {@link ParseFailureException} 以及
+     * 异常链中的 {@link IOException}/{@link TimeoutException}, 空指针等其他异常视为永久失败
+     * </p>
+     */
+    public Retry setRetryOn(Predicate<Throwable> retryOn) {
+        this.retryOn = retryOn;
+        return this;
+    }
+
+    /**
+     * 结果为 {@link HttpResponse} 且状态码在其中时重试; 最后一次尝试的响应原样返回
+     */
+    public Retry setRetryStatusCodes(Integer... statusCodes) {
+        this.retryStatusCodes = Set.of(statusCodes);
+        return this;
+    }
+
+    public Set<Integer> getRetryStatusCodes() {
+        return retryStatusCodes;
+    }
+
+    /**
+     * 执行任务, 按配置重试
+     *
+     * @param task 每次尝试调用一次; 抛出的异常视为失败
+     * @return 最后一次尝试的结果
+     */
+    public <T> Future<T> execute(Supplier<Future<T>> task) {
+        Promise<T> promise = Promise.promise();
+        new Attempts<>(task, promise).run(1);
+        return promise.future();
+    }
+
+    /**
+     * 第 attempt 次尝试失败后的等待毫秒数
+     */
+    long delayMillis(int attempt) {
+        double backoff = Math.min(maxDelay.toMillis(),
+                initialDelay.toMillis() * Math.pow(multiplier, attempt - 1));
+        return (long) (backoff * (1 - jitter * ThreadLocalRandom.current().nextDouble()));
+    }
+
+    private boolean shouldRetry(AsyncResult<?> ar) {
+        if (ar.failed()) {
+            return !(ar.cause() instanceof CancellationException) && retryOn.test(ar.cause());
+        }
+        return ar.result() instanceof HttpResponse
+                && retryStatusCodes.contains(((HttpResponse<?>) ar.result()).statusCode());
+    }
+
+    private static boolean isRetryable(Throwable t) {
+        for (Throwable cause = t; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ParseFailureException) {
+                return ((ParseFailureException) cause).getFailureType() == FailureType.TRANSIENT;
+            }
+            if (cause instanceof IOException || cause instanceof TimeoutException) {
+                return true;
+            }
+            if (cause.getCause() == cause) {
+                break;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 一次 {@link #execute} 的全部尝试
+     */
+    private final class Attempts<T> {
+        private final Supplier<Future<T>> task;
+        private final Promise<T> promise;
+        private volatile Future<T> current;
+        private volatile ScheduledFuture<?> timer;
+
+        Attempts(Supplier<Future<T>> task, Promise<T> promise) {
+            this.task = task;
+            this.promise = promise;
+            promise.future().onCancel(() -> {
+                Future<T> attempt = current;
+                if (attempt != null) {
+                    attempt.cancel();
+                }
+                ScheduledFuture<?> pending = timer;
+                if (pending != null) {
+                    pending.cancel(false);
+                }
+            });
+        }
+
+        void run(int attempt) {
+            if (promise.future().isComplete()) {
+                return;
+            }
+            Future<T> future;
+            try {
+                future = task.get();
+            } catch (Throwable e) {
+                future = Future.failedFuture(e);
+            }
+            if (future == null) {
+                future = Future.failedFuture(new IllegalStateException("任务返回了 null"));
+            }
+            current = future;
+            if (promise.future().isCancelled()) {
+                // 取消发生在本次尝试登记之前
+                future.cancel();
+                return;
+            }
+            future.onComplete(ar -> {
+                if (promise.future().isComplete()) {
+                    return;
+                }
+                if (attempt >= maxAttempts || !shouldRetry(ar)) {
+                    promise.handle(ar);
+                    return;
+                }
+                long delay = delayMillis(attempt);
+                log.debug("第{}次尝试{}, {}ms 后重试", attempt,
+                        ar.failed() ? "失败: " + ar.cause() : "返回状态码 " + ((HttpResponse<?>) ar.result()).statusCode(),
+                        delay);
+                timer = Vertx.eventLoops().schedule(() -> run(attempt + 1), delay, TimeUnit.MILLISECONDS);
+                if (promise.future().isComplete()) {
+                    timer.cancel(false);
+                }
+            });
+        }
+    }
+}
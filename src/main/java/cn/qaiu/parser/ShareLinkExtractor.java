@@ -0,0 +1,310 @@
+package cn.qaiu.parser;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 从任意文本(聊天消息、帖子等)中批量识别分享链接
+ * <p>
+ * 以 "http://"、"https://" 和各网盘正则中提取出的 host 后缀(见 {@link ShareUrlDispatcher})为关键字,
+ * 编译成 Aho-Corasick 自动机(DFA), 一次扫描找出全部候选位置; 每个候选只交给按 host 筛出的规则做完整匹配。
+ * 省略协议的链接(如 "lanzoux.com/abc")按 https 补全。链接本身不带提取码时,
+ * 取其后方紧邻的 "提取码: xxxx"、"密码：xxxx"、"pwd=xxxx" 等写法中的值。
+ * </p>
+ */
+public final class ShareLinkExtractor {
+
+    /**
+     * 在链接后多少个字符内查找提取码
+     */
+    private static final int PASSWORD_WINDOW = 48;
+
+    private static final String[] PASSWORD_KEYWORDS = {"提取码", "访问码", "取件码", "密码", "pwd", "code"};
+
+    private static final String[] SCHEMES = {"http://", "https://"};
+
+    /**
+     * 省略协议时作为关键字的 host 后缀最短长度, 过短的后缀(如 ".cn")误报太多
+     */
+    private static final int MIN_HOST_KEYWORD = 6;
+
+    private static volatile ShareLinkExtractor current;
+
+    private final ShareUrlDispatcher dispatcher;
+
+    /**
+     * ASCII 字符到自动机字母表的映射, 0 表示不在任何关键字中出现
+     */
+    private final int[] charClass = new int[128];
+    private final int alphabetSize;
+    /**
+     * DFA 转移表, delta[state * alphabetSize + class]
+     */
+    private final int[] delta;
+    /**
+     * 状态对应的最长关键字长度, 0 表示非接受状态; 负数表示协议关键字
+     */
+    private final int[] accept;
+
+    private ShareLinkExtractor(ShareUrlDispatcher dispatcher) {
+        this.dispatcher = dispatcher;
+        List<String> keywords = new ArrayList<>(List.of(SCHEMES));
+        for (String literal : dispatcher.hostLiterals()) {
+            if (literal.length() >= MIN_HOST_KEYWORD && literal.charAt(0) != '.' && isAscii(literal)) {
+                keywords.add(literal.toLowerCase(Locale.ROOT));
+            }
+        }
+
+        int classes = 1;
+        for (String keyword : keywords) {
+            for (int i = 0; i < keyword.length(); i++) {
+                char c = keyword.charAt(i);
+                if (charClass[c] == 0) {
+                    charClass[c] = classes++;
+                }
+            }
+        }
+        // 大写字母与小写共用一个类
+        for (char c = 'A'; c <= 'Z'; c++) {
+            charClass[c] = charClass[Character.toLowerCase(c)];
+        }
+        this.alphabetSize = classes;
+
+        // 构建 trie
+        List<int[]> gotoTable = new ArrayList<>();
+        List<Integer> output = new ArrayList<>();
+        gotoTable.add(newRow());
+        output.add(0);
+        for (int k = 0; k < keywords.size(); k++) {
+            String keyword = keywords.get(k);
+            int state = 0;
+            for (int i = 0; i < keyword.length(); i++) {
+                int cls = charClass[keyword.charAt(i)];
+                if (gotoTable.get(state)[cls] < 0) {
+                    gotoTable.get(state)[cls] = gotoTable.size();
+                    gotoTable.add(newRow());
+                    output.add(0);
+                }
+                state = gotoTable.get(state)[cls];
+            }
+            output.set(state, k < SCHEMES.length ? -keyword.length() : keyword.length());
+        }
+
+        // 按广度优先计算失败链接, 同时把 trie 补全为 DFA
+        int states = gotoTable.size();
+        this.delta = new int[states * alphabetSize];
+        this.accept = new int[states];
+        int[] fail = new int[states];
+        int[] queue = new int[states];
+        int head = 0;
+        int tail = 0;
+        for (int cls = 0; cls < alphabetSize; cls++) {
+            int next = gotoTable.get(0)[cls];
+            if (next > 0) {
+                fail[next] = 0;
+                queue[tail++] = next;
+                delta[cls] = next;
+            }
+        }
+        accept[0] = 0;
+        while (head < tail) {
+            int state = queue[head++];
+            int own = output.get(state);
+            accept[state] = own != 0 ? own : accept[fail[state]];
+            for (int cls = 0; cls < alphabetSize; cls++) {
+                int next = gotoTable.get(state)[cls];
+                if (next > 0) {
+                    fail[next] = delta[fail[state] * alphabetSize + cls];
+                    queue[tail++] = next;
+                    delta[state * alphabetSize + cls] = next;
+                } else {
+                    delta[state * alphabetSize + cls] = delta[fail[state] * alphabetSize + cls];
+                }
+            }
+        }
+    }
+
+    private int[] newRow() {
+        int[] row = new int[alphabetSize];
+        Arrays.fill(row, -1);
+        return row;
+    }
+
+    private static ShareLinkExtractor current() {
+        ShareUrlDispatcher dispatcher = ShareUrlDispatcher.current();
+        ShareLinkExtractor extractor = current;
+        if (extractor == null || extractor.dispatcher != dispatcher) {
+            extractor = new ShareLinkExtractor(dispatcher);
+            current = extractor;
+        }
+        return extractor;
+    }
+
+    /**
+     * 识别文本中的全部分享链接, 不包含只能由 CE/KD/OTHER 通用规则匹配的普通链接
+     */
+    public static List<ShareLinkMatch> extract(CharSequence text) {
+        return extract(text, false);
+    }
+
+    /**
+     * 识别文本中的全部分享链接
+     *
+     * @param text           任意文本
+     * @param includeGeneric 是否包含只能由 CE/KD/OTHER 通用规则匹配的链接
+     * @return 按出现顺序排列的识别结果
+     */
+    public static List<ShareLinkMatch> extract(CharSequence text, boolean includeGeneric) {
+        return current().scan(text, includeGeneric);
+    }
+
+    private List<ShareLinkMatch> scan(CharSequence text, boolean includeGeneric) {
+        List<ShareLinkMatch> matches = new ArrayList<>();
+        char[] chars = text.toString().toCharArray();
+        int length = chars.length;
+        int state = 0;
+        // 上一个链接的结束位置, 向前回溯 host 时不越过
+        int consumed = 0;
+        for (int i = 0; i < length; i++) {
+            long next = nextHit(chars, i, state);
+            if (next < 0) {
+                break;
+            }
+            i = (int) (next >>> 32);
+            state = (int) next;
+            int hit = accept[state];
+            int start = i + 1 - Math.abs(hit);
+            boolean schemeless = hit > 0;
+            if (schemeless) {
+                // host 关键字: 需位于 host 末尾且其后是路径
+                if (i + 1 >= length || chars[i + 1] != '/') {
+                    continue;
+                }
+                while (start > consumed && isHostChar(chars[start - 1])) {
+                    start--;
+                }
+            }
+            int end = urlEnd(chars, i + 1);
+            if (end <= i + 1) {
+                continue;
+            }
+            // 链接内部的关键字不再处理, 从链接结束处重新开始
+            consumed = end;
+            i = end - 1;
+            state = 0;
+            String url;
+            if (schemeless) {
+                url = "https://" + new String(chars, start, end - start);
+            } else {
+                // 协议可能是大写(如 "HTTPS://")
+                int schemeEnd = start - hit;
+                url = new String(chars, start, schemeEnd - start).toLowerCase(Locale.ROOT)
+                        + new String(chars, schemeEnd, end - schemeEnd);
+            }
+            ParserCreate parserCreate = dispatcher.tryDispatch(url, includeGeneric);
+            if (parserCreate == null) {
+                continue;
+            }
+            String password = parserCreate.getShareLinkInfo().getSharePassword();
+            if (password == null || password.isEmpty()) {
+                password = findPassword(chars, end);
+                if (password != null) {
+                    parserCreate.setShareLinkInfoPwd(password);
+                }
+            }
+            matches.add(new ShareLinkMatch(start, end, url, parserCreate));
+        }
+        return matches;
+    }
+
+    /**
+     * 从 from 开始推进自动机, 直到到达接受状态
+     * <p>热循环单独成方法, 以便 JIT 独立编译</p>
+     *
+     * @return 高32位为命中位置(关键字最后一个字符), 低32位为命中后的状态; 无命中时返回 -1
+     */
+    private long nextHit(char[] chars, int from, int state) {
+        int[] delta = this.delta;
+        int[] accept = this.accept;
+        int[] charClass = this.charClass;
+        int alphabetSize = this.alphabetSize;
+        for (int i = from; i < chars.length; i++) {
+            char c = chars[i];
+            state = delta[state * alphabetSize + (c < 128 ? charClass[c] : 0)];
+            if (accept[state] != 0) {
+                return (long) i << 32 | state;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 链接结束位置(不含), 去掉末尾的标点
+     */
+    private static int urlEnd(char[] chars, int from) {
+        int end = from;
+        while (end < chars.length && isUrlChar(chars[end])) {
+            end++;
+        }
+        while (end > from && ".,;:!?)]}'\"".indexOf(chars[end - 1]) >= 0) {
+            end--;
+        }
+        return end;
+    }
+
+    /**
+     * 在链接后方查找"提取码: xxxx"等写法
+     */
+    private static String findPassword(char[] chars, int from) {
+        int limit = Math.min(chars.length, from + PASSWORD_WINDOW);
+        String window = new String(chars, from, limit - from);
+        // 下一个链接之后的内容不属于当前链接
+        int nextLink = window.indexOf("://");
+        if (nextLink >= 0) {
+            window = window.substring(0, nextLink);
+        }
+        String lower = window.toLowerCase(Locale.ROOT);
+        for (String keyword : PASSWORD_KEYWORDS) {
+            int index = lower.indexOf(keyword);
+            if (index < 0) {
+                continue;
+            }
+            int pos = index + keyword.length();
+            while (pos < window.length() && " \t:：=是为　".indexOf(window.charAt(pos)) >= 0) {
+                pos++;
+            }
+            int valueStart = pos;
+            while (pos < window.length() && isAsciiLetterOrDigit(window.charAt(pos))) {
+                pos++;
+            }
+            int valueLength = pos - valueStart;
+            if (valueLength >= 3 && valueLength <= 8) {
+                return window.substring(valueStart, pos);
+            }
+        }
+        return null;
+    }
+
+    private static boolean isUrlChar(char c) {
+        return c > 0x20 && c < 0x7F && "\"'<>`{}|\\^".indexOf(c) < 0;
+    }
+
+    private static boolean isHostChar(char c) {
+        return isAsciiLetterOrDigit(c) || c == '.' || c == '-';
+    }
+
+    private static boolean isAsciiLetterOrDigit(char c) {
+        return c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c >= '0' && c <= '9';
+    }
+
+    private static boolean isAscii(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            if (s.charAt(i) >= 128) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
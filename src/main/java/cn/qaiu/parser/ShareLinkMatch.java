@@ -0,0 +1,75 @@
+package cn.qaiu.parser;
+
+import cn.qaiu.entity.ShareLinkInfo;
+
+/**
+ * 从文本中识别出的分享链接
+ */
+public class ShareLinkMatch {
+    private final int start;
+    private final int end;
+    private final String url;
+    private final ParserCreate parserCreate;
+
+    ShareLinkMatch(int start, int end, String url, ParserCreate parserCreate) {
+        this.start = start;
+        this.end = end;
+        this.url = url;
+        this.parserCreate = parserCreate;
+    }
+
+    /**
+     * 链接在原文中的起始位置(含)
+     */
+    public int getStart() {
+        return start;
+    }
+
+    /**
+     * 链接在原文中的结束位置(不含)
+     */
+    public int getEnd() {
+        return end;
+    }
+
+    /**
+     * 链接, 原文省略协议时补全为 https://
+     */
+    public String getUrl() {
+        return url;
+    }
+
+    /**
+     * 网盘类型, 内置网盘为 {@link PanDomainTemplate} 名称的小写, 自定义解析器为其 type
+     */
+    public String getType() {
+        return getShareLinkInfo().getType();
+    }
+
+    public String getShareKey() {
+        return getShareLinkInfo().getShareKey();
+    }
+
+    /**
+     * 提取码, 链接中没有时取链接后方"提取码: xxxx"等写法中的值
+     */
+    public String getPassword() {
+        return getShareLinkInfo().getSharePassword();
+    }
+
+    public ShareLinkInfo getShareLinkInfo() {
+        return parserCreate.getShareLinkInfo();
+    }
+
+    /**
+     * 可直接用于 createTool() 的 ParserCreate
+     */
+    public ParserCreate getParserCreate() {
+        return parserCreate;
+    }
+
+    @Override
+    public String toString() {
+        return getType() + ": " + url + (getPassword() == null || getPassword().isEmpty() ? "" : " (" + getPassword() + ")");
+    }
+}
@@ -0,0 +1,632 @@
+package cn.qaiu.parser;
+
+import cn.qaiu.parser.custom.CustomParserConfig;
+import cn.qaiu.parser.custom.CustomParserRegistry;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 分享链接分发器
+ * <p>
+ * 从每个网盘(含自定义解析器)的正则中提取 host 必须以之结尾的字面量后缀, 按字符倒序建立后缀索引。
+ * 分发时只扫描一次 host, 沿索引取出候选网盘, 再按原有优先级(自定义解析器优先, 其次按枚举顺序)做完整的正则匹配,
+ * 结果与逐个尝试全部正则一致。提取不出后缀的规则(CE/KD/OTHER 等通用规则, 以及 host 部分可能匹配到 '/' 的正则)
+ * 对任意 host 都是候选, 按优先级排在已命中的规则之后。
+ * </p>
+ * <p>
+ * 索引构建后只读, 分发过程无锁、不复制注册表; 自定义解析器注册表变化时整体重建。
+ * </p>
+ */
+final class ShareUrlDispatcher {
+
+    /**
+     * 单个正则展开的后缀数上限, 超出时放弃继续向前展开
+     */
+    private static final int MAX_EXPANSION = 512;
+
+    private static final Set<String> ANY = Collections.singleton("");
+
+    private static volatile ShareUrlDispatcher current;
+
+    private final long version;
+
+    private final Node root = new Node();
+
+    private final Set<String> hostLiterals;
+
+    ShareUrlDispatcher(long version, Collection<CustomParserConfig> customConfigs) {
+        this.version = version;
+        List<Route> routes = new ArrayList<>();
+        for (CustomParserConfig config : customConfigs) {
+            if (config.supportsFromShareUrl()) {
+                routes.add(new CustomRoute(routes.size(), config));
+            }
+        }
+        for (PanDomainTemplate template : PanDomainTemplate.values()) {
+            routes.add(new TemplateRoute(routes.size(), template));
+        }
+        Set<String> literals = new LinkedHashSet<>();
+        for (Route route : routes) {
+            for (String suffix : hostSuffixes(route.pattern)) {
+                root.insert(suffix, route);
+                literals.add(suffix);
+            }
+        }
+        root.freeze(new Route[0]);
+        literals.remove("");
+        this.hostLiterals = Collections.unmodifiableSet(literals);
+    }
+
+    /**
+     * 当前注册表对应的分发器, 注册表变化后首次调用时重建
+     */
+    static ShareUrlDispatcher current() {
+        ShareUrlDispatcher dispatcher = current;
+        // 先读版本号再读注册表, 构建期间发生的注册会在下次调用时触发重建
+        long version = CustomParserRegistry.version();
+        if (dispatcher == null || dispatcher.version != version) {
+            dispatcher = new ShareUrlDispatcher(version, CustomParserRegistry.getAll().values());
+            current = dispatcher;
+        }
+        return dispatcher;
+    }
+
+    ParserCreate dispatch(String shareUrl) {
+        ParserCreate parserCreate = tryDispatch(shareUrl, true);
+        if (parserCreate == null) {
+            throw new IllegalArgumentException("Unsupported share URL");
+        }
+        return parserCreate;
+    }
+
+    /**
+     * 分发, 无匹配时返回 null
+     *
+     * @param includeGeneric 是否尝试 CE/KD/OTHER 等通用规则
+     */
+    ParserCreate tryDispatch(String shareUrl, boolean includeGeneric) {
+        for (Route route : candidates(shareUrl)) {
+            if (!includeGeneric && route.isGeneric()) {
+                continue;
+            }
+            ParserCreate parserCreate = route.match(shareUrl);
+            if (parserCreate != null) {
+                return parserCreate;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 从各规则中提取出的全部 host 后缀
+     */
+    Set<String> hostLiterals() {
+        return hostLiterals;
+    }
+
+    /**
+     * 按 host 查出的候选规则, 已按优先级排序
+     */
+    List<String> candidateNames(String shareUrl) {
+        List<String> names = new ArrayList<>();
+        for (Route route : candidates(shareUrl)) {
+            names.add(route.name());
+        }
+        return names;
+    }
+
+    private Route[] candidates(String shareUrl) {
+        int start = shareUrl.indexOf("://");
+        if (start < 0) {
+            return root.candidates;
+        }
+        start += 3;
+        int end = start;
+        while (end < shareUrl.length()) {
+            char c = shareUrl.charAt(end);
+            if (c == '/' || c == '?' || c == '#') {
+                break;
+            }
+            end++;
+        }
+        Node node = root;
+        for (int i = end - 1; i >= start; i--) {
+            Node child = node.children.get(shareUrl.charAt(i));
+            if (child == null) {
+                break;
+            }
+            node = child;
+        }
+        return node.candidates;
+    }
+
+    // -------------------- 从正则提取 host 后缀 --------------------
+
+    /**
+     * 提取正则要求 host 必须以之结尾的字面量后缀, 无法确定时返回只含空串的集合(匹配任意 host)
+     */
+    static Set<String> hostSuffixes(Pattern pattern) {
+        if (pattern.flags() != 0) {
+            return ANY;
+        }
+        try {
+            Set<String> suffixes = hostSuffixes(pattern.pattern());
+            return suffixes.contains("") ? ANY : suffixes;
+        } catch (IllegalStateException e) {
+            return ANY;
+        }
+    }
+
+    private static Set<String> hostSuffixes(String regex) {
+        if (hasTopLevelAlternation(regex)) {
+            return ANY;
+        }
+        int separator = regex.indexOf("://");
+        int hostStart = separator + 3;
+        if (separator < 0) {
+            separator = regex.indexOf(":\\/\\/");
+            hostStart = separator + 5;
+        }
+        if (separator < 0) {
+            return ANY;
+        }
+        // 协议部分只能是字母, 保证链接中第一个 "://" 就是正则中的 "://"
+        RegexReader scheme = new RegexReader(regex, regex.startsWith("^") ? 1 : 0, separator);
+        for (Atom atom : scheme.sequence()) {
+            if (atom.values == null) {
+                return ANY;
+            }
+            for (String value : atom.values) {
+                for (int i = 0; i < value.length(); i++) {
+                    if (!Character.isLetter(value.charAt(i))) {
+                        return ANY;
+                    }
+                }
+            }
+        }
+        if (!scheme.atEnd()) {
+            return ANY;
+        }
+
+        RegexReader host = new RegexReader(regex, hostStart, hostEnd(regex, hostStart));
+        List<Atom> atoms = host.sequence();
+        if (!host.atEnd()) {
+            return ANY;
+        }
+        // host 部分可能匹配 '/', '?', '#' 时, 正则匹配到的 host 与链接的 host 不一定一致
+        for (Atom atom : atoms) {
+            if (!atom.safe) {
+                return ANY;
+            }
+        }
+        return suffixes(atoms);
+    }
+
+    /**
+     * 从右向左展开, 遇到无法枚举的单元时取其自身的后缀后停止
+     */
+    private static Set<String> suffixes(List<Atom> atoms) {
+        Set<String> suffixes = ANY;
+        for (int i = atoms.size() - 1; i >= 0; i--) {
+            Atom atom = atoms.get(i);
+            Set<String> next = product(atom.options(), suffixes);
+            if (next == null) {
+                next = product(atom.suffixOptions(), suffixes);
+                return next != null ? next : suffixes;
+            }
+            suffixes = next;
+        }
+        return suffixes;
+    }
+
+    private static boolean hasTopLevelAlternation(String regex) {
+        int depth = 0;
+        for (int i = 0; i < regex.length(); i++) {
+            char c = regex.charAt(i);
+            if (c == '\\') {
+                i++;
+            } else if (c == '[') {
+                i = RegexReader.classEnd(regex, i);
+            } else if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                depth--;
+            } else if (c == '|' && depth == 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * host 部分的结束位置: 第一个不在分组和字符类中的 '/'
+     */
+    private static int hostEnd(String regex, int from) {
+        int depth = 0;
+        for (int i = from; i < regex.length(); i++) {
+            char c = regex.charAt(i);
+            if (c == '\\') {
+                if (i + 1 < regex.length() && regex.charAt(i + 1) == '/' && depth == 0) {
+                    return i;
+                }
+                i++;
+            } else if (c == '[') {
+                i = RegexReader.classEnd(regex, i);
+            } else if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                depth--;
+            } else if (c == '/' && depth == 0) {
+                return i;
+            }
+        }
+        return regex.length();
+    }
+
+    private static Set<String> product(Set<String> heads, Set<String> tails) {
+        if (heads == null || tails == null || (long) heads.size() * tails.size() > MAX_EXPANSION) {
+            return null;
+        }
+        Set<String> result = new LinkedHashSet<>();
+        for (String head : heads) {
+            for (String tail : tails) {
+                result.add(head + tail);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 正则中的一个单元及其量词
+     */
+    private static final class Atom {
+        /**
+         * 可匹配的全部字面量, null 表示无法枚举
+         */
+        Set<String> values;
+        boolean optional;
+        /**
+         * 不会匹配 '/', '?', '#'
+         */
+        boolean safe = true;
+        /**
+         * 无法枚举时, 匹配结果必定以之结尾的后缀(分组按各分支分别展开)
+         */
+        Set<String> suffixes = ANY;
+
+        Set<String> options() {
+            return withEmpty(values);
+        }
+
+        Set<String> suffixOptions() {
+            return withEmpty(values != null ? values : suffixes);
+        }
+
+        private Set<String> withEmpty(Set<String> set) {
+            if (set == null || !optional) {
+                return set;
+            }
+            Set<String> options = new LinkedHashSet<>(set);
+            options.add("");
+            return options;
+        }
+    }
+
+    /**
+     * 只识别分享链接正则中常见的写法, 遇到不认识的结构抛出 IllegalStateException, 由调用方按"任意 host"处理
+     */
+    private static final class RegexReader {
+        private final String regex;
+        private final int end;
+        private int pos;
+
+        RegexReader(String regex, int start, int end) {
+            this.regex = regex;
+            this.pos = start;
+            this.end = end;
+        }
+
+        boolean atEnd() {
+            return pos >= end;
+        }
+
+        /**
+         * 读取到 ')' 、'|' 或结尾为止
+         */
+        List<Atom> sequence() {
+            List<Atom> atoms = new ArrayList<>();
+            while (pos < end && regex.charAt(pos) != ')' && regex.charAt(pos) != '|') {
+                Atom atom = atom();
+                quantifier(atom);
+                atoms.add(atom);
+            }
+            return atoms;
+        }
+
+        private Atom atom() {
+            Atom atom = new Atom();
+            char c = regex.charAt(pos++);
+            switch (c) {
+                case '\\' -> {
+                    char n = next();
+                    if (Character.isLetterOrDigit(n)) {
+                        if (n != 'd' && n != 'w' && n != 's' && n != 'D' && n != 'W' && n != 'S') {
+                            throw new IllegalStateException("unsupported escape \\" + n);
+                        }
+                        atom.safe = Character.isLowerCase(n);
+                    } else {
+                        literal(atom, n);
+                    }
+                }
+                case '[' -> {
+                    int close = classEnd(regex, pos - 1);
+                    atom.safe = classIsSafe(regex.substring(pos, close));
+                    pos = close + 1;
+                }
+                case '(' -> group(atom);
+                case '.' -> atom.safe = false;
+                case '^', '$', '*', '+', '?', '{', '}', ']' ->
+                        throw new IllegalStateException("unsupported token " + c);
+                default -> literal(atom, c);
+            }
+            return atom;
+        }
+
+        private void literal(Atom atom, char c) {
+            atom.values = Collections.singleton(String.valueOf(c));
+            atom.safe = c != '/' && c != '?' && c != '#';
+        }
+
+        private void group(Atom atom) {
+            if (peek() == '?') {
+                pos++;
+                char kind = next();
+                if (kind == '<' && peek() != '=' && peek() != '!') {
+                    int close = regex.indexOf('>', pos);
+                    if (close < 0 || close >= end) {
+                        throw new IllegalStateException("bad group name");
+                    }
+                    pos = close + 1;
+                } else if (kind != ':') {
+                    throw new IllegalStateException("unsupported group (?" + kind);
+                }
+            }
+            Set<String> values = new LinkedHashSet<>();
+            Set<String> suffixes = new LinkedHashSet<>();
+            while (true) {
+                List<Atom> alternative = sequence();
+                Set<String> expanded = ANY;
+                for (Atom inner : alternative) {
+                    atom.safe &= inner.safe;
+                    expanded = product(expanded, inner.options());
+                }
+                if (values != null && expanded != null && values.size() + expanded.size() <= MAX_EXPANSION) {
+                    values.addAll(expanded);
+                } else {
+                    values = null;
+                }
+                suffixes.addAll(ShareUrlDispatcher.suffixes(alternative));
+                char c = next();
+                if (c == ')') {
+                    break;
+                }
+                if (c != '|') {
+                    throw new IllegalStateException("unclosed group");
+                }
+            }
+            atom.values = values;
+            atom.suffixes = suffixes.size() <= MAX_EXPANSION ? suffixes : ANY;
+        }
+
+        private void quantifier(Atom atom) {
+            if (pos >= end) {
+                return;
+            }
+            char c = regex.charAt(pos);
+            if (c == '?') {
+                pos++;
+                atom.optional = true;
+            } else if (c == '*' || c == '+') {
+                pos++;
+                atom.values = null;
+                atom.optional = c == '*';
+            } else if (c == '{') {
+                int close = regex.indexOf('}', pos);
+                if (close < 0 || close >= end) {
+                    throw new IllegalStateException("unclosed quantifier");
+                }
+                pos = close + 1;
+                atom.values = null;
+                // {0,n} 等可能重复0次, 统一按可选处理
+                atom.optional = true;
+            } else {
+                return;
+            }
+            // 忽略懒惰/占有量词后缀
+            if (pos < end && (regex.charAt(pos) == '?' || regex.charAt(pos) == '+')) {
+                pos++;
+            }
+        }
+
+        private char next() {
+            if (pos >= end) {
+                throw new IllegalStateException("unexpected end");
+            }
+            return regex.charAt(pos++);
+        }
+
+        private char peek() {
+            return pos < end ? regex.charAt(pos) : 0;
+        }
+
+        /**
+         * 字符类结束的 ']' 位置, 不支持嵌套和交集
+         */
+        static int classEnd(String regex, int open) {
+            int i = open + 1;
+            if (i < regex.length() && regex.charAt(i) == '^') {
+                i++;
+            }
+            if (i < regex.length() && regex.charAt(i) == ']') {
+                i++;
+            }
+            for (; i < regex.length(); i++) {
+                char c = regex.charAt(i);
+                if (c == '\\') {
+                    i++;
+                } else if (c == '[' || c == '&' && i + 1 < regex.length() && regex.charAt(i + 1) == '&') {
+                    throw new IllegalStateException("nested character class");
+                } else if (c == ']') {
+                    return i;
+                }
+            }
+            throw new IllegalStateException("unclosed character class");
+        }
+
+        /**
+         * 字符类不包含 '/', '?', '#'
+         */
+        private static boolean classIsSafe(String body) {
+            if (body.startsWith("^")) {
+                return false;
+            }
+            for (int i = 0; i < body.length(); i++) {
+                char c = body.charAt(i);
+                if (c == '\\') {
+                    char n = body.charAt(++i);
+                    if (Character.isLetterOrDigit(n)) {
+                        if (n != 'd' && n != 'w' && n != 's') {
+                            return false;
+                        }
+                        continue;
+                    }
+                    c = n;
+                }
+                char hi = c;
+                if (i + 2 < body.length() && body.charAt(i + 1) == '-') {
+                    hi = body.charAt(i + 2);
+                    if (hi == '\\') {
+                        return false;
+                    }
+                    i += 2;
+                }
+                for (char unsafe : new char[]{'/', '?', '#'}) {
+                    if (c <= unsafe && unsafe <= hi) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+    }
+
+    // -------------------- 索引 --------------------
+
+    /**
+     * 倒序后缀树节点, candidates 为从根到该节点路径上全部规则的并集
+     */
+    private static final class Node {
+        final Map<Character, Node> children = new HashMap<>();
+        final List<Route> terminals = new ArrayList<>();
+        Route[] candidates;
+
+        void insert(String suffix, Route route) {
+            Node node = this;
+            for (int i = suffix.length() - 1; i >= 0; i--) {
+                node = node.children.computeIfAbsent(suffix.charAt(i), k -> new Node());
+            }
+            if (!node.terminals.contains(route)) {
+                node.terminals.add(route);
+            }
+        }
+
+        void freeze(Route[] inherited) {
+            if (terminals.isEmpty()) {
+                candidates = inherited;
+            } else {
+                List<Route> merged = new ArrayList<>(List.of(inherited));
+                for (Route route : terminals) {
+                    if (!merged.contains(route)) {
+                        merged.add(route);
+                    }
+                }
+                merged.sort((a, b) -> Integer.compare(a.priority, b.priority));
+                candidates = merged.toArray(new Route[0]);
+            }
+            for (Node child : children.values()) {
+                child.freeze(candidates);
+            }
+        }
+    }
+
+    private abstract static class Route {
+        final int priority;
+        final Pattern pattern;
+
+        Route(int priority, Pattern pattern) {
+            this.priority = priority;
+            this.pattern = pattern;
+        }
+
+        abstract ParserCreate match(String shareUrl);
+
+        abstract String name();
+
+        boolean isGeneric() {
+            return false;
+        }
+    }
+
+    private static final class TemplateRoute extends Route {
+        private final PanDomainTemplate template;
+
+        TemplateRoute(int priority, PanDomainTemplate template) {
+            super(priority, template.getPattern());
+            this.template = template;
+        }
+
+        @Override
+        ParserCreate match(String shareUrl) {
+            return pattern.matcher(shareUrl).matches() ? ParserCreate.fromTemplateMatch(template, shareUrl) : null;
+        }
+
+        @Override
+        String name() {
+            return template.name();
+        }
+
+        @Override
+        boolean isGeneric() {
+            return template.ordinal() >= PanDomainTemplate.CE.ordinal();
+        }
+    }
+
+    private static final class CustomRoute extends Route {
+        private final CustomParserConfig config;
+
+        CustomRoute(int priority, CustomParserConfig config) {
+            super(priority, config.getMatchPattern());
+            this.config = config;
+        }
+
+        @Override
+        ParserCreate match(String shareUrl) {
+            Matcher matcher = pattern.matcher(shareUrl);
+            return matcher.matches() ? ParserCreate.fromCustomMatch(config, matcher, shareUrl) : null;
+        }
+
+        @Override
+        String name() {
+            return config.getType();
+        }
+    }
+}
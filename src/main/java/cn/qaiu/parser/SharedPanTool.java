@@ -0,0 +1,40 @@
+package cn.qaiu.parser;
+
+import cn.qaiu.entity.FileInfo;
+import io.vertx.core.Future;
+
+import java.util.List;
+
+/**
+ * 无状态的解析工具, 每种网盘一个实例, 可被所有解析并发复用
+ * <p>
+ * 与 {@link IPanTool} 不同, 实例本身不持有分享信息、promise 和 HTTP 客户端,
+ * 每次解析的状态都放在 {@link ParseContext} 中; 实现类不应有可变的成员变量。
+ * 通过 {@link SharedPanTools#register} 注册后, {@link ParserCreate#createTool()} 返回的工具只是
+ * 本实例与分享信息的轻量绑定。现有的 {@link PanBase} 子类经 {@link SharedPanTools#adapt} 适配为本接口。
+ * </p>
+ */
+public interface SharedPanTool {
+
+    /**
+     * 解析文件
+     *
+     * @param context 本次解析的上下文
+     * @return 下载直链, 通常为 {@link ParseContext#future()}
+     */
+    Future<String> parse(ParseContext context);
+
+    /**
+     * 解析文件列表
+     */
+    default Future<List<FileInfo>> parseFileList(ParseContext context) {
+        return Future.failedFuture("Not implemented yet");
+    }
+
+    /**
+     * 根据文件ID获取下载链接
+     */
+    default Future<String> parseById(ParseContext context) {
+        return Future.succeededFuture("Not implemented yet");
+    }
+}
@@ -0,0 +1,163 @@
+package cn.qaiu.parser;
+
+import cn.qaiu.entity.FileInfo;
+import cn.qaiu.entity.ShareLinkInfo;
+import cn.qaiu.parser.impl.CowTool;
+import cn.qaiu.parser.impl.MnesTool;
+import cn.qaiu.parser.impl.OtherTool;
+import cn.qaiu.parser.impl.PcxTool;
+import cn.qaiu.parser.impl.PicTool;
+import io.vertx.core.Future;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * 无状态解析工具({@link SharedPanTool})的注册表
+ * <p>
+ * 按网盘类型(内置网盘为枚举名小写, 自定义解析器为其 type)注册, 注册后 {@link ParserCreate#createTool()}
+ * 不再为每次解析创建完整的工具对象。部分内置网盘自带无状态实现({@link #builtIn}), 无需注册即被共享;
+ * 其余内置网盘可通过 {@link #forTemplate} 取得由原工具类适配的实例。
+ * </p>
+ */
+public final class SharedPanTools {
+
+    private static final Map<String, SharedPanTool> REGISTERED = new ConcurrentHashMap<>();
+
+    /**
+     * 内置网盘自带的无状态实现
+     */
+    private static final Map<PanDomainTemplate, SharedPanTool> BUILT_IN = new EnumMap<>(PanDomainTemplate.class);
+
+    private static final Map<PanDomainTemplate, SharedPanTool> ADAPTERS = new EnumMap<>(PanDomainTemplate.class);
+
+    static {
+        BUILT_IN.put(PanDomainTemplate.COW, CowTool.SHARED);
+        BUILT_IN.put(PanDomainTemplate.PIC, PicTool.SHARED);
+        BUILT_IN.put(PanDomainTemplate.Pcx, PcxTool.SHARED);
+        BUILT_IN.put(PanDomainTemplate.MNES, MnesTool.SHARED);
+        BUILT_IN.put(PanDomainTemplate.MNE, MnesTool.MneTool.SHARED);
+        BUILT_IN.put(PanDomainTemplate.OTHER, OtherTool.SHARED);
+        for (PanDomainTemplate template : PanDomainTemplate.values()) {
+            ADAPTERS.put(template, BUILT_IN.containsKey(template) ? BUILT_IN.get(template)
+                    : adapt(template.getToolFactory()));
+        }
+    }
+
+    private SharedPanTools() {
+    }
+
+    /**
+     * 注册网盘类型的无状态解析工具, 替换已有注册
+     */
+    public static void register(String type, SharedPanTool tool) {
+        if (type == null || type.trim().isEmpty()) {
+            throw new IllegalArgumentException("type不能为空");
+        }
+        if (tool == null) {
+            throw new IllegalArgumentException("tool不能为空");
+        }
+        REGISTERED.put(type.toLowerCase(Locale.ROOT), tool);
+    }
+
+    public static boolean unregister(String type) {
+        return type != null && REGISTERED.remove(type.toLowerCase(Locale.ROOT)) != null;
+    }
+
+    public static void clear() {
+        REGISTERED.clear();
+    }
+
+    /**
+     * 已注册的无状态解析工具, 未注册返回 null
+     */
+    public static SharedPanTool get(String type) {
+        return type == null ? null : REGISTERED.get(type.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * 内置网盘自带的无状态实现, 没有时返回 null; 不受 {@link #register} 影响
+     */
+    public static SharedPanTool builtIn(PanDomainTemplate template) {
+        return BUILT_IN.get(template);
+    }
+
+    /**
+     * 内置网盘的无状态解析工具: 优先返回注册的实例, 其次是自带的无状态实现, 都没有时返回原工具类的适配实例
+     */
+    public static SharedPanTool forTemplate(PanDomainTemplate template) {
+        SharedPanTool registered = REGISTERED.get(template.name().toLowerCase(Locale.ROOT));
+        return registered != null ? registered : ADAPTERS.get(template);
+    }
+
+    /**
+     * 把按次创建的工具(如 {@link PanBase} 子类)适配为无状态工具, 每次解析仍创建一个工具实例
+     */
+    public static SharedPanTool adapt(Function<ShareLinkInfo, IPanTool> toolFactory) {
+        return new PerInvocationAdapter(toolFactory);
+    }
+
+    /**
+     * 把无状态工具与分享信息绑定为 {@link IPanTool}, 每次调用使用新的 {@link ParseContext}
+     */
+    public static IPanTool bind(SharedPanTool tool, ShareLinkInfo shareLinkInfo) {
+        return new BoundPanTool(tool, shareLinkInfo);
+    }
+
+    private static final class PerInvocationAdapter implements SharedPanTool {
+        private final Function<ShareLinkInfo, IPanTool> toolFactory;
+
+        PerInvocationAdapter(Function<ShareLinkInfo, IPanTool> toolFactory) {
+            this.toolFactory = toolFactory;
+        }
+
+        @Override
+        public Future<String> parse(ParseContext context) {
+            return toolFactory.apply(context.getShareLinkInfo()).parse();
+        }
+
+        @Override
+        public Future<List<FileInfo>> parseFileList(ParseContext context) {
+            return toolFactory.apply(context.getShareLinkInfo()).parseFileList();
+        }
+
+        @Override
+        public Future<String> parseById(ParseContext context) {
+            return toolFactory.apply(context.getShareLinkInfo()).parseById();
+        }
+    }
+
+    private static final class BoundPanTool implements IPanTool {
+        private final SharedPanTool tool;
+        private final ShareLinkInfo shareLinkInfo;
+
+        BoundPanTool(SharedPanTool tool, ShareLinkInfo shareLinkInfo) {
+            this.tool = tool;
+            this.shareLinkInfo = shareLinkInfo;
+        }
+
+        @Override
+        public Future<String> parse() {
+            return tool.parse(new ParseContext(shareLinkInfo));
+        }
+
+        @Override
+        public Future<List<FileInfo>> parseFileList() {
+            return tool.parseFileList(new ParseContext(shareLinkInfo));
+        }
+
+        @Override
+        public Future<String> parseById() {
+            return tool.parseById(new ParseContext(shareLinkInfo));
+        }
+
+        @Override
+        public ShareLinkInfo getShareLinkInfo() {
+            return shareLinkInfo;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package cn.qaiu.parser;
+
+import cn.qaiu.entity.ShareLinkInfo;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.util.function.Function;
+
+/**
+ * 解析工具工厂
+ * <p>
+ * 在内置网盘枚举初始化或自定义解析器注册时, 把工具类的 ShareLinkInfo 单参构造器解析为 MethodHandle,
+ * 之后每次创建工具直接调用, 不再逐次反射查找构造器。
+ * </p>
+ */
+public final class ToolFactories {
+
+    private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(IPanTool.class, ShareLinkInfo.class);
+
+    private ToolFactories() {
+    }
+
+    /**
+     * 解析工具类的 ShareLinkInfo 单参构造器
+     *
+     * @param toolClass 工具类
+     * @return 工具工厂, 构造器抛出的异常包装为 RuntimeException
+     * @throws IllegalArgumentException 没有可访问的 ShareLinkInfo 单参构造器
+     */
+    public static Function<ShareLinkInfo, IPanTool> forClass(Class<? extends IPanTool> toolClass) {
+        return forClass(toolClass, "无法创建工具实例: ");
+    }
+
+    /**
+     * 解析工具类的 ShareLinkInfo 单参构造器
+     *
+     * @param toolClass   工具类
+     * @param errorPrefix 构造器抛出异常时的消息前缀, 后接工具类名
+     * @return 工具工厂, 构造器抛出的异常包装为 RuntimeException
+     * @throws IllegalArgumentException 没有可访问的 ShareLinkInfo 单参构造器
+     */
+    public static Function<ShareLinkInfo, IPanTool> forClass(Class<? extends IPanTool> toolClass, String errorPrefix) {
+        MethodHandle handle;
+        try {
+            Constructor<? extends IPanTool> constructor = toolClass.getDeclaredConstructor(ShareLinkInfo.class);
+            if (!constructor.canAccess(null)) {
+                constructor.setAccessible(true);
+            }
+            handle = MethodHandles.lookup().unreflectConstructor(constructor).asType(CONSTRUCTOR_TYPE);
+        } catch (NoSuchMethodException | IllegalAccessException | RuntimeException e) {
+            throw new IllegalArgumentException(toolClass.getName() + " 必须有可访问的ShareLinkInfo单参构造器", e);
+        }
+        String message = errorPrefix + toolClass.getName();
+        return shareLinkInfo -> {
+            try {
+                return (IPanTool) handle.invokeExact(shareLinkInfo);
+            } catch (Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new RuntimeException(message, e);
+            }
+        };
+    }
+}
@@ -0,0 +1,107 @@
+package cn.qaiu.parser.batch;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 批量解析选项
+ */
+public class BatchOptions {
+    public static final int DEFAULT_MAX_CONCURRENCY = 16;
+    public static final int DEFAULT_PER_PAN_CONCURRENCY = 4;
+
+    private int maxConcurrency = DEFAULT_MAX_CONCURRENCY;
+    private int perPanConcurrency = DEFAULT_PER_PAN_CONCURRENCY;
+    private final Map<String, Integer> panConcurrency = new HashMap<>();
+    private boolean managed = true;
+    private Duration parseTimeout;
+
+    public BatchOptions() {
+    }
+
+    public BatchOptions(BatchOptions other) {
+        this.maxConcurrency = other.maxConcurrency;
+        this.perPanConcurrency = other.perPanConcurrency;
+        this.panConcurrency.putAll(other.panConcurrency);
+        this.managed = other.managed;
+        this.parseTimeout = other.parseTimeout;
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    /**
+     * 全部网盘合计的最大并发解析数
+     */
+    public BatchOptions setMaxConcurrency(int maxConcurrency) {
+        if (maxConcurrency <= 0) {
+            throw new IllegalArgumentException("maxConcurrency必须大于0");
+        }
+        this.maxConcurrency = maxConcurrency;
+        return this;
+    }
+
+    public int getPerPanConcurrency() {
+        return perPanConcurrency;
+    }
+
+    /**
+     * 单个网盘的默认最大并发解析数
+     */
+    public BatchOptions setPerPanConcurrency(int perPanConcurrency) {
+        if (perPanConcurrency <= 0) {
+            throw new IllegalArgumentException("perPanConcurrency必须大于0");
+        }
+        this.perPanConcurrency = perPanConcurrency;
+        return this;
+    }
+
+    /**
+     * 指定网盘的最大并发解析数, 覆盖默认值
+     *
+     * @param type 网盘类型, 如 lz、qk
+     */
+    public BatchOptions setPanConcurrency(String type, int concurrency) {
+        if (concurrency <= 0) {
+            throw new IllegalArgumentException("concurrency必须大于0");
+        }
+        panConcurrency.put(type.toLowerCase(Locale.ROOT), concurrency);
+        return this;
+    }
+
+    /**
+     * 指定网盘的最大并发解析数
+     */
+    public int getPanConcurrency(String type) {
+        Integer concurrency = type == null ? null : panConcurrency.get(type.toLowerCase(Locale.ROOT));
+        return concurrency != null ? concurrency : perPanConcurrency;
+    }
+
+    public boolean isManaged() {
+        return managed;
+    }
+
+    /**
+     * 是否经 {@link cn.qaiu.parser.cache.ParseCoordinator} 解析(合并重复链接、使用结果缓存), 默认开启
+     */
+    public BatchOptions setManaged(boolean managed) {
+        this.managed = managed;
+        return this;
+    }
+
+    public Duration getParseTimeout() {
+        return parseTimeout;
+    }
+
+    /**
+     * 单个链接的解析时限, 从开始解析时计算, 写入 {@link cn.qaiu.entity.ShareLinkInfo#setDeadline(long)};
+     * null 表示不限(默认)
+     */
+    public BatchOptions setParseTimeout(Duration parseTimeout) {
+        this.parseTimeout = parseTimeout;
+        return this;
+    }
+}
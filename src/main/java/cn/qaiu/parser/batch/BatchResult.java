@@ -0,0 +1,79 @@
+package cn.qaiu.parser.batch;
+
+import cn.qaiu.entity.ShareLinkInfo;
+
+/**
+ * 批量解析中单个链接的结果
+ */
+public class BatchResult {
+    private final int index;
+    private final String url;
+    private final ShareLinkInfo shareLinkInfo;
+    private final String directLink;
+    private final Throwable error;
+
+    BatchResult(int index, String url, ShareLinkInfo shareLinkInfo, String directLink, Throwable error) {
+        this.index = index;
+        this.url = url;
+        this.shareLinkInfo = shareLinkInfo;
+        this.directLink = directLink;
+        this.error = error;
+    }
+
+    /**
+     * 在提交的链接集合中的位置(按迭代顺序, 从 0 开始)
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    /**
+     * 网盘类型, 链接无法识别时为 null
+     */
+    public String getType() {
+        return shareLinkInfo == null ? null : shareLinkInfo.getType();
+    }
+
+    /**
+     * 分享信息, 链接无法识别时为 null
+     */
+    public ShareLinkInfo getShareLinkInfo() {
+        return shareLinkInfo;
+    }
+
+    public boolean succeeded() {
+        return error == null;
+    }
+
+    public boolean failed() {
+        return error != null;
+    }
+
+    /**
+     * 解析出的直链, 失败时为 null
+     */
+    public String getDirectLink() {
+        return directLink;
+    }
+
+    /**
+     * 失败原因: 链接无法识别、解析失败或批量任务被取消({@link java.util.concurrent.CancellationException})
+     */
+    public Throwable getError() {
+        return error;
+    }
+
+    @Override
+    public String toString() {
+        return "BatchResult{" +
+                "index=" + index +
+                ", url='" + url + '\'' +
+                ", type=" + getType() +
+                (error == null ? ", directLink='" + directLink + '\'' : ", error=" + error) +
+                '}';
+    }
+}
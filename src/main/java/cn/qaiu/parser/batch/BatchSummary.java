@@ -0,0 +1,43 @@
+package cn.qaiu.parser.batch;
+
+/**
+ * 批量解析完成后的汇总
+ */
+public class BatchSummary {
+    private final int total;
+    private final int succeeded;
+    private final int failed;
+    private final long elapsedMillis;
+
+    BatchSummary(int total, int succeeded, int failed, long elapsedMillis) {
+        this.total = total;
+        this.succeeded = succeeded;
+        this.failed = failed;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public int getSucceeded() {
+        return succeeded;
+    }
+
+    /**
+     * 失败数, 含无法识别和被取消的链接
+     */
+    public int getFailed() {
+        return failed;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "BatchSummary{total=" + total + ", succeeded=" + succeeded + ", failed=" + failed +
+                ", elapsedMillis=" + elapsedMillis + '}';
+    }
+}
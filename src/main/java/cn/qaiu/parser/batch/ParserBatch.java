@@ -0,0 +1,397 @@
+package cn.qaiu.parser.batch;
+
+import cn.qaiu.parser.Deadlines;
+import cn.qaiu.parser.IPanTool;
+import cn.qaiu.parser.ParserCreate;
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Promise;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Flow;
+
+/**
+ * 批量解析分享链接
+ * <p>
+ * 每个链接先识别为对应网盘的解析工具, 再在全局并发上限和单网盘并发上限内执行解析;
+ * 单网盘达到上限时先执行其他网盘的链接, 同一网盘内按提交顺序执行。结果按完成顺序逐个推送,
+ * 单个链接失败(无法识别、解析失败)只体现在该链接的 {@link BatchResult} 中, 不影响其他链接。
+ * </p>
+ * <blockquote><pre>
+ *  ParserBatch batch = ParserBatch.submit(urls, new BatchOptions().setMaxConcurrency(32),
+ *          result -> System.out.println(result));
+ *  batch.future().onSuccess(summary -> System.out.println(summary));
+ * </pre></blockquote>
+ * 需要背压时使用 {@link #publisher}: 只有订阅方请求了结果才会开始对应的解析。
+ */
+public class ParserBatch {
+    private static final Logger log = LoggerFactory.getLogger(ParserBatch.class);
+
+    /**
+     * 无法识别的链接所在的队列, 不受单网盘并发限制
+     */
+    private static final String UNRESOLVED = "";
+
+    private final BatchOptions options;
+    private final Sink sink;
+    private final int total;
+    private final long startedAt = System.currentTimeMillis();
+    private final Promise<BatchSummary> promise = Promise.promise();
+
+    private final Object lock = new Object();
+    /**
+     * 网盘类型 -> 待执行的链接
+     */
+    private final Map<String, ArrayDeque<Item>> queues = new LinkedHashMap<>();
+    private final Map<String, Integer> running = new HashMap<>();
+    private final ArrayDeque<BatchResult> ready = new ArrayDeque<>();
+    /**
+     * 正在进行的解析, 取消批量时一并取消
+     */
+    private final Set<Future<String>> active = new HashSet<>();
+    private int queued;
+    private int inFlight;
+    private int delivered;
+    private int succeeded;
+    private int failed;
+    /**
+     * 尚未满足的结果请求数
+     */
+    private long demand;
+    private boolean terminated;
+    private boolean cancelled;
+    private boolean finished;
+    private boolean draining;
+    private boolean missed;
+
+    private ParserBatch(Collection<String> urls, BatchOptions options, long demand, Sink sink) {
+        this.options = new BatchOptions(options);
+        this.sink = sink;
+        this.demand = demand;
+        int index = 0;
+        for (String url : urls) {
+            Item item = resolve(index++, url);
+            queues.computeIfAbsent(item.type, k -> new ArrayDeque<>()).add(item);
+        }
+        this.total = index;
+        this.queued = index;
+    }
+
+    /**
+     * 提交批量解析
+     *
+     * @param urls    分享链接
+     * @param options 并发选项
+     * @param handler 每个链接完成时回调, 同一批次的回调不会并发执行
+     * @return 批次, 可取消或等待全部完成
+     */
+    public static ParserBatch submit(Collection<String> urls, BatchOptions options, Handler<BatchResult> handler) {
+        ParserBatch batch = new ParserBatch(urls, options, Long.MAX_VALUE, new Sink() {
+            @Override
+            public void next(BatchResult result) {
+                handler.handle(result);
+            }
+
+            @Override
+            public void complete() {
+            }
+        });
+        batch.drain();
+        return batch;
+    }
+
+    /**
+     * 以 {@link Flow.Publisher} 形式提供批量解析结果
+     * <p>每个订阅者独立执行一次批量解析; 未被请求的结果不会提前解析, 取消订阅后不再开始新的解析。</p>
+     */
+    public static Flow.Publisher<BatchResult> publisher(Collection<String> urls, BatchOptions options) {
+        List<String> snapshot = new ArrayList<>(urls);
+        BatchOptions optionsSnapshot = new BatchOptions(options);
+        return subscriber -> {
+            ParserBatch batch = new ParserBatch(snapshot, optionsSnapshot, 0, new Sink() {
+                @Override
+                public void next(BatchResult result) {
+                    subscriber.onNext(result);
+                }
+
+                @Override
+                public void complete() {
+                    subscriber.onComplete();
+                }
+            });
+            subscriber.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(long n) {
+                    if (n <= 0) {
+                        batch.terminate();
+                        subscriber.onError(new IllegalArgumentException("request数量必须大于0: " + n));
+                        return;
+                    }
+                    batch.request(n);
+                }
+
+                @Override
+                public void cancel() {
+                    batch.terminate();
+                }
+            });
+        };
+    }
+
+    /**
+     * 全部链接都已回调后完成
+     */
+    public Future<BatchSummary> future() {
+        return promise.future();
+    }
+
+    /**
+     * 取消批量解析: 尚未开始和正在进行的解析都以 {@link CancellationException} 失败回调,
+     * 进行中的解析随之中断其 HTTP 请求
+     */
+    public void cancel() {
+        List<Future<String>> running;
+        synchronized (lock) {
+            cancelled = true;
+            running = new ArrayList<>(active);
+            for (ArrayDeque<Item> queue : queues.values()) {
+                for (Item item : queue) {
+                    ready.add(new BatchResult(item.index, item.url,
+                            item.parserCreate == null ? null : item.parserCreate.getShareLinkInfo(),
+                            null, new CancellationException("批量解析已取消")));
+                }
+                queue.clear();
+            }
+            queued = 0;
+        }
+        running.forEach(Future::cancel);
+        drain();
+    }
+
+    /**
+     * 正在解析的链接数
+     */
+    public int inFlight() {
+        synchronized (lock) {
+            return inFlight;
+        }
+    }
+
+    /**
+     * 等待开始解析的链接数
+     */
+    public int queued() {
+        synchronized (lock) {
+            return queued;
+        }
+    }
+
+    private void request(long n) {
+        synchronized (lock) {
+            demand = demand + n < 0 ? Long.MAX_VALUE : demand + n;
+        }
+        drain();
+    }
+
+    private void terminate() {
+        List<Future<String>> running;
+        synchronized (lock) {
+            terminated = true;
+            cancelled = true;
+            queues.clear();
+            ready.clear();
+            queued = 0;
+            running = new ArrayList<>(active);
+        }
+        // 订阅已取消, 进行中的解析不再有人接收
+        running.forEach(Future::cancel);
+    }
+
+    private static Item resolve(int index, String url) {
+        try {
+            ParserCreate parserCreate = ParserCreate.fromShareUrl(url);
+            return new Item(index, url, parserCreate.getShareLinkInfo().getType(), parserCreate, null);
+        } catch (Exception e) {
+            return new Item(index, url, UNRESOLVED, null, e);
+        }
+    }
+
+    /**
+     * 开始可以开始的解析并推送已完成的结果, 直到没有新的进展
+     * <p>同一时刻只有一个线程执行, 其他线程的调用记为 missed 由执行中的线程代为处理, 保证结果串行推送。</p>
+     */
+    private void drain() {
+        synchronized (lock) {
+            if (draining) {
+                missed = true;
+                return;
+            }
+            draining = true;
+        }
+        BatchSummary summary = null;
+        for (; ; ) {
+            List<Item> launches = new ArrayList<>();
+            List<BatchResult> deliveries = new ArrayList<>();
+            synchronized (lock) {
+                missed = false;
+                if (!terminated) {
+                    Item item;
+                    while ((item = nextLaunchable()) != null) {
+                        launches.add(item);
+                    }
+                    while (!ready.isEmpty() && demand > 0) {
+                        BatchResult result = ready.poll();
+                        deliveries.add(result);
+                        if (demand != Long.MAX_VALUE) {
+                            demand--;
+                        }
+                        delivered++;
+                        if (result.succeeded()) {
+                            succeeded++;
+                        } else {
+                            failed++;
+                        }
+                    }
+                }
+                if (launches.isEmpty() && deliveries.isEmpty() && !missed) {
+                    draining = false;
+                    if (!finished && !terminated && delivered == total) {
+                        finished = true;
+                        summary = new BatchSummary(total, succeeded, failed, System.currentTimeMillis() - startedAt);
+                    }
+                    break;
+                }
+            }
+            for (Item item : launches) {
+                launch(item);
+            }
+            for (BatchResult result : deliveries) {
+                try {
+                    sink.next(result);
+                } catch (Exception e) {
+                    log.warn("批量解析结果回调异常: {}", result, e);
+                }
+            }
+        }
+        if (summary != null) {
+            sink.complete();
+            promise.complete(summary);
+        }
+    }
+
+    /**
+     * 按全局和单网盘并发上限选出下一个可以开始的链接, 取各网盘队首中提交最早的一个
+     */
+    private Item nextLaunchable() {
+        if (inFlight >= options.getMaxConcurrency() || inFlight + ready.size() >= demand) {
+            return null;
+        }
+        ArrayDeque<Item> best = null;
+        for (Map.Entry<String, ArrayDeque<Item>> entry : queues.entrySet()) {
+            ArrayDeque<Item> queue = entry.getValue();
+            if (queue.isEmpty()) {
+                continue;
+            }
+            String type = entry.getKey();
+            if (!UNRESOLVED.equals(type)
+                    && running.getOrDefault(type, 0) >= options.getPanConcurrency(type)) {
+                continue;
+            }
+            if (best == null || queue.peek().index < best.peek().index) {
+                best = queue;
+            }
+        }
+        if (best == null) {
+            return null;
+        }
+        Item item = best.poll();
+        queued--;
+        inFlight++;
+        running.merge(item.type, 1, Integer::sum);
+        return item;
+    }
+
+    private void launch(Item item) {
+        Future<String> future;
+        if (item.parserCreate == null) {
+            future = Future.failedFuture(item.error);
+        } else {
+            try {
+                Duration parseTimeout = options.getParseTimeout();
+                if (parseTimeout != null) {
+                    item.parserCreate.getShareLinkInfo().setDeadline(System.currentTimeMillis() + parseTimeout.toMillis());
+                }
+                IPanTool tool = options.isManaged() ? item.parserCreate.createManagedTool() : item.parserCreate.createTool();
+                future = tool.parse();
+                if (future == null) {
+                    future = Future.failedFuture(new IllegalStateException("parse() 返回了 null"));
+                }
+                future = Deadlines.bound(future, item.parserCreate.getShareLinkInfo());
+            } catch (Exception e) {
+                future = Future.failedFuture(e);
+            }
+        }
+        boolean cancelNow;
+        synchronized (lock) {
+            cancelNow = cancelled;
+            if (!cancelNow && !future.isComplete()) {
+                active.add(future);
+            }
+        }
+        if (cancelNow) {
+            future.cancel();
+        }
+        Future<String> launched = future;
+        launched.onComplete(ar -> onComplete(item, launched, ar));
+    }
+
+    private void onComplete(Item item, Future<String> future, AsyncResult<String> ar) {
+        BatchResult result = new BatchResult(item.index, item.url,
+                item.parserCreate == null ? null : item.parserCreate.getShareLinkInfo(),
+                ar.succeeded() ? ar.result() : null, ar.succeeded() ? null : ar.cause());
+        synchronized (lock) {
+            active.remove(future);
+            inFlight--;
+            running.merge(item.type, -1, Integer::sum);
+            if (!terminated) {
+                ready.add(result);
+            }
+        }
+        drain();
+    }
+
+    private interface Sink {
+        void next(BatchResult result);
+
+        void complete();
+    }
+
+    private static final class Item {
+        final int index;
+        final String url;
+        final String type;
+        final ParserCreate parserCreate;
+        final Throwable error;
+
+        Item(int index, String url, String type, ParserCreate parserCreate, Throwable error) {
+            this.index = index;
+            this.url = url;
+            this.type = type;
+            this.parserCreate = parserCreate;
+            this.error = error;
+        }
+    }
+}
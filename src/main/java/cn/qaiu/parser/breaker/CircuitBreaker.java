@@ -0,0 +1,215 @@
+package cn.qaiu.parser.breaker;
+
+import cn.qaiu.parser.FailureType;
+import io.vertx.core.Future;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 单个网盘的熔断器
+ * <p>
+ * 按最近 {@link CircuitBreakerOptions#getWindowSize()} 次调用统计失败率, 只有 {@link FailureType#TRANSIENT}
+ * 的失败(网络异常、超时、限流等)计为失败; 分享失效、提取码错误等永久失败说明网盘接口正常, 计为成功。
+ * 熔断期间调用直接以 {@link CircuitOpenException} 失败, 熔断时长过后放行少量探测调用判断是否恢复。
+ * 每次状态变化后, 之前开始的调用结果不再计入统计。
+ * </p>
+ */
+public class CircuitBreaker {
+    private static final Logger log = LoggerFactory.getLogger(CircuitBreaker.class);
+
+    private final String name;
+    private final CircuitBreakerOptions options;
+    private final List<CircuitBreakerListener> listeners;
+
+    private CircuitState state = CircuitState.CLOSED;
+    /**
+     * 状态变化计数, 调用结果只计入开始时所在的代
+     */
+    private long generation;
+    /**
+     * 最近调用的结果, 环形缓冲区, true 表示失败
+     */
+    private final boolean[] window;
+    private int windowIndex;
+    private int windowCalls;
+    private int windowFailures;
+    private long openedAt;
+    private int halfOpenStarted;
+    private int halfOpenSucceeded;
+
+    /**
+     * @param listeners 状态变化监听, 由调用方维护(可在创建后增删)
+     */
+    public CircuitBreaker(String name, CircuitBreakerOptions options, List<CircuitBreakerListener> listeners) {
+        this.name = name;
+        this.options = new CircuitBreakerOptions(options);
+        this.listeners = listeners;
+        this.window = new boolean[this.options.getWindowSize()];
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public synchronized CircuitState getState() {
+        return state;
+    }
+
+    /**
+     * 当前窗口的失败率, 调用数不足时为 0
+     */
+    public synchronized double getFailureRate() {
+        return windowCalls == 0 ? 0 : (double) windowFailures / windowCalls;
+    }
+
+    /**
+     * 在熔断器保护下执行调用
+     */
+    public <T> Future<T> execute(Supplier<Future<T>> task) {
+        long permit = tryAcquire();
+        if (permit < 0) {
+            return Future.failedFuture(new CircuitOpenException(name, -permit - 1));
+        }
+        Future<T> future;
+        try {
+            future = task.get();
+        } catch (RuntimeException e) {
+            record(permit, false);
+            return Future.failedFuture(e);
+        }
+        // 派生而非直接监听, 调用方取消时取消能继续传给任务; 被取消的调用不反映后端状况, 只归还许可
+        Future<T> guarded = future.transform(ar -> {
+            if (ar.succeeded() || !(ar.cause() instanceof CancellationException)) {
+                record(permit, ar.succeeded() || FailureType.of(ar.cause()) == FailureType.PERMANENT);
+            }
+            return ar;
+        });
+        guarded.onCancel(() -> release(permit));
+        return guarded;
+    }
+
+    /**
+     * 归还未产生结果的调用许可: 半开状态下让出探测名额
+     */
+    private void release(long permit) {
+        synchronized (this) {
+            if (permit == generation && state == CircuitState.HALF_OPEN && halfOpenStarted > 0) {
+                halfOpenStarted--;
+            }
+        }
+    }
+
+    /**
+     * 申请调用许可
+     *
+     * @return 成功时为当前代(>=0); 拒绝时为 -(剩余熔断毫秒数 + 1)
+     */
+    private long tryAcquire() {
+        boolean probing = false;
+        long permit;
+        synchronized (this) {
+            if (state == CircuitState.OPEN) {
+                long remaining = openedAt + options.getOpenDuration().toNanos() - System.nanoTime();
+                if (remaining > 0) {
+                    return -TimeUnit.NANOSECONDS.toMillis(remaining) - 1;
+                }
+                transition(CircuitState.HALF_OPEN);
+                probing = true;
+            }
+            if (state == CircuitState.HALF_OPEN) {
+                // 探测名额已用完, 等待探测结果
+                if (halfOpenStarted >= options.getHalfOpenCalls()) {
+                    return -1;
+                }
+                halfOpenStarted++;
+            }
+            permit = generation;
+        }
+        if (probing) {
+            notifyListeners(CircuitState.OPEN, CircuitState.HALF_OPEN);
+        }
+        return permit;
+    }
+
+    private void record(long permit, boolean success) {
+        CircuitState from;
+        CircuitState to;
+        synchronized (this) {
+            if (permit != generation) {
+                return;
+            }
+            from = state;
+            if (state == CircuitState.HALF_OPEN) {
+                if (!success) {
+                    transition(CircuitState.OPEN);
+                } else if (++halfOpenSucceeded >= options.getHalfOpenCalls()) {
+                    transition(CircuitState.CLOSED);
+                }
+            } else if (state == CircuitState.CLOSED) {
+                if (windowCalls == window.length) {
+                    if (window[windowIndex]) {
+                        windowFailures--;
+                    }
+                } else {
+                    windowCalls++;
+                }
+                window[windowIndex] = !success;
+                if (!success) {
+                    windowFailures++;
+                }
+                windowIndex = (windowIndex + 1) % window.length;
+                if (windowCalls >= options.getMinimumCalls()
+                        && windowFailures >= options.getFailureRateThreshold() * windowCalls) {
+                    transition(CircuitState.OPEN);
+                }
+            }
+            to = state;
+        }
+        if (from != to) {
+            notifyListeners(from, to);
+        }
+    }
+
+    /**
+     * 强制恢复为 CLOSED 并清空统计
+     */
+    public void reset() {
+        CircuitState from;
+        synchronized (this) {
+            from = state;
+            transition(CircuitState.CLOSED);
+        }
+        if (from != CircuitState.CLOSED) {
+            notifyListeners(from, CircuitState.CLOSED);
+        }
+    }
+
+    private void transition(CircuitState to) {
+        state = to;
+        generation++;
+        windowIndex = 0;
+        windowCalls = 0;
+        windowFailures = 0;
+        halfOpenStarted = 0;
+        halfOpenSucceeded = 0;
+        if (to == CircuitState.OPEN) {
+            openedAt = System.nanoTime();
+        }
+    }
+
+    private void notifyListeners(CircuitState from, CircuitState to) {
+        log.info("熔断器 {} 状态变化: {} -> {}", name, from, to);
+        for (CircuitBreakerListener listener : listeners) {
+            try {
+                listener.onStateChange(name, from, to);
+            } catch (Exception e) {
+                log.warn("熔断器监听回调异常", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package cn.qaiu.parser.breaker;
+
+/**
+ * 熔断器状态变化监听, 在触发状态变化的线程上同步回调, 不应执行耗时操作
+ */
+@FunctionalInterface
+public interface CircuitBreakerListener {
+
+    /**
+     * @param name 熔断器名称(网盘类型, 通用网盘为 类型@主机)
+     * @param from 原状态
+     * @param to   新状态
+     */
+    void onStateChange(String name, CircuitState from, CircuitState to);
+}
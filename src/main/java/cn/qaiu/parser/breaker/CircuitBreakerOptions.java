@@ -0,0 +1,103 @@
+package cn.qaiu.parser.breaker;
+
+import java.time.Duration;
+
+/**
+ * 熔断器配置
+ */
+public class CircuitBreakerOptions {
+    public static final int DEFAULT_WINDOW_SIZE = 20;
+    public static final int DEFAULT_MINIMUM_CALLS = 10;
+    public static final double DEFAULT_FAILURE_RATE_THRESHOLD = 0.5;
+    public static final Duration DEFAULT_OPEN_DURATION = Duration.ofSeconds(30);
+    public static final int DEFAULT_HALF_OPEN_CALLS = 3;
+
+    private int windowSize = DEFAULT_WINDOW_SIZE;
+    private int minimumCalls = DEFAULT_MINIMUM_CALLS;
+    private double failureRateThreshold = DEFAULT_FAILURE_RATE_THRESHOLD;
+    private Duration openDuration = DEFAULT_OPEN_DURATION;
+    private int halfOpenCalls = DEFAULT_HALF_OPEN_CALLS;
+
+    public CircuitBreakerOptions() {
+    }
+
+    public CircuitBreakerOptions(CircuitBreakerOptions other) {
+        this.windowSize = other.windowSize;
+        this.minimumCalls = other.minimumCalls;
+        this.failureRateThreshold = other.failureRateThreshold;
+        this.openDuration = other.openDuration;
+        this.halfOpenCalls = other.halfOpenCalls;
+    }
+
+    public int getWindowSize() {
+        return windowSize;
+    }
+
+    /**
+     * 统计失败率的最近调用数
+     */
+    public CircuitBreakerOptions setWindowSize(int windowSize) {
+        if (windowSize < 1) {
+            throw new IllegalArgumentException("windowSize必须大于0: " + windowSize);
+        }
+        this.windowSize = windowSize;
+        return this;
+    }
+
+    public int getMinimumCalls() {
+        return minimumCalls;
+    }
+
+    /**
+     * 窗口内至少有多少次调用才计算失败率
+     */
+    public CircuitBreakerOptions setMinimumCalls(int minimumCalls) {
+        if (minimumCalls < 1) {
+            throw new IllegalArgumentException("minimumCalls必须大于0: " + minimumCalls);
+        }
+        this.minimumCalls = minimumCalls;
+        return this;
+    }
+
+    public double getFailureRateThreshold() {
+        return failureRateThreshold;
+    }
+
+    /**
+     * 失败率达到该值时熔断, 取值 (0, 1]
+     */
+    public CircuitBreakerOptions setFailureRateThreshold(double failureRateThreshold) {
+        if (!(failureRateThreshold > 0 && failureRateThreshold <= 1)) {
+            throw new IllegalArgumentException("failureRateThreshold必须在(0, 1]之间: " + failureRateThreshold);
+        }
+        this.failureRateThreshold = failureRateThreshold;
+        return this;
+    }
+
+    public Duration getOpenDuration() {
+        return openDuration;
+    }
+
+    /**
+     * 熔断后多久开始探测
+     */
+    public CircuitBreakerOptions setOpenDuration(Duration openDuration) {
+        this.openDuration = openDuration;
+        return this;
+    }
+
+    public int getHalfOpenCalls() {
+        return halfOpenCalls;
+    }
+
+    /**
+     * 半开状态放行的探测调用数, 全部成功后恢复
+     */
+    public CircuitBreakerOptions setHalfOpenCalls(int halfOpenCalls) {
+        if (halfOpenCalls < 1) {
+            throw new IllegalArgumentException("halfOpenCalls必须大于0: " + halfOpenCalls);
+        }
+        this.halfOpenCalls = halfOpenCalls;
+        return this;
+    }
+}
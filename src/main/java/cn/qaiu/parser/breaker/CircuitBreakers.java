@@ -0,0 +1,103 @@
+package cn.qaiu.parser.breaker;
+
+import cn.qaiu.entity.ShareLinkInfo;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * 按网盘管理熔断器
+ * <p>
+ * 内置和自定义网盘按类型各用一个熔断器; CE/KD/OTHER 等通用规则对应的是各不相同的自建站点,
+ * 按 类型@主机 分别熔断, 一个站点故障不影响其他站点。
+ * </p>
+ */
+public final class CircuitBreakers {
+
+    /**
+     * 通用规则的网盘类型, 按主机区分熔断器
+     */
+    private static final Set<String> GENERIC_TYPES = Set.of("ce", "kd", "other");
+
+    private static final Map<String, CircuitBreaker> BREAKERS = new ConcurrentHashMap<>();
+
+    private static final List<CircuitBreakerListener> LISTENERS = new CopyOnWriteArrayList<>();
+
+    private static volatile CircuitBreakerOptions options = new CircuitBreakerOptions();
+
+    private CircuitBreakers() {
+    }
+
+    /**
+     * 获取指定名称的熔断器, 不存在时按当前配置创建
+     */
+    public static CircuitBreaker get(String name) {
+        CircuitBreaker breaker = BREAKERS.get(name);
+        return breaker != null ? breaker
+                : BREAKERS.computeIfAbsent(name, k -> new CircuitBreaker(k, options, LISTENERS));
+    }
+
+    /**
+     * 获取分享链接所属网盘的熔断器
+     */
+    public static CircuitBreaker forShareLink(ShareLinkInfo shareLinkInfo) {
+        return get(nameOf(shareLinkInfo));
+    }
+
+    /**
+     * 熔断器名称: 网盘类型, 通用规则为 类型@主机
+     */
+    static String nameOf(ShareLinkInfo shareLinkInfo) {
+        String type = shareLinkInfo.getType() == null ? "" : shareLinkInfo.getType().toLowerCase(Locale.ROOT);
+        if (!GENERIC_TYPES.contains(type) || shareLinkInfo.getShareUrl() == null) {
+            return type;
+        }
+        try {
+            String host = URI.create(shareLinkInfo.getShareUrl()).getHost();
+            return host == null ? type : type + "@" + host.toLowerCase(Locale.ROOT);
+        } catch (IllegalArgumentException e) {
+            return type;
+        }
+    }
+
+    /**
+     * 修改配置, 只对之后创建的熔断器生效; 需要立即生效时配合 {@link #clear()}
+     */
+    public static void setOptions(CircuitBreakerOptions options) {
+        CircuitBreakers.options = new CircuitBreakerOptions(options);
+    }
+
+    public static CircuitBreakerOptions getOptions() {
+        return new CircuitBreakerOptions(options);
+    }
+
+    public static void addListener(CircuitBreakerListener listener) {
+        LISTENERS.add(listener);
+    }
+
+    public static boolean removeListener(CircuitBreakerListener listener) {
+        return LISTENERS.remove(listener);
+    }
+
+    /**
+     * 各熔断器的当前状态
+     */
+    public static Map<String, CircuitState> states() {
+        Map<String, CircuitState> states = new TreeMap<>();
+        BREAKERS.forEach((name, breaker) -> states.put(name, breaker.getState()));
+        return states;
+    }
+
+    /**
+     * 移除全部熔断器(监听保留)
+     */
+    public static void clear() {
+        BREAKERS.clear();
+    }
+}
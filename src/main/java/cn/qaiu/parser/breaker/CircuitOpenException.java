@@ -0,0 +1,32 @@
+package cn.qaiu.parser.breaker;
+
+import cn.qaiu.parser.FailureType;
+import cn.qaiu.parser.ParseFailureException;
+
+/**
+ * 熔断期间的快速失败, 属于 {@link FailureType#TRANSIENT}, 不会写入负缓存
+ */
+public class CircuitOpenException extends ParseFailureException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String name;
+    private final long retryAfterMillis;
+
+    public CircuitOpenException(String name, long retryAfterMillis) {
+        super(name + " 暂时不可用(熔断中), 请稍后重试", FailureType.TRANSIENT);
+        this.name = name;
+        this.retryAfterMillis = retryAfterMillis;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * 距离允许探测的剩余时间
+     */
+    public long getRetryAfterMillis() {
+        return retryAfterMillis;
+    }
+}
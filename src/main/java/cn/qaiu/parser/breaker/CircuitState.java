@@ -0,0 +1,15 @@
+package cn.qaiu.parser.breaker;
+
+/**
+ * 熔断器状态
+ * <ul>
+ *     <li>CLOSED: 正常放行, 统计最近调用的失败率</li>
+ *     <li>OPEN: 失败率超过阈值, 直接失败, 不再调用网盘接口</li>
+ *     <li>HALF_OPEN: 熔断时长已过, 放行少量探测调用, 全部成功则恢复, 任一失败则重新熔断</li>
+ * </ul>
+ */
+public enum CircuitState {
+    CLOSED,
+    OPEN,
+    HALF_OPEN
+}
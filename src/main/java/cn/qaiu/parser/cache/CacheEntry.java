@@ -0,0 +1,94 @@
+package cn.qaiu.parser.cache;
+
+import cn.qaiu.entity.FileInfo;
+import io.vertx.core.json.JsonObject;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 缓存的解析结果
+ * <p>
+ * 除结果本身外还保存解析期间写入 otherParam 的传出参数(downloadUrl、fileInfo 等),
+ * 命中缓存时一并还原给调用方。
+ * 结果和传出参数中的 List、Map、{@link FileInfo}、{@link JsonObject} 在写入时复制一份保存,
+ * 调用方通过 {@link #copyValue()}、{@link #copyOutput()} 取得各自的副本, 修改不会影响缓存和其他调用方。
+ * </p>
+ */
+public class CacheEntry {
+    private final Object value;
+    private final Map<String, Object> output;
+    private final long expiresAt;
+
+    /**
+     * @param value     解析结果
+     * @param output    传出参数
+     * @param expiresAt 过期时间(毫秒时间戳)
+     */
+    public CacheEntry(Object value, Map<String, Object> output, long expiresAt) {
+        this.value = copy(value);
+        this.output = output == null ? Collections.emptyMap() : Collections.unmodifiableMap(copyMap(output));
+        this.expiresAt = expiresAt;
+    }
+
+    public Object getValue() {
+        return value;
+    }
+
+    public Map<String, Object> getOutput() {
+        return output;
+    }
+
+    /**
+     * 解析结果的副本
+     */
+    public Object copyValue() {
+        return copy(value);
+    }
+
+    /**
+     * 传出参数的副本
+     */
+    public Map<String, Object> copyOutput() {
+        return copyMap(output);
+    }
+
+    public long getExpiresAt() {
+        return expiresAt;
+    }
+
+    public boolean isExpired(long now) {
+        return now >= expiresAt;
+    }
+
+    private static Object copy(Object value) {
+        if (value instanceof FileInfo) {
+            return ((FileInfo) value).copy();
+        }
+        if (value instanceof JsonObject) {
+            return ((JsonObject) value).copy();
+        }
+        if (value instanceof List) {
+            List<Object> list = new ArrayList<>(((List<?>) value).size());
+            for (Object element : (List<?>) value) {
+                list.add(copy(element));
+            }
+            return list;
+        }
+        if (value instanceof Map) {
+            Map<Object, Object> map = new LinkedHashMap<>();
+            ((Map<?, ?>) value).forEach((k, v) -> map.put(k, copy(v)));
+            return map;
+        }
+        return value;
+    }
+
+    private static Map<String, Object> copyMap(Map<String, Object> map) {
+        Map<String, Object> copy = new LinkedHashMap<>();
+        map.forEach((name, value) -> copy.put(name, copy(value)));
+        return copy;
+    }
+}
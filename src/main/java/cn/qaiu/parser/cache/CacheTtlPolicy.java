@@ -0,0 +1,123 @@
+package cn.qaiu.parser.cache;
+
+import cn.qaiu.entity.ShareLinkInfo;
+import cn.qaiu.parser.PanDomainTemplate;
+import cn.qaiu.util.URLUtil;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 解析结果的缓存时长策略
+ * <p>
+ * 默认取 {@link PanDomainTemplate#getCacheTtl()}, 可按网盘类型覆盖; 结果为直链且链接本身带有过期时间
+ * (expires / e / t 等参数, 或 X-Amz-Date + X-Amz-Expires)时, 取两者较小值并预留 {@link #SAFETY_MARGIN}。
+ * </p>
+ */
+public class CacheTtlPolicy {
+
+    /**
+     * 直链到期前预留的时间, 避免返回即将失效的链接
+     */
+    public static final Duration SAFETY_MARGIN = Duration.ofSeconds(30);
+
+    /**
+     * 自定义解析器等非内置网盘的默认缓存时长
+     */
+    public static final Duration DEFAULT_TTL = Duration.ofMinutes(5);
+
+    private static final String[] EXPIRES_PARAMS = {"expires", "Expires", "e", "t", "x-expires", "deadline"};
+
+    private static final DateTimeFormatter AMZ_DATE = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'");
+
+    private final Map<String, Duration> overrides = new ConcurrentHashMap<>();
+
+    /**
+     * 覆盖指定网盘类型的缓存时长, {@link Duration#ZERO} 表示不缓存
+     */
+    public CacheTtlPolicy setTtl(String type, Duration ttl) {
+        overrides.put(type.toLowerCase(Locale.ROOT), ttl);
+        return this;
+    }
+
+    /**
+     * 计算缓存时长(毫秒), 不应缓存时返回0
+     *
+     * @param shareLinkInfo 分享信息
+     * @param value         解析结果
+     * @param now           当前时间戳
+     */
+    public long ttlMillis(ShareLinkInfo shareLinkInfo, Object value, long now) {
+        long ttl = defaultTtl(shareLinkInfo.getType()).toMillis();
+        if (ttl > 0 && value instanceof String) {
+            long expiresAt = expiresAt((String) value);
+            if (expiresAt > 0) {
+                ttl = Math.min(ttl, expiresAt - SAFETY_MARGIN.toMillis() - now);
+            }
+        }
+        return Math.max(ttl, 0);
+    }
+
+    private Duration defaultTtl(String type) {
+        if (type == null) {
+            return DEFAULT_TTL;
+        }
+        Duration override = overrides.get(type.toLowerCase(Locale.ROOT));
+        if (override != null) {
+            return override;
+        }
+        try {
+            return PanDomainTemplate.valueOf(type.toUpperCase(Locale.ROOT)).getCacheTtl();
+        } catch (IllegalArgumentException e) {
+            return DEFAULT_TTL;
+        }
+    }
+
+    /**
+     * 从直链中提取过期时间(毫秒时间戳), 无法识别时返回 -1
+     * <p>
+     * 仅接受10位(秒)或13位(毫秒)且晚于当前时间的时间戳, t 等参数也常用作签发时间, 早于当前时间时忽略。
+     * </p>
+     */
+    public static long expiresAt(String url) {
+        if (url == null || !url.startsWith("http") || url.indexOf('?') < 0) {
+            return -1;
+        }
+        URLUtil params = URLUtil.from(url);
+        long now = System.currentTimeMillis();
+        for (String name : EXPIRES_PARAMS) {
+            long timestamp = parseTimestamp(params.getParam(name));
+            if (timestamp > now) {
+                return timestamp;
+            }
+        }
+        String amzDate = params.getParam("X-Amz-Date");
+        String amzExpires = params.getParam("X-Amz-Expires");
+        if (amzDate != null && amzExpires != null) {
+            try {
+                long signedAt = LocalDateTime.parse(amzDate, AMZ_DATE).toInstant(ZoneOffset.UTC).toEpochMilli();
+                return signedAt + Long.parseLong(amzExpires) * 1000;
+            } catch (RuntimeException ignored) {
+            }
+        }
+        return -1;
+    }
+
+    private static long parseTimestamp(String value) {
+        if (value == null || !(value.length() == 10 || value.length() == 13)) {
+            return -1;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) < '0' || value.charAt(i) > '9') {
+                return -1;
+            }
+        }
+        long timestamp = Long.parseLong(value);
+        return value.length() == 10 ? timestamp * 1000 : timestamp;
+    }
+}
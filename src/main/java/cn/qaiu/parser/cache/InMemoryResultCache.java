@@ -0,0 +1,62 @@
+package cn.qaiu.parser.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 进程内有界 LRU 缓存
+ * <p>
+ * 超过容量时淘汰最久未访问的条目, 读取时顺带清除已过期的条目。
+ * </p>
+ */
+public class InMemoryResultCache implements ResultCache {
+
+    public static final int DEFAULT_MAX_ENTRIES = 1024;
+
+    private final Map<String, CacheEntry> entries;
+
+    public InMemoryResultCache() {
+        this(DEFAULT_MAX_ENTRIES);
+    }
+
+    public InMemoryResultCache(int maxEntries) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("maxEntries 必须大于0");
+        }
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CacheEntry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    @Override
+    public synchronized CacheEntry get(String key) {
+        CacheEntry entry = entries.get(key);
+        if (entry != null && entry.isExpired(System.currentTimeMillis())) {
+            entries.remove(key);
+            return null;
+        }
+        return entry;
+    }
+
+    @Override
+    public synchronized void put(String key, CacheEntry entry) {
+        entries.put(key, entry);
+    }
+
+    @Override
+    public synchronized void invalidate(String key) {
+        entries.remove(key);
+    }
+
+    @Override
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+}
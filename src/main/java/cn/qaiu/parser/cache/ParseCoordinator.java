@@ -0,0 +1,204 @@
+package cn.qaiu.parser.cache;
+
+import cn.qaiu.entity.ShareLinkInfo;
+import cn.qaiu.parser.FailureType;
+import io.vertx.core.Future;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+
+/**
+ * 解析协调器: 缓存解析结果并合并相同分享链接的并发解析
+ * <p>
+ * 键由操作类型、{@link ShareLinkInfo#getCacheKey()} 以及提取码和调用时 otherParam 中传入参数的摘要组成,
+ * 认证信息或目录ID不同的请求互不共享结果。解析前先查 {@link ResultCache}, 未命中时相同键的并发解析只执行一次,
+ * 成功结果按 {@link CacheTtlPolicy} 写入缓存; {@link FailureType#PERMANENT} 的失败(分享失效、提取码错误等)
+ * 写入短时的负缓存, 期间直接返回同样的失败, 临时失败不缓存。leader 解析期间写入 otherParam 的传出参数
+ * (downloadUrl、fileInfo、下载请求头等)随结果一起复制给 follower 和命中缓存的调用方。
+ * </p>
+ */
+public class ParseCoordinator {
+
+    /**
+     * 解析操作类型
+     */
+    public enum Operation {
+        PARSE, FILE_LIST, BY_ID
+    }
+
+    /**
+     * 永久失败的默认缓存时长, 分享可能被重新开启或修改提取码, 不宜过长
+     */
+    public static final Duration DEFAULT_NEGATIVE_TTL = Duration.ofMinutes(2);
+
+    private static final ParseCoordinator INSTANCE = new ParseCoordinator();
+
+    private final SingleFlight<CacheEntry> flights = new SingleFlight<>();
+
+    private volatile ResultCache resultCache = new InMemoryResultCache();
+
+    private volatile CacheTtlPolicy ttlPolicy = new CacheTtlPolicy();
+
+    /**
+     * 负缓存只在进程内保存, 失败异常不适合序列化到外部存储
+     */
+    private final InMemoryResultCache negativeCache = new InMemoryResultCache(512);
+
+    private volatile Duration negativeTtl = DEFAULT_NEGATIVE_TTL;
+
+    public static ParseCoordinator getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * 执行解析, 相同的解析正在进行时复用其结果
+     *
+     * @param operation     操作类型
+     * @param shareLinkInfo 当前调用方的分享信息
+     * @param task          实际解析, 仅由 leader 调用
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Future<T> execute(Operation operation, ShareLinkInfo shareLinkInfo, Supplier<Future<T>> task) {
+        String key = cacheKey(operation, shareLinkInfo);
+        ResultCache cache = resultCache;
+        CacheEntry cached = cache == null ? null : cache.get(key);
+        if (cached != null) {
+            cached.copyOutput().forEach(shareLinkInfo.getOtherParam()::putIfAbsent);
+            return Future.succeededFuture((T) cached.copyValue());
+        }
+        CacheEntry failed = negativeCache.get(key);
+        if (failed != null) {
+            return Future.failedFuture((Throwable) failed.getValue());
+        }
+
+        Map<String, Object> input = new HashMap<>(shareLinkInfo.getOtherParam());
+        CacheEntry[] own = new CacheEntry[1];
+        Object[] ownValue = new Object[1];
+        Future<CacheEntry> flight = flights.execute(key, () -> task.get().map(value -> {
+            ownValue[0] = value;
+            long now = System.currentTimeMillis();
+            long ttl = ttlPolicy.ttlMillis(shareLinkInfo, value, now);
+            CacheEntry entry = new CacheEntry(value, outputs(input, shareLinkInfo.getOtherParam()), now + ttl);
+            if (cache != null && ttl > 0) {
+                cache.put(key, entry);
+            }
+            return own[0] = entry;
+        }).recover(e -> {
+            long ttl = negativeTtl.toMillis();
+            if (ttl > 0 && FailureType.of(e) == FailureType.PERMANENT) {
+                negativeCache.put(key, new CacheEntry(e, null, System.currentTimeMillis() + ttl));
+            }
+            return Future.failedFuture(e);
+        }));
+        return flight.map(entry -> {
+            if (entry == own[0]) {
+                return (T) ownValue[0];
+            }
+            // 合并进来的调用方各自拿副本, 不与 leader 和缓存共享可变对象
+            entry.copyOutput().forEach(shareLinkInfo.getOtherParam()::putIfAbsent);
+            return (T) entry.copyValue();
+        });
+    }
+
+    /**
+     * 替换结果缓存, 传 null 关闭缓存(仍合并并发解析)
+     */
+    public ParseCoordinator setResultCache(ResultCache resultCache) {
+        this.resultCache = resultCache;
+        return this;
+    }
+
+    public ResultCache getResultCache() {
+        return resultCache;
+    }
+
+    public ParseCoordinator setTtlPolicy(CacheTtlPolicy ttlPolicy) {
+        this.ttlPolicy = ttlPolicy;
+        return this;
+    }
+
+    public CacheTtlPolicy getTtlPolicy() {
+        return ttlPolicy;
+    }
+
+    /**
+     * 永久失败的缓存时长, {@link Duration#ZERO} 关闭负缓存
+     */
+    public ParseCoordinator setNegativeTtl(Duration negativeTtl) {
+        this.negativeTtl = negativeTtl;
+        return this;
+    }
+
+    public Duration getNegativeTtl() {
+        return negativeTtl;
+    }
+
+    /**
+     * 移除指定分享链接的缓存结果和负缓存(当前提取码和参数下的)
+     */
+    public void invalidate(Operation operation, ShareLinkInfo shareLinkInfo) {
+        String key = cacheKey(operation, shareLinkInfo);
+        negativeCache.invalidate(key);
+        ResultCache cache = resultCache;
+        if (cache != null) {
+            cache.invalidate(key);
+        }
+    }
+
+    /**
+     * 正在进行的解析数
+     */
+    public int inFlight() {
+        return flights.inFlight();
+    }
+
+    /**
+     * 缓存键: 操作类型:网盘类型:分享key[:参数摘要]
+     * <p>
+     * 提取码和认证信息只以 SHA-256 摘要的形式出现, 外部缓存存储中不会出现明文。
+     * </p>
+     */
+    static String cacheKey(Operation operation, ShareLinkInfo shareLinkInfo) {
+        String key = operation.name() + ":" + shareLinkInfo.getCacheKey();
+        StringBuilder params = new StringBuilder();
+        if (shareLinkInfo.getSharePassword() != null) {
+            params.append(shareLinkInfo.getSharePassword());
+        }
+        // 按名称排序, 保证相同参数得到相同的键
+        new TreeMap<>(shareLinkInfo.getOtherParam()).forEach((name, value) ->
+                params.append('|').append(name).append('=').append(value));
+        if (params.length() == 0) {
+            return key;
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(params.toString().getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(key.length() + 33).append(key).append(':');
+            for (int i = 0; i < 16; i++) {
+                hex.append(Character.forDigit((digest[i] >> 4) & 0xF, 16)).append(Character.forDigit(digest[i] & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * leader 解析期间新增或改写的 otherParam
+     */
+    private static Map<String, Object> outputs(Map<String, Object> before, Map<String, Object> after) {
+        Map<String, Object> output = new HashMap<>();
+        after.forEach((name, value) -> {
+            if (value != null && !value.equals(before.get(name))) {
+                output.put(name, value);
+            }
+        });
+        return output;
+    }
+}
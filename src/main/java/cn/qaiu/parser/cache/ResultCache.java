@@ -0,0 +1,32 @@
+package cn.qaiu.parser.cache;
+
+/**
+ * 解析结果缓存 SPI
+ * <p>
+ * 默认实现为进程内的 {@link InMemoryResultCache}; 接入 Redis 等外部存储时实现此接口并通过
+ * {@link ParseCoordinator#setResultCache(ResultCache)} 替换。实现需要线程安全,
+ * 可以按 {@link CacheEntry#getExpiresAt()} 设置存储端的过期时间。
+ * </p>
+ */
+public interface ResultCache {
+
+    /**
+     * 读取缓存, 不存在或已过期时返回 null
+     */
+    CacheEntry get(String key);
+
+    /**
+     * 写入缓存
+     */
+    void put(String key, CacheEntry entry);
+
+    /**
+     * 移除指定缓存
+     */
+    void invalidate(String key);
+
+    /**
+     * 清空缓存
+     */
+    void clear();
+}
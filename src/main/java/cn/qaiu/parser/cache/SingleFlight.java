@@ -0,0 +1,74 @@
+package cn.qaiu.parser.cache;
+
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * 合并相同 key 的并发异步调用
+ * <p>
+ * 同一 key 在执行期间只有第一个调用方(leader)真正执行任务, 其余调用方等待同一个结果。
+ * 任务完成时先移除 key 再通知订阅者, 完成之后的调用会重新执行; 这里只合并并发, 不缓存结果。
+ * </p>
+ *
+ * @param <T> 结果类型
+ */
+public class SingleFlight<T> {
+
+    private final Map<String, Future<T>> flights = new ConcurrentHashMap<>();
+
+    /**
+     * 执行任务, 相同 key 的任务正在执行时等待其结果
+     * <p>
+     * 每个调用方拿到各自的派生 Future: 单个调用方取消只影响自己, 全部调用方都取消后任务才被取消。
+     * </p>
+     *
+     * @param key  合并键
+     * @param task 任务, 仅由 leader 调用; 抛出的异常转为失败的 Future
+     * @return 任务结果
+     */
+    public Future<T> execute(String key, Supplier<Future<T>> task) {
+        Promise<T> promise = Promise.promise();
+        Future<T> shared = promise.future();
+        Future<T> existing = flights.putIfAbsent(key, shared);
+        if (existing != null) {
+            return existing.transform(result -> result);
+        }
+        Future<T> future;
+        try {
+            future = task.get();
+        } catch (Throwable e) {
+            future = Future.failedFuture(e);
+        }
+        if (future == null) {
+            future = Future.failedFuture(new IllegalStateException("任务返回了 null"));
+        }
+        Future<T> linked = future.transform(result -> {
+            flights.remove(key, shared);
+            return result;
+        });
+        shared.onCancel(() -> {
+            flights.remove(key, shared);
+            linked.cancel();
+        });
+        linked.onComplete(promise::handle);
+        return shared.transform(result -> result);
+    }
+
+    /**
+     * 指定 key 是否正在执行
+     */
+    public boolean isInFlight(String key) {
+        return flights.containsKey(key);
+    }
+
+    /**
+     * 正在执行的任务数
+     */
+    public int inFlight() {
+        return flights.size();
+    }
+}
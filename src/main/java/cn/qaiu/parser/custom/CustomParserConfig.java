@@ -2,8 +2,10 @@ package cn.qaiu.parser.custom;
 
 import cn.qaiu.entity.ShareLinkInfo;
 import cn.qaiu.parser.IPanTool;
+import cn.qaiu.parser.ToolFactories;
 
 import java.util.Map;
+import java.util.function.Function;
 import java.util.regex.Pattern;
 
 /**
@@ -30,6 +32,11 @@ public class CustomParserConfig {
      */
     private final Class<? extends IPanTool> toolClass;
 
+    /**
+     * 解析工具工厂（Java解析器），注册时确定，创建工具不经过反射
+     */
+    private final Function<ShareLinkInfo, IPanTool> toolFactory;
+
     /**
      * 标准URL模板（可选，用于规范化分享链接）
      */
@@ -67,6 +74,7 @@ public class CustomParserConfig {
         this.type = builder.type;
         this.displayName = builder.displayName;
         this.toolClass = builder.toolClass;
+        this.toolFactory = builder.toolFactory;
         this.standardUrlTemplate = builder.standardUrlTemplate;
         this.panDomain = builder.panDomain;
         this.matchPattern = builder.matchPattern;
@@ -87,6 +95,13 @@ public class CustomParserConfig {
         return toolClass;
     }
 
+    /**
+     * 解析工具工厂，JavaScript解析器为 null
+     */
+    public Function<ShareLinkInfo, IPanTool> getToolFactory() {
+        return toolFactory;
+    }
+
     public String getStandardUrlTemplate() {
         return standardUrlTemplate;
     }
@@ -130,6 +145,7 @@ public class CustomParserConfig {
         private String type;
         private String displayName;
         private Class<? extends IPanTool> toolClass;
+        private Function<ShareLinkInfo, IPanTool> toolFactory;
         private String standardUrlTemplate;
         private String panDomain;
         private Pattern matchPattern;
@@ -164,6 +180,16 @@ public class CustomParserConfig {
             return this;
         }
 
+        /**
+         * 设置解析工具工厂（可选），如 {@code MyTool::new}
+         * 未设置时由 toolClass 的 ShareLinkInfo 单参构造器生成；显式设置可完全避免反射，适合 AOT 编译
+         * @param toolFactory 工具工厂
+         */
+        public Builder toolFactory(Function<ShareLinkInfo, IPanTool> toolFactory) {
+            this.toolFactory = toolFactory;
+            return this;
+        }
+
         /**
          * 设置标准URL模板（可选）
          * @param standardUrlTemplate URL模板
@@ -257,11 +283,13 @@ public class CustomParserConfig {
                     throw new IllegalArgumentException("toolClass必须实现IPanTool接口");
                 }
                 
-                // 验证toolClass是否有ShareLinkInfo单参构造器
-                try {
-                    toolClass.getDeclaredConstructor(ShareLinkInfo.class);
-                } catch (NoSuchMethodException e) {
-                    throw new IllegalArgumentException("toolClass必须有ShareLinkInfo单参构造器", e);
+                // 未显式提供工厂时, 解析toolClass的ShareLinkInfo单参构造器
+                if (toolFactory == null) {
+                    try {
+                        toolFactory = ToolFactories.forClass(toolClass, "无法创建自定义工具实例: ");
+                    } catch (IllegalArgumentException e) {
+                        throw new IllegalArgumentException("toolClass必须有ShareLinkInfo单参构造器", e);
+                    }
                 }
             }
             
@@ -10,6 +10,7 @@ import cn.qaiu.parser.customjs.JsScriptMetadataParser;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * 自定义解析器注册中心
@@ -27,6 +28,11 @@ public class CustomParserRegistry {
      */
     private static final Map<String, CustomParserConfig> CUSTOM_PARSERS = new ConcurrentHashMap<>();
 
+    /**
+     * 注册表版本号, 每次注册、注销、清空时递增, 供分享链接分发索引判断是否需要重建
+     */
+    private static final AtomicLong VERSION = new AtomicLong();
+
     /**
      * 注册自定义解析器
      *
@@ -61,6 +67,7 @@ public class CustomParserRegistry {
         }
 
         CUSTOM_PARSERS.put(type, config);
+        VERSION.incrementAndGet();
         log.info("注册自定义解析器成功: {} ({})", config.getDisplayName(), type);
     }
 
@@ -178,6 +185,7 @@ public class CustomParserRegistry {
         
         CustomParserConfig removed = CUSTOM_PARSERS.remove(type.toLowerCase());
         if (removed != null) {
+            VERSION.incrementAndGet();
             log.info("注销自定义解析器: {} ({})", removed.getDisplayName(), type);
             return true;
         }
@@ -215,6 +223,16 @@ public class CustomParserRegistry {
      */
     public static void clear() {
         CUSTOM_PARSERS.clear();
+        VERSION.incrementAndGet();
+    }
+
+    /**
+     * 注册表版本号
+     *
+     * @return 每次注册、注销、清空后递增的版本号
+     */
+    public static long version() {
+        return VERSION.get();
     }
 
     /**
@@ -1,7 +1,7 @@
 package cn.qaiu.parser.customjs;
 
-import cn.qaiu.WebClientVertxInit;
 import cn.qaiu.util.HttpResponseHelper;
+import io.vertx.core.CancellationToken;
 import io.vertx.core.Future;
 import io.vertx.core.MultiMap;
 import io.vertx.core.Promise;
@@ -39,13 +39,26 @@ public class JsHttpClient {
     
     private static final Logger log = LoggerFactory.getLogger(JsHttpClient.class);
     
+    /**
+     * 单个请求最长等待时间
+     */
+    private static final long REQUEST_TIMEOUT_MILLIS = 30_000;
+    
+    /**
+     * 脚本线程同步等待响应, 可能本身就是事件循环线程, 因此响应直接在网络线程回调(见 withCompletionExecutor)
+     */
     private final WebClient client;
     private final WebClientSession clientSession;
+    /**
+     * 解析截止时间(毫秒时间戳), 0 表示不限
+     */
+    private final long deadline;
     private MultiMap headers;
-    
+
     public JsHttpClient() {
-        this.client = WebClient.create(WebClientVertxInit.get());
+        this.client = WebClient.create().withCompletionExecutor(Runnable::run);
         this.clientSession = WebClientSession.create(client);
+        this.deadline = 0;
         this.headers = MultiMap.caseInsensitiveMultiMap();
         // 设置默认的Accept-Encoding头以支持压缩响应
         this.headers.set("Accept-Encoding", "gzip, deflate, br, zstd");
@@ -60,6 +73,26 @@ public class JsHttpClient {
      * @param proxyConfig 代理配置JsonObject，包含type、host、port、username、password
      */
     public JsHttpClient(JsonObject proxyConfig) {
+        this(proxyConfig, 0);
+    }
+    
+    /**
+     * 带代理配置和截止时间的构造函数
+     * @param proxyConfig 代理配置JsonObject，可为null
+     * @param deadline 解析截止时间(毫秒时间戳)，每个请求以剩余时间为超时上限，0表示不限
+     */
+    public JsHttpClient(JsonObject proxyConfig, long deadline) {
+        this(proxyConfig, deadline, null);
+    }
+    
+    /**
+     * 带代理配置、截止时间和取消令牌的构造函数
+     * @param proxyConfig 代理配置JsonObject，可为null
+     * @param deadline 解析截止时间(毫秒时间戳)，每个请求以剩余时间为超时上限，0表示不限
+     * @param cancellation 解析的取消令牌，取消后进行中的请求被中断，可为null
+     */
+    public JsHttpClient(JsonObject proxyConfig, long deadline, CancellationToken cancellation) {
+        this.deadline = deadline;
         if (proxyConfig != null && proxyConfig.containsKey("type")) {
             ProxyOptions proxyOptions = new ProxyOptions()
                     .setType(ProxyType.valueOf(proxyConfig.getString("type").toUpperCase()))
@@ -73,13 +106,18 @@ public class JsHttpClient {
                 proxyOptions.setPassword(proxyConfig.getString("password"));
             }
             
-            this.client = WebClient.create(WebClientVertxInit.get(),
-                    new WebClientOptions()
+            this.client = WebClient.create(new WebClientOptions()
                             .setUserAgentEnabled(false)
-                            .setProxyOptions(proxyOptions));
+                            .setProxyOptions(proxyOptions))
+                    .withCompletionExecutor(Runnable::run)
+                    .withDeadline(deadline)
+                    .withCancellation(cancellation);
             this.clientSession = WebClientSession.create(client);
         } else {
-            this.client = WebClient.create(WebClientVertxInit.get());
+            this.client = WebClient.create()
+                    .withCompletionExecutor(Runnable::run)
+                    .withDeadline(deadline)
+                    .withCancellation(cancellation);
             this.clientSession = WebClientSession.create(client);
         }
         this.headers = MultiMap.caseInsensitiveMultiMap();
@@ -267,9 +305,10 @@ public class JsHttpClient {
      * 执行HTTP请求（同步）
      */
     private JsHttpResponse executeRequest(RequestExecutor executor) {
+        Future<HttpResponse<Buffer>> future = null;
         try {
             Promise<HttpResponse<Buffer>> promise = Promise.promise();
-            Future<HttpResponse<Buffer>> future = executor.execute();
+            future = executor.execute();
             
             future.onComplete(result -> {
                 if (result.succeeded()) {
@@ -279,14 +318,22 @@ public class JsHttpClient {
                 }
             });
             
-            // 等待响应完成（最多30秒）
+            // 等待响应完成（最多30秒，设置了截止时间时不超过剩余时间）
+            long waitMillis = REQUEST_TIMEOUT_MILLIS;
+            if (deadline > 0) {
+                waitMillis = Math.max(1, Math.min(waitMillis, deadline - System.currentTimeMillis()));
+            }
             HttpResponse<Buffer> response = promise.future().toCompletionStage()
                     .toCompletableFuture()
-                    .get(30, TimeUnit.SECONDS);
+                    .get(waitMillis, TimeUnit.MILLISECONDS);
             
             return new JsHttpResponse(response);
             
         } catch (Exception e) {
+            // 等待超时或被中断时请求可能仍在进行, 取消底层调用
+            if (future != null) {
+                future.cancel();
+            }
             log.error("HTTP请求执行失败", e);
             throw new RuntimeException("HTTP请求执行失败: " + e.getMessage(), e);
         }
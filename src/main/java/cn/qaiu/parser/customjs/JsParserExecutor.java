@@ -5,18 +5,26 @@ import cn.qaiu.entity.ShareLinkInfo;
 import cn.qaiu.parser.IPanTool;
 import cn.qaiu.parser.custom.CustomParserConfig;
 import cn.qaiu.util.RhinoUtils;
+import io.vertx.core.CancellationToken;
 import io.vertx.core.Future;
 import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
 import io.vertx.core.json.JsonObject;
 import org.mozilla.javascript.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.function.BiConsumer;
 
 /**
  * JavaScript解析器执行器
  * 实现IPanTool接口，执行JavaScript解析器逻辑
+ * <p>
+ * 脚本中的 http 调用同步阻塞等待响应, 因此引擎初始化和脚本函数都在 {@link Vertx#workerPool()} 上执行,
+ * 不占用事件循环; 结果回到发起调用的线程对应的回调执行器。
+ * </p>
  *
  * @author <a href="https://qaiu.top">QAIU</a>
  * Create at 2025/10/17
@@ -27,8 +35,10 @@ public class JsParserExecutor implements IPanTool {
     
     private final CustomParserConfig config;
     private final ShareLinkInfo shareLinkInfo;
-    private final Context context;
-    private final Scriptable scope;
+    /**
+     * 脚本作用域, 首次执行时在工作线程上初始化
+     */
+    private Scriptable scope;
     private final JsHttpClient httpClient;
     private final JsLogger jsLogger;
     private final JsShareLinkInfoWrapper shareLinkInfoWrapper;
@@ -44,14 +54,11 @@ public class JsParserExecutor implements IPanTool {
             proxyConfig = (JsonObject) shareLinkInfo.getOtherParam().get("proxy");
         }
         
-        this.httpClient = new JsHttpClient(proxyConfig);
+        // 解析结果被取消(批量取消、截止时间到达等)时, 中断脚本发出的请求
+        this.httpClient = new JsHttpClient(proxyConfig, shareLinkInfo.getDeadline(),
+                CancellationToken.of(promise.future()));
         this.jsLogger = new JsLogger("JsParser-" + config.getType());
         this.shareLinkInfoWrapper = new JsShareLinkInfoWrapper(shareLinkInfo);
-        
-        // 初始化引擎（必须在httpClient等对象创建后才能初始化）
-        ContextHolder holder = initEngine();
-        this.context = holder.context;
-        this.scope = holder.scope;
     }
     
     /**
@@ -63,24 +70,13 @@ public class JsParserExecutor implements IPanTool {
     }
     
     /**
-     * 用于保存Context和Scriptable的内部类
+     * 初始化JavaScript引擎 - 使用Rhino, 只执行一次
      */
-    private static class ContextHolder {
-        final Context context;
-        final Scriptable scope;
-        
-        ContextHolder(Context context, Scriptable scope) {
-            this.context = context;
-            this.scope = scope;
+    private synchronized Scriptable scope(Context context) {
+        if (scope != null) {
+            return scope;
         }
-    }
-    
-    /**
-     * 初始化JavaScript引擎 - 使用Rhino
-     */
-    private ContextHolder initEngine() {
         try {
-            Context context = ContextFactory.getGlobal().enterContext();
             Scriptable scope = context.initStandardObjects();
             
             // 注入Java对象到JavaScript环境
@@ -92,7 +88,8 @@ public class JsParserExecutor implements IPanTool {
             context.evaluateString(scope, config.getJsCode(), config.getType(), 1, null);
             
             log.debug("JavaScript引擎初始化成功，解析器类型: {}", config.getType());
-            return new ContextHolder(context, scope);
+            this.scope = scope;
+            return scope;
             
         } catch (Exception e) {
             log.error("JavaScript引擎初始化失败", e);
@@ -100,9 +97,38 @@ public class JsParserExecutor implements IPanTool {
         }
     }
     
+    /**
+     * 在工作线程池执行脚本, 结果回到调用线程对应的回调执行器(与 {@link Vertx#executeBlocking} 一致)
+     */
+    private <T> Future<T> runScript(Promise<T> promise, BiConsumer<Context, Promise<T>> script) {
+        Executor callback = Vertx.completionExecutor();
+        Vertx.workerPool().execute(() -> {
+            // 排队期间已被取消(如截止时间到达)时不再执行
+            if (promise.future().isComplete()) {
+                return;
+            }
+            Promise<T> result = Promise.promise();
+            Context context = ContextFactory.getGlobal().enterContext();
+            try {
+                script.accept(context, result);
+            } catch (Throwable e) {
+                result.fail(e);
+            } finally {
+                Context.exit();
+            }
+            result.future().onComplete(ar -> callback.execute(() -> promise.handle(ar)));
+        });
+        return promise.future();
+    }
+    
     @Override
     public Future<String> parse() {
+        return runScript(promise, this::callParse);
+    }
+    
+    private void callParse(Context context, Promise<String> promise) {
         try {
+            Scriptable scope = scope(context);
             jsLogger.info("开始执行JavaScript解析器: {}", config.getType());
             
             // 获取parse函数
@@ -142,15 +168,16 @@ public class JsParserExecutor implements IPanTool {
             jsLogger.error("JavaScript解析器执行失败", e);
             promise.fail("JavaScript解析器执行失败: " + e.getMessage());
         }
-        
-        return promise.future();
     }
     
     @Override
     public Future<List<FileInfo>> parseFileList() {
-        Promise<List<FileInfo>> promise = Promise.promise();
-        
+        return runScript(Promise.promise(), this::callParseFileList);
+    }
+    
+    private void callParseFileList(Context context, Promise<List<FileInfo>> promise) {
         try {
+            Scriptable scope = scope(context);
             jsLogger.info("开始执行JavaScript文件列表解析: {}", config.getType());
             
             // 获取parseFileList函数
@@ -187,15 +214,16 @@ public class JsParserExecutor implements IPanTool {
             jsLogger.error("JavaScript文件列表解析失败", e);
             promise.fail("JavaScript文件列表解析失败: " + e.getMessage());
         }
-        
-        return promise.future();
     }
     
     @Override
     public Future<String> parseById() {
-        Promise<String> promise = Promise.promise();
-        
+        return runScript(Promise.promise(), this::callParseById);
+    }
+    
+    private void callParseById(Context context, Promise<String> promise) {
         try {
+            Scriptable scope = scope(context);
             jsLogger.info("开始执行JavaScript按ID解析: {}", config.getType());
             
             // 获取parseById函数
@@ -230,8 +258,6 @@ public class JsParserExecutor implements IPanTool {
             jsLogger.error("JavaScript按ID解析失败", e);
             promise.fail("JavaScript按ID解析失败: " + e.getMessage());
         }
-        
-        return promise.future();
     }
     
     /**
@@ -2,6 +2,7 @@ package cn.qaiu.parser.impl;
 
 import cn.qaiu.entity.FileInfo;
 import cn.qaiu.entity.ShareLinkInfo;
+import cn.qaiu.parser.GenericHostProbe;
 import cn.qaiu.parser.PanBase;
 import io.vertx.core.Future;
 import io.vertx.core.buffer.Buffer;
@@ -27,9 +28,6 @@ public class CeTool extends PanBase {
 
     // api/v3/share/info/g31PcQ?password=qaiu
     private static final String SHARE_API_PATH = "/api/v3/share/info/";
-    
-    private static final String PING_API_V3_PATH = "/api/v3/site/ping";
-    private static final String PING_API_V4_PATH = "/api/v4/site/ping";
 
     public CeTool(ShareLinkInfo shareLinkInfo) {
         super(shareLinkInfo);
@@ -59,78 +57,28 @@ public class CeTool extends PanBase {
     /**
      * 检测Cloudreve版本并选择合适的解析器
      * 检测策略：
-     * 1. 优先检测 v4 ping，如果成功且返回有效JSON，使用Ce4Tool
-     * 2. 如果 v4 ping 失败，检测 v3 ping
-     * 3. 如果 v3 ping 成功，尝试调用 v3 share API 来确认是否为 v3
+     * 1. 并发请求 v4 ping 和 v3 ping（见 {@link GenericHostProbe}），同一 host 的结果会被缓存
+     * 2. v4 ping 返回有效JSON，使用Ce4Tool
+     * 3. 否则 v3 ping 返回有效JSON，尝试调用 v3 share API 来确认是否为 v3
      * 4. 如果 v3 share API 成功，使用 v3 逻辑
      * 5. 否则尝试下一个解析器
      */
     private void detectVersionAndParse(String baseUrl, String key, String pwd) {
-        // 优先检测 v4
-        tryV4Ping(baseUrl, key, pwd);
-    }
-    
-    /**
-     * 尝试 v4 ping，如果成功则使用 Ce4Tool
-     */
-    private void tryV4Ping(String baseUrl, String key, String pwd) {
-        String pingUrlV4 = baseUrl + PING_API_V4_PATH;
-        
-        clientSession.getAbs(pingUrlV4).send().onSuccess(res -> {
-            if (res.statusCode() == 200) {
-                try {
-                    JsonObject json = asJson(res);
-                    // v4 ping 成功且返回有效JSON，使用 Ce4Tool
-                    if (json != null && !json.isEmpty()) {
-                        log.debug("检测到Cloudreve 4.x (通过v4 ping)");
-                        delegateToCe4Tool();
-                        return;
-                    }
-                } catch (Exception e) {
-                    // JSON解析失败，继续尝试 v3
-                    log.debug("v4 ping返回非JSON响应，尝试v3");
+        GenericHostProbe.probe(baseUrl, url -> clientSession.getAbs(url).send()).onSuccess(fingerprint -> {
+            switch (fingerprint) {
+                case CLOUDREVE_V4 -> {
+                    log.debug("检测到Cloudreve 4.x (通过v4 ping)");
+                    delegateToCe4Tool();
                 }
-            }
-            // v4 ping失败或返回非JSON，尝试 v3
-            tryV3Ping(baseUrl, key, pwd);
-        }).onFailure(t -> {
-            // v4 ping 网络错误，尝试 v3
-            log.debug("v4 ping请求失败，尝试v3: {}", t.getMessage());
-            tryV3Ping(baseUrl, key, pwd);
-        });
-    }
-    
-    /**
-     * 尝试 v3 ping，如果成功则验证是否为真正的 v3
-     */
-    private void tryV3Ping(String baseUrl, String key, String pwd) {
-        String pingUrlV3 = baseUrl + PING_API_V3_PATH;
-        
-        clientSession.getAbs(pingUrlV3).send().onSuccess(res -> {
-            if (res.statusCode() == 200) {
-                try {
-                    JsonObject json = asJson(res);
-                    // v3 ping 成功且返回有效JSON，进一步验证是否为 v3
-                    if (json != null && !json.isEmpty()) {
-                        // 尝试调用 v3 share API 来确认
-                        verifyV3AndParse(baseUrl, key, pwd);
-                        return;
-                    }
-                } catch (Exception e) {
-                    // JSON解析失败，不是Cloudreve盘
-                    log.debug("v3 ping返回非JSON响应，不是Cloudreve盘");
+                case CLOUDREVE_V3 -> verifyV3AndParse(baseUrl, key, pwd);
+                default -> {
+                    log.debug("v4/v3 ping均失败，尝试下一个解析器");
+                    nextParser();
                 }
             }
-            // v3 ping失败，不是Cloudreve盘
-            log.debug("v3 ping失败，尝试下一个解析器");
-            nextParser();
-        }).onFailure(t -> {
-            // v3 ping 网络错误，不是Cloudreve盘
-            log.debug("v3 ping请求失败，尝试下一个解析器: {}", t.getMessage());
-            nextParser();
         });
     }
-    
+
     /**
      * 验证是否为 v3 版本并解析
      * 通过调用 v3 share API 来确认，如果成功则使用 v3 逻辑
@@ -206,7 +154,7 @@ public class CeTool extends PanBase {
      */
     private void delegateToCe4Tool() {
         log.debug("检测到Cloudreve 4.x，转发到Ce4Tool处理");
-        new Ce4Tool(shareLinkInfo).parse().onComplete(promise);
+        delegateTo(new Ce4Tool(shareLinkInfo).parse());
     }
 
 
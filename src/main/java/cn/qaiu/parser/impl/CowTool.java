@@ -2,9 +2,14 @@ package cn.qaiu.parser.impl;
 
 import cn.qaiu.entity.ShareLinkInfo; 
 import cn.qaiu.parser.PanBase;
+import cn.qaiu.parser.ParseContext;
+import cn.qaiu.parser.SharedPanTool;
+import cn.qaiu.util.HttpResponseHelper;
 import io.vertx.core.Future;
 import io.vertx.core.json.JsonObject;
 import cn.qaiu.util.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -19,16 +24,28 @@ public class CowTool extends PanBase {
 
     private static final String API_REQUEST_URL = "https://cowtransfer.com/core/api/transfer/share";
 
+    private static final Logger logger = LoggerFactory.getLogger(CowTool.class);
+
+    /**
+     * 无状态实现, 所有解析共享
+     */
+    public static final SharedPanTool SHARED = CowTool::parse;
+
     public CowTool(ShareLinkInfo shareLinkInfo) {
         super(shareLinkInfo);
     }
 
 
     public Future<String> parse() {
-        final String key = shareLinkInfo.getShareKey();
+        delegateTo(parse(new ParseContext(shareLinkInfo)));
+        return future();
+    }
+
+    static Future<String> parse(ParseContext context) {
+        final String key = context.getShareLinkInfo().getShareKey();
         String url = API_REQUEST_URL + "?uniqueUrl=" + key;
-        client.getAbs(url).send().onSuccess(res -> {
-            JsonObject resJson = asJson(res);
+        context.client().getAbs(url).send().onSuccess(res -> {
+            JsonObject resJson = HttpResponseHelper.asJson(res);
             if ("success".equals(resJson.getString("message")) && resJson.containsKey("data")) {
                 JsonObject dataJson = resJson.getJsonObject("data");
                 String guid = dataJson.getString("guid");
@@ -42,33 +59,33 @@ public class CowTool extends PanBase {
                     url2Build.append("&fileId=").append(fileId);
                 }
                 String url2 = url2Build.toString();
-                client.getAbs(url2).send().onSuccess(res2 -> {
-                    JsonObject res2Json = asJson(res2);
+                context.client().getAbs(url2).send().onSuccess(res2 -> {
+                    JsonObject res2Json = HttpResponseHelper.asJson(res2);
                     if ("success".equals(res2Json.getString("message")) && res2Json.containsKey("data")) {
                         JsonObject data2 = res2Json.getJsonObject("data");
                         String downloadUrl = data2.getString("downloadUrl");
                         if (StringUtils.isNotEmpty(downloadUrl)) {
-                            log.info("cow parse success: {}", downloadUrl);
+                            logger.info("cow parse success: {}", downloadUrl);
                             
                             // 存储下载元数据，包括必要的请求头
                             Map<String, String> headers = new HashMap<>();
                             headers.put("User-Agent", "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/120.0.0.0 Safari/537.36");
-                            headers.put("Referer", shareLinkInfo.getShareUrl());
+                            headers.put("Referer", context.getShareLinkInfo().getShareUrl());
                             
                             // 使用新的 completeWithMeta 方法存储元数据
-                            completeWithMeta(downloadUrl, headers);
+                            context.completeWithMeta(downloadUrl, headers);
                             return;
                         }
-                        fail("cow parse fail: {}; downloadUrl is empty", url2);
+                        context.fail("cow parse fail: {}; downloadUrl is empty", url2);
                         return;
                     }
-                    fail("cow parse fail: {}; json: {}", url2, res2Json);
-                }).onFailure(handleFail(url2));
+                    context.fail("cow parse fail: {}; json: {}", url2, res2Json);
+                }).onFailure(context.handleFail(url2));
                 return;
             }
-            fail("cow parse fail: {}; json: {}", key, resJson);
-        }).onFailure(handleFail(url));
-        return promise.future();
+            context.fail("cow parse fail: {}; json: {}", key, resJson);
+        }).onFailure(context.handleFail(url));
+        return context.future();
     }
 
 }
@@ -2,6 +2,8 @@ package cn.qaiu.parser.impl;
 
 import cn.qaiu.entity.ShareLinkInfo;
 import cn.qaiu.parser.PanBase;
+import cn.qaiu.parser.ParseContext;
+import cn.qaiu.parser.SharedPanTool;
 import cn.qaiu.util.URLUtil;
 import io.vertx.core.Future;
 import io.vertx.uritemplate.UriTemplate;
@@ -16,44 +18,64 @@ public class MnesTool extends PanBase {
 
     public static final String API_URL = "https://music.163.com/song/media/outer/url?id={id}";
 
+    /**
+     * 无状态实现, 所有解析共享
+     */
+    public static final SharedPanTool SHARED = MnesTool::parse;
+
 
     public MnesTool(ShareLinkInfo shareLinkInfo) {
         super(shareLinkInfo);
     }
 
     public Future<String> parse() {
-        String shareUrl = shareLinkInfo.getStandardUrl();
-        clientNoRedirects.getAbs(shareUrl).send().onSuccess(res -> {
+        delegateTo(parse(new ParseContext(shareLinkInfo)));
+        return future();
+    }
+
+    static Future<String> parse(ParseContext context) {
+        String shareUrl = context.getShareLinkInfo().getStandardUrl();
+        context.clientNoRedirects().getAbs(shareUrl).send().onSuccess(res -> {
             String locationURL = res.headers().get("Location");
-            downUrl(locationURL);
-        }).onFailure(handleFail(shareUrl));
-        return promise.future();
+            downUrl(context, locationURL);
+        }).onFailure(context.handleFail(shareUrl));
+        return context.future();
     }
 
-    protected void downUrl(String locationURL) {
+    static void downUrl(ParseContext context, String locationURL) {
         String id = URLUtil.from(locationURL).getParam("id");
-        clientNoRedirects.getAbs(UriTemplate.of(API_URL)).setTemplateParam("id", id).send()
+        context.clientNoRedirects().getAbs(UriTemplate.of(API_URL)).setTemplateParam("id", id).send()
                 .onSuccess(res2 -> {
                     String location = res2.headers().get("Location");
                     if (location.endsWith("/404")) {
-                        fail("链接已失效: id={}", id);
+                        context.fail("链接已失效: id={}", id);
                     } else {
-                        promise.complete(location);
+                        context.complete(location);
                     }
-                }).onFailure(handleFail(API_URL.replace("{id}", id)));
+                }).onFailure(context.handleFail(API_URL.replace("{id}", id)));
     }
 
 
     public static class MneTool extends MnesTool{
 
+        /**
+         * 无状态实现, 所有解析共享
+         */
+        public static final SharedPanTool SHARED = MneTool::parse;
+
         public MneTool(ShareLinkInfo shareLinkInfo) {
             super(shareLinkInfo);
         }
 
         @Override
         public Future<String> parse() {
-            downUrl(shareLinkInfo.getStandardUrl());
-            return promise.future();
+            delegateTo(parse(new ParseContext(shareLinkInfo)));
+            return future();
+        }
+
+        static Future<String> parse(ParseContext context) {
+            downUrl(context, context.getShareLinkInfo().getStandardUrl());
+            return context.future();
         }
     }
 }
@@ -2,6 +2,8 @@ package cn.qaiu.parser.impl;
 
 import cn.qaiu.entity.ShareLinkInfo;
 import cn.qaiu.parser.PanBase;
+import cn.qaiu.parser.ParseContext;
+import cn.qaiu.parser.SharedPanTool;
 import io.vertx.core.Future;
 
 /**
@@ -10,13 +12,23 @@ import io.vertx.core.Future;
 public class OtherTool extends PanBase {
     private static final String API_URL_PREFIX = "";
 
+    /**
+     * 无状态实现, 所有解析共享
+     */
+    public static final SharedPanTool SHARED = OtherTool::parse;
+
     public OtherTool(ShareLinkInfo shareLinkInfo) {
         super(shareLinkInfo);
     }
 
     public Future<String> parse() {
-        // TODO
-        fail("暂未实现, 敬请期待");
+        delegateTo(parse(new ParseContext(shareLinkInfo)));
         return future();
     }
+
+    static Future<String> parse(ParseContext context) {
+        // TODO
+        context.fail("暂未实现, 敬请期待");
+        return context.future();
+    }
 }
@@ -2,6 +2,9 @@ package cn.qaiu.parser.impl;
 
 import cn.qaiu.entity.ShareLinkInfo;
 import cn.qaiu.parser.PanBase;
+import cn.qaiu.parser.ParseContext;
+import cn.qaiu.parser.SharedPanTool;
+import cn.qaiu.util.HttpResponseHelper;
 import io.vertx.core.Future;
 import io.vertx.core.json.JsonObject;
 
@@ -13,19 +16,29 @@ public class PicTool extends PanBase {
 
     private static final String api = "https://ckdatabasews.icloud.com.cn/database/1/com.apple.cloudkit/production/public/records/resolve";
 
+    /**
+     * 无状态实现, 所有解析共享
+     */
+    public static final SharedPanTool SHARED = PicTool::parse;
+
     public PicTool(ShareLinkInfo shareLinkInfo) {
         super(shareLinkInfo);
     }
 
     public Future<String> parse() {
+        delegateTo(parse(new ParseContext(shareLinkInfo)));
+        return future();
+    }
+
+    static Future<String> parse(ParseContext context) {
         // {"shortGUIDs":[{"value":"xxx"}]}
-        JsonObject jsonObject =
-                new JsonObject("{\"shortGUIDs\":[{\"value\":\"%s\"}]}".formatted(shareLinkInfo.getShareKey()));
+        JsonObject jsonObject = new JsonObject("{\"shortGUIDs\":[{\"value\":\"%s\"}]}"
+                .formatted(context.getShareLinkInfo().getShareKey()));
 
-        client.postAbs(api).sendJsonObject(jsonObject).onSuccess(res -> {
+        context.client().postAbs(api).sendJsonObject(jsonObject).onSuccess(res -> {
             // results->rootRecord->fields->fileContent->value->downloadURL // ${f}->fileName
             // fileName: results->share->fields->cloudkit.title->value + "." + results->rootRecord->fields->extension->value
-            JsonObject json = asJson(res);
+            JsonObject json = HttpResponseHelper.asJson(res);
             try {
                 JsonObject result = json.getJsonArray("results").getJsonObject(0);
                 JsonObject fileInfo = result
@@ -46,13 +59,13 @@ public class PicTool extends PanBase {
                         .getJsonObject("fields")
                         .getJsonObject("cloudkit.title")
                         .getString("value");
-                complete(downURL.replace("${f}", fileTitle + "." + extension));
+                context.complete(downURL.replace("${f}", fileTitle + "." + extension));
             } catch (Exception e) {
-                fail(e, "json解析失败");
+                context.fail(e, "json解析失败");
             }
 
-        }).onFailure(handleFail());
+        }).onFailure(context.handleFail(""));
 
-        return promise.future();
+        return context.future();
     }
 }
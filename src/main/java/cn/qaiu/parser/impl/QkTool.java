@@ -31,6 +31,8 @@ public class QkTool extends PanBase {
     private static final String TOKEN_URL = "https://drive-pc.quark.cn/1/clouddrive/share/sharepage/token";
     private static final String DETAIL_URL = "https://drive-pc.quark.cn/1/clouddrive/share/sharepage/detail";
     private static final String DOWNLOAD_URL = "https://drive-pc.quark.cn/1/clouddrive/file/download";
+
+    private static final String API_HOST = "drive-pc.quark.cn";
     
     // Cookie 刷新 API
     private static final String FLUSH_URL = "https://drive-pc.quark.cn/1/clouddrive/auth/pc/flush";
@@ -198,6 +200,7 @@ public class QkTool extends PanBase {
                     JsonObject resJson = asJson(res);
                     
                     if (resJson.getInteger("code") != 0) {
+                        checkThrottled(resJson);
                         fail(TOKEN_URL + " 返回异常: " + resJson);
                         return;
                     }
@@ -231,6 +234,7 @@ public class QkTool extends PanBase {
                                 JsonObject resJson2 = asJson(res2);
                                 
                                 if (resJson2.getInteger("code") != 0) {
+                                    checkThrottled(resJson2);
                                     fail(DETAIL_URL + " 返回异常: " + resJson2);
                                     return;
                                 }
@@ -369,6 +373,7 @@ public class QkTool extends PanBase {
                     }
 
                     if (resJson.getInteger("code") != 0) {
+                        checkThrottled(resJson);
                         promise.fail(DOWNLOAD_URL + " 返回异常: " + resJson);
                         return;
                     }
@@ -419,6 +424,7 @@ public class QkTool extends PanBase {
                 .onSuccess(res -> {
                     JsonObject resJson = asJson(res);
                     if (resJson.getInteger("code") != 0) {
+                        checkThrottled(resJson);
                         promise.fail(TOKEN_URL + " 返回异常: " + resJson);
                         return;
                     }
@@ -459,6 +465,7 @@ public class QkTool extends PanBase {
                 .onSuccess(res -> {
                     JsonObject resJson = asJson(res);
                     if (resJson.getInteger("code") != 0) {
+                        checkThrottled(resJson);
                         promise.fail(DETAIL_URL + " 返回异常: " + resJson);
                         return;
                     }
@@ -596,6 +603,7 @@ public class QkTool extends PanBase {
                     }
                     
                     if (resJson.getInteger("code") != 0) {
+                        checkThrottled(resJson);
                         promise.fail(DOWNLOAD_URL + " 返回异常: " + resJson);
                         return;
                     }
@@ -620,4 +628,13 @@ public class QkTool extends PanBase {
         
         return promise.future();
     }
-}
\ No newline at end of file
+
+    /**
+     * 夸克限流时 HTTP 状态仍为 200, 业务 status 为 429 或提示请求频繁; 上报后降低对 API 主机的请求速率
+     */
+    private void checkThrottled(JsonObject resJson) {
+        if (resJson.getInteger("status", 0) == 429 || resJson.getString("message", "").contains("频繁")) {
+            reportThrottled(API_HOST);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package cn.qaiu.parser.ratelimit;
+
+import io.vertx.core.Future;
+import io.vertx.core.MultiMap;
+import io.vertx.ext.web.client.RequestThrottle;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 单个网盘类型的请求限速器, 每个主机一个令牌桶
+ * <p>
+ * 作为 {@link RequestThrottle} 挂载到解析工具的 WebClient 上; 429/503 响应自动降速,
+ * 带 Retry-After 时暂停到指定时间。接口返回 200 但业务码表示限流的网盘, 由解析工具调用
+ * {@link #reportThrottled(String, long)} 上报。
+ * </p>
+ */
+public class PanRateLimiter implements RequestThrottle {
+
+    /**
+     * Retry-After 最多暂停的时长
+     */
+    static final long MAX_RETRY_AFTER_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    private final String type;
+    private volatile RateLimit limit;
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+
+    public PanRateLimiter(String type, RateLimit limit) {
+        this.type = type;
+        this.limit = limit;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public RateLimit getLimit() {
+        return limit;
+    }
+
+    /**
+     * 修改限速配置, 已被降低的速率按相同比例换算
+     */
+    public void setLimit(RateLimit limit) {
+        this.limit = limit;
+        buckets.values().forEach(bucket -> bucket.setLimit(limit));
+    }
+
+    private TokenBucket bucket(String host) {
+        String key = host == null ? "" : host.toLowerCase(Locale.ROOT);
+        TokenBucket bucket = buckets.get(key);
+        return bucket != null ? bucket : buckets.computeIfAbsent(key, k -> new TokenBucket(type, k, limit));
+    }
+
+    @Override
+    public Future<Void> acquire(String host) {
+        return bucket(host).acquire();
+    }
+
+    @Override
+    public void onResponse(String host, int statusCode, MultiMap headers) {
+        if (statusCode == 429 || statusCode == 503) {
+            reportThrottled(host, retryAfterMillis(headers == null ? null : headers.get("Retry-After")));
+        } else if (statusCode < 400) {
+            bucket(host).succeeded();
+        }
+    }
+
+    /**
+     * 上报一次限流
+     *
+     * @param host             主机名
+     * @param retryAfterMillis 服务端要求的等待时间, 0 表示未指定
+     */
+    public void reportThrottled(String host, long retryAfterMillis) {
+        bucket(host).throttled(Math.min(retryAfterMillis, MAX_RETRY_AFTER_MILLIS));
+    }
+
+    /**
+     * 各主机的限速状态
+     */
+    public List<RateLimitMetrics> metrics() {
+        List<RateLimitMetrics> metrics = new ArrayList<>(buckets.size());
+        buckets.values().forEach(bucket -> metrics.add(bucket.metrics()));
+        return metrics;
+    }
+
+    /**
+     * 解析 Retry-After 的秒数形式, 无法解析时返回 0
+     */
+    static long retryAfterMillis(String retryAfter) {
+        if (retryAfter == null || retryAfter.isBlank()) {
+            return 0;
+        }
+        try {
+            return Math.max(0, TimeUnit.SECONDS.toMillis(Long.parseLong(retryAfter.trim())));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
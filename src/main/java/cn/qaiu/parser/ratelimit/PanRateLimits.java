@@ -0,0 +1,123 @@
+package cn.qaiu.parser.ratelimit;
+
+import cn.qaiu.parser.PanDomainTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 按网盘类型管理请求限速器
+ * <p>
+ * 默认配置取 {@link PanDomainTemplate#getRateLimit()}, 可按网盘类型覆盖(包括自定义解析器);
+ * 解析工具创建 HTTP 客户端时通过 {@link #limiter(String)} 取得限速器挂载到客户端上。
+ * </p>
+ */
+public final class PanRateLimits {
+
+    /**
+     * 不限速的占位, 避免对未配置的类型重复查找
+     */
+    private static final PanRateLimiter UNLIMITED = new PanRateLimiter("", RateLimit.of(1, 1));
+
+    private static final Map<String, RateLimit> OVERRIDES = new ConcurrentHashMap<>();
+
+    /**
+     * 不限速的覆盖配置
+     */
+    private static final Map<String, Boolean> DISABLED = new ConcurrentHashMap<>();
+
+    private static final Map<String, PanRateLimiter> LIMITERS = new ConcurrentHashMap<>();
+
+    private PanRateLimits() {
+    }
+
+    /**
+     * 获取网盘类型的限速器, 不限速时返回 null
+     */
+    public static PanRateLimiter limiter(String type) {
+        if (type == null) {
+            return null;
+        }
+        String key = type.toLowerCase(Locale.ROOT);
+        PanRateLimiter limiter = LIMITERS.get(key);
+        if (limiter == null) {
+            limiter = LIMITERS.computeIfAbsent(key, k -> {
+                RateLimit limit = configured(k);
+                return limit == null ? UNLIMITED : new PanRateLimiter(k, limit);
+            });
+        }
+        return limiter == UNLIMITED ? null : limiter;
+    }
+
+    private static RateLimit configured(String type) {
+        if (DISABLED.containsKey(type)) {
+            return null;
+        }
+        RateLimit override = OVERRIDES.get(type);
+        if (override != null) {
+            return override;
+        }
+        try {
+            return PanDomainTemplate.valueOf(type.toUpperCase(Locale.ROOT)).getRateLimit();
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 覆盖网盘类型的限速配置, 传入 null 表示不限速
+     * <p>已有限速器时原地修改, 已创建的解析工具随之生效; 改为不限速只对之后创建的解析工具生效。</p>
+     */
+    public static void setLimit(String type, RateLimit limit) {
+        String key = type.toLowerCase(Locale.ROOT);
+        if (limit == null) {
+            OVERRIDES.remove(key);
+            DISABLED.put(key, Boolean.TRUE);
+            LIMITERS.remove(key);
+            return;
+        }
+        DISABLED.remove(key);
+        OVERRIDES.put(key, limit);
+        PanRateLimiter limiter = LIMITERS.get(key);
+        if (limiter != null && limiter != UNLIMITED) {
+            limiter.setLimit(limit);
+        } else {
+            LIMITERS.remove(key);
+        }
+    }
+
+    /**
+     * 上报业务层面的限流(如接口返回 200 但业务码表示请求过于频繁)
+     */
+    public static void reportThrottled(String type, String host, long retryAfterMillis) {
+        PanRateLimiter limiter = limiter(type);
+        if (limiter != null) {
+            limiter.reportThrottled(host, retryAfterMillis);
+        }
+    }
+
+    /**
+     * 全部限速桶的状态
+     */
+    public static List<RateLimitMetrics> metrics() {
+        List<RateLimitMetrics> metrics = new ArrayList<>();
+        LIMITERS.values().forEach(limiter -> {
+            if (limiter != UNLIMITED) {
+                metrics.addAll(limiter.metrics());
+            }
+        });
+        return metrics;
+    }
+
+    /**
+     * 清除覆盖配置和限速状态, 恢复默认配置
+     */
+    public static void reset() {
+        OVERRIDES.clear();
+        DISABLED.clear();
+        LIMITERS.clear();
+    }
+}
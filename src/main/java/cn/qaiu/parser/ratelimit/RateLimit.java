@@ -0,0 +1,38 @@
+package cn.qaiu.parser.ratelimit;
+
+/**
+ * 令牌桶限速配置
+ * <p>每秒补充 permitsPerSecond 个令牌, 桶内最多积累 burst 个, 即空闲后最多可连续发出 burst 个请求。</p>
+ */
+public final class RateLimit {
+    private final double permitsPerSecond;
+    private final int burst;
+
+    private RateLimit(double permitsPerSecond, int burst) {
+        if (!(permitsPerSecond > 0)) {
+            throw new IllegalArgumentException("permitsPerSecond必须大于0: " + permitsPerSecond);
+        }
+        if (burst < 1) {
+            throw new IllegalArgumentException("burst必须大于0: " + burst);
+        }
+        this.permitsPerSecond = permitsPerSecond;
+        this.burst = burst;
+    }
+
+    public static RateLimit of(double permitsPerSecond, int burst) {
+        return new RateLimit(permitsPerSecond, burst);
+    }
+
+    public double getPermitsPerSecond() {
+        return permitsPerSecond;
+    }
+
+    public int getBurst() {
+        return burst;
+    }
+
+    @Override
+    public String toString() {
+        return permitsPerSecond + "/s, burst=" + burst;
+    }
+}
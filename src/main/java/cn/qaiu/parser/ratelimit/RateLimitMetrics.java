@@ -0,0 +1,83 @@
+package cn.qaiu.parser.ratelimit;
+
+/**
+ * 单个限速桶(网盘类型 + 主机)的状态快照
+ */
+public final class RateLimitMetrics {
+    private final String type;
+    private final String host;
+    private final double configuredRate;
+    private final double currentRate;
+    private final double availableTokens;
+    private final int queued;
+    private final long throttledCount;
+    private final long pausedMillis;
+
+    RateLimitMetrics(String type, String host, double configuredRate, double currentRate,
+                     double availableTokens, int queued, long throttledCount, long pausedMillis) {
+        this.type = type;
+        this.host = host;
+        this.configuredRate = configuredRate;
+        this.currentRate = currentRate;
+        this.availableTokens = availableTokens;
+        this.queued = queued;
+        this.throttledCount = throttledCount;
+        this.pausedMillis = pausedMillis;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public String getHost() {
+        return host;
+    }
+
+    /**
+     * 配置的速率(每秒请求数)
+     */
+    public double getConfiguredRate() {
+        return configuredRate;
+    }
+
+    /**
+     * 当前速率, 被限流后低于配置值, 之后逐步恢复
+     */
+    public double getCurrentRate() {
+        return currentRate;
+    }
+
+    public double getAvailableTokens() {
+        return availableTokens;
+    }
+
+    /**
+     * 等待令牌的请求数
+     */
+    public int getQueued() {
+        return queued;
+    }
+
+    /**
+     * 累计收到的限流响应数
+     */
+    public long getThrottledCount() {
+        return throttledCount;
+    }
+
+    /**
+     * 按 Retry-After 暂停发送的剩余时间, 0 表示未暂停
+     */
+    public long getPausedMillis() {
+        return pausedMillis;
+    }
+
+    @Override
+    public String toString() {
+        return type + "@" + host + "{rate=" + String.format("%.2f", currentRate) + "/" + configuredRate
+                + ", tokens=" + String.format("%.2f", availableTokens)
+                + ", queued=" + queued
+                + ", throttled=" + throttledCount
+                + ", paused=" + pausedMillis + "ms}";
+    }
+}
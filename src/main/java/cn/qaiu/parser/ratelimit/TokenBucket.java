@@ -0,0 +1,179 @@
+package cn.qaiu.parser.ratelimit;
+
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 异步令牌桶, 单个网盘类型 + 主机共用一个
+ * <p>
+ * 没有令牌时请求进入等待队列, 由定时任务在令牌补充后按顺序放行, 不阻塞调用线程。
+ * 收到限流响应时速率减半(每秒最多一次, 不低于配置值的 {@link #MIN_RATE_FACTOR}),
+ * 之后每个正常响应恢复配置值的 {@link #RECOVERY_STEP}, 直到回到配置速率。
+ * </p>
+ */
+final class TokenBucket {
+
+    static final double MIN_RATE_FACTOR = 0.1;
+
+    static final double RECOVERY_STEP = 0.05;
+
+    private static final long DECREASE_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final String type;
+    private final String host;
+    private RateLimit limit;
+    private double rate;
+    private double tokens;
+    private long lastRefill;
+    private long pausedUntil;
+    private long lastDecrease;
+    private long throttledCount;
+    private boolean scheduled;
+    private final ArrayDeque<Promise<Void>> waiters = new ArrayDeque<>();
+
+    TokenBucket(String type, String host, RateLimit limit) {
+        this.type = type;
+        this.host = host;
+        this.limit = limit;
+        this.rate = limit.getPermitsPerSecond();
+        this.tokens = limit.getBurst();
+        this.lastRefill = System.nanoTime();
+        this.pausedUntil = lastRefill;
+        this.lastDecrease = lastRefill - DECREASE_INTERVAL_NANOS;
+    }
+
+    Future<Void> acquire() {
+        Promise<Void> waiter;
+        long delay;
+        synchronized (this) {
+            long now = System.nanoTime();
+            refill(now);
+            if (waiters.isEmpty() && now >= pausedUntil && tokens >= 1) {
+                tokens -= 1;
+                return Future.succeededFuture();
+            }
+            waiter = Promise.promise();
+            waiters.add(waiter);
+            if (scheduled) {
+                return cancellable(waiter);
+            }
+            scheduled = true;
+            delay = nextDelay(now);
+        }
+        schedule(delay);
+        return cancellable(waiter);
+    }
+
+    /**
+     * 等待被取消(请求已放弃)时移出队列, 不再消耗令牌
+     */
+    private Future<Void> cancellable(Promise<Void> waiter) {
+        return waiter.future().onCancel(() -> {
+            synchronized (this) {
+                waiters.remove(waiter);
+            }
+        });
+    }
+
+    /**
+     * 放行令牌允许的等待请求, 仍有等待时安排下一次
+     */
+    private void drain() {
+        List<Promise<Void>> released = new ArrayList<>();
+        long delay = -1;
+        synchronized (this) {
+            long now = System.nanoTime();
+            refill(now);
+            while (!waiters.isEmpty() && now >= pausedUntil && tokens >= 1) {
+                Promise<Void> waiter = waiters.poll();
+                // 与取消并发时可能还在队列中, 跳过且不扣令牌
+                if (!waiter.future().isComplete()) {
+                    tokens -= 1;
+                    released.add(waiter);
+                }
+            }
+            if (waiters.isEmpty()) {
+                scheduled = false;
+            } else {
+                delay = nextDelay(now);
+            }
+        }
+        released.forEach(Promise::complete);
+        if (delay >= 0) {
+            schedule(delay);
+        }
+    }
+
+    private void schedule(long delayNanos) {
+        Vertx.eventLoops().schedule(this::drain, delayNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private void refill(long now) {
+        if (now < pausedUntil) {
+            lastRefill = now;
+            return;
+        }
+        tokens = Math.min(limit.getBurst(), tokens + (now - Math.max(lastRefill, pausedUntil)) * rate / 1e9);
+        lastRefill = now;
+    }
+
+    private long nextDelay(long now) {
+        if (now < pausedUntil) {
+            return pausedUntil - now;
+        }
+        return Math.max(1, (long) Math.ceil((1 - tokens) / rate * 1e9));
+    }
+
+    /**
+     * 收到限流响应: 降低速率, 有 Retry-After 时暂停到指定时间
+     */
+    void throttled(long retryAfterMillis) {
+        synchronized (this) {
+            long now = System.nanoTime();
+            refill(now);
+            throttledCount++;
+            tokens = 0;
+            if (now - lastDecrease >= DECREASE_INTERVAL_NANOS) {
+                rate = Math.max(rate / 2, limit.getPermitsPerSecond() * MIN_RATE_FACTOR);
+                lastDecrease = now;
+            }
+            if (retryAfterMillis > 0) {
+                pausedUntil = Math.max(pausedUntil, now + TimeUnit.MILLISECONDS.toNanos(retryAfterMillis));
+            }
+        }
+    }
+
+    /**
+     * 收到正常响应: 逐步恢复速率
+     */
+    void succeeded() {
+        synchronized (this) {
+            double configured = limit.getPermitsPerSecond();
+            if (rate < configured) {
+                refill(System.nanoTime());
+                rate = Math.min(configured, rate + configured * RECOVERY_STEP);
+            }
+        }
+    }
+
+    synchronized void setLimit(RateLimit limit) {
+        refill(System.nanoTime());
+        double factor = rate / this.limit.getPermitsPerSecond();
+        this.limit = limit;
+        this.rate = limit.getPermitsPerSecond() * factor;
+        this.tokens = Math.min(tokens, limit.getBurst());
+    }
+
+    synchronized RateLimitMetrics metrics() {
+        long now = System.nanoTime();
+        refill(now);
+        return new RateLimitMetrics(type, host, limit.getPermitsPerSecond(), rate, tokens, waiters.size(),
+                throttledCount, Math.max(0, TimeUnit.NANOSECONDS.toMillis(pausedUntil - now)));
+    }
+}
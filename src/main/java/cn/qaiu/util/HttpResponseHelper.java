@@ -3,6 +3,7 @@ package cn.qaiu.util;
 import io.vertx.core.buffer.Buffer;
 import io.vertx.core.http.HttpHeaders;
 import io.vertx.ext.web.client.HttpResponse;
+import io.vertx.ext.web.client.impl.ZstdInputStream;
 import io.vertx.core.json.JsonObject;
 //import org.brotli.dec.BrotliInputStream;
 import org.brotli.dec.BrotliInputStream;
@@ -19,21 +20,24 @@ public class HttpResponseHelper {
     static Logger LOGGER = LoggerFactory.getLogger(HttpResponseHelper.class);
 
     // -------------------- 公共方法 --------------------
+    /**
+     * 响应体转文本
+     * <p>
+     * WebClient 传输层已按 Content-Encoding 完成解码, 这里只处理手工构造或未经传输层的压缩响应;
+     * 缺少 Content-Encoding 时仅按魔数识别 gzip / zstd, 不再逐字符扫描猜测。
+     * </p>
+     */
     public static String asText(HttpResponse<?> res) {
         String encoding = res.getHeader(HttpHeaders.CONTENT_ENCODING);
         try {
             Buffer body = toBuffer(res);
             if (encoding == null || "identity".equalsIgnoreCase(encoding)) {
-                // Content-Encoding为null或identity，先尝试直接转换为文本
-                String text = body.toString(StandardCharsets.UTF_8);
-                
-                // 检查是否可能是压缩数据（包含乱码字符）
-                if (containsGarbledChars(text)) {
-                    // 可能是压缩数据但Content-Encoding头丢失了，尝试解压
-                    LOGGER.warn("检测到可能的压缩数据但Content-Encoding为null，尝试解压");
-                    return tryDecompress(body);
+                String sniffed = sniffEncoding(body);
+                if (sniffed != null) {
+                    LOGGER.warn("检测到{}压缩数据但Content-Encoding为null，尝试解压", sniffed);
+                    return decompress(body, sniffed);
                 }
-                return text;
+                return body.toString(StandardCharsets.UTF_8);
             }
             return decompress(body, encoding);
         } catch (Exception e) {
@@ -41,37 +45,17 @@ public class HttpResponseHelper {
             return null;
         }
     }
-    
-    // 检查文本是否包含乱码字符
-    private static boolean containsGarbledChars(String text) {
-        if (text == null || text.isEmpty()) {
-            return false;
-        }
-        // 检查是否包含控制字符或常见乱码字符
-        for (char c : text.toCharArray()) {
-            if (c < 32 && c != '\n' && c != '\r' && c != '\t') {
-                return true;
-            }
+
+    // 按魔数识别压缩格式: gzip(1f 8b)、zstd(28 b5 2f fd)
+    private static String sniffEncoding(Buffer body) {
+        if (body.length() >= 2 && body.getByte(0) == (byte) 0x1f && body.getByte(1) == (byte) 0x8b) {
+            return "gzip";
         }
-        return false;
-    }
-    
-    // 尝试解压（gzip、deflate、br）
-    private static String tryDecompress(Buffer compressed) {
-        // 按顺序尝试gzip、deflate、br
-        String[] encodings = {"gzip", "deflate", "br"};
-        for (String encoding : encodings) {
-            try {
-                String result = decompress(compressed, encoding);
-                LOGGER.info("成功使用{}解压数据", encoding);
-                return result;
-            } catch (Exception e) {
-                // 继续尝试下一个
-            }
+        if (body.length() >= 4 && body.getByte(0) == (byte) 0x28 && body.getByte(1) == (byte) 0xb5
+                && body.getByte(2) == (byte) 0x2f && body.getByte(3) == (byte) 0xfd) {
+            return "zstd";
         }
-        // 所有尝试都失败，返回原始内容
-        LOGGER.warn("所有解压尝试都失败，返回原始内容");
-        return compressed.toString(StandardCharsets.UTF_8);
+        return null;
     }
 
     public static JsonObject asJson(HttpResponse<?> res) {
@@ -101,15 +85,15 @@ public class HttpResponseHelper {
             case "gzip" -> decompressGzip(compressed);
             case "deflate" -> decompressDeflate(compressed);
             case "br" -> decompressBrotli(compressed);
-            case "zstd" -> compressed.toString(StandardCharsets.UTF_8); // 暂时返回原始内容
+            case "zstd" -> decompressZstd(compressed);
             default -> throw new UnsupportedOperationException("不支持的 Content-Encoding: " + encoding);
         };
     }
 
     // -------------------- gzip --------------------
     private static String decompressGzip(Buffer compressed) throws IOException {
-        try (ByteArrayInputStream bais = new ByteArrayInputStream(compressed.getBytes());
-             GZIPInputStream gzis = new GZIPInputStream(bais);
+        try (InputStream in = compressed.asInputStream();
+             GZIPInputStream gzis = new GZIPInputStream(in);
              InputStreamReader isr = new InputStreamReader(gzis, StandardCharsets.UTF_8);
              StringWriter writer = new StringWriter()) {
 
@@ -124,17 +108,16 @@ public class HttpResponseHelper {
 
     // -------------------- deflate --------------------
     private static String decompressDeflate(Buffer compressed) throws IOException {
-        byte[] bytes = compressed.getBytes();
         try {
-            return inflate(bytes, false); // zlib 包裹
+            return inflate(compressed, false); // zlib 包裹
         } catch (IOException e) {
-            return inflate(bytes, true); // 裸 deflate
+            return inflate(compressed, true); // 裸 deflate
         }
     }
 
-    private static String inflate(byte[] data, boolean nowrap) throws IOException {
-        try (ByteArrayInputStream bais = new ByteArrayInputStream(data);
-             InflaterInputStream iis = new InflaterInputStream(bais, new Inflater(nowrap));
+    private static String inflate(Buffer data, boolean nowrap) throws IOException {
+        try (InputStream in = data.asInputStream();
+             InflaterInputStream iis = new InflaterInputStream(in, new Inflater(nowrap));
              InputStreamReader isr = new InputStreamReader(iis, StandardCharsets.UTF_8);
              StringWriter writer = new StringWriter()) {
 
@@ -149,8 +132,8 @@ public class HttpResponseHelper {
 
     // -------------------- Brotli --------------------
     private static String decompressBrotli(Buffer compressed) throws IOException {
-        try (ByteArrayInputStream bais = new ByteArrayInputStream(compressed.getBytes());
-             BrotliInputStream bis = new BrotliInputStream(bais);
+        try (InputStream in = compressed.asInputStream();
+             BrotliInputStream bis = new BrotliInputStream(in);
              InputStreamReader isr = new InputStreamReader(bis, StandardCharsets.UTF_8);
              StringWriter writer = new StringWriter()) {
 
@@ -164,7 +147,9 @@ public class HttpResponseHelper {
     }
 
     // -------------------- Zstandard --------------------
-    private static String decompressZstd(Buffer compressed) {
-       throw new UnsupportedOperationException("Zstandard");
+    private static String decompressZstd(Buffer compressed) throws IOException {
+        try (InputStream in = new ZstdInputStream(compressed.asInputStream())) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
     }
 }
@@ -1,11 +1,16 @@
 package io.netty.handler.codec.http.cookie;
 
 public class Cookie {
+    /**
+     * 未设置 Max-Age(会话 Cookie)
+     */
+    public static final long UNDEFINED_MAX_AGE = Long.MIN_VALUE;
+
     private String name;
     private String value;
     private String domain;
     private String path;
-    private long maxAge;
+    private long maxAge = UNDEFINED_MAX_AGE;
     private boolean secure;
     private boolean httpOnly;
 
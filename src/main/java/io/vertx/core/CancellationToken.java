@@ -0,0 +1,91 @@
+package io.vertx.core;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 取消令牌, 把一次调用(如一次解析)与它发出的全部底层操作关联起来
+ * <p>
+ * 底层操作通过 {@link #onCancel(Runnable)} 登记取消动作, 操作结束后注销;
+ * {@link #cancel()} 后执行全部已登记的动作, 之后登记的动作立即执行。
+ * </p>
+ */
+public final class CancellationToken {
+
+    private final Set<Runnable> actions = new LinkedHashSet<>();
+    private volatile boolean cancelled;
+
+    /**
+     * 随 future 取消而取消的令牌
+     */
+    public static CancellationToken of(Future<?> future) {
+        CancellationToken token = new CancellationToken();
+        future.onCancel(token::cancel);
+        return token;
+    }
+
+    /**
+     * 取消令牌并执行已登记的动作, 重复调用返回 false
+     */
+    public boolean cancel() {
+        List<Runnable> pending;
+        synchronized (this) {
+            if (cancelled) {
+                return false;
+            }
+            cancelled = true;
+            pending = new ArrayList<>(actions);
+            actions.clear();
+        }
+        for (Runnable action : pending) {
+            try {
+                action.run();
+            } catch (Throwable e) {
+                System.err.println("WARNING: Cancellation action threw exception: " + e.getMessage());
+                e.printStackTrace();
+            }
+        }
+        return true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * 登记取消动作; 已取消时立即执行
+     *
+     * @return 注销句柄, 底层操作结束后调用
+     */
+    public Registration onCancel(Runnable action) {
+        // 同一个动作可能登记多次, 包一层保证注销时只移除本次登记
+        Runnable entry = action::run;
+        synchronized (this) {
+            if (!cancelled) {
+                actions.add(entry);
+                return () -> {
+                    synchronized (this) {
+                        actions.remove(entry);
+                    }
+                };
+            }
+        }
+        action.run();
+        return () -> {
+        };
+    }
+
+    /**
+     * 当前登记的动作数
+     */
+    public synchronized int registrations() {
+        return actions.size();
+    }
+
+    @FunctionalInterface
+    public interface Registration {
+        void unregister();
+    }
+}
@@ -0,0 +1,97 @@
+package io.vertx.core;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 一组单线程事件循环, 用于执行 Future 回调、定时器等非阻塞任务
+ * <p>
+ * 每个循环一个线程, 普通任务和到期的定时任务在同一个队列中按顺序执行。
+ * {@link #next()} 在事件循环线程上调用时返回当前循环(保持线程亲和), 否则轮询分配。
+ * 循环线程均为守护线程, 不阻止 JVM 退出; 不要在循环线程上执行阻塞操作, 阻塞任务交给 {@link Vertx#workerPool()}。
+ * </p>
+ */
+public final class EventLoopGroup implements Executor {
+
+    /**
+     * 当前线程所属的事件循环
+     */
+    private static final ThreadLocal<Executor> CURRENT = new ThreadLocal<>();
+
+    private final ScheduledThreadPoolExecutor[] loops;
+    private final AtomicInteger index = new AtomicInteger();
+
+    public EventLoopGroup(String namePrefix, int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("size must be positive: " + size);
+        }
+        this.loops = new ScheduledThreadPoolExecutor[size];
+        for (int i = 0; i < size; i++) {
+            int id = i;
+            ScheduledThreadPoolExecutor loop = new ScheduledThreadPoolExecutor(1, r -> {
+                Thread thread = new Thread(() -> {
+                    CURRENT.set(loops[id]);
+                    r.run();
+                }, namePrefix + id);
+                thread.setDaemon(true);
+                return thread;
+            });
+            // 取消的定时器立即出队, 避免大量短命定时器(如请求截止时间)堆积
+            loop.setRemoveOnCancelPolicy(true);
+            loops[i] = loop;
+        }
+    }
+
+    /**
+     * 当前线程所属的循环, 不在本组的循环线程上时轮询选择一个
+     */
+    public ScheduledExecutorService next() {
+        ScheduledExecutorService current = currentLoop();
+        return current != null ? current : loops[Math.floorMod(index.getAndIncrement(), loops.length)];
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        next().execute(command);
+    }
+
+    /**
+     * 在 {@link #next()} 选出的循环上延迟执行
+     */
+    public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+        return next().schedule(command, delay, unit);
+    }
+
+    /**
+     * 当前线程是否为本组的事件循环线程
+     */
+    public boolean inEventLoop() {
+        return currentLoop() != null;
+    }
+
+    private ScheduledExecutorService currentLoop() {
+        Executor current = CURRENT.get();
+        if (current != null) {
+            for (ScheduledThreadPoolExecutor loop : loops) {
+                if (loop == current) {
+                    return loop;
+                }
+            }
+        }
+        return null;
+    }
+
+    public int size() {
+        return loops.length;
+    }
+
+    public void shutdown() {
+        for (ScheduledThreadPoolExecutor loop : loops) {
+            loop.shutdown();
+        }
+    }
+}
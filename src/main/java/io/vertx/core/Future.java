@@ -1,28 +1,56 @@
 package io.vertx.core;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
-import java.util.concurrent.atomic.AtomicBoolean;
 
-public class Future<T> {
-    private final CompletableFuture<T> delegate = new CompletableFuture<>();
-    private final AtomicBoolean taskRegistered = new AtomicBoolean(false);
-    private final AtomicBoolean taskCompleted = new AtomicBoolean(false);
+/**
+ * 异步结果
+ * <p>
+ * 全部状态放在一个 volatile 字段中: 未完成时为回调链表(或 null), 完成后为结果值(null 以 {@link #NULL} 表示)
+ * 或 {@link Failure}。回调在完成的线程上按注册顺序执行, 已完成时注册的回调在当前线程立即执行。
+ * </p>
+ * <p>
+ * 默认不计入 {@link Vertx#getPendingTaskCount()}; 开启 {@link Vertx#setTaskTracking(boolean)} 后创建的 Future 才计数,
+ * 避免高并发下所有 Future 争用同一个全局计数器。{@link Vertx#awaitTermination(long)} 依赖该计数, 未开启时直接报错。
+ * </p>
+ */
+public class Future<T> implements AsyncResult<T> {
 
-    public Future() {
-        // 注册待处理任务
-        registerTask();
-    }
+    /**
+     * 以 null 完成时的占位
+     */
+    private static final Object NULL = new Object();
 
-    private void registerTask() {
-        if (taskRegistered.compareAndSet(false, true)) {
-            Vertx.registerPendingTask();
+    private static final VarHandle STATE;
+
+    static {
+        try {
+            STATE = MethodHandles.lookup().findVarHandle(Future.class, "state", Object.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
         }
     }
 
-    private void markCompleted() {
-        if (taskCompleted.compareAndSet(false, true)) {
-            Vertx.taskCompleted();
+    private volatile Object state;
+    private final boolean tracked;
+    /**
+     * 派生 Future 当前等待的上游; compose/recover 切换到返回的 Future 后随之更新
+     */
+    private volatile Future<?> upstream;
+
+    public Future() {
+        tracked = Vertx.isTaskTracking();
+        if (tracked) {
+            Vertx.registerPendingTask();
         }
     }
 
@@ -50,20 +78,18 @@ public class Future<T> {
         return f;
     }
 
-    @SuppressWarnings("rawtypes")
-    public static Future<Void> all(java.util.List<? extends Future<?>> futures) {
+    public static Future<Void> all(List<? extends Future<?>> futures) {
         Future<Void> combined = new Future<>();
         if (futures == null || futures.isEmpty()) {
             combined.complete(null);
             return combined;
         }
-        java.util.concurrent.atomic.AtomicInteger remaining = new java.util.concurrent.atomic.AtomicInteger(futures.size());
-        java.util.concurrent.atomic.AtomicBoolean failed = new java.util.concurrent.atomic.AtomicBoolean(false);
+        AtomicInteger remaining = new AtomicInteger(futures.size());
         for (Future<?> f : futures) {
-            f.onComplete(result -> {
-                if (result.failed() && failed.compareAndSet(false, true)) {
+            f.addListener(result -> {
+                if (result.failed()) {
                     combined.fail(result.cause());
-                } else if (!failed.get() && remaining.decrementAndGet() == 0) {
+                } else if (remaining.decrementAndGet() == 0) {
                     combined.complete(null);
                 }
             });
@@ -71,81 +97,221 @@ public class Future<T> {
         return combined;
     }
 
+    /**
+     * 第一个成功的结果; 全部失败时以最后一个失败原因失败, 列表为空时失败
+     * <p>
+     * 有结果后, 除此之外无人等待的其余 Future 被取消(见 {@link #cancel()})
+     * </p>
+     */
+    public static <T> Future<T> any(List<? extends Future<T>> futures) {
+        Future<T> combined = new Future<>();
+        if (futures == null || futures.isEmpty()) {
+            combined.fail(new IllegalArgumentException("futures 为空"));
+            return combined;
+        }
+        AtomicInteger remaining = new AtomicInteger(futures.size());
+        for (Future<T> f : futures) {
+            f.addListener(result -> {
+                if (result.succeeded()) {
+                    if (combined.tryComplete(result.result() == null ? NULL : result.result())) {
+                        futures.forEach(Future::cancelIfAbandoned);
+                    }
+                } else if (remaining.decrementAndGet() == 0) {
+                    combined.fail(result.cause());
+                }
+            }, combined, false);
+        }
+        combined.onCancel(() -> futures.forEach(Future::cancelIfAbandoned));
+        return combined;
+    }
+
+    /**
+     * 等待全部完成(无论成败), 按传入顺序返回各自的结果, 不会失败
+     */
+    public static <T> Future<List<AsyncResult<T>>> join(List<? extends Future<T>> futures) {
+        Future<List<AsyncResult<T>>> combined = new Future<>();
+        if (futures == null || futures.isEmpty()) {
+            combined.complete(List.of());
+            return combined;
+        }
+        AtomicInteger remaining = new AtomicInteger(futures.size());
+        for (Future<T> f : futures) {
+            f.addListener(result -> {
+                if (remaining.decrementAndGet() == 0) {
+                    combined.complete(List.copyOf(futures));
+                }
+            }, combined, false);
+        }
+        combined.onCancel(() -> futures.forEach(Future::cancelIfAbandoned));
+        return combined;
+    }
+
+    /**
+     * 以 value 完成, 已完成时忽略
+     */
     public void complete(T value) {
-        delegate.complete(value);
-        markCompleted();
+        tryComplete(value == null ? NULL : value);
     }
 
+    /**
+     * 以异常失败, 已完成时忽略
+     */
     public void fail(Throwable e) {
-        delegate.completeExceptionally(e);
-        markCompleted();
+        tryComplete(new Failure(e != null ? e : new NullPointerException("失败原因为 null")));
+    }
+
+    /**
+     * 取消: 以 {@link CancellationException} 失败, 已完成时返回 false
+     * <p>
+     * 取消沿 map/compose 等派生关系向上游传递: 上游的全部等待者(派生 Future)都已取消时, 上游也被取消,
+     * 直到源头(如 HTTP 请求, 见 {@link #onCancel(Runnable)})。上游还有其他等待者(普通回调或未取消的派生)时不受影响。
+     * 以 {@link CancellationException} 调用 {@link #fail(Throwable)} 效果相同。
+     * </p>
+     */
+    public boolean cancel() {
+        return tryComplete(new Failure(new CancellationException("已取消")));
+    }
+
+    /**
+     * 是否已被取消(以 {@link CancellationException} 失败)
+     */
+    public boolean isCancelled() {
+        Object s = state;
+        return s instanceof Failure && ((Failure) s).cause instanceof CancellationException;
+    }
+
+    /**
+     * 取消时执行, 用于把取消传给底层操作(如 OkHttp Call); 这类回调不算作对结果的等待, 不阻止取消向上游传递
+     */
+    public Future<T> onCancel(Runnable action) {
+        addListener(ar -> {
+            if (isCancelled()) {
+                action.run();
+            }
+        }, null, true);
+        return this;
+    }
+
+    @SuppressWarnings("unchecked")
+    private boolean tryComplete(Object result) {
+        Object s;
+        do {
+            s = state;
+            if (s != null && !(s instanceof Node)) {
+                return false;
+            }
+        } while (!STATE.compareAndSet(this, s, result));
+        if (s != null) {
+            fire((Node<T>) s);
+        }
+        // 回调执行完后才算完成, awaitTermination 返回时不会有回调仍在执行
+        if (tracked) {
+            Vertx.taskCompleted();
+        }
+        if (result instanceof Failure && ((Failure) result).cause instanceof CancellationException) {
+            Future<?> up = upstream;
+            if (up != null) {
+                up.cancelIfAbandoned();
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 除只观察取消的回调外, 等待者全是已结束(取消、超时等)的派生 Future 时取消自身
+     */
+    private void cancelIfAbandoned() {
+        Object s = state;
+        if (!(s instanceof Node)) {
+            return;
+        }
+        for (Node<?> node = (Node<?>) s; node != null; node = node.next) {
+            if (!node.passive && (node.dependent == null || !node.dependent.isComplete())) {
+                return;
+            }
+        }
+        cancel();
+    }
+
+    private <U> Future<U> derive() {
+        Future<U> derived = new Future<>();
+        derived.upstream = this;
+        return derived;
+    }
+
+    /**
+     * 链表按注册的逆序保存, 反转后依次执行
+     */
+    private void fire(Node<T> head) {
+        Node<T> ordered = null;
+        while (head != null) {
+            Node<T> next = head.next;
+            head.next = ordered;
+            ordered = head;
+            head = next;
+        }
+        for (Node<T> node = ordered; node != null; node = node.next) {
+            notify(node.handler);
+        }
+    }
+
+    private void addListener(Handler<AsyncResult<T>> handler) {
+        addListener(handler, null, false);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void addListener(Handler<AsyncResult<T>> handler, Future<?> dependent, boolean passive) {
+        Node<T> node = null;
+        Object s;
+        do {
+            s = state;
+            if (s != null && !(s instanceof Node)) {
+                notify(handler);
+                return;
+            }
+            if (node == null) {
+                node = new Node<>(handler, dependent, passive);
+            }
+            node.next = (Node<T>) s;
+        } while (!STATE.compareAndSet(this, s, node));
+    }
+
+    private void notify(Handler<AsyncResult<T>> handler) {
+        try {
+            handler.handle(this);
+        } catch (Throwable e) {
+            // Future 已完成, 回调的异常只能记录
+            System.err.println("WARNING: Future handler threw exception: " + e.getMessage());
+            e.printStackTrace();
+        }
     }
 
     public Future<T> onSuccess(Handler<T> handler) {
-        delegate.thenAccept(result -> {
-            try {
-                // Type erasure compatibility: HttpResponse<String> and HttpResponse<Buffer> are the same at runtime
-                handler.handle(result);
-            } catch (Throwable e) {
-                // If handler throws exception, CompletableFuture will automatically fail the future
-                // This catch ensures the exception is logged and doesn't propagate to the thread pool
-                System.err.println("WARNING: Success handler threw exception: " + e.getMessage());
-                e.printStackTrace();
-                // Re-throw to let CompletableFuture handle it
-                throw new RuntimeException(e);
+        addListener(ar -> {
+            if (ar.succeeded()) {
+                handler.handle(ar.result());
             }
         });
         return this;
     }
-    
+
     // Accept any Handler type for HttpResponse compatibility (relies on type erasure)
     @SuppressWarnings({"unchecked", "rawtypes"})
     public Future<T> onSuccessUnchecked(Handler handler) {
-        delegate.thenAccept(result -> {
-            try {
-                // Due to type erasure, HttpResponse<Buffer> and HttpResponse<String> are identical at runtime
-                handler.handle(result);
-            } catch (Throwable e) {
-                // If handler throws exception, CompletableFuture will automatically fail the future
-                // This catch ensures the exception is logged and doesn't propagate to the thread pool
-                System.err.println("WARNING: Success handler threw exception: " + e.getMessage());
-                e.printStackTrace();
-                // Re-throw to let CompletableFuture handle it
-                throw new RuntimeException(e);
-            }
-        });
-        return this;
+        return onSuccess(handler);
     }
 
     public Future<T> onFailure(Handler<Throwable> handler) {
-        delegate.exceptionally(e -> {
-            try {
-                handler.handle(e);
-            } catch (Exception ex) {
-                // If failure handler also throws, log it but don't fail the future again
-                System.err.println("WARNING: Failure handler threw exception: " + ex.getMessage());
-                ex.printStackTrace();
+        addListener(ar -> {
+            if (ar.failed()) {
+                handler.handle(ar.cause());
             }
-            return null;
         });
         return this;
     }
 
     public void onComplete(Handler<AsyncResult<T>> handler) {
-        delegate.whenComplete((result, error) -> {
-            try {
-                if (error != null) {
-                    handler.handle(AsyncResult.failure(error));
-                } else {
-                    handler.handle(AsyncResult.success(result));
-                }
-            } catch (Throwable e) {
-                // If complete handler throws exception, log it
-                // The future is already completed, so we can't fail it again
-                System.err.println("WARNING: Complete handler threw exception: " + e.getMessage());
-                e.printStackTrace();
-            }
-        });
+        addListener(handler);
     }
 
     /**
@@ -153,129 +319,213 @@ public class Future<T> {
      * @param promise 要完成的Promise
      */
     public void onComplete(Promise<T> promise) {
-        onComplete(promise::handle);
+        addListener(promise::handle);
     }
 
     public <U> Future<U> map(Function<T, U> mapper) {
-        Future<U> mappedFuture = new Future<>();
-        delegate.whenComplete((result, error) -> {
-            if (error != null) {
-                mappedFuture.fail(error);
-            } else {
-                try {
-                    U mappedResult = mapper.apply(result);
-                    mappedFuture.complete(mappedResult);
-                } catch (Exception e) {
-                    mappedFuture.fail(e);
-                }
+        Future<U> mapped = derive();
+        addListener(ar -> {
+            if (mapped.isComplete()) {
+                // 已取消的派生不再执行后续步骤
+                return;
             }
-        });
-        return mappedFuture;
+            if (ar.failed()) {
+                mapped.fail(ar.cause());
+                return;
+            }
+            U value;
+            try {
+                value = mapper.apply(ar.result());
+            } catch (Throwable e) {
+                mapped.fail(e);
+                return;
+            }
+            mapped.complete(value);
+        }, mapped, false);
+        return mapped;
     }
 
     public <U> Future<U> compose(Function<T, Future<U>> mapper) {
-        Future<U> composedFuture = new Future<>();
-        delegate.whenComplete((result, error) -> {
-            if (error != null) {
-                composedFuture.fail(error);
+        Future<U> composed = derive();
+        addListener(ar -> {
+            if (composed.isComplete()) {
+                return;
+            }
+            if (ar.failed()) {
+                composed.fail(ar.cause());
+                return;
+            }
+            Future<U> next;
+            try {
+                next = mapper.apply(ar.result());
+            } catch (Throwable e) {
+                composed.fail(e);
+                return;
+            }
+            if (next == null) {
+                composed.fail(new NullPointerException("compose 返回了 null"));
             } else {
-                try {
-                    Future<U> nextFuture = mapper.apply(result);
-                    nextFuture.onComplete(composedFuture::handle);
-                } catch (Exception e) {
-                    composedFuture.fail(e);
-                }
+                composed.follow(next);
             }
-        });
-        return composedFuture;
+        }, composed, false);
+        return composed;
     }
 
     public Future<T> recover(Function<Throwable, Future<T>> mapper) {
-        Future<T> recoveredFuture = new Future<>();
-        delegate.whenComplete((result, error) -> {
-            if (error != null) {
-                try {
-                    Future<T> recoveryFuture = mapper.apply(error);
-                    recoveryFuture.onComplete(recoveredFuture::handle);
-                } catch (Exception e) {
-                    recoveredFuture.fail(e);
-                }
+        Future<T> recovered = derive();
+        addListener(ar -> {
+            if (recovered.isComplete()) {
+                return;
+            }
+            if (ar.succeeded()) {
+                recovered.complete(ar.result());
+                return;
+            }
+            Future<T> next;
+            try {
+                next = mapper.apply(ar.cause());
+            } catch (Throwable e) {
+                recovered.fail(e);
+                return;
+            }
+            if (next == null) {
+                recovered.fail(new NullPointerException("recover 返回了 null"));
             } else {
-                recoveredFuture.complete(result);
+                recovered.follow(next);
             }
-        });
-        return recoveredFuture;
+        }, recovered, false);
+        return recovered;
     }
 
     public Future<T> otherwise(Function<Throwable, T> mapper) {
-        Future<T> otherwiseFuture = new Future<>();
-        delegate.whenComplete((result, error) -> {
-            if (error != null) {
-                try {
-                    T otherwiseResult = mapper.apply(error);
-                    otherwiseFuture.complete(otherwiseResult);
-                } catch (Exception e) {
-                    otherwiseFuture.fail(e);
-                }
-            } else {
-                otherwiseFuture.complete(result);
+        Future<T> otherwise = derive();
+        addListener(ar -> {
+            if (otherwise.isComplete()) {
+                return;
             }
-        });
-        return otherwiseFuture;
+            if (ar.succeeded()) {
+                otherwise.complete(ar.result());
+                return;
+            }
+            T value;
+            try {
+                value = mapper.apply(ar.cause());
+            } catch (Throwable e) {
+                otherwise.fail(e);
+                return;
+            }
+            otherwise.complete(value);
+        }, otherwise, false);
+        return otherwise;
     }
 
     public <U> Future<U> transform(Function<AsyncResult<T>, AsyncResult<U>> transformer) {
-        Future<U> transformedFuture = new Future<>();
-        delegate.whenComplete((result, error) -> {
-            AsyncResult<T> asyncResult = error != null ? AsyncResult.failure(error) : AsyncResult.success(result);
+        Future<U> transformed = derive();
+        addListener(ar -> {
+            if (transformed.isComplete()) {
+                return;
+            }
+            AsyncResult<U> result;
             try {
-                AsyncResult<U> transformedResult = transformer.apply(asyncResult);
-                if (transformedResult.succeeded()) {
-                    transformedFuture.complete(transformedResult.result());
-                } else {
-                    transformedFuture.fail(transformedResult.cause());
-                }
-            } catch (Exception e) {
-                transformedFuture.fail(e);
+                result = transformer.apply(ar);
+            } catch (Throwable e) {
+                transformed.fail(e);
+                return;
             }
-        });
-        return transformedFuture;
+            transformed.handle(result);
+        }, transformed, false);
+        return transformed;
     }
 
-    public T result() {
-        return delegate.getNow(null);
+    /**
+     * 在 delay 内未完成时以 {@link TimeoutException} 失败; 计时在事件循环上进行, 不占用线程。
+     * 超时后, 除此之外无人等待的当前 Future 被取消
+     */
+    public Future<T> timeout(long delay, TimeUnit unit) {
+        if (isComplete()) {
+            return this;
+        }
+        Future<T> timed = derive();
+        ScheduledFuture<?> timer = Vertx.eventLoops().schedule(() -> {
+            if (timed.tryComplete(new Failure(new TimeoutException("超过 " + delay + " " + unit + " 未完成")))) {
+                cancelIfAbandoned();
+            }
+        }, delay, unit);
+        addListener(ar -> {
+            timer.cancel(false);
+            timed.handle(ar);
+        }, timed, false);
+        timed.onCancel(() -> timer.cancel(false));
+        return timed;
     }
 
-    public Throwable cause() {
-        try {
-            delegate.join();
+    public Future<T> timeout(Duration timeout) {
+        return timeout(timeout.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 改为等待 next 的结果; 此前已被取消时把取消传给 next
+     */
+    private void follow(Future<T> next) {
+        upstream = next;
+        next.addListener(this::handle, this, false);
+        if (isCancelled()) {
+            next.cancelIfAbandoned();
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T result() {
+        Object s = state;
+        if (s == null || s == NULL || s instanceof Node || s instanceof Failure) {
             return null;
-        } catch (java.util.concurrent.CompletionException e) {
-            // 解包CompletionException，返回原始异常
-            return e.getCause() != null ? e.getCause() : e;
-        } catch (Exception e) {
-            return e;
         }
+        return (T) s;
+    }
+
+    /**
+     * 失败原因, 未完成或成功时为 null
+     */
+    @Override
+    public Throwable cause() {
+        Object s = state;
+        return s instanceof Failure ? ((Failure) s).cause : null;
     }
 
+    @Override
     public boolean succeeded() {
-        return delegate.isDone() && !delegate.isCompletedExceptionally();
+        Object s = state;
+        return s != null && !(s instanceof Node) && !(s instanceof Failure);
     }
 
+    @Override
     public boolean failed() {
-        return delegate.isCompletedExceptionally();
+        return state instanceof Failure;
     }
 
     public boolean isComplete() {
-        return delegate.isDone();
+        Object s = state;
+        return s != null && !(s instanceof Node);
     }
 
+    /**
+     * 转换为 CompletableFuture, 每次调用返回新的实例
+     */
     public CompletableFuture<T> toCompletionStage() {
-        return delegate;
+        CompletableFuture<T> stage = new CompletableFuture<>();
+        addListener(ar -> {
+            if (ar.succeeded()) {
+                stage.complete(ar.result());
+            } else {
+                stage.completeExceptionally(ar.cause());
+            }
+        });
+        return stage;
     }
 
     public CompletableFuture<T> toCompletableFuture() {
-        return delegate;
+        return toCompletionStage();
     }
 
     // Helper method for handling AsyncResult
@@ -286,4 +536,31 @@ public class Future<T> {
             fail(result.cause());
         }
     }
+
+    private static final class Node<T> {
+        final Handler<AsyncResult<T>> handler;
+        /**
+         * 由该回调完成的派生 Future, 普通回调为 null
+         */
+        final Future<?> dependent;
+        /**
+         * 只观察取消, 不算作对结果的等待
+         */
+        final boolean passive;
+        Node<T> next;
+
+        Node(Handler<AsyncResult<T>> handler, Future<?> dependent, boolean passive) {
+            this.handler = handler;
+            this.dependent = dependent;
+            this.passive = passive;
+        }
+    }
+
+    private static final class Failure {
+        final Throwable cause;
+
+        Failure(Throwable cause) {
+            this.cause = cause;
+        }
+    }
 }
@@ -1,80 +1,449 @@
 package io.vertx.core;
 
-import java.util.HashMap;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Set;
-import java.util.List;
-import java.util.ArrayList;
 
-public class MultiMap extends HashMap<String, String> {
+/**
+ * 有序的多值映射, 用于请求头、响应头和表单参数
+ * <p>
+ * 所有键值对按插入顺序保存在一条链表上, 另以(大小写不敏感时转小写的)键建立哈希索引, 按名称查找为 O(1)。
+ * {@link #set} 替换同名的全部值, {@link #add} 追加一个值, {@link #getAll} 返回同名的全部值。
+ * 大小写不敏感时只差大小写的键视为同名: 如 set("accept", ..) 会替换 "Accept" 的值, 而不是另存一个键。
+ * 作为 {@link Map} 使用时: {@link #get(Object)} 返回第一个值, {@link #put} 等同 {@link #set},
+ * {@link #entrySet()} 和 {@link #forEach} 遍历每一个键值对(同名多值会出现多次)。
+ * </p>
+ */
+public class MultiMap extends AbstractMap<String, String> {
     private final boolean caseInsensitive;
-    
+    private final Storage storage;
+    private final boolean readOnly;
+    private Set<Entry<String, String>> entrySet;
+
     public MultiMap() {
         this(false);
     }
-    
+
     public MultiMap(boolean caseInsensitive) {
+        this(new Storage(), caseInsensitive, false);
+    }
+
+    private MultiMap(Storage storage, boolean caseInsensitive, boolean readOnly) {
+        this.storage = storage;
         this.caseInsensitive = caseInsensitive;
+        this.readOnly = readOnly;
     }
-    
+
     public static MultiMap caseInsensitiveMultiMap() {
         return new MultiMap(true);
     }
 
+    /**
+     * 只读视图, 与当前映射共享数据(不复制), 修改操作抛出 {@link UnsupportedOperationException}
+     */
+    public MultiMap readOnlyView() {
+        return readOnly ? this : new MultiMap(storage, caseInsensitive, true);
+    }
+
+    public boolean isReadOnly() {
+        return readOnly;
+    }
+
     public MultiMap set(String key, String value) {
-        put(key, value);
+        checkWritable();
+        removeAll(normalize(key));
+        if (value != null) {
+            append(key, value);
+        }
         return this;
     }
 
-    public boolean contains(String key) {
-        if (caseInsensitive) {
-            // 大小写不敏感查找
-            for (String existingKey : keySet()) {
-                if (existingKey.equalsIgnoreCase(key)) {
-                    return true;
-                }
-            }
-            return false;
+    /**
+     * 替换同名的全部值
+     */
+    public MultiMap set(String key, Iterable<String> values) {
+        checkWritable();
+        removeAll(normalize(key));
+        for (String value : values) {
+            append(key, value);
         }
-        return containsKey(key);
+        return this;
+    }
+
+    public MultiMap add(String key, String value) {
+        checkWritable();
+        append(key, value);
+        return this;
+    }
+
+    public boolean contains(String key) {
+        return key != null && storage.index.containsKey(normalize(key));
     }
 
     public String get(String key) {
-        if (caseInsensitive) {
-            // 大小写不敏感查找
-            for (Map.Entry<String, String> entry : entrySet()) {
-                if (entry.getKey().equalsIgnoreCase(key)) {
-                    return entry.getValue();
-                }
-            }
+        if (key == null) {
             return null;
         }
-        return super.get(key);
+        Node head = storage.index.get(normalize(key));
+        return head != null ? head.value : null;
     }
 
     public List<String> getAll(String key) {
-        List<String> values = new ArrayList<>();
-        if (containsKey(key)) {
-            values.add(get(key));
+        if (key == null) {
+            return new ArrayList<>();
+        }
+        Node node = storage.index.get(normalize(key));
+        List<String> values = new ArrayList<>(node != null && node.nextSame == null ? 1 : 4);
+        for (; node != null; node = node.nextSame) {
+            values.add(node.value);
         }
         return values;
     }
 
+    /**
+     * 按名称返回第一个值
+     */
     public Map<String, String> toMap() {
-        return new HashMap<>(this);
+        Map<String, String> map = new LinkedHashMap<>();
+        for (Node head : storage.index.values()) {
+            map.put(head.key, head.value);
+        }
+        return map;
     }
 
-    public void addAll(Map<String, String> map) {
+    /**
+     * 按名称替换为参数中的值, 同 {@link #putAll}
+     */
+    public MultiMap addAll(Map<String, String> map) {
         putAll(map);
+        return this;
     }
 
+    /**
+     * 名称集合(按首次出现的顺序, 保留首次出现时的大小写), 返回副本
+     */
     public Set<String> names() {
-        return keySet();
+        Set<String> names = new LinkedHashSet<>();
+        for (Node head : storage.index.values()) {
+            names.add(head.key);
+        }
+        return names;
     }
 
-    // add方法
-    public MultiMap add(String key, String value) {
-        put(key, value);
-        return this;
+    // -------------------- Map 兼容 --------------------
+
+    @Override
+    public String get(Object key) {
+        return key instanceof String ? get((String) key) : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key instanceof String && contains((String) key);
+    }
+
+    @Override
+    public String put(String key, String value) {
+        String previous = get(key);
+        set(key, value);
+        return previous;
+    }
+
+    /**
+     * 按名称替换; 参数为 MultiMap 时同名的多个值全部保留
+     */
+    @Override
+    public void putAll(Map<? extends String, ? extends String> map) {
+        checkWritable();
+        if (map == this) {
+            return;
+        }
+        if (map instanceof MultiMap) {
+            MultiMap other = (MultiMap) map;
+            for (Node head : other.storage.index.values()) {
+                removeAll(normalize(head.key));
+            }
+            for (Node node = other.storage.head; node != null; node = node.after) {
+                append(node.key, node.value);
+            }
+            return;
+        }
+        for (Entry<? extends String, ? extends String> entry : map.entrySet()) {
+            set(entry.getKey(), entry.getValue());
+        }
+    }
+
+    @Override
+    public String remove(Object key) {
+        if (!(key instanceof String)) {
+            return null;
+        }
+        checkWritable();
+        String previous = get((String) key);
+        removeAll(normalize((String) key));
+        return previous;
+    }
+
+    @Override
+    public void clear() {
+        checkWritable();
+        storage.index.clear();
+        storage.head = null;
+        storage.tail = null;
+        storage.size = 0;
+    }
+
+    /**
+     * 键值对总数(同名多值分别计数)
+     */
+    @Override
+    public int size() {
+        return storage.size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return storage.size == 0;
+    }
+
+    @Override
+    public Set<String> keySet() {
+        return Collections.unmodifiableSet(names());
+    }
+
+    @Override
+    public Set<Entry<String, String>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new EntrySet();
+        }
+        return entrySet;
+    }
+
+    /**
+     * 同名的值(按顺序)全部相同即相等, 不区分不同名称之间的先后顺序
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof MultiMap)) {
+            return super.equals(o);
+        }
+        MultiMap other = (MultiMap) o;
+        if (other.size() != size() || other.storage.index.size() != storage.index.size()) {
+            return false;
+        }
+        for (Node head : storage.index.values()) {
+            if (!getAll(head.key).equals(other.getAll(head.key))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 0;
+        for (Map.Entry<String, Node> entry : storage.index.entrySet()) {
+            hash += entry.getKey().hashCode() ^ getAll(entry.getValue().key).hashCode();
+        }
+        return hash;
+    }
+
+    // -------------------- 内部实现 --------------------
+
+    private String normalize(String key) {
+        if (!caseInsensitive) {
+            return key;
+        }
+        for (int i = 0; i < key.length(); i++) {
+            char c = key.charAt(i);
+            if (c >= 'A' && c <= 'Z' || c > 0x7F) {
+                return key.toLowerCase(Locale.ROOT);
+            }
+        }
+        return key;
+    }
+
+    private void checkWritable() {
+        if (readOnly) {
+            throw new UnsupportedOperationException("只读的 MultiMap");
+        }
+    }
+
+    private void append(String key, String value) {
+        String normalized = normalize(key);
+        Node node = new Node(key, normalized, value);
+        Node head = storage.index.get(normalized);
+        if (head == null) {
+            storage.index.put(normalized, node);
+        } else {
+            Node last = head;
+            while (last.nextSame != null) {
+                last = last.nextSame;
+            }
+            last.nextSame = node;
+        }
+        node.before = storage.tail;
+        if (storage.tail == null) {
+            storage.head = node;
+        } else {
+            storage.tail.after = node;
+        }
+        storage.tail = node;
+        storage.size++;
+    }
+
+    private void removeAll(String normalized) {
+        for (Node node = storage.index.remove(normalized); node != null; node = node.nextSame) {
+            unlink(node);
+        }
+    }
+
+    private void removeNode(Node node) {
+        Node head = storage.index.get(node.normalized);
+        if (head == node) {
+            if (node.nextSame == null) {
+                storage.index.remove(node.normalized);
+            } else {
+                storage.index.put(node.normalized, node.nextSame);
+            }
+        } else {
+            Node prev = head;
+            while (prev != null && prev.nextSame != node) {
+                prev = prev.nextSame;
+            }
+            if (prev != null) {
+                prev.nextSame = node.nextSame;
+            }
+        }
+        unlink(node);
+    }
+
+    private void unlink(Node node) {
+        if (node.before == null) {
+            storage.head = node.after;
+        } else {
+            node.before.after = node.after;
+        }
+        if (node.after == null) {
+            storage.tail = node.before;
+        } else {
+            node.after.before = node.before;
+        }
+        storage.size--;
+    }
+
+    private static final class Storage {
+        /**
+         * 规范化键 -> 同名链表的第一个节点, 按名称首次出现的顺序
+         */
+        final Map<String, Node> index = new LinkedHashMap<>();
+        Node head;
+        Node tail;
+        int size;
+    }
+
+    private static final class Node implements Entry<String, String> {
+        final String key;
+        final String normalized;
+        String value;
+        Node before;
+        Node after;
+        Node nextSame;
+
+        Node(String key, String normalized, String value) {
+            this.key = key;
+            this.normalized = normalized;
+            this.value = value;
+        }
+
+        @Override
+        public String getKey() {
+            return key;
+        }
+
+        @Override
+        public String getValue() {
+            return value;
+        }
+
+        @Override
+        public String setValue(String value) {
+            String previous = this.value;
+            this.value = value;
+            return previous;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Entry)) {
+                return false;
+            }
+            Entry<?, ?> e = (Entry<?, ?>) o;
+            return key.equals(e.getKey()) && java.util.Objects.equals(value, e.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return key.hashCode() ^ (value == null ? 0 : value.hashCode());
+        }
+
+        @Override
+        public String toString() {
+            return key + "=" + value;
+        }
+    }
+
+    private final class EntrySet extends AbstractSet<Entry<String, String>> {
+        @Override
+        public Iterator<Entry<String, String>> iterator() {
+            return new Iterator<>() {
+                private Node next = storage.head;
+                private Node last;
+
+                @Override
+                public boolean hasNext() {
+                    return next != null;
+                }
+
+                @Override
+                public Entry<String, String> next() {
+                    if (next == null) {
+                        throw new NoSuchElementException();
+                    }
+                    last = next;
+                    next = next.after;
+                    return readOnly ? new SimpleImmutableEntry<>(last) : last;
+                }
+
+                @Override
+                public void remove() {
+                    checkWritable();
+                    if (last == null) {
+                        throw new IllegalStateException();
+                    }
+                    removeNode(last);
+                    last = null;
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return storage.size;
+        }
+
+        @Override
+        public void clear() {
+            MultiMap.this.clear();
+        }
     }
 }
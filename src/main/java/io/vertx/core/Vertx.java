@@ -1,16 +1,51 @@
 package io.vertx.core;
 
 import io.vertx.ext.web.client.WebClient;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
 
 public class Vertx {
     private static final ConcurrentHashMap<String, WorkerExecutor> workerExecutors = new ConcurrentHashMap<>();
     private static final AtomicInteger pendingTasks = new AtomicInteger(0);
+    /**
+     * 是否统计待处理的 Future, 默认关闭, 可用 -Dvertx.taskTracking=true 开启
+     */
+    private static volatile boolean taskTracking = Boolean.getBoolean("vertx.taskTracking");
     private static final AtomicInteger instanceCount = new AtomicInteger(0);
+    /**
+     * Future 回调默认所在的事件循环, 线程数与 CPU 核数相同
+     */
+    private static final EventLoopGroup EVENT_LOOPS =
+            new EventLoopGroup("vertx-eventloop-thread-", Runtime.getRuntime().availableProcessors());
+    private static final ExecutorService WORKER_POOL = Executors.newFixedThreadPool(20, new ThreadFactory() {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "vertx-worker-thread-" + count.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+    private static volatile Executor completionExecutor;
+    private static final AtomicLong TIMER_ID = new AtomicLong();
     private static Thread eventLoopThread;
     private static CountDownLatch shutdownLatch;
+    /**
+     * 本实例未触发的定时器, 按定时器 ID 索引, 实例关闭时全部取消
+     */
+    private final Map<Long, Timer> timers = new ConcurrentHashMap<>();
     
     public Vertx() {
         int count = instanceCount.incrementAndGet();
@@ -25,7 +60,7 @@ public class Vertx {
     }
 
     /**
-     * 启动内部事件循环
+     * 启动保活线程: 事件循环线程({@link #eventLoops()})都是守护线程, 由这个非守护线程在最后一个实例关闭前保持 JVM 运行
      */
     private static synchronized void startEventLoop() {
         if (shutdownLatch == null || shutdownLatch.getCount() == 0) {
@@ -45,6 +80,154 @@ public class Vertx {
         }
     }
 
+    /**
+     * 默认的事件循环组
+     */
+    public static EventLoopGroup eventLoops() {
+        return EVENT_LOOPS;
+    }
+
+    /**
+     * 执行阻塞任务的共享线程池
+     */
+    public static ExecutorService workerPool() {
+        return WORKER_POOL;
+    }
+
+    /**
+     * 设置异步结果(如 HTTP 响应)的回调执行器, 传入 null 时恢复默认的事件循环组
+     * <p>传入 {@code Runnable::run} 则直接在完成的线程(如 OkHttp 网络线程)上执行回调</p>
+     */
+    public static void setCompletionExecutor(Executor executor) {
+        completionExecutor = executor;
+    }
+
+    /**
+     * 为调用线程选择回调执行器: 已配置时返回配置值, 否则返回当前事件循环(不在循环线程上时轮询选择)
+     */
+    public static Executor completionExecutor() {
+        Executor executor = completionExecutor;
+        return executor != null ? executor : EVENT_LOOPS.next();
+    }
+
+    /**
+     * 在共享线程池执行阻塞任务, 结果回到调用线程对应的回调执行器
+     */
+    public <T> Future<T> executeBlocking(Supplier<T> blockingCode) {
+        Executor callback = completionExecutor();
+        Future<T> future = new Future<>();
+        WORKER_POOL.execute(() -> {
+            T result;
+            try {
+                result = blockingCode.get();
+            } catch (Throwable e) {
+                callback.execute(() -> future.fail(e));
+                return;
+            }
+            callback.execute(() -> future.complete(result));
+        });
+        return future;
+    }
+
+    /**
+     * 延迟执行一次, 回调在事件循环上执行
+     *
+     * @param delay 延迟毫秒数
+     * @return 定时器 ID, 可用于 {@link #cancelTimer(long)}
+     */
+    public long setTimer(long delay, Handler<Long> handler) {
+        return schedule(delay, handler, false);
+    }
+
+    /**
+     * 按固定间隔重复执行(上次回调结束后开始计时), 直到 {@link #cancelTimer(long)}
+     *
+     * @param delay 间隔毫秒数
+     * @return 定时器 ID
+     */
+    public long setPeriodic(long delay, Handler<Long> handler) {
+        return schedule(delay, handler, true);
+    }
+
+    /**
+     * 取消定时器
+     *
+     * @return 定时器存在且尚未触发(周期定时器未取消)时返回 true
+     */
+    public boolean cancelTimer(long id) {
+        Timer timer = timers.remove(id);
+        if (timer == null) {
+            return false;
+        }
+        timer.cancel();
+        return true;
+    }
+
+    /**
+     * 在事件循环上异步执行, 在循环线程上调用时仍回到当前循环
+     */
+    public void runOnContext(Handler<Void> action) {
+        EVENT_LOOPS.execute(() -> runHandler(action, null));
+    }
+
+    private long schedule(long delay, Handler<Long> handler, boolean periodic) {
+        if (delay < 1) {
+            throw new IllegalArgumentException("Cannot schedule a timer with delay < 1 ms");
+        }
+        long id = TIMER_ID.incrementAndGet();
+        Timer timer = new Timer();
+        // 先登记再调度, 触发时据此判断是否已取消
+        timers.put(id, timer);
+        ScheduledExecutorService loop = EVENT_LOOPS.next();
+        Runnable task = () -> {
+            if (periodic ? !timers.containsKey(id) : timers.remove(id) == null) {
+                return;
+            }
+            runHandler(handler, id);
+        };
+        timer.setFuture(periodic
+                ? loop.scheduleWithFixedDelay(task, delay, delay, TimeUnit.MILLISECONDS)
+                : loop.schedule(task, delay, TimeUnit.MILLISECONDS));
+        return id;
+    }
+
+    private static <E> void runHandler(Handler<E> handler, E event) {
+        try {
+            handler.handle(event);
+        } catch (Throwable e) {
+            // 回调异常不能中断事件循环和周期定时器
+            System.err.println("WARNING: Event loop handler threw exception: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * 本实例未触发的定时器数量
+     */
+    public int getTimerCount() {
+        return timers.size();
+    }
+
+    private static final class Timer {
+        private volatile ScheduledFuture<?> future;
+        private volatile boolean cancelled;
+
+        void setFuture(ScheduledFuture<?> future) {
+            this.future = future;
+            if (cancelled) {
+                future.cancel(false);
+            }
+        }
+
+        void cancel() {
+            cancelled = true;
+            ScheduledFuture<?> f = future;
+            if (f != null) {
+                f.cancel(false);
+            }
+        }
+    }
+
     public WebClient createHttpClient() {
         return WebClient.create();
     }
@@ -53,6 +236,17 @@ public class Vertx {
         return workerExecutors.computeIfAbsent(name, k -> WorkerExecutor.create());
     }
 
+    /**
+     * 开启或关闭待处理任务统计, 只影响之后创建的 Future
+     */
+    public static void setTaskTracking(boolean enabled) {
+        taskTracking = enabled;
+    }
+
+    public static boolean isTaskTracking() {
+        return taskTracking;
+    }
+
     /**
      * 注册一个待处理的任务
      */
@@ -69,10 +263,19 @@ public class Vertx {
 
     /**
      * 等待所有异步任务完成（用于测试）
+     * <p>
+     * 只统计开启 {@link #setTaskTracking(boolean)} 后创建的 Future, 因此调用方必须先开启统计;
+     * 未开启时抛出 {@link IllegalStateException}, 而不是在没有计数的情况下立即返回 true。
+     * </p>
      * @param timeout 超时时间（秒）
      * @return 是否所有任务都完成
+     * @throws IllegalStateException 未开启任务统计
      */
     public static boolean awaitTermination(long timeout) throws InterruptedException {
+        if (!taskTracking) {
+            throw new IllegalStateException("awaitTermination 需要先调用 Vertx.setTaskTracking(true)"
+                    + " 或以 -Dvertx.taskTracking=true 启动");
+        }
         long deadline = System.currentTimeMillis() + timeout * 1000;
         while (pendingTasks.get() > 0) {
             long remaining = deadline - System.currentTimeMillis();
@@ -102,6 +305,10 @@ public class Vertx {
      * 关闭Vertx实例和事件循环
      */
     public void close() {
+        // 取消本实例未触发的定时器
+        timers.values().forEach(Timer::cancel);
+        timers.clear();
+
         int remaining = instanceCount.decrementAndGet();
         if (remaining == 0) {
             // 最后一个实例关闭时，停止事件循环
@@ -1,49 +1,202 @@
 package io.vertx.core.buffer;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 
+/**
+ * 可增长、可切片的字节容器
+ * <p>
+ * {@link #buffer(byte[])} 直接包装传入的数组而不复制, {@link #slice()} 与原Buffer共享底层存储,
+ * {@link #getByteBuf()} 返回只读视图; 只有 {@link #getBytes()} 和 {@link #copy()} 会复制数据。
+ * 追加操作按倍数扩容, 重复追加为摊还 O(1)。
+ * </p>
+ */
 public class Buffer {
+    private static final byte[] EMPTY = new byte[0];
+
     private byte[] bytes;
+    private int offset;
+    private int length;
+    /**
+     * 底层数组是否与其他Buffer或调用方共享, 共享时追加前先复制(写时复制)
+     */
+    private boolean shared;
+
+    public Buffer() {
+        this.bytes = EMPTY;
+    }
+
+    private Buffer(byte[] bytes, int offset, int length, boolean shared) {
+        this.bytes = bytes;
+        this.offset = offset;
+        this.length = length;
+        this.shared = shared;
+    }
+
+    public static Buffer buffer() {
+        return new Buffer();
+    }
+
+    public static Buffer buffer(int initialSizeHint) {
+        return new Buffer(new byte[Math.max(0, initialSizeHint)], 0, 0, false);
+    }
 
     public static Buffer buffer(String string) {
-        return new Buffer().appendString(string);
+        return buffer(string.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static Buffer buffer(String string, String encoding) {
+        return buffer(string.getBytes(Charset.forName(encoding)));
     }
 
+    /**
+     * 包装字节数组, 不复制; 调用方之后不应再修改该数组
+     */
     public static Buffer buffer(byte[] bytes) {
-        Buffer buffer = new Buffer();
-        buffer.bytes = bytes.clone();
-        return buffer;
+        return new Buffer(bytes, 0, bytes.length, true);
     }
 
     public Buffer appendString(String string) {
-        if (bytes == null) {
-            bytes = string.getBytes();
-        } else {
-            byte[] newBytes = new byte[bytes.length + string.getBytes().length];
-            System.arraycopy(bytes, 0, newBytes, 0, bytes.length);
-            System.arraycopy(string.getBytes(), 0, newBytes, bytes.length, string.getBytes().length);
-            bytes = newBytes;
-        }
+        return appendBytes(string.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public Buffer appendString(String string, String encoding) {
+        return appendBytes(string.getBytes(Charset.forName(encoding)));
+    }
+
+    public Buffer appendBytes(byte[] data) {
+        return appendBytes(data, 0, data.length);
+    }
+
+    public Buffer appendBytes(byte[] data, int off, int len) {
+        ensureWritable(len);
+        System.arraycopy(data, off, bytes, offset + length, len);
+        length += len;
+        return this;
+    }
+
+    public Buffer appendBuffer(Buffer buffer) {
+        return appendBytes(buffer.bytes, buffer.offset, buffer.length);
+    }
+
+    public Buffer appendByte(byte b) {
+        ensureWritable(1);
+        bytes[offset + length] = b;
+        length++;
         return this;
     }
 
+    public byte getByte(int pos) {
+        checkIndex(pos, pos + 1);
+        return bytes[offset + pos];
+    }
+
     public String toString(String encoding) {
-        return new String(bytes); // Simplified
+        return toString(Charset.forName(encoding));
     }
 
     public String toString(Charset charset) {
-        return new String(bytes, charset);
+        return new String(bytes, offset, length, charset);
     }
 
     public String toString() {
-        return new String(bytes); // Simplified
+        return toString(StandardCharsets.UTF_8);
     }
 
+    /**
+     * 复制出字节数组
+     */
     public byte[] getBytes() {
-        return bytes != null ? bytes.clone() : new byte[0];
+        return Arrays.copyOfRange(bytes, offset, offset + length);
+    }
+
+    /**
+     * 复制出指定区间的字节数组
+     */
+    public byte[] getBytes(int start, int end) {
+        checkIndex(start, end);
+        return Arrays.copyOfRange(bytes, offset + start, offset + end);
+    }
+
+    /**
+     * 只读视图, 不复制数据
+     */
+    public ByteBuffer getByteBuf() {
+        return ByteBuffer.wrap(bytes, offset, length).slice().asReadOnlyBuffer();
+    }
+
+    /**
+     * 以输入流方式读取, 不复制数据
+     */
+    public InputStream asInputStream() {
+        return new ByteArrayInputStream(bytes, offset, length);
+    }
+
+    /**
+     * 共享底层存储的切片
+     */
+    public Buffer slice() {
+        return slice(0, length);
+    }
+
+    /**
+     * 共享底层存储的切片
+     */
+    public Buffer slice(int start, int end) {
+        checkIndex(start, end);
+        return new Buffer(bytes, offset + start, end - start, true);
+    }
+
+    /**
+     * 复制出独立的Buffer
+     */
+    public Buffer copy() {
+        return new Buffer(getBytes(), 0, length, false);
     }
 
     public int length() {
-        return bytes != null ? bytes.length : 0;
+        return length;
+    }
+
+    private void ensureWritable(int extra) {
+        int required = length + extra;
+        if (!shared && offset + required <= bytes.length) {
+            return;
+        }
+        int capacity = Math.max(required, Math.max(16, length * 2));
+        bytes = Arrays.copyOfRange(bytes, offset, offset + capacity);
+        offset = 0;
+        shared = false;
+    }
+
+    private void checkIndex(int start, int end) {
+        if (start < 0 || end > length || start > end) {
+            throw new IndexOutOfBoundsException("start=" + start + ", end=" + end + ", length=" + length);
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Buffer)) {
+            return false;
+        }
+        Buffer other = (Buffer) o;
+        return Arrays.equals(bytes, offset, offset + length, other.bytes, other.offset, other.offset + other.length);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = 1;
+        for (int i = offset; i < offset + length; i++) {
+            result = 31 * result + bytes[i];
+        }
+        return result;
     }
-}
\ No newline at end of file
+}
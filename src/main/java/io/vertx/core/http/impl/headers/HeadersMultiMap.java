@@ -2,7 +2,14 @@ package io.vertx.core.http.impl.headers;
 
 import io.vertx.core.MultiMap;
 
+/**
+ * HTTP 头, 名称大小写不敏感
+ */
 public class HeadersMultiMap extends MultiMap {
+    public HeadersMultiMap() {
+        super(true);
+    }
+
     public static HeadersMultiMap httpHeaders() {
         return new HeadersMultiMap();
     }
@@ -2,7 +2,14 @@ package io.vertx.core.http.impl.headers;
 
 import io.vertx.core.MultiMap;
 
+/**
+ * HTTP 头, 名称大小写不敏感
+ */
 public class VertxHttpHeaders extends MultiMap {
+    public VertxHttpHeaders() {
+        super(true);
+    }
+
     public static VertxHttpHeaders httpHeaders() {
         return new VertxHttpHeaders();
     }
@@ -4,6 +4,16 @@ import io.vertx.core.MultiMap;
 import io.vertx.core.buffer.Buffer;
 import io.vertx.core.json.JsonObject;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.function.Function;
 
 /**
@@ -27,6 +37,33 @@ public interface BodyCodec<T> {
      * @return Class对象
      */
     Class<T> getTargetClass();
+
+    /**
+     * 是否以流的方式处理响应体
+     * 流式解码器不会把整个响应体读入内存, 由 {@link #decodeStream(InputStream, MultiMap)} 边读边处理
+     * @return true表示流式解码
+     */
+    default boolean isStreaming() {
+        return false;
+    }
+
+    /**
+     * 流式解码响应体
+     * 默认读完整个输入流后按非流式响应的方式解码: Buffer 类型直接包装字节, 其他类型交给 {@link #decode(String, MultiMap)};
+     * 流式解码器覆盖此方法边读边处理
+     * @param body 响应体输入流, 由调用方负责关闭
+     * @param headers 响应头
+     * @return 解码后的对象
+     */
+    @SuppressWarnings("unchecked")
+    default T decodeStream(InputStream body, MultiMap headers) throws IOException {
+        byte[] bytes = body.readAllBytes();
+        if (getTargetClass() == Buffer.class) {
+            // 与非流式响应一致, 不经过字符串转换, 避免二进制内容损坏
+            return (T) Buffer.buffer(bytes);
+        }
+        return decode(new String(bytes, StandardCharsets.UTF_8), headers);
+    }
     
     // ==================== 静态工厂方法 ====================
     
@@ -64,6 +101,101 @@ public interface BodyCodec<T> {
         return new BodyCodecImpl<>(body -> null, Void.class);
     }
     
+    /**
+     * 创建流式BodyCodec, 响应体以InputStream的形式交给decoder逐步处理
+     * 适用于大页面/大列表, 避免整个响应体在堆上多次复制
+     * @param decoder 输入流解码器
+     */
+    static <T> BodyCodec<T> stream(StreamDecoder<T> decoder) {
+        return new StreamBodyCodec<>(decoder);
+    }
+
+    /**
+     * 创建写入通道的BodyCodec, 响应体直接写入channel, 不在内存中缓冲
+     * 注意: 写入完成后不会关闭channel
+     * @param channel 目标通道
+     */
+    static BodyCodec<Void> pipe(WritableByteChannel channel) {
+        return new StreamBodyCodec<>(in -> {
+            transferTo(in, channel);
+            return null;
+        });
+    }
+
+    /**
+     * 创建写入文件的BodyCodec, 响应体直接写入文件（覆盖已有内容）
+     * @param file 目标文件
+     */
+    static BodyCodec<Void> file(Path file) {
+        return new StreamBodyCodec<>(in -> {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                transferTo(in, channel);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * 输入流复制到通道
+     */
+    private static void transferTo(InputStream in, WritableByteChannel channel) throws IOException {
+        byte[] chunk = new byte[8192];
+        ByteBuffer buffer = ByteBuffer.wrap(chunk);
+        int n;
+        while ((n = in.read(chunk)) != -1) {
+            buffer.clear().limit(n);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    /**
+     * 输入流解码器
+     */
+    @FunctionalInterface
+    interface StreamDecoder<T> {
+        T decode(InputStream body) throws IOException;
+    }
+
+    /**
+     * 流式BodyCodec实现
+     */
+    class StreamBodyCodec<T> implements BodyCodec<T> {
+        private final StreamDecoder<T> decoder;
+
+        public StreamBodyCodec(StreamDecoder<T> decoder) {
+            this.decoder = decoder;
+        }
+
+        @Override
+        public T decode(String body, MultiMap headers) {
+            try {
+                return decoder.decode(new ByteArrayInputStream(
+                        (body != null ? body : "").getBytes(StandardCharsets.UTF_8)));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public boolean isStreaming() {
+            return true;
+        }
+
+        @Override
+        public T decodeStream(InputStream body, MultiMap headers) throws IOException {
+            return decoder.decode(body);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Class<T> getTargetClass() {
+            return (Class<T>) Object.class;
+        }
+    }
+
     /**
      * 通用BodyCodec实现
      */
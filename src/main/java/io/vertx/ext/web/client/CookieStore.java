@@ -1,12 +1,59 @@
 package io.vertx.ext.web.client;
 
 import io.netty.handler.codec.http.cookie.DefaultCookie;
+import okhttp3.HttpUrl;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
+/**
+ * Cookie 存储
+ * <p>
+ * put(okhttp3.Cookie)、get(HttpUrl) 为后加方法, 提供基于原有方法的默认实现。
+ * Max-Age 为 0 或负数(已过期)的 Cookie 表示删除同名同域同路径的 Cookie, 而不是保存。
+ * </p>
+ */
 public interface CookieStore {
     void put(io.netty.handler.codec.http.cookie.Cookie cookie);
+
+    /**
+     * 保存 Cookie, 同名同域同路径的旧 Cookie 被替换, 已过期的 Cookie 视为删除
+     * <p>默认转换为 netty Cookie 后交给 {@link #put(io.netty.handler.codec.http.cookie.Cookie)}</p>
+     */
+    default void put(okhttp3.Cookie cookie) {
+        DefaultCookie converted = new DefaultCookie(cookie.name(), cookie.value());
+        converted.setDomain(cookie.domain());
+        converted.setPath(cookie.path());
+        converted.setSecure(cookie.secure());
+        converted.setHttpOnly(cookie.httpOnly());
+        if (cookie.persistent()) {
+            converted.setMaxAge(Math.max(0, (cookie.expiresAt() - System.currentTimeMillis()) / 1000));
+        }
+        put(converted);
+    }
+
     List<okhttp3.Cookie> get(String domain);
+
+    /**
+     * 获取请求 url 可携带的 Cookie (域名、路径、secure 匹配且未过期)
+     * <p>默认从 {@link #get(String)} 的结果中筛选</p>
+     */
+    default List<okhttp3.Cookie> get(HttpUrl url) {
+        long now = System.currentTimeMillis();
+        List<okhttp3.Cookie> matched = new ArrayList<>();
+        for (okhttp3.Cookie cookie : get(url.host())) {
+            if (cookie.expiresAt() > now && cookie.matches(url)) {
+                matched.add(cookie);
+            }
+        }
+        return matched;
+    }
+
     Map<String, List<okhttp3.Cookie>> getAll();
+
+    /**
+     * 清空全部 Cookie
+     */
+    void clear();
 }
@@ -2,47 +2,162 @@ package io.vertx.ext.web.client;
 
 import io.netty.handler.codec.http.cookie.Cookie;
 import okhttp3.Cookie.Builder;
+import okhttp3.HttpUrl;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * 按可注册域名(如 www.lanzn.com -> lanzn.com)分桶的并发 Cookie 存储
+ * <p>
+ * 每个桶是不可变列表, 写入时整体替换(写时复制), 读取无锁;
+ * 同名同域同路径的 Cookie 互相替换, 过期的 Cookie 在读写时清除。
+ * </p>
+ */
 public class CookieStoreImpl implements CookieStore {
     private final Map<String, List<okhttp3.Cookie>> store = new ConcurrentHashMap<>();
 
     @Override
     public void put(Cookie cookie) {
         String domain = cookie.domain();
-        if (domain == null || domain.isEmpty()) {
+        boolean hostOnly = domain == null || domain.isEmpty();
+        if (hostOnly) {
             domain = "localhost";
+        } else if (domain.startsWith(".")) {
+            // ".example.com" 即对子域名生效的域 Cookie, OkHttp 不接受前导点
+            domain = domain.substring(1);
         }
-        
+
         // Convert io.netty.handler.codec.http.cookie.Cookie to OkHttp Cookie
         Builder builder = new Builder()
                 .name(cookie.name())
                 .value(cookie.value())
-                .domain(domain)
                 .path(cookie.path() != null && !cookie.path().isEmpty() ? cookie.path() : "/");
-        
+        if (hostOnly) {
+            builder.hostOnlyDomain(domain);
+        } else {
+            builder.domain(domain);
+        }
+        if (cookie.maxAge() > 0) {
+            builder.expiresAt(System.currentTimeMillis() + cookie.maxAge() * 1000);
+        } else if (cookie.maxAge() != Cookie.UNDEFINED_MAX_AGE) {
+            // Max-Age 为 0 或负数: 删除已有的同名 Cookie
+            builder.expiresAt(Long.MIN_VALUE);
+        }
         if (cookie.isSecure()) {
             builder.secure();
         }
         if (cookie.isHttpOnly()) {
             builder.httpOnly();
         }
-        
-        okhttp3.Cookie okHttpCookie = builder.build();
-        store.computeIfAbsent(domain, k -> new ArrayList<>()).add(okHttpCookie);
+        put(builder.build());
     }
 
+    @Override
+    public void put(okhttp3.Cookie cookie) {
+        long now = System.currentTimeMillis();
+        store.compute(registrableDomain(cookie.domain()), (key, cookies) -> {
+            List<okhttp3.Cookie> updated = new ArrayList<>(cookies != null ? cookies.size() + 1 : 1);
+            if (cookies != null) {
+                for (okhttp3.Cookie existing : cookies) {
+                    if (existing.expiresAt() > now && !sameIdentity(existing, cookie)) {
+                        updated.add(existing);
+                    }
+                }
+            }
+            if (cookie.expiresAt() > now) {
+                updated.add(cookie);
+            }
+            return updated.isEmpty() ? null : Collections.unmodifiableList(updated);
+        });
+    }
+
+    /**
+     * 获取域名(及其子域名)下的 Cookie
+     */
     @Override
     public List<okhttp3.Cookie> get(String domain) {
-        return store.getOrDefault(domain, new ArrayList<>());
+        if (domain.startsWith(".")) {
+            domain = domain.substring(1);
+        }
+        List<okhttp3.Cookie> cookies = store.get(registrableDomain(domain));
+        List<okhttp3.Cookie> result = new ArrayList<>();
+        if (cookies == null) {
+            return result;
+        }
+        long now = System.currentTimeMillis();
+        for (okhttp3.Cookie cookie : cookies) {
+            if (cookie.expiresAt() > now && domainMatches(cookie.domain(), domain)) {
+                result.add(cookie);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public List<okhttp3.Cookie> get(HttpUrl url) {
+        String key = url.topPrivateDomain() != null ? url.topPrivateDomain() : url.host();
+        List<okhttp3.Cookie> cookies = store.get(key);
+        if (cookies == null) {
+            return Collections.emptyList();
+        }
+        long now = System.currentTimeMillis();
+        List<okhttp3.Cookie> result = new ArrayList<>(cookies.size());
+        boolean expired = false;
+        for (okhttp3.Cookie cookie : cookies) {
+            if (cookie.expiresAt() <= now) {
+                expired = true;
+            } else if (cookie.matches(url)) {
+                result.add(cookie);
+            }
+        }
+        if (expired) {
+            evictExpired(key, now);
+        }
+        return result;
     }
 
     @Override
     public Map<String, List<okhttp3.Cookie>> getAll() {
         return new ConcurrentHashMap<>(store);
     }
+
+    @Override
+    public void clear() {
+        store.clear();
+    }
+
+    private void evictExpired(String key, long now) {
+        store.computeIfPresent(key, (k, cookies) -> {
+            List<okhttp3.Cookie> alive = new ArrayList<>(cookies.size());
+            for (okhttp3.Cookie cookie : cookies) {
+                if (cookie.expiresAt() > now) {
+                    alive.add(cookie);
+                }
+            }
+            return alive.isEmpty() ? null : Collections.unmodifiableList(alive);
+        });
+    }
+
+    private static boolean sameIdentity(okhttp3.Cookie a, okhttp3.Cookie b) {
+        return a.name().equals(b.name()) && a.domain().equals(b.domain())
+                && a.path().equals(b.path()) && a.hostOnly() == b.hostOnly();
+    }
+
+    private static boolean domainMatches(String cookieDomain, String domain) {
+        return domain.equals(cookieDomain) || domain.endsWith("." + cookieDomain)
+                || cookieDomain.endsWith("." + domain);
+    }
+
+    /**
+     * 可注册域名, IP 和 localhost 等无公共后缀的主机使用原值
+     */
+    static String registrableDomain(String host) {
+        HttpUrl url = HttpUrl.parse("http://" + host + "/");
+        String domain = url != null ? url.topPrivateDomain() : null;
+        return domain != null ? domain : host;
+    }
 }
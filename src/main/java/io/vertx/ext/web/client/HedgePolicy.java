@@ -0,0 +1,193 @@
+package io.vertx.ext.web.client;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 对冲请求策略, 由 {@link WebClient#withHedging(HedgePolicy)} 挂载到客户端
+ * <p>
+ * 幂等的 GET/HEAD 请求在等待超过 {@link #hedgeDelayMillis()} 仍未响应时, 再发出一个相同的请求,
+ * 取先返回的响应并取消另一个。等待时间取最近响应耗时的指定分位数(默认 p95), 样本不足时使用初始值,
+ * 并限制在 [minDelay, maxDelay] 内。同一个策略实例在多个客户端间共享统计, 通常每个网盘类型一个。
+ * </p>
+ */
+public class HedgePolicy {
+    public static final double DEFAULT_PERCENTILE = 0.95;
+    public static final long DEFAULT_INITIAL_DELAY_MILLIS = 1000;
+    public static final long DEFAULT_MIN_DELAY_MILLIS = 50;
+    public static final long DEFAULT_MAX_DELAY_MILLIS = 5000;
+
+    /**
+     * 参与统计的最近样本数
+     */
+    static final int WINDOW = 128;
+
+    /**
+     * 样本数达到后才按分位数计算
+     */
+    static final int MIN_SAMPLES = 16;
+
+    /**
+     * 新增多少个样本后重新计算分位数
+     */
+    private static final int RECOMPUTE_EVERY = 8;
+
+    private double percentile = DEFAULT_PERCENTILE;
+    private long initialDelayMillis = DEFAULT_INITIAL_DELAY_MILLIS;
+    private long minDelayMillis = DEFAULT_MIN_DELAY_MILLIS;
+    private long maxDelayMillis = DEFAULT_MAX_DELAY_MILLIS;
+    private boolean separateConnection = true;
+
+    private final long[] samples = new long[WINDOW];
+    private int sampleIndex;
+    private int sampleCount;
+    private int sinceRecompute;
+    private volatile long cachedDelay = -1;
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong hedged = new AtomicLong();
+    private final AtomicLong hedgeWins = new AtomicLong();
+
+    public double getPercentile() {
+        return percentile;
+    }
+
+    /**
+     * 对冲等待时间取的分位数, 取值 (0, 1)
+     */
+    public HedgePolicy setPercentile(double percentile) {
+        if (!(percentile > 0 && percentile < 1)) {
+            throw new IllegalArgumentException("percentile必须在(0, 1)之间: " + percentile);
+        }
+        this.percentile = percentile;
+        cachedDelay = -1;
+        return this;
+    }
+
+    public long getInitialDelayMillis() {
+        return initialDelayMillis;
+    }
+
+    /**
+     * 样本不足时的对冲等待时间
+     */
+    public HedgePolicy setInitialDelayMillis(long initialDelayMillis) {
+        this.initialDelayMillis = initialDelayMillis;
+        return this;
+    }
+
+    public long getMinDelayMillis() {
+        return minDelayMillis;
+    }
+
+    public HedgePolicy setMinDelayMillis(long minDelayMillis) {
+        this.minDelayMillis = minDelayMillis;
+        cachedDelay = -1;
+        return this;
+    }
+
+    public long getMaxDelayMillis() {
+        return maxDelayMillis;
+    }
+
+    public HedgePolicy setMaxDelayMillis(long maxDelayMillis) {
+        this.maxDelayMillis = maxDelayMillis;
+        cachedDelay = -1;
+        return this;
+    }
+
+    public boolean isSeparateConnection() {
+        return separateConnection;
+    }
+
+    /**
+     * 对冲请求是否使用独立的连接池, 避免与原请求复用同一条(可能已卡住的)连接, 默认开启
+     */
+    public HedgePolicy setSeparateConnection(boolean separateConnection) {
+        this.separateConnection = separateConnection;
+        return this;
+    }
+
+    /**
+     * 当前的对冲等待时间
+     */
+    public long hedgeDelayMillis() {
+        long delay = cachedDelay;
+        if (delay >= 0) {
+            return delay;
+        }
+        synchronized (this) {
+            if (sampleCount < MIN_SAMPLES) {
+                return clamp(initialDelayMillis);
+            }
+            long[] sorted = Arrays.copyOf(samples, sampleCount);
+            Arrays.sort(sorted);
+            int index = Math.min(sampleCount - 1, (int) Math.ceil(percentile * sampleCount) - 1);
+            delay = clamp(sorted[Math.max(0, index)]);
+            sinceRecompute = 0;
+            cachedDelay = delay;
+            return delay;
+        }
+    }
+
+    private long clamp(long delay) {
+        return Math.max(minDelayMillis, Math.min(maxDelayMillis, delay));
+    }
+
+    /**
+     * 记录一次响应耗时(从原请求发出算起)
+     * <p>对冲请求先返回时, 该耗时是原请求耗时的下限</p>
+     */
+    synchronized void recordLatency(long millis) {
+        samples[sampleIndex] = millis;
+        sampleIndex = (sampleIndex + 1) % WINDOW;
+        if (sampleCount < WINDOW) {
+            sampleCount++;
+        }
+        if (++sinceRecompute >= RECOMPUTE_EVERY || sampleCount == MIN_SAMPLES) {
+            cachedDelay = -1;
+        }
+    }
+
+    void recordRequest() {
+        requests.incrementAndGet();
+    }
+
+    void recordHedge() {
+        hedged.incrementAndGet();
+    }
+
+    void recordHedgeWin() {
+        hedgeWins.incrementAndGet();
+    }
+
+    /**
+     * 可对冲的请求数
+     */
+    public long getRequests() {
+        return requests.get();
+    }
+
+    /**
+     * 发出了对冲请求的次数
+     */
+    public long getHedged() {
+        return hedged.get();
+    }
+
+    /**
+     * 对冲请求先于原请求返回的次数
+     */
+    public long getHedgeWins() {
+        return hedgeWins.get();
+    }
+
+    @Override
+    public String toString() {
+        return "HedgePolicy{p" + Math.round(percentile * 100)
+                + ", delay=" + hedgeDelayMillis() + "ms"
+                + ", requests=" + getRequests()
+                + ", hedged=" + getHedged()
+                + ", wins=" + getHedgeWins() + "}";
+    }
+}
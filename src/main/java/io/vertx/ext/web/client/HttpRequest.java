@@ -8,6 +8,7 @@ import io.vertx.core.buffer.Buffer;
 import io.vertx.core.json.JsonObject;
 
 public interface HttpRequest<T> {
+    <U> HttpRequest<U> as(BodyCodec<U> codec);
     HttpRequest<T> putHeader(String name, String value);
     HttpRequest<T> putHeaders(MultiMap headers);
     HttpRequest<T> sendJson(Object body);
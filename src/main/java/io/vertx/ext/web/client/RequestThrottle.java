@@ -0,0 +1,33 @@
+package io.vertx.ext.web.client;
+
+import io.vertx.core.Future;
+import io.vertx.core.MultiMap;
+
+/**
+ * 请求节流, 由 {@link WebClient#withThrottle(RequestThrottle)} 挂载到客户端
+ * <p>
+ * 每个请求发出前先调用 {@link #acquire(String)}, 返回的 Future 成功后才交给 OkHttp 执行,
+ * 失败时请求以同一异常失败; 收到响应后调用 {@link #onResponse}, 可据此调整速率。
+ * 等待期间不占用 OkHttp 的调度线程。
+ * </p>
+ */
+public interface RequestThrottle {
+
+    /**
+     * 申请发出一个请求
+     *
+     * @param host 请求的主机名
+     * @return 可以发出请求时完成
+     */
+    Future<Void> acquire(String host);
+
+    /**
+     * 收到响应(包括非 2xx 响应)
+     *
+     * @param host       请求的主机名
+     * @param statusCode 状态码
+     * @param headers    响应头
+     */
+    default void onResponse(String host, int statusCode, MultiMap headers) {
+    }
+}
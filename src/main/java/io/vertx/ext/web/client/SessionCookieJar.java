@@ -0,0 +1,74 @@
+package io.vertx.ext.web.client;
+
+import okhttp3.Cookie;
+import okhttp3.CookieJar;
+import okhttp3.HttpUrl;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 把 {@link CookieStore} 接入 OkHttp
+ * <p>
+ * 作为 CookieJar 保存每个响应(包括跳转中间响应)的 Set-Cookie;
+ * 作为网络拦截器在每一跳请求上附加匹配的 Cookie, 与调用方手动设置的 Cookie 头合并(同名以手动设置为准),
+ * 而不是像 OkHttp 默认那样整体覆盖。
+ * </p>
+ */
+class SessionCookieJar implements CookieJar, Interceptor {
+    private final CookieStore cookieStore;
+
+    SessionCookieJar(CookieStore cookieStore) {
+        this.cookieStore = cookieStore;
+    }
+
+    @Override
+    public void saveFromResponse(HttpUrl url, List<Cookie> cookies) {
+        for (Cookie cookie : cookies) {
+            cookieStore.put(cookie);
+        }
+    }
+
+    /**
+     * 加载由 {@link #intercept} 完成, 避免 OkHttp 覆盖手动设置的 Cookie 头
+     */
+    @Override
+    public List<Cookie> loadForRequest(HttpUrl url) {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        List<Cookie> cookies = cookieStore.get(request.url());
+        if (cookies.isEmpty()) {
+            return chain.proceed(request);
+        }
+        String manual = request.header("Cookie");
+        Set<String> manualNames = new HashSet<>();
+        StringBuilder header = new StringBuilder();
+        if (manual != null && !manual.isBlank()) {
+            header.append(manual.trim());
+            for (String pair : manual.split(";")) {
+                int eq = pair.indexOf('=');
+                manualNames.add((eq >= 0 ? pair.substring(0, eq) : pair).trim());
+            }
+        }
+        for (Cookie cookie : cookies) {
+            if (manualNames.contains(cookie.name())) {
+                continue;
+            }
+            if (header.length() > 0) {
+                header.append("; ");
+            }
+            header.append(cookie.name()).append('=').append(cookie.value());
+        }
+        return chain.proceed(request.newBuilder().header("Cookie", header.toString()).build());
+    }
+}
@@ -1,5 +1,6 @@
 package io.vertx.ext.web.client;
 
+import io.vertx.core.CancellationToken;
 import io.vertx.core.Future;
 import io.vertx.core.MultiMap;
 import io.vertx.core.Vertx;
@@ -10,57 +11,160 @@ import okhttp3.*;
 import java.nio.charset.StandardCharsets;
 
 import java.io.IOException;
-import java.util.concurrent.TimeUnit;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 public class WebClient {
     private final OkHttpClient client;
-
+    private final RequestThrottle throttle;
+    private final HedgePolicy hedgePolicy;
+    /**
+     * 回调执行器, null 时使用 {@link Vertx#completionExecutor()}
+     */
+    private final Executor completionExecutor;
+    /**
+     * 取消令牌, 取消后正在进行的请求被取消、新请求直接失败
+     */
+    private final CancellationToken cancellation;
+    /**
+     * 截止时间(毫秒时间戳), 0 表示不限
+     */
+    private final long deadline;
+
+    /**
+     * 默认客户端, 复用进程级共享的 OkHttp 传输层
+     */
     public WebClient() {
-        OkHttpClient.Builder builder = new OkHttpClient.Builder()
-                .followRedirects(false)
-                .callTimeout(15, TimeUnit.SECONDS);
-        
-        // 禁用OkHttp的自动gzip处理，让客户端完全控制请求头
-        builder.addInterceptor(chain -> {
-            Request original = chain.request();
-            Request modified = original.newBuilder()
-                    .removeHeader("Accept-Encoding") // 移除OkHttp自动添加的gzip
-                    .build();
-            return chain.proceed(modified);
-        });
-        
-        this.client = builder.build();
+        this.client = WebClientTransport.defaultClient();
+        this.throttle = null;
+        this.hedgePolicy = null;
+        this.completionExecutor = null;
+        this.cancellation = null;
+        this.deadline = 0;
     }
 
+    /**
+     * 按配置创建客户端, 相同配置共享同一个 OkHttpClient 变体（同一个连接池和 Dispatcher）
+     */
     public WebClient(Vertx vertx, WebClientOptions options) {
-        OkHttpClient.Builder builder = new OkHttpClient.Builder()
-                .followRedirects(options.isFollowRedirects())
-                .connectTimeout(options.getConnectTimeout(), TimeUnit.MILLISECONDS)
-                .readTimeout(options.getReadTimeout(), TimeUnit.MILLISECONDS)
-                .writeTimeout(options.getWriteTimeout(), TimeUnit.MILLISECONDS);
-
-        // 禁用OkHttp的自动gzip处理，让客户端完全控制请求头
-        builder.addInterceptor(chain -> {
-            Request original = chain.request();
-            Request modified = original.newBuilder()
-                    .removeHeader("Accept-Encoding") // 移除OkHttp自动添加的gzip
-                    .build();
-            return chain.proceed(modified);
-        });
-
-        if (options.isUserAgentEnabled()) {
-            builder.addInterceptor(chain -> {
-                Request original = chain.request();
-                Request.Builder requestBuilder = original.newBuilder();
-                if (original.header("User-Agent") == null) {
-                    requestBuilder.header("User-Agent", options.getUserAgent());
-                }
-                return chain.proceed(requestBuilder.build());
-            });
-        }
+        this(options);
+    }
+
+    /**
+     * 按配置创建客户端, 不依赖 Vertx 实例
+     */
+    public WebClient(WebClientOptions options) {
+        this.client = WebClientTransport.forOptions(options);
+        this.throttle = null;
+        this.hedgePolicy = null;
+        this.completionExecutor = null;
+        this.cancellation = null;
+        this.deadline = 0;
+    }
+
+    private WebClient(OkHttpClient client, RequestThrottle throttle, HedgePolicy hedgePolicy,
+                      Executor completionExecutor, CancellationToken cancellation, long deadline) {
+        this.client = client;
+        this.throttle = throttle;
+        this.hedgePolicy = hedgePolicy;
+        this.completionExecutor = completionExecutor;
+        this.cancellation = cancellation;
+        this.deadline = deadline;
+    }
+
+    /**
+     * 底层 OkHttpClient
+     */
+    OkHttpClient okHttpClient() {
+        return client;
+    }
+
+    /**
+     * 挂载会话 Cookie 的客户端, 与当前客户端共享连接池和 Dispatcher
+     */
+    WebClient withCookieJar(SessionCookieJar cookieJar) {
+        return new WebClient(client.newBuilder()
+                .cookieJar(cookieJar)
+                .addNetworkInterceptor(cookieJar)
+                .build(), throttle, hedgePolicy, completionExecutor, cancellation, deadline);
+    }
+
+    /**
+     * 挂载请求节流的客户端, 与当前客户端共享同一个 OkHttpClient; 传入 null 时取消节流
+     */
+    public WebClient withThrottle(RequestThrottle throttle) {
+        return throttle == this.throttle ? this : new WebClient(client, throttle, hedgePolicy, completionExecutor, cancellation, deadline);
+    }
+
+    /**
+     * 设置截止时间的客户端: 每个请求以剩余时间和请求超时中的较小值为调用超时,
+     * 截止时间已过的请求不再发出, 直接以 {@link TimeoutException} 失败
+     *
+     * @param deadline 截止时间(毫秒时间戳), 0 表示不限
+     */
+    public WebClient withDeadline(long deadline) {
+        return deadline == this.deadline ? this : new WebClient(client, throttle, hedgePolicy, completionExecutor, cancellation, deadline);
+    }
+
+    /**
+     * 挂载对冲策略的客户端, 只对 GET/HEAD 且非流式解码的请求生效; 传入 null 时取消对冲
+     */
+    public WebClient withHedging(HedgePolicy hedgePolicy) {
+        return hedgePolicy == this.hedgePolicy ? this : new WebClient(client, throttle, hedgePolicy, completionExecutor, cancellation, deadline);
+    }
+
+    /**
+     * 指定回调执行器的客户端, 响应在网络线程读取完毕后交给该执行器解码并完成 Future;
+     * 传入 null 时使用 {@link Vertx#completionExecutor()}, 传入 {@code Runnable::run} 时直接在网络线程回调。
+     * 需要阻塞等待响应的调用方(如在事件循环线程上同步等待)应使用后者, 避免等待自身所在的事件循环
+     */
+    public WebClient withCompletionExecutor(Executor completionExecutor) {
+        return completionExecutor == this.completionExecutor ? this
+                : new WebClient(client, throttle, hedgePolicy, completionExecutor, cancellation, deadline);
+    }
+
+    /**
+     * 挂载取消令牌的客户端: 令牌取消时正在进行的请求被取消, 之后的请求直接以 {@link CancellationException} 失败;
+     * 传入 null 时取消挂载
+     */
+    public WebClient withCancellation(CancellationToken cancellation) {
+        return cancellation == this.cancellation ? this
+                : new WebClient(client, throttle, hedgePolicy, completionExecutor, cancellation, deadline);
+    }
+
+    /**
+     * 当前挂载的取消令牌, 未挂载时为 null
+     */
+    public CancellationToken cancellation() {
+        return cancellation;
+    }
+
+    /**
+     * 当前挂载的对冲策略, 未挂载时为 null
+     */
+    public HedgePolicy hedgePolicy() {
+        return hedgePolicy;
+    }
 
-        this.client = builder.build();
+    /**
+     * 截止时间(毫秒时间戳), 0 表示不限
+     */
+    public long deadline() {
+        return deadline;
+    }
+
+    /**
+     * 当前挂载的请求节流, 未挂载时为 null
+     */
+    public RequestThrottle throttle() {
+        return throttle;
     }
 
     public static WebClient create() {
@@ -71,61 +175,70 @@ public class WebClient {
         return new WebClient();
     }
 
+    public static WebClient create(WebClientOptions options) {
+        return new WebClient(options);
+    }
+
     public static WebClient create(Vertx vertx, WebClientOptions options) {
         return new WebClient(vertx, options);
     }
 
     // 默认返回Buffer类型（底层数据）
     public RequestBuilder<Buffer> getAbs(String url) {
-        return new RequestBuilder<>(client, HttpMethod.GET, url);
+        return new RequestBuilder<>(client, throttle, hedgePolicy, completionExecutor, cancellation, deadline, HttpMethod.GET, url);
     }
 
     public RequestBuilder<Buffer> getAbs(io.vertx.uritemplate.UriTemplate template) {
-        return new RequestBuilder<>(client, HttpMethod.GET, template != null ? template.toString() : "");
+        return new RequestBuilder<>(client, throttle, hedgePolicy, completionExecutor, cancellation, deadline, HttpMethod.GET, template != null ? template.toString() : "");
     }
 
     public RequestBuilder<Buffer> postAbs(String url) {
-        return new RequestBuilder<>(client, HttpMethod.POST, url);
+        return new RequestBuilder<>(client, throttle, hedgePolicy, completionExecutor, cancellation, deadline, HttpMethod.POST, url);
     }
 
     public RequestBuilder<Buffer> postAbs(io.vertx.uritemplate.UriTemplate template) {
-        return new RequestBuilder<>(client, HttpMethod.POST, template != null ? template.toString() : "");
+        return new RequestBuilder<>(client, throttle, hedgePolicy, completionExecutor, cancellation, deadline, HttpMethod.POST, template != null ? template.toString() : "");
     }
 
     public RequestBuilder<Buffer> putAbs(String url) {
-        return new RequestBuilder<>(client, HttpMethod.PUT, url);
+        return new RequestBuilder<>(client, throttle, hedgePolicy, completionExecutor, cancellation, deadline, HttpMethod.PUT, url);
     }
 
     public RequestBuilder<Buffer> putAbs(io.vertx.uritemplate.UriTemplate template) {
-        return new RequestBuilder<>(client, HttpMethod.PUT, template != null ? template.toString() : "");
+        return new RequestBuilder<>(client, throttle, hedgePolicy, completionExecutor, cancellation, deadline, HttpMethod.PUT, template != null ? template.toString() : "");
     }
 
     public RequestBuilder<Buffer> deleteAbs(String url) {
-        return new RequestBuilder<>(client, HttpMethod.DELETE, url);
+        return new RequestBuilder<>(client, throttle, hedgePolicy, completionExecutor, cancellation, deadline, HttpMethod.DELETE, url);
     }
 
     public RequestBuilder<Buffer> deleteAbs(io.vertx.uritemplate.UriTemplate template) {
-        return new RequestBuilder<>(client, HttpMethod.DELETE, template != null ? template.toString() : "");
+        return new RequestBuilder<>(client, throttle, hedgePolicy, completionExecutor, cancellation, deadline, HttpMethod.DELETE, template != null ? template.toString() : "");
     }
 
     public RequestBuilder<Buffer> patchAbs(String url) {
-        return new RequestBuilder<>(client, HttpMethod.PATCH, url);
+        return new RequestBuilder<>(client, throttle, hedgePolicy, completionExecutor, cancellation, deadline, HttpMethod.PATCH, url);
     }
 
     public RequestBuilder<Buffer> patchAbs(io.vertx.uritemplate.UriTemplate template) {
-        return new RequestBuilder<>(client, HttpMethod.PATCH, template != null ? template.toString() : "");
+        return new RequestBuilder<>(client, throttle, hedgePolicy, completionExecutor, cancellation, deadline, HttpMethod.PATCH, template != null ? template.toString() : "");
     }
 
     public RequestBuilder<Buffer> headAbs(String url) {
-        return new RequestBuilder<>(client, HttpMethod.HEAD, url);
+        return new RequestBuilder<>(client, throttle, hedgePolicy, completionExecutor, cancellation, deadline, HttpMethod.HEAD, url);
     }
 
     public RequestBuilder<Buffer> headAbs(io.vertx.uritemplate.UriTemplate template) {
-        return new RequestBuilder<>(client, HttpMethod.HEAD, template != null ? template.toString() : "");
+        return new RequestBuilder<>(client, throttle, hedgePolicy, completionExecutor, cancellation, deadline, HttpMethod.HEAD, template != null ? template.toString() : "");
     }
 
     public static class RequestBuilder<T> implements HttpRequest<T> {
         private final OkHttpClient client;
+        private final RequestThrottle throttle;
+        private final HedgePolicy hedgePolicy;
+        private final Executor completionExecutor;
+        private final CancellationToken cancellation;
+        private final long deadline;
         private final HttpMethod method;
         private String url;
         private final MultiMap headers = MultiMap.caseInsensitiveMultiMap();
@@ -137,7 +250,18 @@ public class WebClient {
         private BodyCodec bodyCodec;
 
         public RequestBuilder(OkHttpClient client, HttpMethod method, String url) {
+            this(client, null, null, null, null, 0, method, url);
+        }
+
+        RequestBuilder(OkHttpClient client, RequestThrottle throttle, HedgePolicy hedgePolicy,
+                       Executor completionExecutor, CancellationToken cancellation, long deadline,
+                       HttpMethod method, String url) {
             this.client = client;
+            this.throttle = throttle;
+            this.hedgePolicy = hedgePolicy;
+            this.completionExecutor = completionExecutor;
+            this.cancellation = cancellation;
+            this.deadline = deadline;
             this.method = method;
             this.url = url;
             // 默认使用Buffer BodyCodec（底层数据）
@@ -254,6 +378,10 @@ public class WebClient {
             return this;
         }
 
+        /**
+         * 发送请求; 返回的 Future 被取消({@link Future#cancel()}, 包括经 map/compose 派生链传来的取消)时,
+         * 底层 Call 随之取消, 释放连接
+         */
         public Future<HttpResponse<T>> send() {
             Future<HttpResponse<T>> future = new Future<>();
             executeRequest(future);
@@ -268,14 +396,11 @@ public class WebClient {
             executeRequest(future, null);
         }
 
-        private void executeRequest(Future<HttpResponse<T>> future, io.vertx.core.Handler<io.vertx.core.AsyncResult<HttpResponse<T>>> handler) {
-            // Create OkHttp client with custom settings
-            OkHttpClient.Builder clientBuilder = client.newBuilder()
-                    .followRedirects(followRedirects)
-                    .callTimeout(timeout, java.util.concurrent.TimeUnit.MILLISECONDS);
-
-            OkHttpClient customClient = clientBuilder.build();
-
+        /**
+         * 构建本次请求的 Call
+         * 跳转策略通过共享的客户端变体切换, 调用超时直接设置在 Call 上, 不再为每个请求重建 OkHttpClient
+         */
+        Call newCall() {
             // Build URL with query parameters
             String finalUrl = url;
             if (!queryParams.isEmpty()) {
@@ -328,81 +453,293 @@ public class WebClient {
                     break;
             }
 
-            customClient.newCall(rb.build()).enqueue(new Callback() {
-                @Override
-                public void onFailure(Call call, IOException e) {
-                    if (future != null) {
-                        future.fail(e);
+            OkHttpClient callClient = WebClientTransport.withFollowRedirects(client, followRedirects);
+            Call call = callClient.newCall(rb.build());
+            call.timeout().timeout(timeout, java.util.concurrent.TimeUnit.MILLISECONDS);
+            return call;
+        }
+
+        private void executeRequest(Future<HttpResponse<T>> future, io.vertx.core.Handler<io.vertx.core.AsyncResult<HttpResponse<T>>> handler) {
+            Call newCall = newCall();
+            // 在发起请求的线程上选定回调执行器, 事件循环上发起的请求回到同一个循环
+            Executor delivery = completionExecutor != null ? completionExecutor : Vertx.completionExecutor();
+            if (hedgePolicy != null && (method == HttpMethod.GET || method == HttpMethod.HEAD)
+                    && body == null && !bodyCodec.isStreaming()) {
+                Future<HttpResponse<T>> target = future;
+                if (target == null) {
+                    target = new Future<>();
+                    target.onComplete(handler);
+                }
+                new Hedge(target, hedgePolicy, delivery, newCall.request()).start(newCall);
+                return;
+            }
+            dispatch(newCall, future, handler, delivery);
+        }
+
+        /**
+         * 对冲请求: 原请求经过 {@link HedgePolicy#hedgeDelayMillis()} 仍未完成时发出相同的请求,
+         * 先返回的响应作为结果, 另一个随之取消; 全部失败时以最先出现的异常失败
+         */
+        private final class Hedge {
+            private final Future<HttpResponse<T>> future;
+            private final HedgePolicy policy;
+            private final Executor delivery;
+            /**
+             * 原请求, 对冲时复用
+             */
+            private final Request request;
+            private final long startNanos = System.nanoTime();
+            private final List<Future<HttpResponse<T>>> attempts = new ArrayList<>(2);
+            private int failed;
+            private Throwable firstError;
+            private ScheduledFuture<?> timer;
+
+            Hedge(Future<HttpResponse<T>> future, HedgePolicy policy, Executor delivery, Request request) {
+                this.future = future;
+                this.policy = policy;
+                this.delivery = delivery;
+                this.request = request;
+            }
+
+            void start(Call primary) {
+                policy.recordRequest();
+                future.onCancel(this::finish);
+                launch(primary, false);
+                long delay = policy.hedgeDelayMillis();
+                synchronized (this) {
+                    if (!future.isComplete()) {
+                        timer = Vertx.eventLoops().schedule(this::fireHedge, delay, TimeUnit.MILLISECONDS);
                     }
-                    if (handler != null) {
-                        handler.handle(new io.vertx.core.AsyncResultImpl<HttpResponse<T>>(e));
+                }
+            }
+
+            private void launch(Call call, boolean hedge) {
+                Future<HttpResponse<T>> attempt = new Future<>();
+                synchronized (this) {
+                    attempts.add(attempt);
+                }
+                attempt.onComplete(ar -> onAttempt(ar, hedge));
+                dispatch(call, attempt, null, delivery);
+                // 对冲请求发出前结果已确定时, finish() 看不到这次请求, 由这里取消
+                if (future.isComplete()) {
+                    attempt.cancel();
+                }
+            }
+
+            private void fireHedge() {
+                synchronized (this) {
+                    if (future.isComplete() || attempts.size() > 1) {
+                        return;
+                    }
+                }
+                policy.recordHedge();
+                OkHttpClient base = policy.isSeparateConnection() ? WebClientTransport.hedgeVariant(client) : client;
+                Call call = WebClientTransport.withFollowRedirects(base, followRedirects).newCall(request);
+                call.timeout().timeout(timeout, TimeUnit.MILLISECONDS);
+                launch(call, true);
+            }
+
+            private void onAttempt(io.vertx.core.AsyncResult<HttpResponse<T>> ar, boolean hedge) {
+                if (ar.succeeded()) {
+                    if (!future.isComplete()) {
+                        policy.recordLatency(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+                        if (hedge) {
+                            policy.recordHedgeWin();
+                        }
+                    }
+                    future.complete(ar.result());
+                    finish();
+                    return;
+                }
+                Throwable error;
+                synchronized (this) {
+                    if (future.isComplete()) {
+                        return;
+                    }
+                    failed++;
+                    if (firstError == null) {
+                        firstError = ar.cause();
                     }
-                    // Guard: both null should never happen in normal usage
-                    if (future == null && handler == null) {
-                        System.err.println("WARNING: WebClient request failed but no future or handler: " + e.getMessage());
-                        e.printStackTrace();
+                    // 对冲前原请求失败, 或已发出的请求全部失败
+                    if (failed < attempts.size()) {
+                        return;
                     }
+                    error = firstError;
+                }
+                future.fail(error);
+                finish();
+            }
+
+            /**
+             * 结果确定(或调用方取消)后, 取消计时和仍在进行的请求
+             */
+            private void finish() {
+                List<Future<HttpResponse<T>>> pending;
+                synchronized (this) {
+                    if (timer != null) {
+                        timer.cancel(false);
+                    }
+                    pending = new ArrayList<>(attempts);
+                }
+                for (Future<HttpResponse<T>> attempt : pending) {
+                    attempt.cancel();
+                }
+            }
+        }
+
+        /**
+         * 发出单个请求: 经过节流后交给 OkHttp; future 被取消时取消 Call
+         */
+        private void dispatch(Call newCall, Future<HttpResponse<T>> future, io.vertx.core.Handler<io.vertx.core.AsyncResult<HttpResponse<T>>> handler,
+                              Executor delivery) {
+            if (future != null) {
+                future.onCancel(newCall::cancel);
+            }
+            if (throttle == null) {
+                enqueue(newCall, future, handler, delivery);
+                return;
+            }
+            String host = newCall.request().url().host();
+            Future<Void> permit = throttle.acquire(host);
+            // 等待期间取消请求时放弃排队, 不占用令牌
+            if (future != null) {
+                future.onCancel(permit::cancel);
+            }
+            CancellationToken.Registration registration =
+                    cancellation != null ? cancellation.onCancel(permit::cancel) : null;
+            permit.onComplete(ar -> {
+                if (registration != null) {
+                    registration.unregister();
+                }
+                if (ar.succeeded()) {
+                    // 等待期间已被取消的请求不再发出
+                    if (!newCall.isCanceled()) {
+                        enqueue(newCall, future, handler, delivery);
+                    }
+                    return;
+                }
+                deliverFailure(future, handler, ar.cause());
+            });
+        }
+
+        private void enqueue(Call newCall, Future<HttpResponse<T>> future, io.vertx.core.Handler<io.vertx.core.AsyncResult<HttpResponse<T>>> handler,
+                             Executor delivery) {
+            if (cancellation != null && cancellation.isCancelled()) {
+                deliverFailure(future, handler, new CancellationException("已取消, 请求未发出: " + newCall.request().url()));
+                return;
+            }
+            if (deadline > 0) {
+                // 节流等待也计入耗时, 在真正发出前计算剩余时间
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    deliverFailure(future, handler,
+                            new TimeoutException("已超过截止时间, 请求未发出: " + newCall.request().url()));
+                    return;
+                }
+                if (timeout <= 0 || remaining < timeout) {
+                    newCall.timeout().timeout(remaining, java.util.concurrent.TimeUnit.MILLISECONDS);
+                }
+            }
+            CancellationToken.Registration registration =
+                    cancellation != null ? cancellation.onCancel(newCall::cancel) : null;
+            newCall.enqueue(new Callback() {
+                @Override
+                public void onFailure(Call call, IOException e) {
+                    if (registration != null) {
+                        registration.unregister();
+                    }
+                    delivery.execute(() -> deliverFailure(future, handler, e));
                 }
 
                 @Override
                 public void onResponse(Call call, Response res) throws IOException {
+                    if (registration != null) {
+                        registration.unregister();
+                    }
                     try {
                         MultiMap responseHeaders = MultiMap.caseInsensitiveMultiMap();
-                        res.headers().forEach(header -> 
-                            responseHeaders.set(header.getFirst(), header.getSecond()));
-
-                        // 获取响应体的字节数组
-                        byte[] bodyBytes = null;
-                        if (res.body() != null) {
-                            bodyBytes = res.body().bytes();
+                        // 同名响应头(如多个 Set-Cookie)逐个追加, 不能互相覆盖
+                        res.headers().forEach(header ->
+                            responseHeaders.add(header.getFirst(), header.getSecond()));
+                        if (throttle != null) {
+                            throttle.onResponse(call.request().url().host(), res.code(), responseHeaders);
                         }
-                        
-                        // OkHttp的行为：自动解压gzip，但可能对deflate和br的处理不一致
-                        // 由于实际使用中都是通过asText()和asJson()来处理响应，这些方法会处理解压
-                        // 所以我们不做任何特殊处理，统一让HttpResponseHelper来处理解压逻辑
-                        
-                        // 使用BodyCodec解码响应体
-                        @SuppressWarnings("unchecked")
-                        T decodedBody;
-                        if (bodyCodec.getTargetClass() == Buffer.class) {
-                            // Buffer类型：直接创建Buffer
-                            decodedBody = (T) Buffer.buffer(bodyBytes != null ? bodyBytes : new byte[0]);
-                        } else {
-                            // String或其他类型：先转为String再解码
-                            String bodyString = new String(bodyBytes != null ? bodyBytes : new byte[0], StandardCharsets.UTF_8);
-                            decodedBody = (T) bodyCodec.decode(bodyString, responseHeaders);
-                        }
-                        
-                        // 创建响应对象
-                        HttpResponse<T> response = createResponse(res.code(), decodedBody, responseHeaders);
-                        
-                        if (future != null) {
-                            future.complete(response);
-                        }
-                        if (handler != null) {
-                            handler.handle(new io.vertx.core.AsyncResultImpl<>(response));
-                        }
-                        // Guard: both null should never happen in normal usage
-                        if (future == null && handler == null) {
-                            System.err.println("WARNING: WebClient callback completed but no future or handler to deliver result");
+
+                        ResponseBody responseBody = res.body();
+                        if (bodyCodec.isStreaming()) {
+                            // 流式解码：边读边处理，不缓冲整个响应体; 读取网络流, 留在网络线程
+                            T decodedBody;
+                            try (ResponseBody streamBody = responseBody) {
+                                decodedBody = decodeStream(streamBody.byteStream(), responseHeaders);
+                            }
+                            HttpResponse<T> response = createResponse(res.code(), decodedBody, responseHeaders);
+                            delivery.execute(() -> deliverResponse(future, handler, response));
+                            return;
                         }
+                        // 网络线程只负责读完响应体, 解码和回调交给回调执行器
+                        byte[] bodyBytes = responseBody != null ? responseBody.bytes() : new byte[0];
+                        int code = res.code();
+                        delivery.execute(() -> {
+                            HttpResponse<T> response;
+                            try {
+                                response = createResponse(code, decodeBody(bodyBytes, responseHeaders), responseHeaders);
+                            } catch (Exception e) {
+                                deliverFailure(future, handler, e);
+                                return;
+                            }
+                            deliverResponse(future, handler, response);
+                        });
                     } catch (Exception e) {
                         // Handle exceptions during response processing
-                        if (future != null) {
-                            future.fail(e);
-                        }
-                        if (handler != null) {
-                            handler.handle(new io.vertx.core.AsyncResultImpl<>(e));
-                        }
-                        // Guard: both null should never happen in normal usage
-                        if (future == null && handler == null) {
-                            System.err.println("WARNING: WebClient callback failed with exception but no future or handler: " + e.getMessage());
-                            e.printStackTrace();
-                        }
+                        delivery.execute(() -> deliverFailure(future, handler, e));
                     }
                 }
             });
         }
+
+        @SuppressWarnings("unchecked")
+        private T decodeBody(byte[] bodyBytes, MultiMap responseHeaders) {
+            if (bodyCodec.getTargetClass() == Buffer.class) {
+                // Buffer类型：直接创建Buffer
+                return (T) Buffer.buffer(bodyBytes);
+            }
+            // String或其他类型：先转为String再解码
+            return (T) bodyCodec.decode(new String(bodyBytes, StandardCharsets.UTF_8), responseHeaders);
+        }
+
+        @SuppressWarnings("unchecked")
+        private T decodeStream(InputStream body, MultiMap responseHeaders) throws IOException {
+            return (T) bodyCodec.decodeStream(body, responseHeaders);
+        }
+
+        private void deliverResponse(Future<HttpResponse<T>> future, io.vertx.core.Handler<io.vertx.core.AsyncResult<HttpResponse<T>>> handler,
+                                     HttpResponse<T> response) {
+            if (future != null) {
+                future.complete(response);
+            }
+            if (handler != null) {
+                handler.handle(new io.vertx.core.AsyncResultImpl<>(response));
+            }
+            // Guard: both null should never happen in normal usage
+            if (future == null && handler == null) {
+                System.err.println("WARNING: WebClient callback completed but no future or handler to deliver result");
+            }
+        }
+
+        private void deliverFailure(Future<HttpResponse<T>> future, io.vertx.core.Handler<io.vertx.core.AsyncResult<HttpResponse<T>>> handler,
+                                    Throwable e) {
+            if (future != null) {
+                future.fail(e);
+            }
+            if (handler != null) {
+                handler.handle(new io.vertx.core.AsyncResultImpl<HttpResponse<T>>(e));
+            }
+            // Guard: both null should never happen in normal usage
+            if (future == null && handler == null) {
+                System.err.println("WARNING: WebClient request failed but no future or handler: " + e.getMessage());
+                e.printStackTrace();
+            }
+        }
         
         /**
          * 创建响应对象
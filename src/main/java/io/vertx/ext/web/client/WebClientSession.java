@@ -6,18 +6,24 @@ import okhttp3.Cookie;
 
 import java.util.List;
 
+/**
+ * 带 Cookie 会话的客户端
+ * <p>
+ * 底层客户端挂载由 {@link CookieStore} 支撑的 CookieJar: 响应(包括跳转中间响应)的 Set-Cookie 自动保存,
+ * 后续请求自动携带匹配的 Cookie; 多个会话可共享同一个 CookieStore。
+ * </p>
+ */
 public class WebClientSession {
     private final WebClient client;
     private final MultiMap headers = MultiMap.caseInsensitiveMultiMap();
     private final CookieStore cookieStore;
 
     public WebClientSession(WebClient client) {
-        this.client = client;
-        this.cookieStore = new CookieStoreImpl();
+        this(client, new CookieStoreImpl());
     }
 
     public WebClientSession(WebClient client, CookieStore cookieStore) {
-        this.client = client;
+        this.client = client.withCookieJar(new SessionCookieJar(cookieStore));
         this.cookieStore = cookieStore;
     }
 
@@ -0,0 +1,176 @@
+package io.vertx.ext.web.client;
+
+import io.vertx.ext.web.client.impl.DecompressionInterceptor;
+import okhttp3.ConnectionPool;
+import okhttp3.CookieJar;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 进程级共享的 OkHttp 传输层
+ * <p>
+ * 所有 {@link WebClient} 都从同一个根 {@link OkHttpClient} 派生（同一个连接池、同一个 Dispatcher），
+ * 不同配置的变体通过 {@link OkHttpClient#newBuilder()} 廉价创建，并按配置指纹缓存复用，
+ * 这样每次解析不再重新建立连接池和线程池，可以复用已建立的 TCP/TLS 连接。
+ * </p>
+ */
+public final class WebClientTransport {
+
+    /**
+     * 变体缓存上限，超过后清空重建（被清除的变体仍然可用，且共享根连接池）
+     */
+    private static final int MAX_VARIANTS = 64;
+
+    private static final OkHttpClient ROOT;
+
+    private static final Map<String, OkHttpClient> VARIANTS = new ConcurrentHashMap<>();
+
+    /**
+     * 跳转策略相反的变体, key 为基础客户端(按实例区分)
+     */
+    private static final Map<OkHttpClient, OkHttpClient> REDIRECT_VARIANTS = new ConcurrentHashMap<>();
+
+    /**
+     * 会话客户端(挂载了 CookieJar, 随会话创建和丢弃)的跳转变体, 弱引用避免挤占共享变体缓存
+     */
+    private static final Map<OkHttpClient, OkHttpClient> SESSION_REDIRECT_VARIANTS =
+            Collections.synchronizedMap(new WeakHashMap<>());
+
+    /**
+     * 对冲请求专用的连接池, 保证对冲请求不复用原请求的连接
+     */
+    private static final ConnectionPool HEDGE_POOL = new ConnectionPool(8, 5, TimeUnit.MINUTES);
+
+    /**
+     * 使用对冲连接池的变体, 弱引用以覆盖会话客户端
+     */
+    private static final Map<OkHttpClient, OkHttpClient> HEDGE_VARIANTS =
+            Collections.synchronizedMap(new WeakHashMap<>());
+
+    static {
+        // 所有解析共用一个 Dispatcher, 放宽默认的单主机并发限制(默认5)
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(256);
+        dispatcher.setMaxRequestsPerHost(64);
+        ROOT = new OkHttpClient.Builder()
+                .dispatcher(dispatcher)
+                .connectionPool(new ConnectionPool(32, 5, TimeUnit.MINUTES))
+                .build();
+    }
+
+    private WebClientTransport() {
+    }
+
+    /**
+     * 获取共享的根客户端
+     */
+    public static OkHttpClient root() {
+        return ROOT;
+    }
+
+    /**
+     * 默认客户端: 不自动跳转, 15秒调用超时 (对应 {@link WebClient#create()})
+     */
+    static OkHttpClient defaultClient() {
+        return VARIANTS.computeIfAbsent("default", k -> {
+            OkHttpClient.Builder builder = ROOT.newBuilder()
+                    .followRedirects(false)
+                    .callTimeout(15, TimeUnit.SECONDS);
+            builder.addInterceptor(DecompressionInterceptor.INSTANCE);
+            return builder.build();
+        });
+    }
+
+    /**
+     * 根据 WebClientOptions 获取客户端变体, 相同配置返回同一个实例
+     */
+    static OkHttpClient forOptions(WebClientOptions options) {
+        String fingerprint = fingerprint(options);
+        OkHttpClient cached = VARIANTS.get(fingerprint);
+        if (cached != null) {
+            return cached;
+        }
+        if (VARIANTS.size() >= MAX_VARIANTS) {
+            VARIANTS.clear();
+        }
+        return VARIANTS.computeIfAbsent(fingerprint, k -> buildVariant(options));
+    }
+
+    /**
+     * 获取指定跳转策略的客户端, 与基础客户端一致时直接返回, 否则返回缓存的变体
+     */
+    static OkHttpClient withFollowRedirects(OkHttpClient base, boolean followRedirects) {
+        if (base.followRedirects() == followRedirects) {
+            return base;
+        }
+        if (base.cookieJar() != CookieJar.NO_COOKIES) {
+            return SESSION_REDIRECT_VARIANTS.computeIfAbsent(base, k -> k.newBuilder()
+                    .followRedirects(followRedirects)
+                    .build());
+        }
+        OkHttpClient cached = REDIRECT_VARIANTS.get(base);
+        if (cached != null) {
+            return cached;
+        }
+        if (REDIRECT_VARIANTS.size() >= MAX_VARIANTS * 2) {
+            REDIRECT_VARIANTS.clear();
+        }
+        return REDIRECT_VARIANTS.computeIfAbsent(base, k -> k.newBuilder()
+                .followRedirects(followRedirects)
+                .build());
+    }
+
+    /**
+     * 与基础客户端配置相同、但使用独立连接池的变体, 供对冲请求使用
+     */
+    static OkHttpClient hedgeVariant(OkHttpClient base) {
+        return HEDGE_VARIANTS.computeIfAbsent(base, k -> k.newBuilder()
+                .connectionPool(HEDGE_POOL)
+                .build());
+    }
+
+    /**
+     * 当前已缓存的客户端变体数量
+     */
+    public static int variantCount() {
+        return VARIANTS.size();
+    }
+
+    private static OkHttpClient buildVariant(WebClientOptions options) {
+        OkHttpClient.Builder builder = ROOT.newBuilder()
+                .followRedirects(options.isFollowRedirects())
+                .connectTimeout(options.getConnectTimeout(), TimeUnit.MILLISECONDS)
+                .readTimeout(options.getReadTimeout(), TimeUnit.MILLISECONDS)
+                .writeTimeout(options.getWriteTimeout(), TimeUnit.MILLISECONDS);
+
+        // 由解压拦截器统一声明 Accept-Encoding 并解码, 替代OkHttp只支持gzip的透明解压
+        builder.addInterceptor(DecompressionInterceptor.INSTANCE);
+
+        if (options.isUserAgentEnabled()) {
+            String userAgent = options.getUserAgent();
+            builder.addInterceptor(chain -> {
+                Request original = chain.request();
+                if (original.header("User-Agent") != null) {
+                    return chain.proceed(original);
+                }
+                return chain.proceed(original.newBuilder().header("User-Agent", userAgent).build());
+            });
+        }
+        return builder.build();
+    }
+
+    private static String fingerprint(WebClientOptions options) {
+        return "opts:" + options.isFollowRedirects()
+                + "|" + options.getConnectTimeout()
+                + "|" + options.getReadTimeout()
+                + "|" + options.getWriteTimeout()
+                + "|" + (options.isUserAgentEnabled() ? options.getUserAgent() : "-");
+    }
+}
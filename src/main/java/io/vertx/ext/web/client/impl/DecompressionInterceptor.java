@@ -0,0 +1,165 @@
+package io.vertx.ext.web.client.impl;
+
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.BufferedSource;
+import okio.Okio;
+import org.brotli.dec.BrotliInputStream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * 传输层解压拦截器
+ * <p>
+ * 请求未指定 Accept-Encoding 时声明 {@value #ACCEPT_ENCODING};
+ * 响应按 Content-Encoding 以流方式解码 gzip / deflate / br / zstd, 解码后移除 Content-Encoding 和 Content-Length,
+ * 调用方拿到的始终是解码后的字节。服务端漏发 Content-Encoding 时, 文本类响应按魔数识别 gzip 和 zstd。
+ * 遇到不认识的编码原样返回。
+ * </p>
+ */
+public final class DecompressionInterceptor implements Interceptor {
+
+    public static final String ACCEPT_ENCODING = "gzip, deflate, br, zstd";
+
+    public static final DecompressionInterceptor INSTANCE = new DecompressionInterceptor();
+
+    private DecompressionInterceptor() {
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        if (request.header("Accept-Encoding") == null) {
+            request = request.newBuilder().header("Accept-Encoding", ACCEPT_ENCODING).build();
+        }
+        return decode(chain.proceed(request));
+    }
+
+    /**
+     * 解码响应体, 无需解码时返回原响应
+     */
+    public static Response decode(Response response) throws IOException {
+        if (!promisesBody(response)) {
+            return response;
+        }
+        ResponseBody body = response.body();
+        if (body.contentLength() == 0) {
+            return response;
+        }
+        BufferedSource source = body.source();
+
+        List<String> codings = new ArrayList<>();
+        String header = response.header("Content-Encoding");
+        if (header == null || header.isBlank()) {
+            String sniffed = isTextual(body.contentType()) ? sniff(source) : null;
+            if (sniffed == null) {
+                return response;
+            }
+            codings.add(sniffed);
+        } else {
+            for (String coding : header.split(",")) {
+                String value = coding.trim().toLowerCase(Locale.ROOT);
+                if (value.isEmpty() || "identity".equals(value)) {
+                    continue;
+                }
+                if (!isSupported(value)) {
+                    return response;
+                }
+                codings.add(value);
+            }
+            // 解码器构造时即读取流头, 空响应体(如带 Content-Encoding 的 302)不能交给它
+            if (codings.isEmpty() || source.exhausted()) {
+                return response;
+            }
+        }
+
+        // 多重编码按施加顺序的逆序解码
+        BufferedSource decoded = source;
+        for (int i = codings.size() - 1; i >= 0; i--) {
+            decoded = Okio.buffer(Okio.source(wrap(decoded, codings.get(i))));
+        }
+        return response.newBuilder()
+                .removeHeader("Content-Encoding")
+                .removeHeader("Content-Length")
+                .body(ResponseBody.create(decoded, body.contentType(), -1L))
+                .build();
+    }
+
+    /**
+     * 按编码包装解码流
+     */
+    public static InputStream wrap(BufferedSource source, String coding) throws IOException {
+        return switch (coding) {
+            case "gzip", "x-gzip" -> new GZIPInputStream(source.inputStream());
+            case "deflate" -> new InflaterInputStream(source.inputStream(), new Inflater(!isZlibHeader(source)));
+            case "br" -> new BrotliInputStream(source.inputStream());
+            case "zstd" -> new ZstdInputStream(source.inputStream());
+            default -> throw new IOException("不支持的 Content-Encoding: " + coding);
+        };
+    }
+
+    /**
+     * HEAD 请求以及 1xx / 204 / 304 响应没有响应体
+     */
+    private static boolean promisesBody(Response response) {
+        int code = response.code();
+        return !"HEAD".equals(response.request().method())
+                && (code >= 200 || code < 100) && code != 204 && code != 304;
+    }
+
+    private static boolean isSupported(String coding) {
+        return switch (coding) {
+            case "gzip", "x-gzip", "deflate", "br", "zstd" -> true;
+            default -> false;
+        };
+    }
+
+    /**
+     * 按魔数识别 gzip(1f 8b) 和 zstd(28 b5 2f fd), 不消耗数据
+     */
+    private static String sniff(BufferedSource source) throws IOException {
+        if (!source.request(2)) {
+            return null;
+        }
+        okio.Buffer buffer = source.getBuffer();
+        if (buffer.getByte(0) == (byte) 0x1f && buffer.getByte(1) == (byte) 0x8b) {
+            return "gzip";
+        }
+        if (source.request(4) && buffer.getByte(0) == (byte) 0x28 && buffer.getByte(1) == (byte) 0xb5
+                && buffer.getByte(2) == (byte) 0x2f && buffer.getByte(3) == (byte) 0xfd) {
+            return "zstd";
+        }
+        return null;
+    }
+
+    /**
+     * deflate 存在 zlib 包裹和裸 deflate 两种形式, 按 zlib 头区分
+     */
+    private static boolean isZlibHeader(BufferedSource source) throws IOException {
+        if (!source.request(2)) {
+            return false;
+        }
+        int cmf = source.getBuffer().getByte(0) & 0xFF;
+        int flg = source.getBuffer().getByte(1) & 0xFF;
+        return (cmf & 0x0F) == 8 && (cmf << 8 | flg) % 31 == 0;
+    }
+
+    private static boolean isTextual(MediaType contentType) {
+        if (contentType == null) {
+            return true;
+        }
+        String type = contentType.toString().toLowerCase(Locale.ROOT);
+        return type.startsWith("text/") || type.contains("json") || type.contains("javascript")
+                || type.contains("xml") || type.contains("html");
+    }
+}
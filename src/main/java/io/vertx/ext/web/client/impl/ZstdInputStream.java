@@ -0,0 +1,879 @@
+package io.vertx.ext.web.client.impl;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * 纯 Java 实现的 Zstandard (RFC 8878) 流式解码器
+ * <p>
+ * 按块解码, 只保留窗口大小的历史数据, 不依赖 native 库, 可在 Android 上使用。
+ * 支持多帧拼接与可跳过帧; 不支持字典, 不校验内容校验和(仅跳过)。
+ * 窗口超过 {@link #MAX_WINDOW_SIZE} 视为异常数据 (HTTP 场景 RFC 9659 要求窗口不超过 8MB)。
+ * </p>
+ */
+public class ZstdInputStream extends InputStream {
+
+    static final int MAX_WINDOW_SIZE = 1 << 23;
+
+    private static final int MAGIC = 0xFD2FB528;
+    private static final int SKIPPABLE_MAGIC = 0x184D2A50;
+    private static final int MAX_BLOCK_SIZE = 128 * 1024;
+
+    private static final int[] LL_BASE = {
+            0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15,
+            16, 18, 20, 22, 24, 28, 32, 40, 48, 64, 128, 256, 512, 1024, 2048, 4096,
+            8192, 16384, 32768, 65536};
+    private static final int[] LL_BITS = {
+            0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0,
+            1, 1, 1, 1, 2, 2, 3, 3, 4, 6, 7, 8, 9, 10, 11, 12,
+            13, 14, 15, 16};
+    private static final int[] ML_BASE = {
+            3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16, 17, 18,
+            19, 20, 21, 22, 23, 24, 25, 26, 27, 28, 29, 30, 31, 32, 33, 34,
+            35, 37, 39, 41, 43, 47, 51, 59, 67, 83, 99, 131, 259, 515, 1027, 2051,
+            4099, 8195, 16387, 32771, 65539};
+    private static final int[] ML_BITS = {
+            0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0,
+            0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0,
+            1, 1, 1, 1, 2, 2, 3, 3, 4, 4, 5, 7, 8, 9, 10, 11,
+            12, 13, 14, 15, 16};
+
+    private static final int LL_MAX_SYMBOL = 35;
+    private static final int ML_MAX_SYMBOL = 52;
+    private static final int OF_MAX_SYMBOL = 31;
+
+    private static final FseTable LL_DEFAULT = FseTable.build(new short[]{
+            4, 3, 2, 2, 2, 2, 2, 2, 2, 2, 2, 2, 2, 1, 1, 1,
+            2, 2, 2, 2, 2, 2, 2, 2, 2, 3, 2, 1, 1, 1, 1, 1,
+            -1, -1, -1, -1}, 6);
+    private static final FseTable ML_DEFAULT = FseTable.build(new short[]{
+            1, 4, 3, 2, 2, 2, 2, 2, 2, 1, 1, 1, 1, 1, 1, 1,
+            1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1,
+            1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, -1, -1,
+            -1, -1, -1, -1, -1}, 6);
+    private static final FseTable OF_DEFAULT = FseTable.build(new short[]{
+            1, 1, 1, 1, 1, 1, 2, 2, 2, 1, 1, 1, 1, 1, 1, 1,
+            1, 1, 1, 1, 1, 1, 1, 1, -1, -1, -1, -1, -1}, 5);
+
+    private final InputStream in;
+
+    /**
+     * 输出历史窗口, [readPos, pos) 为已解码未读取的数据
+     */
+    private byte[] window = new byte[0];
+    private int pos;
+    private int readPos;
+    private int windowSize;
+    private int maxCapacity;
+
+    private boolean frameActive;
+    private boolean lastBlock;
+    private boolean checksum;
+    private boolean closed;
+
+    private final byte[] block = new byte[MAX_BLOCK_SIZE];
+    private final byte[] literalBuffer = new byte[MAX_BLOCK_SIZE];
+    private byte[] literals;
+    private int literalsOffset;
+    private int literalsLength;
+
+    private final int[] rep = new int[3];
+    private HuffmanTable huffman;
+    private FseTable llTable;
+    private FseTable ofTable;
+    private FseTable mlTable;
+
+    public ZstdInputStream(InputStream in) {
+        this.in = in;
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] one = new byte[1];
+        int n = read(one, 0, 1);
+        return n == -1 ? -1 : one[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+        if (len == 0) {
+            return 0;
+        }
+        while (readPos == pos) {
+            if (!decodeNext()) {
+                return -1;
+            }
+        }
+        int n = Math.min(len, pos - readPos);
+        System.arraycopy(window, readPos, b, off, n);
+        readPos += n;
+        return n;
+    }
+
+    @Override
+    public int available() {
+        return pos - readPos;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!closed) {
+            closed = true;
+            in.close();
+        }
+    }
+
+    // -------------------- 帧 --------------------
+
+    private boolean decodeNext() throws IOException {
+        if (!frameActive && !startFrame()) {
+            return false;
+        }
+        decodeBlock();
+        if (lastBlock) {
+            if (checksum) {
+                readLE(4);
+            }
+            frameActive = false;
+        }
+        return true;
+    }
+
+    private boolean startFrame() throws IOException {
+        while (true) {
+            int first = in.read();
+            if (first == -1) {
+                return false;
+            }
+            int magic = first | (int) readLE(3) << 8;
+            if ((magic & 0xFFFFFFF0) == SKIPPABLE_MAGIC) {
+                skipFully(readLE(4));
+                continue;
+            }
+            if (magic != MAGIC) {
+                throw new IOException("非法的 zstd 帧头: 0x" + Integer.toHexString(magic));
+            }
+            break;
+        }
+
+        int descriptor = readByte();
+        int fcsFlag = descriptor >>> 6;
+        boolean singleSegment = (descriptor & 0x20) != 0;
+        if ((descriptor & 0x08) != 0) {
+            throw new IOException("zstd 帧头保留位非0");
+        }
+        checksum = (descriptor & 0x04) != 0;
+        int dictFlag = descriptor & 0x03;
+
+        long size = 0;
+        if (!singleSegment) {
+            int wd = readByte();
+            long base = 1L << (10 + (wd >>> 3));
+            size = base + (base >>> 3) * (wd & 0x07);
+        }
+        long dictId = readLE(dictFlag == 3 ? 4 : dictFlag);
+        if (dictId != 0) {
+            throw new IOException("不支持带字典的 zstd 数据");
+        }
+        int fcsBytes = fcsFlag == 0 ? (singleSegment ? 1 : 0) : 1 << fcsFlag;
+        long contentSize = readLE(fcsBytes);
+        if (fcsBytes == 2) {
+            contentSize += 256;
+        }
+        if (singleSegment) {
+            size = contentSize;
+        }
+        if (size < 0 || size > MAX_WINDOW_SIZE) {
+            throw new IOException("zstd 窗口过大: " + size);
+        }
+
+        windowSize = (int) size;
+        maxCapacity = windowSize + MAX_BLOCK_SIZE;
+        pos = 0;
+        readPos = 0;
+        rep[0] = 1;
+        rep[1] = 4;
+        rep[2] = 8;
+        huffman = null;
+        llTable = null;
+        ofTable = null;
+        mlTable = null;
+        lastBlock = false;
+        frameActive = true;
+        return true;
+    }
+
+    private void decodeBlock() throws IOException {
+        int header = (int) readLE(3);
+        lastBlock = (header & 1) != 0;
+        int type = (header >>> 1) & 3;
+        int size = header >>> 3;
+        if (size > MAX_BLOCK_SIZE) {
+            throw corrupted("块大小超出上限");
+        }
+        switch (type) {
+            case 0 -> {
+                ensureSpace(size);
+                readFully(window, pos, size);
+                pos += size;
+            }
+            case 1 -> {
+                int value = readByte();
+                ensureSpace(size);
+                Arrays.fill(window, pos, pos + size, (byte) value);
+                pos += size;
+            }
+            case 2 -> {
+                readFully(block, 0, size);
+                ensureSpace(MAX_BLOCK_SIZE);
+                int ip = decodeLiterals(block, size);
+                decodeSequences(block, ip, size);
+            }
+            default -> throw corrupted("保留的块类型");
+        }
+    }
+
+    /**
+     * 保证窗口还能写入 n 字节, 必要时扩容或丢弃窗口之外的历史
+     */
+    private void ensureSpace(int n) {
+        if (pos + n <= window.length) {
+            return;
+        }
+        if (pos + n > maxCapacity) {
+            int keep = Math.min(pos, windowSize);
+            System.arraycopy(window, pos - keep, window, 0, keep);
+            pos = keep;
+            readPos = keep;
+        }
+        if (pos + n > window.length) {
+            int capacity = Math.min(maxCapacity, Math.max(pos + n, window.length * 2));
+            window = Arrays.copyOf(window, capacity);
+        }
+    }
+
+    // -------------------- 字面量 --------------------
+
+    private int decodeLiterals(byte[] src, int end) throws IOException {
+        checkBounds(1, end);
+        int b0 = src[0] & 0xFF;
+        int type = b0 & 3;
+        int sizeFormat = (b0 >>> 2) & 3;
+
+        if (type == 0 || type == 1) {
+            int regenerated;
+            int headerSize;
+            switch (sizeFormat) {
+                case 1 -> {
+                    checkBounds(2, end);
+                    regenerated = (b0 >>> 4) + (u8(src, 1) << 4);
+                    headerSize = 2;
+                }
+                case 3 -> {
+                    checkBounds(3, end);
+                    regenerated = (b0 >>> 4) + (u8(src, 1) << 4) + (u8(src, 2) << 12);
+                    headerSize = 3;
+                }
+                default -> {
+                    regenerated = b0 >>> 3;
+                    headerSize = 1;
+                }
+            }
+            if (regenerated > MAX_BLOCK_SIZE) {
+                throw corrupted("字面量长度超出上限");
+            }
+            literalsOffset = 0;
+            literalsLength = regenerated;
+            if (type == 0) {
+                checkBounds(headerSize + regenerated, end);
+                literals = src;
+                literalsOffset = headerSize;
+                return headerSize + regenerated;
+            }
+            checkBounds(headerSize + 1, end);
+            Arrays.fill(literalBuffer, 0, regenerated, src[headerSize]);
+            literals = literalBuffer;
+            return headerSize + 1;
+        }
+
+        int regenerated;
+        int compressed;
+        int headerSize;
+        switch (sizeFormat) {
+            case 2 -> {
+                checkBounds(4, end);
+                int v = b0 | u8(src, 1) << 8 | u8(src, 2) << 16 | u8(src, 3) << 24;
+                regenerated = (v >>> 4) & 0x3FFF;
+                compressed = (v >>> 18) & 0x3FFF;
+                headerSize = 4;
+            }
+            case 3 -> {
+                checkBounds(5, end);
+                long v = b0 | (long) u8(src, 1) << 8 | (long) u8(src, 2) << 16
+                        | (long) u8(src, 3) << 24 | (long) u8(src, 4) << 32;
+                regenerated = (int) ((v >>> 4) & 0x3FFFF);
+                compressed = (int) ((v >>> 22) & 0x3FFFF);
+                headerSize = 5;
+            }
+            default -> {
+                checkBounds(3, end);
+                int v = b0 | u8(src, 1) << 8 | u8(src, 2) << 16;
+                regenerated = (v >>> 4) & 0x3FF;
+                compressed = (v >>> 14) & 0x3FF;
+                headerSize = 3;
+            }
+        }
+        if (regenerated > MAX_BLOCK_SIZE) {
+            throw corrupted("字面量长度超出上限");
+        }
+        int streamEnd = headerSize + compressed;
+        checkBounds(streamEnd, end);
+
+        int ip = headerSize;
+        if (type == 2) {
+            int[] cursor = {ip};
+            huffman = HuffmanTable.read(src, cursor, streamEnd);
+            ip = cursor[0];
+        } else if (huffman == null) {
+            throw corrupted("缺少可复用的 Huffman 表");
+        }
+
+        if (sizeFormat == 0) {
+            huffman.decode(src, ip, streamEnd, literalBuffer, 0, regenerated);
+        } else {
+            checkBounds(ip + 6, streamEnd);
+            int size1 = u8(src, ip) | u8(src, ip + 1) << 8;
+            int size2 = u8(src, ip + 2) | u8(src, ip + 3) << 8;
+            int size3 = u8(src, ip + 4) | u8(src, ip + 5) << 8;
+            int start1 = ip + 6;
+            int start2 = start1 + size1;
+            int start3 = start2 + size2;
+            int start4 = start3 + size3;
+            if (start4 > streamEnd) {
+                throw corrupted("Huffman 跳转表越界");
+            }
+            int segment = (regenerated + 3) / 4;
+            int last = regenerated - 3 * segment;
+            if (last < 0) {
+                throw corrupted("字面量长度非法");
+            }
+            huffman.decode(src, start1, start2, literalBuffer, 0, segment);
+            huffman.decode(src, start2, start3, literalBuffer, segment, segment);
+            huffman.decode(src, start3, start4, literalBuffer, 2 * segment, segment);
+            huffman.decode(src, start4, streamEnd, literalBuffer, 3 * segment, last);
+        }
+        literals = literalBuffer;
+        literalsOffset = 0;
+        literalsLength = regenerated;
+        return streamEnd;
+    }
+
+    // -------------------- 序列 --------------------
+
+    private void decodeSequences(byte[] src, int ip, int end) throws IOException {
+        checkBounds(ip + 1, end);
+        int b0 = u8(src, ip);
+        int count;
+        if (b0 < 128) {
+            count = b0;
+            ip += 1;
+        } else if (b0 < 255) {
+            checkBounds(ip + 2, end);
+            count = ((b0 - 128) << 8) + u8(src, ip + 1);
+            ip += 2;
+        } else {
+            checkBounds(ip + 3, end);
+            count = u8(src, ip + 1) + (u8(src, ip + 2) << 8) + 0x7F00;
+            ip += 3;
+        }
+
+        int blockStart = pos;
+        int literalPos = 0;
+        if (count > 0) {
+            checkBounds(ip + 1, end);
+            int modes = u8(src, ip++);
+            if ((modes & 3) != 0) {
+                throw corrupted("序列压缩模式保留位非0");
+            }
+            int[] cursor = {ip};
+            llTable = selectTable((modes >>> 6) & 3, src, cursor, end, LL_DEFAULT, llTable, LL_MAX_SYMBOL, 9);
+            ofTable = selectTable((modes >>> 4) & 3, src, cursor, end, OF_DEFAULT, ofTable, OF_MAX_SYMBOL, 8);
+            mlTable = selectTable((modes >>> 2) & 3, src, cursor, end, ML_DEFAULT, mlTable, ML_MAX_SYMBOL, 9);
+
+            BackwardBitReader bits = new BackwardBitReader(src, cursor[0], end);
+            int llState = bits.read(llTable.log);
+            int ofState = bits.read(ofTable.log);
+            int mlState = bits.read(mlTable.log);
+
+            for (int i = 0; i < count; i++) {
+                int ofCode = ofTable.symbol[ofState];
+                int llCode = llTable.symbol[llState];
+                int mlCode = mlTable.symbol[mlState];
+                if (ofCode > 28) {
+                    throw corrupted("偏移量超出窗口");
+                }
+
+                int offsetValue = (1 << ofCode) + bits.read(ofCode);
+                int matchLength = ML_BASE[mlCode] + bits.read(ML_BITS[mlCode]);
+                int literalLength = LL_BASE[llCode] + bits.read(LL_BITS[llCode]);
+
+                int offset;
+                if (offsetValue > 3) {
+                    offset = offsetValue - 3;
+                    rep[2] = rep[1];
+                    rep[1] = rep[0];
+                    rep[0] = offset;
+                } else {
+                    int index = offsetValue - 1 + (literalLength == 0 ? 1 : 0);
+                    if (index == 0) {
+                        offset = rep[0];
+                    } else {
+                        offset = index == 3 ? rep[0] - 1 : rep[index];
+                        if (index != 1) {
+                            rep[2] = rep[1];
+                        }
+                        rep[1] = rep[0];
+                        rep[0] = offset;
+                    }
+                }
+
+                if (i != count - 1) {
+                    llState = llTable.base[llState] + bits.read(llTable.nbBits[llState]);
+                    mlState = mlTable.base[mlState] + bits.read(mlTable.nbBits[mlState]);
+                    ofState = ofTable.base[ofState] + bits.read(ofTable.nbBits[ofState]);
+                }
+
+                if (literalPos + literalLength > literalsLength
+                        || pos - blockStart + literalLength + matchLength > MAX_BLOCK_SIZE) {
+                    throw corrupted("序列长度越界");
+                }
+                System.arraycopy(literals, literalsOffset + literalPos, window, pos, literalLength);
+                literalPos += literalLength;
+                pos += literalLength;
+
+                if (offset <= 0 || offset > pos) {
+                    throw corrupted("匹配偏移量非法");
+                }
+                int from = pos - offset;
+                if (offset >= matchLength) {
+                    System.arraycopy(window, from, window, pos, matchLength);
+                } else {
+                    for (int k = 0; k < matchLength; k++) {
+                        window[pos + k] = window[from + k];
+                    }
+                }
+                pos += matchLength;
+            }
+            if (bits.remaining() != 0) {
+                throw corrupted("序列比特流未完全消耗");
+            }
+        }
+
+        int rest = literalsLength - literalPos;
+        if (pos - blockStart + rest > MAX_BLOCK_SIZE) {
+            throw corrupted("块解码结果超出上限");
+        }
+        System.arraycopy(literals, literalsOffset + literalPos, window, pos, rest);
+        pos += rest;
+    }
+
+    private static FseTable selectTable(int mode, byte[] src, int[] cursor, int end, FseTable predefined,
+                                        FseTable previous, int maxSymbol, int maxLog) throws IOException {
+        switch (mode) {
+            case 0:
+                return predefined;
+            case 1: {
+                checkBounds(cursor[0] + 1, end);
+                int symbol = u8(src, cursor[0]++);
+                if (symbol > maxSymbol) {
+                    throw corrupted("RLE 符号越界");
+                }
+                return FseTable.rle(symbol);
+            }
+            case 2:
+                return FseTable.read(src, cursor, end, maxSymbol, maxLog);
+            default:
+                if (previous == null) {
+                    throw corrupted("缺少可复用的 FSE 表");
+                }
+                return previous;
+        }
+    }
+
+    // -------------------- 输入 --------------------
+
+    private int readByte() throws IOException {
+        int b = in.read();
+        if (b == -1) {
+            throw new EOFException("zstd 数据被截断");
+        }
+        return b;
+    }
+
+    private long readLE(int n) throws IOException {
+        long value = 0;
+        for (int i = 0; i < n; i++) {
+            value |= (long) readByte() << (8 * i);
+        }
+        return value;
+    }
+
+    private void readFully(byte[] b, int off, int len) throws IOException {
+        while (len > 0) {
+            int n = in.read(b, off, len);
+            if (n == -1) {
+                throw new EOFException("zstd 数据被截断");
+            }
+            off += n;
+            len -= n;
+        }
+    }
+
+    private void skipFully(long n) throws IOException {
+        while (n > 0) {
+            long skipped = in.skip(n);
+            if (skipped <= 0) {
+                readByte();
+                skipped = 1;
+            }
+            n -= skipped;
+        }
+    }
+
+    private static int u8(byte[] src, int index) {
+        return src[index] & 0xFF;
+    }
+
+    private static void checkBounds(int required, int end) throws IOException {
+        if (required > end) {
+            throw corrupted("数据越界");
+        }
+    }
+
+    private static IOException corrupted(String message) {
+        return new IOException("zstd 数据损坏: " + message);
+    }
+
+    private static int highBit(int value) {
+        return 31 - Integer.numberOfLeadingZeros(value);
+    }
+
+    // -------------------- 比特流 --------------------
+
+    /**
+     * 反向比特流: 从末尾向前读取, 最后一个字节的最高位1为起始标记; 越过起点的位按0处理
+     */
+    private static final class BackwardBitReader {
+        private final byte[] src;
+        private final int start;
+        private long remaining;
+
+        BackwardBitReader(byte[] src, int start, int end) throws IOException {
+            if (end <= start || src[end - 1] == 0) {
+                throw corrupted("比特流缺少起始标记");
+            }
+            this.src = src;
+            this.start = start;
+            this.remaining = (long) (end - start - 1) * 8 + highBit(src[end - 1] & 0xFF);
+        }
+
+        int read(int n) {
+            if (n == 0) {
+                return 0;
+            }
+            remaining -= n;
+            return bits(remaining, n);
+        }
+
+        int peek(int n) {
+            return bits(remaining - n, n);
+        }
+
+        void skip(int n) {
+            remaining -= n;
+        }
+
+        long remaining() {
+            return remaining;
+        }
+
+        private int bits(long offset, int n) {
+            if (offset < 0) {
+                long available = offset + n;
+                return available <= 0 ? 0 : bits(0, (int) available) << (int) -offset;
+            }
+            int index = start + (int) (offset >>> 3);
+            int shift = (int) (offset & 7);
+            int bytes = (shift + n + 7) >>> 3;
+            long value = 0;
+            for (int i = 0; i < bytes; i++) {
+                value |= (long) (src[index + i] & 0xFF) << (8 * i);
+            }
+            return (int) ((value >>> shift) & ((1L << n) - 1));
+        }
+    }
+
+    // -------------------- FSE --------------------
+
+    private static final class FseTable {
+        final int log;
+        final int[] symbol;
+        final int[] nbBits;
+        final int[] base;
+
+        private FseTable(int log) {
+            int size = 1 << log;
+            this.log = log;
+            this.symbol = new int[size];
+            this.nbBits = new int[size];
+            this.base = new int[size];
+        }
+
+        static FseTable rle(int symbol) {
+            FseTable table = new FseTable(0);
+            table.symbol[0] = symbol;
+            return table;
+        }
+
+        /**
+         * 读取前向比特流中的 FSE 表描述, cursor[0] 为起始字节, 返回后更新为结束字节
+         */
+        static FseTable read(byte[] src, int[] cursor, int end, int maxSymbol, int maxLog) throws IOException {
+            long bitPos = (long) cursor[0] * 8;
+            int log = forwardBits(src, bitPos, 4, end) + 5;
+            bitPos += 4;
+            if (log > maxLog) {
+                throw corrupted("FSE 精度超出上限");
+            }
+            int remaining = (1 << log) + 1;
+            int threshold = 1 << log;
+            int nbBits = log + 1;
+            short[] norm = new short[maxSymbol + 1];
+            int symbol = 0;
+            boolean previousZero = false;
+
+            while (remaining > 1 && symbol <= maxSymbol) {
+                if (previousZero) {
+                    int repeat;
+                    do {
+                        repeat = forwardBits(src, bitPos, 2, end);
+                        bitPos += 2;
+                        symbol += repeat;
+                    } while (repeat == 3);
+                    if (symbol > maxSymbol) {
+                        throw corrupted("FSE 符号越界");
+                    }
+                }
+                int max = (2 * threshold - 1) - remaining;
+                int value = forwardBits(src, bitPos, nbBits, end);
+                int count;
+                if ((value & (threshold - 1)) < max) {
+                    count = value & (threshold - 1);
+                    bitPos += nbBits - 1;
+                } else {
+                    count = value & (2 * threshold - 1);
+                    if (count >= threshold) {
+                        count -= max;
+                    }
+                    bitPos += nbBits;
+                }
+                count--;
+                remaining -= Math.abs(count);
+                norm[symbol++] = (short) count;
+                previousZero = count == 0;
+                while (remaining < threshold) {
+                    nbBits--;
+                    threshold >>= 1;
+                }
+            }
+            if (remaining != 1) {
+                throw corrupted("FSE 概率和非法");
+            }
+            int next = (int) ((bitPos + 7) >>> 3);
+            if (next > end) {
+                throw corrupted("FSE 表描述越界");
+            }
+            cursor[0] = next;
+            return build(Arrays.copyOf(norm, symbol), log);
+        }
+
+        static FseTable build(short[] norm, int log) {
+            FseTable table = new FseTable(log);
+            int size = 1 << log;
+            int high = size - 1;
+            int[] next = new int[norm.length];
+            for (int s = 0; s < norm.length; s++) {
+                if (norm[s] == -1) {
+                    table.symbol[high--] = s;
+                    next[s] = 1;
+                } else {
+                    next[s] = norm[s];
+                }
+            }
+            int step = (size >>> 1) + (size >>> 3) + 3;
+            int mask = size - 1;
+            int position = 0;
+            for (int s = 0; s < norm.length; s++) {
+                for (int i = 0; i < norm[s]; i++) {
+                    table.symbol[position] = s;
+                    do {
+                        position = (position + step) & mask;
+                    } while (position > high);
+                }
+            }
+            for (int u = 0; u < size; u++) {
+                int state = next[table.symbol[u]]++;
+                int bits = log - highBit(state);
+                table.nbBits[u] = bits;
+                table.base[u] = (state << bits) - size;
+            }
+            return table;
+        }
+
+        private static int forwardBits(byte[] src, long bitPos, int n, int end) {
+            int index = (int) (bitPos >>> 3);
+            int shift = (int) (bitPos & 7);
+            int bytes = (shift + n + 7) >>> 3;
+            long value = 0;
+            for (int i = 0; i < bytes && index + i < end; i++) {
+                value |= (long) (src[index + i] & 0xFF) << (8 * i);
+            }
+            return (int) ((value >>> shift) & ((1L << n) - 1));
+        }
+    }
+
+    // -------------------- Huffman --------------------
+
+    private static final class HuffmanTable {
+        private static final int MAX_BITS = 11;
+
+        final int maxBits;
+        final byte[] symbol;
+        final byte[] nbBits;
+
+        private HuffmanTable(int maxBits) {
+            this.maxBits = maxBits;
+            this.symbol = new byte[1 << maxBits];
+            this.nbBits = new byte[1 << maxBits];
+        }
+
+        static HuffmanTable read(byte[] src, int[] cursor, int end) throws IOException {
+            int ip = cursor[0];
+            checkBounds(ip + 1, end);
+            int header = u8(src, ip++);
+            int[] weights = new int[256];
+            int count;
+            if (header < 128) {
+                int weightsEnd = ip + header;
+                checkBounds(weightsEnd, end);
+                count = readFseWeights(src, ip, weightsEnd, weights);
+                ip = weightsEnd;
+            } else {
+                count = header - 127;
+                int bytes = (count + 1) / 2;
+                checkBounds(ip + bytes, end);
+                for (int i = 0; i < count; i++) {
+                    int b = u8(src, ip + i / 2);
+                    weights[i] = (i & 1) == 0 ? b >>> 4 : b & 0x0F;
+                }
+                ip += bytes;
+            }
+            cursor[0] = ip;
+            return build(weights, count);
+        }
+
+        private static int readFseWeights(byte[] src, int start, int end, int[] weights) throws IOException {
+            int[] cursor = {start};
+            FseTable table = FseTable.read(src, cursor, end, 255, 6);
+            BackwardBitReader bits = new BackwardBitReader(src, cursor[0], end);
+            int state1 = bits.read(table.log);
+            int state2 = bits.read(table.log);
+            int n = 0;
+            while (true) {
+                if (n > 253) {
+                    throw corrupted("Huffman 权重过多");
+                }
+                weights[n++] = table.symbol[state1];
+                state1 = table.base[state1] + bits.read(table.nbBits[state1]);
+                if (bits.remaining() < 0) {
+                    weights[n++] = table.symbol[state2];
+                    break;
+                }
+                weights[n++] = table.symbol[state2];
+                state2 = table.base[state2] + bits.read(table.nbBits[state2]);
+                if (bits.remaining() < 0) {
+                    weights[n++] = table.symbol[state1];
+                    break;
+                }
+            }
+            return n;
+        }
+
+        private static HuffmanTable build(int[] weights, int count) throws IOException {
+            if (count > 255) {
+                throw corrupted("Huffman 权重过多");
+            }
+            int total = 0;
+            for (int i = 0; i < count; i++) {
+                if (weights[i] > MAX_BITS) {
+                    throw corrupted("Huffman 权重越界");
+                }
+                if (weights[i] > 0) {
+                    total += 1 << (weights[i] - 1);
+                }
+            }
+            if (total == 0) {
+                throw corrupted("Huffman 权重全为0");
+            }
+            int maxBits = highBit(total) + 1;
+            int left = (1 << maxBits) - total;
+            if (maxBits > MAX_BITS || Integer.bitCount(left) != 1) {
+                throw corrupted("Huffman 权重非法");
+            }
+            weights[count] = highBit(left) + 1;
+            int symbols = count + 1;
+
+            int[] rankStart = new int[maxBits + 2];
+            for (int s = 0; s < symbols; s++) {
+                rankStart[weights[s]] += 1 << weights[s] >> 1;
+            }
+            int next = 0;
+            for (int w = 1; w <= maxBits; w++) {
+                int length = rankStart[w];
+                rankStart[w] = next;
+                next += length;
+            }
+
+            HuffmanTable table = new HuffmanTable(maxBits);
+            for (int s = 0; s < symbols; s++) {
+                int w = weights[s];
+                if (w == 0) {
+                    continue;
+                }
+                int length = 1 << (w - 1);
+                int from = rankStart[w];
+                Arrays.fill(table.symbol, from, from + length, (byte) s);
+                Arrays.fill(table.nbBits, from, from + length, (byte) (maxBits + 1 - w));
+                rankStart[w] += length;
+            }
+            return table;
+        }
+
+        void decode(byte[] src, int start, int end, byte[] out, int off, int count) throws IOException {
+            BackwardBitReader bits = new BackwardBitReader(src, start, end);
+            for (int i = 0; i < count; i++) {
+                int index = bits.peek(maxBits);
+                out[off + i] = symbol[index];
+                bits.skip(nbBits[index]);
+            }
+            if (bits.remaining() != 0) {
+                throw corrupted("Huffman 比特流未完全消耗");
+            }
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package cn.qaiu.parser;
+
+import cn.qaiu.entity.ShareLinkInfo;
+import io.vertx.core.Future;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * ParserCreate.createTool 创建解析工具的延迟对比
+ * <ul>
+ *     <li>reflectiveConstruct: 旧实现, 每次 getDeclaredConstructor(ShareLinkInfo.class).newInstance</li>
+ *     <li>factoryConstruct: 当前实现, 调用枚举初始化时解析好的工具工厂</li>
+ * </ul>
+ * 内置工具的构造器本身要创建 HTTP 客户端等, 开销较大; *Light 两项用空工具类单独衡量构造方式本身的开销。
+ * sharedToolContext: 已注册 {@link SharedPanTool} 时每次解析的对象开销(绑定工具 + 新建 {@link ParseContext})
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CreateToolBenchmark {
+
+    private static final PanDomainTemplate[] TEMPLATES = {
+            PanDomainTemplate.LZ, PanDomainTemplate.FJ, PanDomainTemplate.QK, PanDomainTemplate.YE
+    };
+
+    private final ShareLinkInfo shareLinkInfo = ShareLinkInfo.newBuilder()
+            .type("lz").shareKey("ihLkw1gezutg").shareUrl("https://wwn.lanzouy.com/ihLkw1gezutg").build();
+
+    private final SharedPanTool sharedTool = context -> context.future();
+
+    private int index;
+
+    private PanDomainTemplate nextTemplate() {
+        PanDomainTemplate template = TEMPLATES[index];
+        index = (index + 1) & (TEMPLATES.length - 1);
+        return template;
+    }
+
+    @Benchmark
+    public IPanTool reflectiveConstruct() throws Exception {
+        return nextTemplate().getToolClass().getDeclaredConstructor(ShareLinkInfo.class).newInstance(shareLinkInfo);
+    }
+
+    @Benchmark
+    public IPanTool factoryConstruct() {
+        return nextTemplate().getToolFactory().apply(shareLinkInfo);
+    }
+
+    @Benchmark
+    public Future<String> sharedToolContext() {
+        return SharedPanTools.bind(sharedTool, shareLinkInfo).parse();
+    }
+
+    private static final Class<LightTool> LIGHT_CLASS = LightTool.class;
+
+    private static final Function<ShareLinkInfo, IPanTool> LIGHT_FACTORY =
+            ToolFactories.forClass(LightTool.class);
+
+    @Benchmark
+    public IPanTool reflectiveConstructLight() throws Exception {
+        return LIGHT_CLASS.getDeclaredConstructor(ShareLinkInfo.class).newInstance(shareLinkInfo);
+    }
+
+    @Benchmark
+    public IPanTool factoryConstructLight() {
+        return LIGHT_FACTORY.apply(shareLinkInfo);
+    }
+
+    public static class LightTool implements IPanTool {
+        private final ShareLinkInfo shareLinkInfo;
+
+        public LightTool(ShareLinkInfo shareLinkInfo) {
+            this.shareLinkInfo = shareLinkInfo;
+        }
+
+        @Override
+        public Future<String> parse() {
+            return Future.succeededFuture(shareLinkInfo.getShareKey());
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(CreateToolBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build();
+        new Runner(opt).run();
+    }
+}
@@ -0,0 +1,68 @@
+package cn.qaiu.parser;
+
+import cn.qaiu.entity.ShareLinkInfo;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import org.junit.ClassRule;
+import org.junit.Test;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * 测试解析截止时间
+ */
+public class DeadlinesTest {
+    @ClassRule
+    public static final VertxResource VERTX = new VertxResource();
+
+    @Test
+    public void testBoundFailsAtDeadline() throws Exception {
+        ShareLinkInfo info = ShareLinkInfo.newBuilder().type("qk").panName("夸克网盘").shareKey("k")
+                .deadline(System.currentTimeMillis() + 100).build();
+        Promise<String> never = Promise.promise();
+        Future<String> bounded = Deadlines.bound(never.future(), info);
+        try {
+            bounded.toCompletionStage().toCompletableFuture().get(5, TimeUnit.SECONDS);
+            fail("应当超时");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof ParseFailureException);
+            assertEquals(FailureType.TRANSIENT, FailureType.of(e.getCause()));
+            assertTrue(e.getCause().getMessage().contains("解析超时"));
+        }
+        // 超时后的结果不再改变
+        never.complete("late");
+        assertTrue(bounded.failed());
+    }
+
+    @Test
+    public void testBoundPassesResult() {
+        ShareLinkInfo info = ShareLinkInfo.newBuilder().type("qk").shareKey("k")
+                .deadline(System.currentTimeMillis() + 60_000).build();
+        Promise<String> promise = Promise.promise();
+        Future<String> bounded = Deadlines.bound(promise.future(), info);
+        promise.complete("ok");
+        assertEquals("ok", bounded.result());
+
+        // 未设置截止时间时原样返回
+        Future<String> future = Promise.<String>promise().future();
+        assertSame(future, Deadlines.bound(future, ShareLinkInfo.newBuilder().type("qk").build()));
+        assertEquals(Long.MAX_VALUE, ShareLinkInfo.newBuilder().build().remainingMillis());
+    }
+
+    @Test
+    public void testToolClientsCarryDeadline() {
+        ParserCreate parserCreate = ParserCreate.fromShareUrl("https://share.feijipan.com/s/3pMsofZd");
+        long deadline = System.currentTimeMillis() + 10_000;
+        parserCreate.getShareLinkInfo().setDeadline(deadline);
+        PanBase tool = (PanBase) parserCreate.createTool();
+        assertEquals(deadline, tool.client.deadline());
+        assertEquals(deadline, tool.clientNoRedirects.deadline());
+        assertEquals(deadline, tool.clientDisableUA.deadline());
+
+        ParseContext context = new ParseContext(parserCreate.getShareLinkInfo());
+        assertEquals(deadline, context.client().deadline());
+    }
+}
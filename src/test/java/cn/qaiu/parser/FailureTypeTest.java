@@ -0,0 +1,81 @@
+package cn.qaiu.parser;
+
+import cn.qaiu.entity.ShareLinkInfo;
+import io.vertx.core.Future;
+import org.junit.ClassRule;
+import org.junit.Test;
+
+import java.net.SocketTimeoutException;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.Assert.*;
+
+/**
+ * 测试解析失败的分类
+ */
+public class FailureTypeTest {
+    @ClassRule
+    public static final VertxResource VERTX = new VertxResource();
+
+    /**
+     * 按给定方式失败的解析器
+     */
+    private static class FailingTool extends PanBase {
+        private final Runnable failure;
+
+        FailingTool(String message) {
+            this(null, message);
+        }
+
+        FailingTool(Throwable t, String message) {
+            super(ShareLinkInfo.newBuilder().type("lz").panName("蓝奏云").shareKey("abc").build());
+            this.failure = t == null ? () -> fail(message) : () -> fail(t, message);
+        }
+
+        @Override
+        public Future<String> parse() {
+            failure.run();
+            return future();
+        }
+    }
+
+    @Test
+    public void testClassifyMessage() {
+        assertEquals(FailureType.PERMANENT, FailureType.classify("文件取消分享了"));
+        assertEquals(FailureType.PERMANENT, FailureType.classify("分享已失效"));
+        assertEquals(FailureType.PERMANENT, FailureType.classify("提取码错误"));
+        assertEquals(FailureType.PERMANENT, FailureType.classify("Share link has EXPIRED"));
+        assertEquals(FailureType.TRANSIENT, FailureType.classify("请求过于频繁, 请稍后再试"));
+        assertEquals(FailureType.TRANSIENT, FailureType.classify("响应格式错误"));
+        assertEquals(FailureType.TRANSIENT, FailureType.classify(null));
+        // 同时出现时按临时失败处理
+        assertEquals(FailureType.TRANSIENT, FailureType.classify("请求异常: 文件不存在? timeout"));
+    }
+
+    @Test
+    public void testClassifyThrowable() {
+        assertEquals(FailureType.TRANSIENT,
+                FailureType.classify(new RuntimeException(new SocketTimeoutException()), "分享已失效"));
+        assertEquals(FailureType.PERMANENT,
+                FailureType.classify(new IllegalStateException("bad"), "分享已失效"));
+    }
+
+    @Test
+    public void testOf() {
+        ParseFailureException permanent = new ParseFailureException("x", FailureType.PERMANENT);
+        assertEquals(FailureType.PERMANENT, FailureType.of(permanent));
+        assertEquals(FailureType.PERMANENT, FailureType.of(new CompletionException(permanent)));
+        assertEquals(FailureType.TRANSIENT, FailureType.of(new RuntimeException("分享已失效")));
+    }
+
+    @Test
+    public void testPanBaseFailCarriesType() {
+        Throwable cause = new FailingTool("链接已失效").parse().cause();
+        assertTrue(cause instanceof ParseFailureException);
+        assertTrue(((ParseFailureException) cause).isPermanent());
+        assertTrue(cause.getMessage().contains("链接已失效"));
+
+        cause = new FailingTool(new SocketTimeoutException("timeout"), "获取直链失败").parse().cause();
+        assertEquals(FailureType.TRANSIENT, FailureType.of(cause));
+    }
+}
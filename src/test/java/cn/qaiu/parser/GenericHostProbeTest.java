@@ -0,0 +1,123 @@
+package cn.qaiu.parser;
+
+import cn.qaiu.parser.GenericHostProbe.Fingerprint;
+import io.vertx.core.Future;
+import io.vertx.core.MultiMap;
+import io.vertx.core.Promise;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.ext.web.client.HttpResponse;
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.function.Function;
+
+import static org.junit.Assert.*;
+
+/**
+ * 测试通用域名的并发识别
+ */
+public class GenericHostProbeTest {
+
+    private static final String HOST = "https://pan.example.com";
+    private static final String V4 = HOST + "/api/v4/site/ping";
+    private static final String V3 = HOST + "/api/v3/site/ping";
+
+    /**
+     * 记录请求, 由测试手动完成
+     */
+    private static class StubClient implements Function<String, Future<HttpResponse<Buffer>>> {
+        final Map<String, Promise<HttpResponse<Buffer>>> requests = new LinkedHashMap<>();
+
+        @Override
+        public synchronized Future<HttpResponse<Buffer>> apply(String url) {
+            Promise<HttpResponse<Buffer>> promise = Promise.promise();
+            requests.put(url, promise);
+            return promise.future();
+        }
+
+        void respond(String url, int status, String body) {
+            requests.get(url).complete(new HttpResponse<>(status, Buffer.buffer(body), MultiMap.caseInsensitiveMultiMap()));
+        }
+
+        void error(String url) {
+            requests.get(url).fail(new IOException("connect timed out"));
+        }
+    }
+
+    @After
+    public void tearDown() {
+        GenericHostProbe.clear();
+    }
+
+    @Test
+    public void testProbesRunConcurrently() {
+        StubClient client = new StubClient();
+        GenericHostProbe.probe(HOST, client);
+        assertEquals(2, client.requests.size());
+        assertTrue(client.requests.containsKey(V4));
+        assertTrue(client.requests.containsKey(V3));
+        client.respond(V4, 404, "");
+        client.respond(V3, 404, "");
+    }
+
+    @Test
+    public void testFirstPositiveWinsAndCancelsRest() {
+        StubClient client = new StubClient();
+        Future<Fingerprint> result = GenericHostProbe.probe(HOST, client);
+        client.respond(V4, 200, "{\"code\":0,\"data\":\"4.0.0\"}");
+
+        assertEquals(Fingerprint.CLOUDREVE_V4, result.result());
+        assertTrue(client.requests.get(V3).future().cause() instanceof CancellationException);
+    }
+
+    @Test
+    public void testLowerPriorityPositiveWaitsForHigher() {
+        StubClient client = new StubClient();
+        Future<Fingerprint> result = GenericHostProbe.probe(HOST, client);
+        client.respond(V3, 200, "{\"code\":0,\"data\":\"3.8.3\"}");
+        assertFalse(result.isComplete());
+
+        client.respond(V4, 404, "not found");
+        assertEquals(Fingerprint.CLOUDREVE_V3, result.result());
+    }
+
+    @Test
+    public void testResultCachedPerHost() {
+        StubClient client = new StubClient();
+        Future<Fingerprint> result = GenericHostProbe.probe(HOST, client);
+        client.respond(V4, 200, "<html>not cloudreve</html>");
+        client.respond(V3, 404, "");
+        assertEquals(Fingerprint.UNKNOWN, result.result());
+        assertEquals(Fingerprint.UNKNOWN, GenericHostProbe.cached(HOST));
+
+        StubClient second = new StubClient();
+        assertEquals(Fingerprint.UNKNOWN, GenericHostProbe.probe(HOST, second).result());
+        assertTrue(second.requests.isEmpty());
+    }
+
+    @Test
+    public void testNetworkErrorsNotCached() {
+        StubClient client = new StubClient();
+        Future<Fingerprint> result = GenericHostProbe.probe(HOST, client);
+        client.error(V4);
+        client.error(V3);
+        assertEquals(Fingerprint.UNKNOWN, result.result());
+        assertNull(GenericHostProbe.cached(HOST));
+    }
+
+    @Test
+    public void testConcurrentProbesForSameHostCoalesced() {
+        StubClient client = new StubClient();
+        Future<Fingerprint> first = GenericHostProbe.probe(HOST, client);
+        Future<Fingerprint> second = GenericHostProbe.probe(HOST, client);
+        assertEquals(2, client.requests.size());
+
+        client.respond(V4, 200, "{\"code\":0}");
+        assertEquals(Fingerprint.CLOUDREVE_V4, first.result());
+        assertEquals(Fingerprint.CLOUDREVE_V4, second.result());
+    }
+}
@@ -3,6 +3,7 @@ package cn.qaiu.parser;
 import cn.qaiu.entity.ShareLinkInfo;
 import io.vertx.core.Future;
 import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
 import org.junit.Test;
 import static org.junit.Assert.*;
 
@@ -166,5 +167,20 @@ public class IPanToolExceptionTest {
             assertEquals("Illegal argument", e.getMessage());
         }
     }
-}
 
+    @Test
+    public void testSyncMethodsRejectEventLoopThread() throws Exception {
+        IPanTool tool = () -> Promise.<String>promise().future();
+        java.util.concurrent.CompletableFuture<Throwable> thrown = new java.util.concurrent.CompletableFuture<>();
+        Vertx.eventLoops().execute(() -> {
+            try {
+                tool.parseSync();
+                thrown.complete(null);
+            } catch (Throwable e) {
+                thrown.complete(e);
+            }
+        });
+        // 在事件循环上同步等待会死锁, 应立即失败
+        assertTrue(thrown.get(5, java.util.concurrent.TimeUnit.SECONDS) instanceof IllegalStateException);
+    }
+}
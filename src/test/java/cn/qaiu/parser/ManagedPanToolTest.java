@@ -0,0 +1,105 @@
+package cn.qaiu.parser;
+
+import cn.qaiu.entity.ShareLinkInfo;
+import cn.qaiu.parser.cache.ParseCoordinator;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * 测试 ManagedPanTool 对相同分享链接并发解析的合并
+ */
+public class ManagedPanToolTest {
+
+    /**
+     * 计数的解析工具, 完成时写入 downloadUrl
+     */
+    private static class CountingTool implements IPanTool {
+        private final ShareLinkInfo info;
+        private final Promise<String> promise = Promise.promise();
+
+        CountingTool(ShareLinkInfo info, AtomicInteger created) {
+            this.info = info;
+            created.incrementAndGet();
+        }
+
+        @Override
+        public Future<String> parse() {
+            return promise.future();
+        }
+
+        void finish(String url) {
+            info.getOtherParam().put("downloadUrl", url);
+            promise.complete(url);
+        }
+    }
+
+    private static ShareLinkInfo info(String key, Map<String, Object> otherParam) {
+        return ShareLinkInfo.newBuilder().type("lz").panName("蓝奏云").shareKey(key)
+                .otherParam(new HashMap<>(otherParam)).build();
+    }
+
+    @Test
+    public void testConcurrentParseSharesLeaderResult() {
+        ParseCoordinator coordinator = new ParseCoordinator();
+        AtomicInteger created = new AtomicInteger();
+        CountingTool[] leader = new CountingTool[1];
+
+        ShareLinkInfo first = info("ihLkw1gezutg", Map.of());
+        ShareLinkInfo second = info("ihLkw1gezutg", Map.of());
+        ManagedPanTool a = new ManagedPanTool(first, () -> leader[0] = new CountingTool(first, created), coordinator);
+        ManagedPanTool b = new ManagedPanTool(second, () -> new CountingTool(second, created), coordinator);
+
+        Future<String> fa = a.parse();
+        Future<String> fb = b.parse();
+        assertEquals(1, created.get());
+        assertEquals(1, coordinator.inFlight());
+
+        leader[0].finish("https://down.example.com/f");
+        assertEquals("https://down.example.com/f", fa.result());
+        assertEquals("https://down.example.com/f", fb.result());
+        // follower 拿到 leader 的传出参数
+        assertEquals("https://down.example.com/f", second.getOtherParam().get("downloadUrl"));
+        assertEquals(0, coordinator.inFlight());
+    }
+
+    @Test
+    public void testDifferentInputsAreNotCoalesced() {
+        ParseCoordinator coordinator = new ParseCoordinator();
+        AtomicInteger created = new AtomicInteger();
+        ShareLinkInfo first = info("abc", Map.of("auths", "token-a"));
+        ShareLinkInfo second = info("abc", Map.of("auths", "token-b"));
+        ShareLinkInfo third = info("abc", Map.of("auths", "token-a"));
+        third.setSharePassword("1234");
+
+        new ManagedPanTool(first, () -> new CountingTool(first, created), coordinator).parse();
+        new ManagedPanTool(second, () -> new CountingTool(second, created), coordinator).parse();
+        new ManagedPanTool(third, () -> new CountingTool(third, created), coordinator).parse();
+        assertEquals(3, created.get());
+        assertEquals(3, coordinator.inFlight());
+    }
+
+    @Test
+    public void testFactoryFailureFailsFuture() {
+        ShareLinkInfo info = info("xyz", Map.of());
+        ManagedPanTool tool = new ManagedPanTool(info, () -> {
+            throw new RuntimeException("无法创建工具实例");
+        }, new ParseCoordinator());
+        Future<String> future = tool.parse();
+        assertTrue(future.failed());
+        assertEquals("无法创建工具实例", future.cause().getMessage());
+    }
+
+    @Test
+    public void testCreateManagedTool() {
+        IPanTool tool = ParserCreate.fromShareUrl("https://wwn.lanzouy.com/ihLkw1gezutg").createManagedTool();
+        assertTrue(tool instanceof ManagedPanTool);
+        assertEquals("ihLkw1gezutg", tool.getShareLinkInfo().getShareKey());
+    }
+}
@@ -0,0 +1,155 @@
+package cn.qaiu.parser;
+
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.ext.web.client.HttpResponse;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * 测试异步重试
+ */
+public class RetryTest {
+
+    private static Retry fast() {
+        return new Retry().setInitialDelay(Duration.ofMillis(10)).setMaxDelay(Duration.ofMillis(50));
+    }
+
+    private static <T> T await(Future<T> future) throws Exception {
+        return future.toCompletionStage().get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void testRetriesTransientFailures() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        Future<String> future = fast().execute(() -> calls.incrementAndGet() < 3
+                ? Future.failedFuture(new IOException("connection reset"))
+                : Future.succeededFuture("ok"));
+        assertEquals("ok", await(future));
+        assertEquals(3, calls.get());
+    }
+
+    @Test
+    public void testGivesUpAfterMaxAttempts() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        Future<String> future = fast().setMaxAttempts(2).execute(() -> {
+            calls.incrementAndGet();
+            throw new UncheckedIOException(new IOException("connection reset"));
+        });
+        try {
+            await(future);
+            fail("应当失败");
+        } catch (Exception e) {
+            assertTrue(future.cause() instanceof UncheckedIOException);
+        }
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    public void testProgrammingErrorNotRetried() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        Future<String> future = fast().execute(() -> {
+            calls.incrementAndGet();
+            throw new NullPointerException("boom");
+        });
+        assertTrue(future.cause() instanceof NullPointerException);
+        assertEquals(1, calls.get());
+
+        future = fast().execute(() -> {
+            calls.incrementAndGet();
+            return Future.failedFuture(new CompletionException(new TimeoutException("timed out")));
+        });
+        try {
+            await(future);
+            fail("应当失败");
+        } catch (Exception e) {
+            assertEquals(1 + Retry.DEFAULT_MAX_ATTEMPTS, calls.get());
+        }
+    }
+
+    @Test
+    public void testPermanentFailureNotRetried() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        Future<String> future = fast().execute(() -> {
+            calls.incrementAndGet();
+            return Future.failedFuture(new ParseFailureException("分享已失效", FailureType.PERMANENT));
+        });
+        assertTrue(future.failed());
+        assertEquals(1, calls.get());
+
+        // 自定义判断
+        future = fast().setRetryOn(e -> e.getMessage().contains("失效")).setMaxAttempts(2).execute(() -> {
+            calls.incrementAndGet();
+            return Future.failedFuture(new ParseFailureException("分享已失效", FailureType.PERMANENT));
+        });
+        try {
+            await(future);
+            fail("应当失败");
+        } catch (Exception e) {
+            assertEquals(3, calls.get());
+        }
+    }
+
+    @Test
+    public void testRetryStatusCodes() throws Exception {
+        List<Integer> codes = new CopyOnWriteArrayList<>(List.of(503, 502, 200));
+        Future<HttpResponse<Buffer>> future = fast().setRetryStatusCodes(502, 503)
+                .execute(() -> Future.succeededFuture(new HttpResponse<>(codes.remove(0), Buffer.buffer(), null)));
+        assertEquals(200, await(future).statusCode());
+
+        // 次数用完时返回最后的响应
+        future = fast().setMaxAttempts(2).setRetryStatusCodes(503)
+                .execute(() -> Future.succeededFuture(new HttpResponse<>(503, Buffer.buffer(), null)));
+        assertEquals(503, await(future).statusCode());
+    }
+
+    @Test
+    public void testBackoffWithJitter() {
+        Retry retry = new Retry().setInitialDelay(Duration.ofMillis(100)).setMaxDelay(Duration.ofMillis(1000))
+                .setMultiplier(2).setJitter(0.5);
+        for (int i = 0; i < 100; i++) {
+            long first = retry.delayMillis(1);
+            assertTrue(first >= 50 && first <= 100);
+            long third = retry.delayMillis(3);
+            assertTrue(third >= 200 && third <= 400);
+            long capped = retry.delayMillis(10);
+            assertTrue(capped >= 500 && capped <= 1000);
+        }
+        assertEquals(400, retry.setJitter(0).delayMillis(3));
+    }
+
+    @Test
+    public void testCancelStopsRetries() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        Promise<String> pending = Promise.promise();
+        Future<String> future = new Retry().setInitialDelay(Duration.ofMillis(100)).execute(() ->
+                calls.incrementAndGet() == 1 ? Future.failedFuture(new IOException("reset")) : pending.future());
+        // 等待中取消: 不再安排重试
+        assertTrue(future.cancel());
+        Thread.sleep(250);
+        assertEquals(1, calls.get());
+
+        calls.set(0);
+        future = fast().execute(() -> calls.incrementAndGet() == 1
+                ? Future.failedFuture(new IOException("reset")) : pending.future());
+        long deadline = System.currentTimeMillis() + 5000;
+        while (calls.get() < 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        // 尝试进行中取消: 取消传给当前尝试
+        assertTrue(future.cancel());
+        assertTrue(pending.future().isCancelled());
+    }
+}
@@ -0,0 +1,104 @@
+package cn.qaiu.parser;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 从文本中批量识别分享链接的吞吐量, 文本为 1MB 的中英文混排内容, 每约 2KB 夹带一条分享链接
+ * <ul>
+ *     <li>perPatternScan: 逐个网盘正则在全文上 find, 每条规则扫描一遍全文</li>
+ *     <li>regexScan: 用通用 URL 正则切出全部链接, 再逐个按全部网盘正则匹配</li>
+ *     <li>automatonScan: {@link ShareLinkExtractor}</li>
+ * </ul>
+ * 单线程运行, 每次操作处理 1MB 文本, ops/s 即 MB/s
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ShareLinkExtractBenchmark {
+
+    private static final int TEXT_SIZE = 1 << 20;
+
+    private static final Pattern URL_PATTERN = Pattern.compile("https?://[\\x21-\\x7e]+");
+
+    private static final String FILLER = "今天整理了一批资源, 有需要的自取。Some of these links may expire soon, "
+            + "please save them to your own drive as early as possible. 另外 http 协议和 lanzou 之类的字样"
+            + "在正文里也会出现, 不要误判。Visit the forum at bbs.example.org for more. ";
+
+    private String text;
+
+    @Setup
+    public void setup() {
+        StringBuilder builder = new StringBuilder(TEXT_SIZE + 4096);
+        int i = 0;
+        while (builder.length() < TEXT_SIZE) {
+            while (builder.length() % 2048 < 2048 - FILLER.length() && builder.length() < TEXT_SIZE) {
+                builder.append(FILLER);
+            }
+            String[] corpus = ShareUrlDispatcherTest.CORPUS;
+            builder.append("\n链接: ").append(corpus[i++ % corpus.length]).append(" 提取码: ab12\n");
+        }
+        text = builder.toString();
+        ShareLinkExtractor.extract(text);
+    }
+
+    @Benchmark
+    public int perPatternScan() {
+        int count = 0;
+        for (PanDomainTemplate template : PanDomainTemplate.values()) {
+            if (template.ordinal() >= PanDomainTemplate.CE.ordinal()) {
+                break;
+            }
+            Matcher matcher = template.getPattern().matcher(text);
+            while (matcher.find()) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Benchmark
+    public List<ParserCreate> regexScan() {
+        List<ParserCreate> result = new ArrayList<>();
+        Matcher matcher = URL_PATTERN.matcher(text);
+        while (matcher.find()) {
+            String url = matcher.group();
+            for (PanDomainTemplate template : PanDomainTemplate.values()) {
+                if (template.ordinal() >= PanDomainTemplate.CE.ordinal()) {
+                    break;
+                }
+                if (template.getPattern().matcher(url).matches()) {
+                    result.add(ParserCreate.fromTemplateMatch(template, url));
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+
+    @Benchmark
+    public List<ShareLinkMatch> automatonScan() {
+        return ShareLinkExtractor.extract(text);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(ShareLinkExtractBenchmark.class.getSimpleName())
+                .threads(1)
+                .addProfiler("gc")
+                .build();
+        new Runner(opt).run();
+    }
+}
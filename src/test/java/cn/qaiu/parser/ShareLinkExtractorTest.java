@@ -0,0 +1,120 @@
+package cn.qaiu.parser;
+
+import cn.qaiu.parser.custom.CustomParserConfig;
+import cn.qaiu.parser.custom.CustomParserRegistry;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * 测试从文本中批量识别分享链接
+ */
+public class ShareLinkExtractorTest {
+
+    @After
+    public void tearDown() {
+        CustomParserRegistry.clear();
+    }
+
+    @Test
+    public void testExtractMixedText() {
+        String text = "资源合集：\n1. 蓝奏 https://wwn.lanzouy.com/ihLkw1gezutg 密码:abcd\n"
+                + "2. 夸克 https://pan.quark.cn/s/07b9b7bdc6e3，提取码：Xy12\n"
+                + "3. 普通网页 https://example.org/index.html 不是分享";
+        List<ShareLinkMatch> matches = ShareLinkExtractor.extract(text);
+
+        assertEquals(2, matches.size());
+        ShareLinkMatch lz = matches.get(0);
+        assertEquals("lz", lz.getType());
+        assertEquals("https://wwn.lanzouy.com/ihLkw1gezutg", lz.getUrl());
+        assertEquals("abcd", lz.getPassword());
+        assertEquals(lz.getUrl(), text.substring(lz.getStart(), lz.getEnd()));
+
+        ShareLinkMatch qk = matches.get(1);
+        assertEquals("qk", qk.getType());
+        assertEquals("07b9b7bdc6e3", qk.getShareKey());
+        assertEquals("Xy12", qk.getPassword());
+    }
+
+    @Test
+    public void testEveryCorpusUrl() {
+        StringBuilder text = new StringBuilder();
+        for (String url : ShareUrlDispatcherTest.CORPUS) {
+            text.append("链接 ").append(url).append(" \n");
+        }
+        List<ShareLinkMatch> matches = ShareLinkExtractor.extract(text, true);
+
+        assertEquals(ShareUrlDispatcherTest.CORPUS.length, matches.size());
+        for (int i = 0; i < matches.size(); i++) {
+            String url = ShareUrlDispatcherTest.CORPUS[i];
+            assertEquals(url, matches.get(i).getUrl());
+            assertEquals(ParserCreate.fromShareUrl(url).getShareLinkInfo().getType(), matches.get(i).getType());
+        }
+    }
+
+    @Test
+    public void testPasswordInUrlWins() {
+        List<ShareLinkMatch> matches = ShareLinkExtractor.extract(
+                "https://www.vyuyun.com/s/QMa6ie?password=I4KG7H 提取码: zzzz");
+        assertEquals(1, matches.size());
+        assertEquals("I4KG7H", matches.get(0).getPassword());
+    }
+
+    @Test
+    public void testPwdQueryStyle() {
+        List<ShareLinkMatch> matches = ShareLinkExtractor.extract("看这里 https://pan.quark.cn/s/07b9b7bdc6e3 (pwd=9k2m)");
+        assertEquals(1, matches.size());
+        assertEquals("9k2m", matches.get(0).getPassword());
+    }
+
+    @Test
+    public void testSchemelessLink() {
+        String text = "复制到浏览器打开 lanzn.com/b0f1a2b3c 即可";
+        List<ShareLinkMatch> matches = ShareLinkExtractor.extract(text);
+        assertEquals(1, matches.size());
+        assertEquals("https://lanzn.com/b0f1a2b3c", matches.get(0).getUrl());
+        assertEquals("lanzn.com/b0f1a2b3c", text.substring(matches.get(0).getStart(), matches.get(0).getEnd()));
+    }
+
+    @Test
+    public void testUpperCaseSchemeAndTrailingPunctuation() {
+        List<ShareLinkMatch> matches = ShareLinkExtractor.extract("(HTTPS://pan.quark.cn/s/07b9b7bdc6e3).");
+        assertEquals(1, matches.size());
+        assertEquals("https://pan.quark.cn/s/07b9b7bdc6e3", matches.get(0).getUrl());
+    }
+
+    @Test
+    public void testPasswordNotTakenFromNextLink() {
+        List<ShareLinkMatch> matches = ShareLinkExtractor.extract(
+                "https://pan.quark.cn/s/07b9b7bdc6e3 https://wwn.lanzouy.com/ihLkw1gezutg 密码:abcd");
+        assertEquals(2, matches.size());
+        assertEquals("", matches.get(0).getPassword());
+        assertEquals("abcd", matches.get(1).getPassword());
+    }
+
+    @Test
+    public void testNoLinks() {
+        assertTrue(ShareLinkExtractor.extract("").isEmpty());
+        assertTrue(ShareLinkExtractor.extract("没有链接, 只有 lanzou 字样和 http:// 残片").isEmpty());
+    }
+
+    @Test
+    public void testCustomParserRecognizedAfterRegister() {
+        String text = "自定义 https://pan.example.net/s/abc123 结束";
+        assertTrue(ShareLinkExtractor.extract(text).isEmpty());
+
+        CustomParserRegistry.register(CustomParserConfig.builder()
+                .type("example")
+                .displayName("示例网盘")
+                .toolClass(PanDomainTemplate.OTHER.getToolClass())
+                .matchPattern("https://pan\\.example\\.net/s/(?<KEY>\\w+)")
+                .build());
+        List<ShareLinkMatch> matches = ShareLinkExtractor.extract(text);
+        assertEquals(1, matches.size());
+        assertEquals("example", matches.get(0).getType());
+        assertEquals("abc123", matches.get(0).getShareKey());
+    }
+}
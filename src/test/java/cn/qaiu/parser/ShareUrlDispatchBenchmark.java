@@ -0,0 +1,85 @@
+package cn.qaiu.parser;
+
+import cn.qaiu.parser.custom.CustomParserConfig;
+import cn.qaiu.parser.custom.CustomParserRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+
+/**
+ * ParserCreate.fromShareUrl 分发开销对比, 语料为 {@link ShareUrlDispatcherTest#CORPUS} 中的真实分享链接
+ * <ul>
+ *     <li>legacySynchronizedScan: 旧实现, 全局锁 + 每次复制自定义解析器注册表 + 按顺序逐个尝试全部正则</li>
+ *     <li>hostIndexedDispatch: 当前实现, 无锁, 按 host 后缀索引只尝试候选正则</li>
+ * </ul>
+ * 运行: mvn test-compile 后执行 main 方法, 依次以 1/2/4/8 线程运行, 对比吞吐量随线程数的变化
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ShareUrlDispatchBenchmark {
+
+    private int index;
+
+    @Setup
+    public void setup() {
+        // 预热索引, 避免首次构建计入测量
+        ParserCreate.fromShareUrl(ShareUrlDispatcherTest.CORPUS[0]);
+    }
+
+    private String nextUrl() {
+        String[] corpus = ShareUrlDispatcherTest.CORPUS;
+        String url = corpus[index];
+        index = index + 1 == corpus.length ? 0 : index + 1;
+        return url;
+    }
+
+    @Benchmark
+    public ParserCreate legacySynchronizedScan() {
+        return legacyFromShareUrl(nextUrl());
+    }
+
+    @Benchmark
+    public ParserCreate hostIndexedDispatch() {
+        return ParserCreate.fromShareUrl(nextUrl());
+    }
+
+    /**
+     * 旧版 fromShareUrl 的等价实现
+     */
+    private static synchronized ParserCreate legacyFromShareUrl(String shareUrl) {
+        for (CustomParserConfig customConfig : CustomParserRegistry.getAll().values()) {
+            if (customConfig.supportsFromShareUrl()) {
+                Matcher matcher = customConfig.getMatchPattern().matcher(shareUrl);
+                if (matcher.matches()) {
+                    return ParserCreate.fromCustomMatch(customConfig, matcher, shareUrl);
+                }
+            }
+        }
+        for (PanDomainTemplate panDomainTemplate : PanDomainTemplate.values()) {
+            if (panDomainTemplate.getPattern().matcher(shareUrl).matches()) {
+                return ParserCreate.fromTemplateMatch(panDomainTemplate, shareUrl);
+            }
+        }
+        throw new IllegalArgumentException("Unsupported share URL");
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        for (int threads : new int[]{1, 2, 4, 8}) {
+            Options opt = new OptionsBuilder()
+                    .include(ShareUrlDispatchBenchmark.class.getSimpleName())
+                    .threads(threads)
+                    .addProfiler("gc")
+                    .build();
+            new Runner(opt).run();
+        }
+    }
+}
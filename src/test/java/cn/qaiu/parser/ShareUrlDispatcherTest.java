@@ -0,0 +1,158 @@
+package cn.qaiu.parser;
+
+import cn.qaiu.parser.custom.CustomParserConfig;
+import cn.qaiu.parser.custom.CustomParserRegistry;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.*;
+
+/**
+ * 测试分享链接分发器
+ */
+public class ShareUrlDispatcherTest {
+
+    /**
+     * 真实格式的分享链接, 覆盖全部内置网盘和通用规则
+     */
+    static final String[] CORPUS = {
+            "https://www.ilanzou.com/s/Ab12cd",
+            "https://wwn.lanzouy.com/ihLkw1gezutg",
+            "https://test.lanzoux.com/s/someShareKey",
+            "https://www.lanzoui.com/i7Aq12abcd",
+            "https://lanzn.com/b0f1a2b3c",
+            "https://share.feijipan.com/s/3pMsofZd",
+            "https://lecloud.lenovo.com/share/4DANWdRmsR4Kj4bUg",
+            "https://v2.fangcloud.com/s/1de5f3c40bc83f8a3e1d0b44",
+            "https://iwx.mail.qq.com/ftn/download?func=3&k=abc&key=def",
+            "https://wx.mail.qq.com/s?k=uAG9JR42Rqgt010mFp",
+            "https://qfile.qq.com/q/Xolxtv5b4O",
+            "https://f.ws59.cn/f/f25625rv6p6",
+            "https://www.wenshushu.cn/f/f25625rv6p6",
+            "https://www.123pan.com/s/VzVA-cQ7bd.html",
+            "https://www.123865.com/s/iaKtVv-6OECd",
+            "https://www.ecpan.cn/web/#/yunpanProxy?path=%2F%23%2Fdrive%2Foutside&data=81027a5c99af5b11ca004966c945cce6W9Bf2&isShare=1",
+            "https://cowtransfer.com/s/9a644fe3e3a748",
+            "https://url57.ctfile.com/f/25157957-1234567-a12b3c?p=6033",
+            "https://474b.com/file/25157957-1234567-a12b3c",
+            "https://www.vyuyun.com/s/QMa6ie?password=I4KG7H",
+            "https://1drv.ms/u/s!Ap1cJ5rDFYEm2lKrIFnLZ",
+            "https://drive.google.com/file/d/151bR-nk-tOBm9QAFaozJIVt2WYyCMkoz/view?usp=sharing",
+            "https://www.icloud.com.cn/iclouddrive/0d8lBC9Jtqs6IJnbT1DHMJOwQ#file",
+            "https://www.dropbox.com/scl/fi/abc123/test.zip?rlkey=xyz789&dl=0",
+            "https://115.com/s/sw3fcpr3hkf?password=n8a1",
+            "https://pan-yz.chaoxing.com/external/m/file/953014466287071232",
+            "https://www.kdocs.cn/l/ck0azivLlDi3",
+            "https://drive.uc.cn/s/e623b6da278e4?public=1",
+            "https://pan.quark.cn/s/07b9b7bdc6e3",
+            "http://163cn.tv/xBJ5Rhf",
+            "https://music.163.com/#/song?id=1942412735",
+            "https://c6.y.qq.com/base/fcgi-bin/u?__=jTIS7A0wlE6J",
+            "https://y.qq.com/n/ryqq/songDetail/003Yt5uZ2GDsfW",
+            "https://www.kugou.com/song.html?id=6yQ3Qeb8KV2",
+            "https://www.kugou.com/mixsong/7aqxw2f4.html",
+            "https://m.kuwo.cn/newh5app/play_detail/228908",
+            "https://music.migu.cn/v3/music/song/6005751GS8E",
+            "https://pan.huang1111.cn/s/g31PcQ",
+            "https://example.com:8443/s/abc",
+            "https://pan.baidu.com/s/1test",
+    };
+
+    @After
+    public void tearDown() {
+        CustomParserRegistry.clear();
+    }
+
+    /**
+     * 原实现: 按枚举顺序逐个尝试全部正则
+     */
+    private static String linearScan(String url) {
+        for (PanDomainTemplate template : PanDomainTemplate.values()) {
+            if (template.getPattern().matcher(url).matches()) {
+                return template.name().toLowerCase();
+            }
+        }
+        return null;
+    }
+
+    @Test
+    public void testSameResultAsLinearScan() {
+        ShareUrlDispatcher dispatcher = new ShareUrlDispatcher(0, Collections.emptyList());
+        for (String url : CORPUS) {
+            String expected = linearScan(url);
+            assertNotNull(url, expected);
+            ParserCreate parserCreate = dispatcher.dispatch(url);
+            assertEquals(url, expected, parserCreate.getShareLinkInfo().getType());
+            assertEquals(url, ParserCreate.fromShareUrl(url).getShareLinkInfo().getShareKey(),
+                    parserCreate.getShareLinkInfo().getShareKey());
+        }
+    }
+
+    @Test
+    public void testCandidatesAreNarrowedByHost() {
+        ShareUrlDispatcher dispatcher = new ShareUrlDispatcher(0, Collections.emptyList());
+        List<String> candidates = dispatcher.candidateNames("https://wwn.lanzouy.com/ihLkw1gezutg");
+        assertEquals("LZ", candidates.get(0));
+        assertFalse(candidates.contains("YE"));
+        assertFalse(candidates.contains("IZ"));
+        // 通用规则总在最后
+        assertEquals(List.of("CE", "KD", "OTHER"), candidates.subList(candidates.size() - 3, candidates.size()));
+
+        candidates = dispatcher.candidateNames("https://unknown.example.org/s/abc");
+        assertFalse(candidates.contains("LZ"));
+        assertTrue(candidates.contains("OTHER"));
+    }
+
+    @Test
+    public void testUnsupportedUrl() {
+        ShareUrlDispatcher dispatcher = new ShareUrlDispatcher(0, Collections.emptyList());
+        assertThrows(IllegalArgumentException.class, () -> dispatcher.dispatch("not a url"));
+        assertThrows(IllegalArgumentException.class, () -> dispatcher.dispatch("ftp://example.com"));
+    }
+
+    @Test
+    public void testHostSuffixes() {
+        assertEquals(Set.of("www.ilanzou.com"),
+                ShareUrlDispatcher.hostSuffixes(PanDomainTemplate.IZ.getPattern()));
+        assertTrue(ShareUrlDispatcher.hostSuffixes(PanDomainTemplate.LZ.getPattern()).contains("lanzouy.com"));
+        assertEquals(Set.of("m.kuwo.cn", "kuwo.cn"),
+                ShareUrlDispatcher.hostSuffixes(PanDomainTemplate.MKWS.getPattern()));
+        assertEquals(Set.of(".cn", "www.wenshushu.cn"),
+                ShareUrlDispatcher.hostSuffixes(PanDomainTemplate.WS.getPattern()));
+        // 转义的斜杠
+        assertEquals(Set.of("a.com"), ShareUrlDispatcher.hostSuffixes(Pattern.compile("^https?:\\/\\/a\\.com\\/(?<KEY>\\w+)")));
+        // 无法确定时匹配任意 host
+        Set<String> any = Set.of("");
+        assertEquals(any, ShareUrlDispatcher.hostSuffixes(PanDomainTemplate.OTHER.getPattern()));
+        assertEquals(any, ShareUrlDispatcher.hostSuffixes(Pattern.compile("https://a\\.com/x", Pattern.CASE_INSENSITIVE)));
+        assertEquals(any, ShareUrlDispatcher.hostSuffixes(Pattern.compile("https://a\\.com/x|https://b\\.com/y")));
+        assertEquals(any, ShareUrlDispatcher.hostSuffixes(Pattern.compile("https://www.a.com/x")));
+        assertEquals(any, ShareUrlDispatcher.hostSuffixes(Pattern.compile("(?i)https://a\\.com/x")));
+        assertEquals(any, ShareUrlDispatcher.hostSuffixes(Pattern.compile("https://(a\\.com)*/x")));
+        assertEquals(any, ShareUrlDispatcher.hostSuffixes(Pattern.compile("https://[^/]+\\.com/x")));
+    }
+
+    @Test
+    public void testCustomParserTakesPriorityAndRebuilds() {
+        String url = "https://pan.example.net/s/abc123";
+        assertEquals("ce", ParserCreate.fromShareUrl(url).getShareLinkInfo().getType());
+
+        CustomParserRegistry.register(CustomParserConfig.builder()
+                .type("expan")
+                .displayName("示例网盘")
+                .toolClass(PanDomainTemplate.OTHER.getToolClass())
+                .matchPattern("https://pan\\.example\\.net/s/(?<KEY>\\w+)")
+                .build());
+        ParserCreate parserCreate = ParserCreate.fromShareUrl(url);
+        assertEquals("expan", parserCreate.getShareLinkInfo().getType());
+        assertEquals("abc123", parserCreate.getShareLinkInfo().getShareKey());
+
+        CustomParserRegistry.unregister("expan");
+        assertEquals("ce", ParserCreate.fromShareUrl(url).getShareLinkInfo().getType());
+    }
+}
@@ -0,0 +1,160 @@
+package cn.qaiu.parser;
+
+import cn.qaiu.entity.ShareLinkInfo;
+import cn.qaiu.parser.impl.CowTool;
+import cn.qaiu.parser.impl.PicTool;
+import io.vertx.core.Future;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.client.HedgePolicy;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * 测试无状态解析工具及其上下文
+ */
+public class SharedPanToolsTest {
+
+    /**
+     * 记录每次调用收到的上下文, 直接用分享 key 生成直链
+     */
+    private static class EchoTool implements SharedPanTool {
+        final List<ParseContext> contexts = Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public Future<String> parse(ParseContext context) {
+            contexts.add(context);
+            context.complete("https://dl.example.com/" + context.getShareLinkInfo().getShareKey());
+            return context.future();
+        }
+    }
+
+    @After
+    public void tearDown() {
+        SharedPanTools.clear();
+    }
+
+    @Test
+    public void testRegisteredToolSharedAcrossParses() {
+        EchoTool echo = new EchoTool();
+        SharedPanTools.register("QK", echo);
+
+        IPanTool first = ParserCreate.fromShareUrl("https://pan.quark.cn/s/aaa111").createTool();
+        IPanTool second = ParserCreate.fromShareUrl("https://pan.quark.cn/s/bbb222").createTool();
+        assertFalse(first instanceof PanBase);
+
+        assertEquals("https://dl.example.com/aaa111", first.parse().result());
+        assertEquals("https://dl.example.com/bbb222", second.parse().result());
+        assertEquals("https://dl.example.com/aaa111", first.parse().result());
+        assertEquals(3, echo.contexts.size());
+        assertNotSame(echo.contexts.get(0), echo.contexts.get(2));
+        assertEquals("https://dl.example.com/bbb222", second.getShareLinkInfo().getOtherParam().get("downloadUrl"));
+    }
+
+    @Test
+    public void testUnregisteredTypeKeepsPanBaseTool() {
+        SharedPanTools.register("qk", new EchoTool());
+        assertTrue(SharedPanTools.unregister("qk"));
+        IPanTool tool = ParserCreate.fromShareUrl("https://pan.quark.cn/s/aaa111").createTool();
+        assertSame(PanDomainTemplate.QK.getToolClass(), tool.getClass());
+    }
+
+    @Test
+    public void testBuiltInToolSharedAcrossParses() {
+        IPanTool first = ParserCreate.fromShareUrl("https://cowtransfer.com/s/aaa111").createTool();
+        IPanTool second = ParserCreate.fromShareUrl("https://cowtransfer.com/s/bbb222").createTool();
+        assertFalse(first instanceof PanBase);
+        assertEquals("aaa111", first.getShareLinkInfo().getShareKey());
+        assertEquals("bbb222", second.getShareLinkInfo().getShareKey());
+
+        assertSame(CowTool.SHARED, SharedPanTools.builtIn(PanDomainTemplate.COW));
+        assertSame(PicTool.SHARED, SharedPanTools.forTemplate(PanDomainTemplate.PIC));
+        assertNull(SharedPanTools.builtIn(PanDomainTemplate.QK));
+
+        // 注册的实例优先于自带实现
+        EchoTool echo = new EchoTool();
+        SharedPanTools.register("cow", echo);
+        IPanTool registered = ParserCreate.fromShareUrl("https://cowtransfer.com/s/ccc333").createTool();
+        assertEquals("https://dl.example.com/ccc333", registered.parse().result());
+        assertSame(CowTool.SHARED, SharedPanTools.builtIn(PanDomainTemplate.COW));
+    }
+
+    @Test
+    public void testAdapterCreatesToolPerInvocation() {
+        List<ShareLinkInfo> seen = new ArrayList<>();
+        SharedPanTool adapted = SharedPanTools.adapt(info -> {
+            seen.add(info);
+            return () -> Future.succeededFuture(info.getShareKey());
+        });
+        ShareLinkInfo info = ShareLinkInfo.newBuilder().type("qk").shareKey("k1").build();
+        assertEquals("k1", adapted.parse(new ParseContext(info)).result());
+        assertEquals("k1", adapted.parse(new ParseContext(info)).result());
+        assertEquals(2, seen.size());
+
+        assertNotNull(SharedPanTools.forTemplate(PanDomainTemplate.LZ));
+        EchoTool echo = new EchoTool();
+        SharedPanTools.register("lz", echo);
+        assertSame(echo, SharedPanTools.forTemplate(PanDomainTemplate.LZ));
+    }
+
+    @Test
+    public void testContextHedging() {
+        ShareLinkInfo info = ShareLinkInfo.newBuilder().type("fj").shareKey("k").build();
+        assertNull(new ParseContext(info).client().hedgePolicy());
+
+        HedgePolicy policy = new HedgePolicy();
+        PanHedging.register("FJ", policy);
+        try {
+            assertSame(policy, PanHedging.policy("fj"));
+            ParseContext a = new ParseContext(info);
+            assertSame(policy, a.client().hedgePolicy());
+            assertSame(a.client().throttle(), new ParseContext(info).client().throttle());
+        } finally {
+            PanHedging.clear();
+        }
+        assertNull(PanHedging.policy("fj"));
+    }
+
+    @Test
+    public void testContextClients() {
+        ShareLinkInfo info = ShareLinkInfo.newBuilder().type("qk").shareKey("k").build();
+        ParseContext a = new ParseContext(info);
+        ParseContext b = new ParseContext(info);
+        // 共享客户端的轻量包装, 各自挂载本次解析的取消令牌
+        assertNotSame(a.client(), b.client());
+        assertSame(a.cancellation(), a.client().cancellation());
+        assertSame(a.cancellation(), a.clientNoRedirects().cancellation());
+        assertSame(a.cancellation(), a.clientDisableUA().cancellation());
+        a.future().cancel();
+        assertTrue(a.cancellation().isCancelled());
+        assertFalse(b.cancellation().isCancelled());
+        // 会话按次独享
+        assertSame(a.clientSession(), a.clientSession());
+        assertNotSame(a.clientSession(), b.clientSession());
+
+        ShareLinkInfo proxied = ShareLinkInfo.newBuilder().type("qk").shareKey("k").build();
+        proxied.getOtherParam().put("proxy", new JsonObject()
+                .put("type", "http").put("host", "127.0.0.1").put("port", 8080));
+        assertNotSame(a.client(), new ParseContext(proxied).client());
+    }
+
+    @Test
+    public void testContextFail() {
+        ShareLinkInfo info = ShareLinkInfo.newBuilder().type("qk").panName("夸克网盘").shareKey("k").build();
+        ParseContext context = new ParseContext(info);
+        context.fail("分享{}已失效", "k");
+        assertTrue(context.future().failed());
+        assertTrue(context.future().cause() instanceof ParseFailureException);
+        assertTrue(((ParseFailureException) context.future().cause()).isPermanent());
+        assertTrue(context.future().cause().getMessage().contains("分享k已失效"));
+
+        // 已完成后不再改变结果
+        context.complete("https://dl.example.com/k");
+        assertTrue(context.future().failed());
+    }
+}
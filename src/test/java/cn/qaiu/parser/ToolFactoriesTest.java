@@ -0,0 +1,118 @@
+package cn.qaiu.parser;
+
+import cn.qaiu.entity.ShareLinkInfo;
+import cn.qaiu.parser.custom.CustomParserConfig;
+import cn.qaiu.parser.custom.CustomParserRegistry;
+import io.vertx.core.Future;
+import org.junit.After;
+import org.junit.ClassRule;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * 测试预解析的解析工具工厂
+ */
+public class ToolFactoriesTest {
+    @ClassRule
+    public static final VertxResource VERTX = new VertxResource();
+
+    @After
+    public void tearDown() {
+        CustomParserRegistry.clear();
+    }
+
+    @Test
+    public void testEveryTemplateFactoryCreatesItsToolClass() {
+        for (PanDomainTemplate template : PanDomainTemplate.values()) {
+            ShareLinkInfo info = ShareLinkInfo.newBuilder().type(template.name().toLowerCase()).shareKey("k").build();
+            IPanTool tool = template.getToolFactory().apply(info);
+            assertSame(template.name(), template.getToolClass(), tool.getClass());
+        }
+    }
+
+    @Test
+    public void testCreateToolUsesFactory() {
+        IPanTool tool = ParserCreate.fromShareUrl("https://wwn.lanzouy.com/ihLkw1gezutg").createTool();
+        assertSame(PanDomainTemplate.LZ.getToolClass(), tool.getClass());
+    }
+
+    @Test
+    public void testMissingConstructorRejected() {
+        assertThrows(IllegalArgumentException.class, () -> ToolFactories.forClass(NoInfoConstructorTool.class));
+        assertThrows(IllegalArgumentException.class, () -> CustomParserConfig.builder()
+                .type("noctor")
+                .displayName("无构造器")
+                .toolClass(NoInfoConstructorTool.class)
+                .build());
+    }
+
+    @Test
+    public void testConstructorExceptionWrapped() {
+        RuntimeException e = assertThrows(RuntimeException.class,
+                () -> ToolFactories.forClass(ThrowingTool.class).apply(ShareLinkInfo.newBuilder().build()));
+        assertTrue(e.getMessage().contains(ThrowingTool.class.getName()));
+        assertTrue(e.getCause() instanceof IllegalStateException);
+    }
+
+    @Test
+    public void testExplicitFactoryRegistration() {
+        AtomicInteger created = new AtomicInteger();
+        CustomParserRegistry.register(CustomParserConfig.builder()
+                .type("explicit")
+                .displayName("显式工厂")
+                .toolClass(CustomParserTest.TestPanTool.class)
+                .toolFactory(info -> {
+                    created.incrementAndGet();
+                    return new CustomParserTest.TestPanTool(info);
+                })
+                .build());
+
+        IPanTool tool = ParserCreate.fromType("explicit").shareKey("abc").createTool();
+        assertTrue(tool instanceof CustomParserTest.TestPanTool);
+        assertEquals(1, created.get());
+    }
+
+    @Test
+    public void testDerivedFactoryForCustomParser() {
+        CustomParserConfig config = CustomParserConfig.builder()
+                .type("derived")
+                .displayName("派生工厂")
+                .toolClass(CustomParserTest.TestPanTool.class)
+                .build();
+        assertNotNull(config.getToolFactory());
+        assertTrue(config.getToolFactory().apply(ShareLinkInfo.newBuilder().build()) instanceof CustomParserTest.TestPanTool);
+    }
+
+    @Test
+    public void testCustomParserFactoryErrorMessage() {
+        CustomParserConfig config = CustomParserConfig.builder()
+                .type("throwing")
+                .displayName("构造失败")
+                .toolClass(ThrowingTool.class)
+                .build();
+        RuntimeException e = assertThrows(RuntimeException.class,
+                () -> config.getToolFactory().apply(ShareLinkInfo.newBuilder().build()));
+        assertEquals("无法创建自定义工具实例: " + ThrowingTool.class.getName(), e.getMessage());
+    }
+
+    public static class NoInfoConstructorTool implements IPanTool {
+        @Override
+        public Future<String> parse() {
+            return Future.succeededFuture("");
+        }
+    }
+
+    public static class ThrowingTool implements IPanTool {
+        public ThrowingTool(ShareLinkInfo shareLinkInfo) {
+            throw new IllegalStateException("boom");
+        }
+
+        @Override
+        public Future<String> parse() {
+            return Future.succeededFuture("");
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package cn.qaiu.parser;
+
+import cn.qaiu.WebClientVertxInit;
+import io.vertx.core.Vertx;
+import org.junit.rules.ExternalResource;
+
+/**
+ * 为测试提供全局 Vertx 并在结束时关闭
+ * <p>PanBase 创建客户端时会取全局 Vertx, 未提供时会自行创建且不再关闭, 遗留运行中的事件循环。
+ * 作为 {@code @ClassRule} 使用。</p>
+ */
+public class VertxResource extends ExternalResource {
+    private Vertx vertx;
+
+    @Override
+    protected void before() {
+        vertx = Vertx.vertx();
+        WebClientVertxInit.init(vertx);
+    }
+
+    @Override
+    protected void after() {
+        vertx.close();
+    }
+}
@@ -0,0 +1,262 @@
+package cn.qaiu.parser.batch;
+
+import cn.qaiu.parser.ParseContext;
+import cn.qaiu.parser.SharedPanTool;
+import cn.qaiu.parser.SharedPanTools;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import org.junit.After;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * 测试批量解析
+ */
+public class ParserBatchTest {
+
+    /**
+     * 挂起每次解析, 由测试手动完成, 记录各网盘的最大并发数
+     */
+    private static class PendingTool implements SharedPanTool {
+        final List<Promise<String>> pending = new ArrayList<>();
+        final Map<String, Integer> running = new HashMap<>();
+        final Map<String, Integer> maxRunning = new HashMap<>();
+        int maxTotal;
+
+        @Override
+        public synchronized Future<String> parse(ParseContext context) {
+            String type = context.getShareLinkInfo().getType();
+            int now = running.merge(type, 1, Integer::sum);
+            maxRunning.merge(type, now, Math::max);
+            maxTotal = Math.max(maxTotal, pending.size() + 1);
+            Promise<String> promise = Promise.promise();
+            pending.add(promise);
+            String key = context.getShareLinkInfo().getShareKey();
+            return promise.future().map(v -> {
+                synchronized (this) {
+                    running.merge(type, -1, Integer::sum);
+                }
+                return v + key;
+            });
+        }
+
+        /**
+         * 按开始顺序完成最早的一个解析
+         */
+        void completeOldest() {
+            Promise<String> promise;
+            synchronized (this) {
+                promise = pending.remove(0);
+            }
+            promise.complete("https://dl.example.com/");
+        }
+
+        synchronized int pendingCount() {
+            return pending.size();
+        }
+    }
+
+    private final PendingTool tool = new PendingTool();
+
+    @After
+    public void tearDown() {
+        SharedPanTools.clear();
+    }
+
+    private static List<String> urls(String prefix, int count) {
+        List<String> urls = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            urls.add(prefix + "k" + i);
+        }
+        return urls;
+    }
+
+    private BatchOptions options() {
+        return new BatchOptions().setManaged(false);
+    }
+
+    @Test
+    public void testGlobalAndPerPanLimits() {
+        SharedPanTools.register("qk", tool);
+        SharedPanTools.register("uc", tool);
+        List<String> urls = new ArrayList<>(urls("https://pan.quark.cn/s/", 10));
+        urls.addAll(urls("https://drive.uc.cn/s/", 10));
+
+        List<BatchResult> results = Collections.synchronizedList(new ArrayList<>());
+        ParserBatch batch = ParserBatch.submit(urls, options().setMaxConcurrency(5).setPerPanConcurrency(3), results::add);
+        // quark 达到 3 个上限后轮到 uc
+        assertEquals(5, batch.inFlight());
+        assertEquals(15, batch.queued());
+        while (tool.pendingCount() > 0) {
+            tool.completeOldest();
+        }
+
+        assertEquals(20, results.size());
+        assertEquals(5, tool.maxTotal);
+        assertEquals(3, (int) tool.maxRunning.get("qk"));
+        assertEquals(3, (int) tool.maxRunning.get("uc"));
+        BatchSummary summary = batch.future().result();
+        assertEquals(20, summary.getTotal());
+        assertEquals(20, summary.getSucceeded());
+        assertEquals(0, summary.getFailed());
+        assertEquals("https://dl.example.com/k0", results.get(0).getDirectLink());
+        assertEquals("qk", results.get(0).getType());
+    }
+
+    @Test
+    public void testPanOverride() {
+        SharedPanTools.register("qk", tool);
+        ParserBatch batch = ParserBatch.submit(urls("https://pan.quark.cn/s/", 6),
+                options().setPanConcurrency("QK", 1), r -> {
+                });
+        assertEquals(1, batch.inFlight());
+        while (tool.pendingCount() > 0) {
+            tool.completeOldest();
+        }
+        assertEquals(1, (int) tool.maxRunning.get("qk"));
+        assertTrue(batch.future().succeeded());
+    }
+
+    @Test
+    public void testPerItemErrors() {
+        SharedPanTools.register("qk", (SharedPanTool) context -> {
+            throw new IllegalStateException("boom");
+        });
+        List<BatchResult> results = new ArrayList<>();
+        ParserBatch batch = ParserBatch.submit(List.of("not a url", "https://pan.quark.cn/s/abc"), options(), results::add);
+
+        assertEquals(2, results.size());
+        results.sort((a, b) -> a.getIndex() - b.getIndex());
+        assertTrue(results.get(0).failed());
+        assertNull(results.get(0).getType());
+        assertTrue(results.get(0).getError() instanceof IllegalArgumentException);
+        assertTrue(results.get(1).failed());
+        assertEquals("boom", results.get(1).getError().getMessage());
+        assertEquals(2, batch.future().result().getFailed());
+    }
+
+    @Test
+    public void testParseTimeout() throws Exception {
+        SharedPanTools.register("qk", tool);
+        List<BatchResult> results = Collections.synchronizedList(new ArrayList<>());
+        ParserBatch batch = ParserBatch.submit(urls("https://pan.quark.cn/s/", 2),
+                options().setParseTimeout(Duration.ofMillis(100)), results::add);
+        BatchSummary summary = batch.future().toCompletionStage().toCompletableFuture().get(5, TimeUnit.SECONDS);
+        assertEquals(2, summary.getFailed());
+        assertTrue(results.get(0).getError().getMessage().contains("解析超时"));
+        assertTrue(results.get(0).getShareLinkInfo().getDeadline() > 0);
+    }
+
+    @Test
+    public void testEmptyBatch() {
+        ParserBatch batch = ParserBatch.submit(List.of(), options(), r -> fail());
+        assertEquals(0, batch.future().result().getTotal());
+    }
+
+    @Test
+    public void testCancel() {
+        SharedPanTools.register("qk", tool);
+        List<BatchResult> results = new ArrayList<>();
+        ParserBatch batch = ParserBatch.submit(urls("https://pan.quark.cn/s/", 10),
+                options().setPerPanConcurrency(2), results::add);
+        batch.cancel();
+        // 已开始的解析也被取消
+        assertEquals(10, results.size());
+        assertTrue(results.stream().allMatch(r -> r.getError() instanceof CancellationException));
+        assertTrue(tool.pending.get(0).future().isCancelled());
+        assertEquals(0, batch.inFlight());
+        assertEquals(0, batch.future().result().getSucceeded());
+        assertEquals(10, batch.future().result().getFailed());
+    }
+
+    @Test
+    public void testPublisherDemand() {
+        SharedPanTools.register("qk", tool);
+        Flow.Publisher<BatchResult> publisher = ParserBatch.publisher(urls("https://pan.quark.cn/s/", 5), options());
+        List<BatchResult> received = new ArrayList<>();
+        boolean[] completed = new boolean[1];
+        Flow.Subscription[] subscription = new Flow.Subscription[1];
+        publisher.subscribe(new Flow.Subscriber<>() {
+            @Override
+            public void onSubscribe(Flow.Subscription s) {
+                subscription[0] = s;
+            }
+
+            @Override
+            public void onNext(BatchResult item) {
+                received.add(item);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                fail(throwable.toString());
+            }
+
+            @Override
+            public void onComplete() {
+                completed[0] = true;
+            }
+        });
+        // 未请求时不开始解析
+        assertEquals(0, tool.pendingCount());
+        subscription[0].request(2);
+        assertEquals(2, tool.pendingCount());
+        tool.completeOldest();
+        assertEquals(1, received.size());
+        // 已交付 1 个, 仍在解析 1 个, 需求已满足
+        assertEquals(1, tool.pendingCount());
+
+        subscription[0].request(Long.MAX_VALUE);
+        while (tool.pendingCount() > 0) {
+            tool.completeOldest();
+        }
+        assertEquals(5, received.size());
+        assertTrue(completed[0]);
+    }
+
+    @Test
+    public void testPublisherCancel() {
+        SharedPanTools.register("qk", tool);
+        List<BatchResult> received = new ArrayList<>();
+        Flow.Subscription[] subscription = new Flow.Subscription[1];
+        ParserBatch.publisher(urls("https://pan.quark.cn/s/", 5), options()).subscribe(new Flow.Subscriber<>() {
+            @Override
+            public void onSubscribe(Flow.Subscription s) {
+                subscription[0] = s;
+                s.request(2);
+            }
+
+            @Override
+            public void onNext(BatchResult item) {
+                received.add(item);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                fail(throwable.toString());
+            }
+
+            @Override
+            public void onComplete() {
+                fail();
+            }
+        });
+        subscription[0].cancel();
+        tool.completeOldest();
+        tool.completeOldest();
+        assertTrue(received.isEmpty());
+        subscription[0].request(3);
+        assertEquals(0, tool.pendingCount());
+    }
+}
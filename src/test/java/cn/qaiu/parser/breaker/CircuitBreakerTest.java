@@ -0,0 +1,188 @@
+package cn.qaiu.parser.breaker;
+
+import cn.qaiu.entity.ShareLinkInfo;
+import cn.qaiu.parser.FailureType;
+import cn.qaiu.parser.ParseFailureException;
+import cn.qaiu.parser.ParserCreate;
+import cn.qaiu.parser.SharedPanTool;
+import cn.qaiu.parser.SharedPanTools;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * 测试网盘熔断器
+ */
+public class CircuitBreakerTest {
+
+    private final List<String> changes = new CopyOnWriteArrayList<>();
+    private final CircuitBreakerListener listener = (name, from, to) -> changes.add(name + ":" + from + "->" + to);
+
+    @After
+    public void tearDown() {
+        CircuitBreakers.removeListener(listener);
+        CircuitBreakers.setOptions(new CircuitBreakerOptions());
+        CircuitBreakers.clear();
+        SharedPanTools.clear();
+    }
+
+    private CircuitBreaker breaker(Duration openDuration) {
+        return new CircuitBreaker("t", new CircuitBreakerOptions()
+                .setWindowSize(4).setMinimumCalls(4).setFailureRateThreshold(0.5)
+                .setOpenDuration(openDuration).setHalfOpenCalls(2), List.of(listener));
+    }
+
+    private static Future<String> transientFailure() {
+        return Future.failedFuture(new IOException("connect timed out"));
+    }
+
+    @Test
+    public void testOpensOnFailureRate() {
+        CircuitBreaker breaker = breaker(Duration.ofMinutes(1));
+        breaker.execute(() -> Future.succeededFuture("ok"));
+        breaker.execute(() -> Future.succeededFuture("ok"));
+        breaker.execute(CircuitBreakerTest::transientFailure);
+        assertEquals(CircuitState.CLOSED, breaker.getState());
+        breaker.execute(CircuitBreakerTest::transientFailure);
+        assertEquals(CircuitState.OPEN, breaker.getState());
+        assertEquals(List.of("t:CLOSED->OPEN"), changes);
+
+        AtomicInteger calls = new AtomicInteger();
+        Future<String> rejected = breaker.execute(() -> {
+            calls.incrementAndGet();
+            return Future.succeededFuture("ok");
+        });
+        assertEquals(0, calls.get());
+        assertTrue(rejected.cause() instanceof CircuitOpenException);
+        assertEquals(FailureType.TRANSIENT, FailureType.of(rejected.cause()));
+        assertTrue(((CircuitOpenException) rejected.cause()).getRetryAfterMillis() > 50_000);
+    }
+
+    @Test
+    public void testPermanentFailuresDoNotOpen() {
+        CircuitBreaker breaker = breaker(Duration.ofMinutes(1));
+        for (int i = 0; i < 8; i++) {
+            breaker.execute(() -> Future.failedFuture(new ParseFailureException("分享已失效", FailureType.PERMANENT)));
+        }
+        assertEquals(CircuitState.CLOSED, breaker.getState());
+        assertEquals(0, breaker.getFailureRate(), 0);
+
+        // 抛出异常计为失败
+        for (int i = 0; i < 4; i++) {
+            breaker.execute(() -> {
+                throw new IllegalStateException("boom");
+            });
+        }
+        assertEquals(CircuitState.OPEN, breaker.getState());
+    }
+
+    @Test
+    public void testHalfOpenProbes() throws Exception {
+        CircuitBreaker breaker = breaker(Duration.ofMillis(50));
+        for (int i = 0; i < 4; i++) {
+            breaker.execute(CircuitBreakerTest::transientFailure);
+        }
+        assertEquals(CircuitState.OPEN, breaker.getState());
+        Thread.sleep(80);
+
+        // 只放行 2 个探测
+        Promise<String> probe1 = Promise.promise();
+        Promise<String> probe2 = Promise.promise();
+        breaker.execute(probe1::future);
+        breaker.execute(probe2::future);
+        assertEquals(CircuitState.HALF_OPEN, breaker.getState());
+        assertTrue(breaker.execute(() -> Future.succeededFuture("x")).cause() instanceof CircuitOpenException);
+
+        probe1.complete("ok");
+        assertEquals(CircuitState.HALF_OPEN, breaker.getState());
+        probe2.fail(new IOException("reset"));
+        assertEquals(CircuitState.OPEN, breaker.getState());
+
+        Thread.sleep(80);
+        breaker.execute(() -> Future.succeededFuture("ok"));
+        breaker.execute(() -> Future.succeededFuture("ok"));
+        assertEquals(CircuitState.CLOSED, breaker.getState());
+        assertEquals(List.of("t:CLOSED->OPEN", "t:OPEN->HALF_OPEN", "t:HALF_OPEN->OPEN",
+                "t:OPEN->HALF_OPEN", "t:HALF_OPEN->CLOSED"), changes);
+    }
+
+    @Test
+    public void testCancelledProbeReleasesPermit() throws Exception {
+        CircuitBreaker breaker = breaker(Duration.ofMillis(50));
+        for (int i = 0; i < 4; i++) {
+            breaker.execute(CircuitBreakerTest::transientFailure);
+        }
+        Thread.sleep(80);
+
+        Promise<String> probe1 = Promise.promise();
+        Promise<String> probe2 = Promise.promise();
+        Future<String> first = breaker.execute(probe1::future);
+        breaker.execute(probe2::future);
+        assertTrue(breaker.execute(() -> Future.succeededFuture("x")).cause() instanceof CircuitOpenException);
+
+        // 取消传给任务, 不计为失败, 探测名额让出
+        assertTrue(first.cancel());
+        assertTrue(probe1.future().isCancelled());
+        assertEquals(CircuitState.HALF_OPEN, breaker.getState());
+        breaker.execute(() -> Future.succeededFuture("ok"));
+        probe2.complete("ok");
+        assertEquals(CircuitState.CLOSED, breaker.getState());
+    }
+
+    @Test
+    public void testStaleResultsIgnored() {
+        CircuitBreaker breaker = breaker(Duration.ofMinutes(1));
+        List<Promise<String>> slow = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            Promise<String> promise = Promise.promise();
+            slow.add(promise);
+            breaker.execute(promise::future);
+        }
+        for (int i = 0; i < 4; i++) {
+            breaker.execute(CircuitBreakerTest::transientFailure);
+        }
+        assertEquals(CircuitState.OPEN, breaker.getState());
+        breaker.reset();
+        // 熔断前开始的调用不计入新的统计
+        slow.forEach(p -> p.fail(new IOException("timeout")));
+        assertEquals(CircuitState.CLOSED, breaker.getState());
+        assertEquals(0, breaker.getFailureRate(), 0);
+    }
+
+    @Test
+    public void testManagedToolUsesProviderBreaker() {
+        CircuitBreakers.setOptions(new CircuitBreakerOptions().setMinimumCalls(2).setWindowSize(2));
+        CircuitBreakers.addListener(listener);
+        AtomicInteger calls = new AtomicInteger();
+        SharedPanTools.register("qk", (SharedPanTool) context -> {
+            calls.incrementAndGet();
+            return Future.failedFuture(new IOException("connect timed out"));
+        });
+        for (int i = 0; i < 3; i++) {
+            Future<String> future = ParserCreate.fromShareUrl("https://pan.quark.cn/s/cb" + i).createManagedTool().parse();
+            assertTrue(future.failed());
+        }
+        assertEquals(2, calls.get());
+        assertEquals(CircuitState.OPEN, CircuitBreakers.states().get("qk"));
+        assertEquals(List.of("qk:CLOSED->OPEN"), changes);
+    }
+
+    @Test
+    public void testGenericTypesKeyedByHost() {
+        ShareLinkInfo ce = ShareLinkInfo.newBuilder().type("ce").shareUrl("https://Pan.Example.com/s/abc").build();
+        assertEquals("ce@pan.example.com", CircuitBreakers.nameOf(ce));
+        ShareLinkInfo qk = ShareLinkInfo.newBuilder().type("QK").shareUrl("https://pan.quark.cn/s/abc").build();
+        assertEquals("qk", CircuitBreakers.nameOf(qk));
+        assertSame(CircuitBreakers.forShareLink(qk), CircuitBreakers.get("qk"));
+    }
+}
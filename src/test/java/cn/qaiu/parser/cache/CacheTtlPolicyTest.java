@@ -0,0 +1,68 @@
+package cn.qaiu.parser.cache;
+
+import cn.qaiu.entity.ShareLinkInfo;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+import static org.junit.Assert.*;
+
+/**
+ * 测试缓存时长策略和直链过期时间提取
+ */
+public class CacheTtlPolicyTest {
+
+    private static ShareLinkInfo info(String type) {
+        return ShareLinkInfo.newBuilder().type(type).shareKey("abc").build();
+    }
+
+    @Test
+    public void testDefaultTtlPerTemplate() {
+        CacheTtlPolicy policy = new CacheTtlPolicy();
+        long now = System.currentTimeMillis();
+        assertEquals(Duration.ofMinutes(10).toMillis(), policy.ttlMillis(info("lz"), "https://a.com/f", now));
+        assertEquals(Duration.ofMinutes(5).toMillis(), policy.ttlMillis(info("qq"), "https://a.com/f", now));
+        assertEquals(CacheTtlPolicy.DEFAULT_TTL.toMillis(), policy.ttlMillis(info("myjs"), "https://a.com/f", now));
+    }
+
+    @Test
+    public void testOverride() {
+        CacheTtlPolicy policy = new CacheTtlPolicy().setTtl("LZ", Duration.ZERO);
+        assertEquals(0, policy.ttlMillis(info("lz"), "https://a.com/f", System.currentTimeMillis()));
+    }
+
+    @Test
+    public void testExpiryHintShortensTtl() {
+        long now = System.currentTimeMillis();
+        long expires = now / 1000 + 120;
+        String url = "https://cdn.example.com/file.zip?e=" + expires + "&sign=xyz";
+        long ttl = new CacheTtlPolicy().ttlMillis(info("lz"), url, now);
+        assertTrue(ttl > 0 && ttl <= 120_000 - CacheTtlPolicy.SAFETY_MARGIN.toMillis());
+    }
+
+    @Test
+    public void testAlmostExpiredLinkIsNotCached() {
+        long now = System.currentTimeMillis();
+        String url = "https://cdn.example.com/file.zip?expires=" + (now + 10_000);
+        assertEquals(0, new CacheTtlPolicy().ttlMillis(info("lz"), url, now));
+    }
+
+    @Test
+    public void testExpiresAt() {
+        long future = System.currentTimeMillis() / 1000 + 3600;
+        assertEquals(future * 1000, CacheTtlPolicy.expiresAt("https://a.com/f?t=" + future));
+        // 签发时间(早于当前)不视为过期时间
+        assertEquals(-1, CacheTtlPolicy.expiresAt("https://a.com/f?t=1600000000"));
+        assertEquals(-1, CacheTtlPolicy.expiresAt("https://a.com/f?t=abc"));
+        assertEquals(-1, CacheTtlPolicy.expiresAt("https://a.com/f"));
+        assertEquals(-1, CacheTtlPolicy.expiresAt("not a url"));
+
+        LocalDateTime signed = LocalDateTime.now(ZoneOffset.UTC).withNano(0);
+        String amzDate = signed.format(DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'"));
+        assertEquals(signed.toInstant(ZoneOffset.UTC).toEpochMilli() + 900_000,
+                CacheTtlPolicy.expiresAt("https://s3.example.com/f?X-Amz-Date=" + amzDate + "&X-Amz-Expires=900"));
+    }
+}
@@ -0,0 +1,50 @@
+package cn.qaiu.parser.cache;
+
+import org.junit.Test;
+
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * 测试进程内 LRU 缓存
+ */
+public class InMemoryResultCacheTest {
+
+    private static CacheEntry entry(String value, long ttl) {
+        return new CacheEntry(value, Map.of(), System.currentTimeMillis() + ttl);
+    }
+
+    @Test
+    public void testGetAndExpire() {
+        InMemoryResultCache cache = new InMemoryResultCache();
+        cache.put("a", entry("A", 60_000));
+        cache.put("b", entry("B", -1));
+        assertEquals("A", cache.get("a").getValue());
+        assertNull(cache.get("b"));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testEvictsLeastRecentlyUsed() {
+        InMemoryResultCache cache = new InMemoryResultCache(2);
+        cache.put("a", entry("A", 60_000));
+        cache.put("b", entry("B", 60_000));
+        cache.get("a");
+        cache.put("c", entry("C", 60_000));
+        assertNotNull(cache.get("a"));
+        assertNull(cache.get("b"));
+        assertNotNull(cache.get("c"));
+    }
+
+    @Test
+    public void testInvalidateAndClear() {
+        InMemoryResultCache cache = new InMemoryResultCache();
+        cache.put("a", entry("A", 60_000));
+        cache.put("b", entry("B", 60_000));
+        cache.invalidate("a");
+        assertNull(cache.get("a"));
+        cache.clear();
+        assertEquals(0, cache.size());
+    }
+}
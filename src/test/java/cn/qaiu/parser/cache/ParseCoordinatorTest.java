@@ -0,0 +1,167 @@
+package cn.qaiu.parser.cache;
+
+import cn.qaiu.entity.FileInfo;
+import cn.qaiu.entity.ShareLinkInfo;
+import cn.qaiu.parser.FailureType;
+import cn.qaiu.parser.ParseFailureException;
+import cn.qaiu.parser.cache.ParseCoordinator.Operation;
+import io.vertx.core.Future;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * 测试 ParseCoordinator 的结果缓存和负缓存
+ */
+public class ParseCoordinatorTest {
+
+    private static ShareLinkInfo info() {
+        return ShareLinkInfo.newBuilder().type("lz").shareKey("abc").otherParam(new HashMap<>()).build();
+    }
+
+    private static Future<String> parse(ShareLinkInfo info, AtomicInteger calls) {
+        calls.incrementAndGet();
+        info.getOtherParam().put("downloadUrl", "https://down.example.com/f");
+        return Future.succeededFuture("https://down.example.com/f");
+    }
+
+    @Test
+    public void testRepeatedParseHitsCache() {
+        ParseCoordinator coordinator = new ParseCoordinator();
+        AtomicInteger calls = new AtomicInteger();
+        ShareLinkInfo first = info();
+        assertEquals("https://down.example.com/f",
+                coordinator.execute(Operation.PARSE, first, () -> parse(first, calls)).result());
+
+        ShareLinkInfo second = info();
+        assertEquals("https://down.example.com/f",
+                coordinator.<String>execute(Operation.PARSE, second, () -> parse(second, calls)).result());
+        assertEquals(1, calls.get());
+        assertEquals("https://down.example.com/f", second.getOtherParam().get("downloadUrl"));
+
+        // 不同操作类型互不影响
+        coordinator.execute(Operation.BY_ID, second, () -> parse(second, calls));
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    public void testCachedResultIsNotShared() {
+        ParseCoordinator coordinator = new ParseCoordinator();
+        ShareLinkInfo first = info();
+        List<FileInfo> files = coordinator.<List<FileInfo>>execute(Operation.FILE_LIST, first, () -> {
+            first.getOtherParam().put("fileInfo", new FileInfo().setFileName("a.zip"));
+            return Future.succeededFuture(new ArrayList<>(List.of(new FileInfo().setFileName("a.zip"))));
+        }).result();
+        // 调用方修改自己拿到的结果
+        files.get(0).setFileName("changed.zip");
+        files.add(new FileInfo());
+        ((FileInfo) first.getOtherParam().get("fileInfo")).setFileName("changed.zip");
+
+        for (int i = 0; i < 2; i++) {
+            ShareLinkInfo next = info();
+            List<FileInfo> cached = coordinator.<List<FileInfo>>execute(Operation.FILE_LIST, next,
+                    () -> Future.failedFuture("不应再次解析")).result();
+            assertEquals(1, cached.size());
+            assertEquals("a.zip", cached.get(0).getFileName());
+            assertEquals("a.zip", ((FileInfo) next.getOtherParam().get("fileInfo")).getFileName());
+            cached.get(0).setFileName("changed.zip");
+            ((FileInfo) next.getOtherParam().get("fileInfo")).setFileName("changed.zip");
+        }
+    }
+
+    @Test
+    public void testFailureIsNotCached() {
+        ParseCoordinator coordinator = new ParseCoordinator();
+        AtomicInteger calls = new AtomicInteger();
+        ShareLinkInfo info = info();
+        coordinator.execute(Operation.PARSE, info, () -> {
+            calls.incrementAndGet();
+            return Future.failedFuture("网络超时");
+        });
+        coordinator.execute(Operation.PARSE, info, () -> parse(info, calls));
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    public void testPermanentFailureIsNegativelyCached() {
+        ParseCoordinator coordinator = new ParseCoordinator();
+        AtomicInteger calls = new AtomicInteger();
+        ShareLinkInfo info = info();
+        Future<String> first = coordinator.execute(Operation.PARSE, info, () -> {
+            calls.incrementAndGet();
+            return Future.failedFuture(new ParseFailureException("分享已失效", FailureType.PERMANENT));
+        });
+        Future<String> second = coordinator.execute(Operation.PARSE, info(), () -> parse(info, calls));
+        assertEquals(1, calls.get());
+        assertSame(first.cause(), second.cause());
+
+        // 提取码不同视为不同的请求
+        ShareLinkInfo withPwd = info();
+        withPwd.setSharePassword("1234");
+        assertTrue(coordinator.execute(Operation.PARSE, withPwd, () -> parse(withPwd, calls)).succeeded());
+        assertEquals(2, calls.get());
+
+        coordinator.invalidate(Operation.PARSE, info());
+        assertTrue(coordinator.execute(Operation.PARSE, info(), () -> parse(info, calls)).succeeded());
+        assertEquals(3, calls.get());
+    }
+
+    @Test
+    public void testTransientFailureIsNotNegativelyCached() {
+        ParseCoordinator coordinator = new ParseCoordinator();
+        AtomicInteger calls = new AtomicInteger();
+        ShareLinkInfo info = info();
+        coordinator.execute(Operation.PARSE, info, () -> {
+            calls.incrementAndGet();
+            return Future.failedFuture(new ParseFailureException("请求超时", FailureType.TRANSIENT));
+        });
+        coordinator.execute(Operation.PARSE, info, () -> parse(info, calls));
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    public void testNegativeCacheCanBeDisabled() {
+        ParseCoordinator coordinator = new ParseCoordinator().setNegativeTtl(Duration.ZERO);
+        AtomicInteger calls = new AtomicInteger();
+        ShareLinkInfo info = info();
+        coordinator.execute(Operation.PARSE, info, () -> {
+            calls.incrementAndGet();
+            return Future.failedFuture(new ParseFailureException("分享已失效", FailureType.PERMANENT));
+        });
+        coordinator.execute(Operation.PARSE, info, () -> parse(info, calls));
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    public void testDisabledCacheAndInvalidate() {
+        AtomicInteger calls = new AtomicInteger();
+        ParseCoordinator coordinator = new ParseCoordinator();
+        ShareLinkInfo info = info();
+        coordinator.execute(Operation.PARSE, info, () -> parse(info, calls));
+        coordinator.invalidate(Operation.PARSE, info());
+        coordinator.execute(Operation.PARSE, info(), () -> parse(info, calls));
+        assertEquals(2, calls.get());
+
+        coordinator.setResultCache(null);
+        coordinator.execute(Operation.PARSE, info(), () -> parse(info, calls));
+        assertEquals(3, calls.get());
+    }
+
+    @Test
+    public void testCacheKeyHidesCredentials() {
+        ShareLinkInfo info = info();
+        info.setSharePassword("1234");
+        info.getOtherParam().put("auths", "cookie=secret");
+        String key = ParseCoordinator.cacheKey(Operation.PARSE, info);
+        assertTrue(key.startsWith("PARSE:lz:abc:"));
+        assertFalse(key.contains("1234"));
+        assertFalse(key.contains("secret"));
+        assertEquals("PARSE:lz:abc", ParseCoordinator.cacheKey(Operation.PARSE, info()));
+    }
+}
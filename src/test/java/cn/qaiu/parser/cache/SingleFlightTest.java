@@ -0,0 +1,103 @@
+package cn.qaiu.parser.cache;
+
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * 测试 SingleFlight 的并发合并
+ */
+public class SingleFlightTest {
+
+    @Test
+    public void testConcurrentCallsShareOneExecution() throws Exception {
+        SingleFlight<String> singleFlight = new SingleFlight<>();
+        AtomicInteger executions = new AtomicInteger();
+        Promise<String> upstream = Promise.promise();
+        int threads = 16;
+        CountDownLatch ready = new CountDownLatch(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<java.util.concurrent.Future<Future<String>>> results = new ArrayList<>();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            for (int i = 0; i < threads; i++) {
+                results.add(pool.submit(() -> {
+                    ready.countDown();
+                    start.await();
+                    return singleFlight.execute("lz:abc", () -> {
+                        executions.incrementAndGet();
+                        return upstream.future();
+                    });
+                }));
+            }
+            ready.await();
+            start.countDown();
+            List<Future<String>> futures = new ArrayList<>();
+            for (java.util.concurrent.Future<Future<String>> result : results) {
+                futures.add(result.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, executions.get());
+            assertTrue(singleFlight.isInFlight("lz:abc"));
+
+            upstream.complete("https://example.com/file");
+            for (Future<String> future : futures) {
+                assertEquals("https://example.com/file", future.toCompletionStage().get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(0, singleFlight.inFlight());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testCompletedFlightIsNotReused() {
+        SingleFlight<Integer> singleFlight = new SingleFlight<>();
+        AtomicInteger executions = new AtomicInteger();
+        assertEquals(Integer.valueOf(1), singleFlight.execute("k", () ->
+                Future.succeededFuture(executions.incrementAndGet())).result());
+        assertEquals(Integer.valueOf(2), singleFlight.execute("k", () ->
+                Future.succeededFuture(executions.incrementAndGet())).result());
+    }
+
+    @Test
+    public void testDifferentKeysRunSeparately() {
+        SingleFlight<String> singleFlight = new SingleFlight<>();
+        Promise<String> a = Promise.promise();
+        Promise<String> b = Promise.promise();
+        Future<String> fa = singleFlight.execute("a", a::future);
+        Future<String> fb = singleFlight.execute("b", b::future);
+        assertEquals(2, singleFlight.inFlight());
+        a.complete("A");
+        b.complete("B");
+        assertEquals("A", fa.result());
+        assertEquals("B", fb.result());
+    }
+
+    @Test
+    public void testFailureIsSharedAndThrowingTaskFails() {
+        SingleFlight<String> singleFlight = new SingleFlight<>();
+        Promise<String> upstream = Promise.promise();
+        Future<String> first = singleFlight.execute("k", upstream::future);
+        Future<String> second = singleFlight.execute("k", () -> Future.succeededFuture("unused"));
+        upstream.fail(new IllegalStateException("分享已失效"));
+        assertTrue(first.failed());
+        assertSame(first.cause(), second.cause());
+
+        Future<String> thrown = singleFlight.execute("k", () -> {
+            throw new IllegalArgumentException("boom");
+        });
+        assertTrue(thrown.failed());
+        assertTrue(thrown.cause() instanceof IllegalArgumentException);
+        assertEquals(0, singleFlight.inFlight());
+    }
+}
@@ -0,0 +1,63 @@
+package cn.qaiu.parser.customjs;
+
+import io.vertx.core.CancellationToken;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * 测试 JS HTTP 客户端的请求取消
+ */
+public class JsHttpClientTest {
+
+    private MockWebServer server;
+
+    @Before
+    public void setup() throws IOException {
+        server = new MockWebServer();
+        server.start();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    @Test
+    public void testCancellationInterruptsRequest() throws Exception {
+        server.enqueue(new MockResponse().setBody("slow").setHeadersDelay(10, TimeUnit.SECONDS));
+        CancellationToken token = new CancellationToken();
+        JsHttpClient client = new JsHttpClient(null, 0, token);
+
+        CompletableFuture<JsHttpClient.JsHttpResponse> request =
+                CompletableFuture.supplyAsync(() -> client.get(server.url("/").toString()));
+        assertNotNull(server.takeRequest(5, TimeUnit.SECONDS));
+        token.cancel();
+
+        try {
+            request.get(3, TimeUnit.SECONDS);
+            fail("取消后请求应失败");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof RuntimeException);
+        }
+    }
+
+    @Test
+    public void testCancelledTokenFailsFast() {
+        CancellationToken token = new CancellationToken();
+        token.cancel();
+        JsHttpClient client = new JsHttpClient(null, 0, token);
+
+        assertThrows(RuntimeException.class, () -> client.get(server.url("/").toString()));
+        assertEquals(0, server.getRequestCount());
+    }
+}
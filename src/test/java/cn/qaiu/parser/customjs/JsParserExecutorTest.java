@@ -0,0 +1,65 @@
+package cn.qaiu.parser.customjs;
+
+import cn.qaiu.entity.ShareLinkInfo;
+import cn.qaiu.parser.custom.CustomParserConfig;
+import io.vertx.core.Vertx;
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * 测试 JS 解析器的执行线程
+ */
+public class JsParserExecutorTest {
+
+    private static final String LOOP_PREFIX = "vertx-eventloop-thread-";
+
+    private static JsParserExecutor executor() {
+        CustomParserConfig config = CustomParserConfig.builder()
+                .type("thread_js")
+                .displayName("线程测试")
+                .isJsParser(true)
+                .jsCode("var loaded = '' + java.lang.Thread.currentThread().getName();\n"
+                        + "function parse(shareLinkInfo, http, logger) {\n"
+                        + "    return loaded + '|' + java.lang.Thread.currentThread().getName();\n"
+                        + "}")
+                .build();
+        return new JsParserExecutor(ShareLinkInfo.newBuilder().type("thread_js").shareKey("k").build(), config);
+    }
+
+    @Test
+    public void testScriptNeverRunsOnEventLoop() throws Exception {
+        CompletableFuture<String> result = new CompletableFuture<>();
+        Vertx.eventLoops().next().execute(() -> executor().parse().onComplete(ar -> {
+            if (ar.failed()) {
+                result.completeExceptionally(ar.cause());
+            } else {
+                result.complete(ar.result() + "|" + Thread.currentThread().getName());
+            }
+        }));
+
+        String[] threads = result.get(5, TimeUnit.SECONDS).split("\\|");
+        assertFalse("脚本加载不应在事件循环上执行", threads[0].startsWith(LOOP_PREFIX));
+        assertFalse("parse函数不应在事件循环上执行", threads[1].startsWith(LOOP_PREFIX));
+        assertTrue("结果回到发起调用的事件循环", threads[2].startsWith(LOOP_PREFIX));
+    }
+
+    @Test
+    public void testScriptErrorFailsFuture() throws Exception {
+        CustomParserConfig config = CustomParserConfig.builder()
+                .type("broken_js")
+                .displayName("脚本错误")
+                .isJsParser(true)
+                .jsCode("function parse( {")
+                .build();
+        JsParserExecutor tool = new JsParserExecutor(ShareLinkInfo.newBuilder().type("broken_js").build(), config);
+
+        Throwable cause = tool.parse().toCompletionStage().toCompletableFuture()
+                .handle((r, e) -> e).get(5, TimeUnit.SECONDS);
+        assertNotNull(cause);
+        assertTrue(cause.getMessage().contains("JavaScript引擎初始化失败"));
+    }
+}
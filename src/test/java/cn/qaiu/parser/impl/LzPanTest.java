@@ -1,6 +1,7 @@
 package cn.qaiu.parser.impl;
 
 import org.junit.After;
+import org.junit.Before;
 import org.junit.Test;
 
 import cn.qaiu.entity.FileInfo;
@@ -16,8 +17,15 @@ public class LzPanTest {
     
     private Vertx vertx;
     
+    @Before
+    public void setUp() {
+        // 用 awaitTermination 等待解析完成
+        Vertx.setTaskTracking(true);
+    }
+
     @After
     public void tearDown() {
+        Vertx.setTaskTracking(false);
         // 测试结束后关闭Vertx实例
         if (vertx != null) {
             vertx.close();
@@ -18,6 +18,7 @@ public class PanToolTest {
 
     @Before
     public void setup() {
+        Vertx.setTaskTracking(true);
         vertx = Vertx.vertx();
         client = WebClient.create();
         shareLinkInfo = new ShareLinkInfo.Builder()
@@ -27,6 +28,7 @@ public class PanToolTest {
     
     @After
     public void tearDown() {
+        Vertx.setTaskTracking(false);
         if (vertx != null) {
             vertx.close();
         }
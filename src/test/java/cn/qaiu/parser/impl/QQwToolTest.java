@@ -16,6 +16,7 @@ public class QQwToolTest {
 
     @Before
     public void setup() {
+        Vertx.setTaskTracking(true);
         vertx = Vertx.vertx();
         shareLinkInfo = new ShareLinkInfo.Builder()
             .shareUrl("https://example.com/test-share")
@@ -25,6 +26,7 @@ public class QQwToolTest {
     
     @After
     public void tearDown() {
+        Vertx.setTaskTracking(false);
         if (vertx != null) {
             vertx.close();
         }
@@ -1,6 +1,7 @@
 package cn.qaiu.parser.impl;
 
 import org.junit.After;
+import org.junit.Before;
 import org.junit.Test;
 
 import cn.qaiu.parser.ParserCreate;
@@ -21,8 +22,15 @@ public class WpsPanTest {
     
     private Vertx vertx;
     
+    @Before
+    public void setUp() {
+        // 用 awaitTermination 等待解析完成
+        Vertx.setTaskTracking(true);
+    }
+
     @After
     public void tearDown() {
+        Vertx.setTaskTracking(false);
         if (vertx != null) {
             vertx.close();
         }
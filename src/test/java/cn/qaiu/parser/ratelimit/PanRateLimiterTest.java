@@ -0,0 +1,149 @@
+package cn.qaiu.parser.ratelimit;
+
+import cn.qaiu.entity.ShareLinkInfo;
+import cn.qaiu.parser.ParseContext;
+import io.vertx.core.Future;
+import io.vertx.core.MultiMap;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * 测试按网盘限速
+ */
+public class PanRateLimiterTest {
+
+    @After
+    public void tearDown() {
+        PanRateLimits.reset();
+    }
+
+    private static long await(Future<Void> future) throws Exception {
+        long start = System.nanoTime();
+        future.toCompletionStage().toCompletableFuture().get(5, TimeUnit.SECONDS);
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+
+    @Test
+    public void testBurstThenPaced() throws Exception {
+        PanRateLimiter limiter = new PanRateLimiter("t", RateLimit.of(20, 3));
+        for (int i = 0; i < 3; i++) {
+            assertTrue(limiter.acquire("a.com").succeeded());
+        }
+        List<Future<Void>> waiting = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            waiting.add(limiter.acquire("a.com"));
+        }
+        assertFalse(waiting.get(0).isComplete());
+        assertEquals(3, limiter.metrics().get(0).getQueued());
+        // 其他主机独立计数
+        assertTrue(limiter.acquire("b.com").succeeded());
+
+        long start = System.nanoTime();
+        for (Future<Void> future : waiting) {
+            await(future);
+        }
+        // 3 个令牌以每秒 20 个补充, 约 150ms
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 100);
+        assertEquals(0, limiter.metrics().stream().mapToInt(RateLimitMetrics::getQueued).sum());
+    }
+
+    @Test
+    public void testCancelledWaitersReleaseNoToken() throws Exception {
+        PanRateLimiter limiter = new PanRateLimiter("t", RateLimit.of(5, 1));
+        assertTrue(limiter.acquire("a.com").succeeded());
+        Future<Void> abandoned = limiter.acquire("a.com");
+        Future<Void> next = limiter.acquire("a.com");
+        assertEquals(2, limiter.metrics().get(0).getQueued());
+
+        assertTrue(abandoned.cancel());
+        assertEquals("取消的等待移出队列", 1, limiter.metrics().get(0).getQueued());
+        // 下一个令牌直接给仍在等待的请求
+        // 每 200ms 一个令牌, 被取消的等待若仍占用令牌则需约 400ms
+        assertTrue(await(next) < 350);
+        assertEquals(0, limiter.metrics().get(0).getQueued());
+    }
+
+    @Test
+    public void testThrottleResponseSlowsDownAndRecovers() {
+        PanRateLimiter limiter = new PanRateLimiter("t", RateLimit.of(10, 5));
+        limiter.acquire("a.com");
+        limiter.onResponse("a.com", 429, MultiMap.caseInsensitiveMultiMap());
+        RateLimitMetrics metrics = limiter.metrics().get(0);
+        assertEquals(5.0, metrics.getCurrentRate(), 0.01);
+        assertEquals(1, metrics.getThrottledCount());
+        assertEquals(0, metrics.getAvailableTokens(), 0.5);
+        assertFalse(limiter.acquire("a.com").isComplete());
+
+        // 一秒内的连续限流只降速一次
+        limiter.onResponse("a.com", 503, null);
+        assertEquals(5.0, limiter.metrics().get(0).getCurrentRate(), 0.01);
+        assertEquals(2, limiter.metrics().get(0).getThrottledCount());
+
+        for (int i = 0; i < 5; i++) {
+            limiter.onResponse("a.com", 200, null);
+        }
+        assertEquals(7.5, limiter.metrics().get(0).getCurrentRate(), 0.01);
+        for (int i = 0; i < 20; i++) {
+            limiter.onResponse("a.com", 200, null);
+        }
+        assertEquals(10.0, limiter.metrics().get(0).getCurrentRate(), 0.01);
+    }
+
+    @Test
+    public void testRetryAfterPauses() throws Exception {
+        PanRateLimiter limiter = new PanRateLimiter("t", RateLimit.of(1000, 10));
+        MultiMap headers = MultiMap.caseInsensitiveMultiMap();
+        headers.set("Retry-After", "1");
+        limiter.onResponse("a.com", 429, headers);
+        assertTrue(limiter.metrics().get(0).getPausedMillis() > 500);
+        assertTrue(await(limiter.acquire("a.com")) >= 800);
+
+        assertEquals(0, PanRateLimiter.retryAfterMillis("Wed, 21 Oct 2015 07:28:00 GMT"));
+        assertEquals(2000, PanRateLimiter.retryAfterMillis(" 2 "));
+    }
+
+    @Test
+    public void testTemplateDefaultsAndOverrides() {
+        assertNotNull(PanRateLimits.limiter("qk"));
+        assertSame(PanRateLimits.limiter("qk"), PanRateLimits.limiter("QK"));
+        assertNull(PanRateLimits.limiter("fj"));
+        assertNull(PanRateLimits.limiter("not-a-pan"));
+        assertNull(PanRateLimits.limiter(null));
+
+        PanRateLimits.setLimit("not-a-pan", RateLimit.of(2, 2));
+        assertEquals(2.0, PanRateLimits.limiter("not-a-pan").getLimit().getPermitsPerSecond(), 0);
+
+        PanRateLimiter qk = PanRateLimits.limiter("qk");
+        PanRateLimits.setLimit("qk", RateLimit.of(1, 1));
+        assertSame(qk, PanRateLimits.limiter("qk"));
+        assertEquals(1, qk.getLimit().getBurst());
+
+        PanRateLimits.setLimit("qk", null);
+        assertNull(PanRateLimits.limiter("qk"));
+        PanRateLimits.reset();
+        assertNotNull(PanRateLimits.limiter("qk"));
+    }
+
+    @Test
+    public void testMetricsAndContextClients() {
+        PanRateLimits.limiter("uc").acquire("drive.uc.cn");
+        PanRateLimits.reportThrottled("uc", "drive.uc.cn", 0);
+        RateLimitMetrics metrics = PanRateLimits.metrics().stream()
+                .filter(m -> m.getType().equals("uc"))
+                .findFirst().orElseThrow();
+        assertEquals("drive.uc.cn", metrics.getHost());
+        assertEquals(1, metrics.getThrottledCount());
+
+        ParseContext context = new ParseContext(ShareLinkInfo.newBuilder().type("uc").shareKey("k").build());
+        assertSame(PanRateLimits.limiter("uc"), context.client().throttle());
+        assertSame(PanRateLimits.limiter("uc"), context.clientNoRedirects().throttle());
+        ParseContext unlimited = new ParseContext(ShareLinkInfo.newBuilder().type("fj").shareKey("k").build());
+        assertNull(unlimited.client().throttle());
+    }
+}
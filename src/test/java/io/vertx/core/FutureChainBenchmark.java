@@ -0,0 +1,86 @@
+package io.vertx.core;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Future 链式调用开销, 每次先挂好 {@link #DEPTH} 层 map/compose 再完成源头
+ * <ul>
+ *     <li>tracking=true: 开启待处理任务统计, 等价于旧实现中每个 Future 都更新全局计数器</li>
+ *     <li>completableFutureChain: 同样深度的 CompletableFuture 链, 旧实现的底层开销</li>
+ * </ul>
+ * 运行: mvn test-compile 后执行 main 方法, 依次以 1/4/16/64 线程运行, 对比吞吐量随线程数的变化
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FutureChainBenchmark {
+
+    static final int DEPTH = 8;
+
+    @Param({"false", "true"})
+    public boolean tracking;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Vertx.setTaskTracking(tracking);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        Vertx.setTaskTracking(false);
+    }
+
+    @Benchmark
+    public Integer mapChain() {
+        Promise<Integer> promise = Promise.promise();
+        Future<Integer> future = promise.future();
+        for (int i = 0; i < DEPTH; i++) {
+            future = future.map(v -> v + 1);
+        }
+        promise.complete(0);
+        return future.result();
+    }
+
+    @Benchmark
+    public Integer composeChain() {
+        Promise<Integer> promise = Promise.promise();
+        Future<Integer> future = promise.future();
+        for (int i = 0; i < DEPTH; i++) {
+            future = future.compose(v -> Future.succeededFuture(v + 1));
+        }
+        promise.complete(0);
+        return future.result();
+    }
+
+    @Benchmark
+    public Integer completableFutureChain() {
+        CompletableFuture<Integer> source = new CompletableFuture<>();
+        CompletableFuture<Integer> future = source;
+        for (int i = 0; i < DEPTH; i++) {
+            future = future.thenCompose(v -> CompletableFuture.completedFuture(v + 1));
+        }
+        source.complete(0);
+        return future.getNow(null);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        for (int threads : new int[]{1, 4, 16, 64}) {
+            Options opt = new OptionsBuilder()
+                    .include(FutureChainBenchmark.class.getSimpleName())
+                    .threads(threads)
+                    .addProfiler("gc")
+                    .build();
+            new Runner(opt).run();
+        }
+    }
+}
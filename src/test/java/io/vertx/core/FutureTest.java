@@ -4,6 +4,11 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
@@ -17,6 +22,7 @@ public class FutureTest {
 
     @Before
     public void setUp() {
+        Vertx.setTaskTracking(true);
         // 清理之前的任务
         try {
             Vertx.awaitTermination(1);
@@ -33,6 +39,7 @@ public class FutureTest {
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
         }
+        Vertx.setTaskTracking(false);
     }
 
     @Test
@@ -319,6 +326,148 @@ public class FutureTest {
         System.out.println("✓ toCompletableFuture转换测试通过");
     }
 
+    @Test
+    public void testHandlersRunInRegistrationOrder() {
+        Future<String> future = new Future<>();
+        assertNull("未完成时cause应为null", future.cause());
+        StringBuilder order = new StringBuilder();
+        future.onComplete(ar -> order.append('a'));
+        future.onSuccess(v -> order.append('b'));
+        future.onFailure(e -> order.append('x'));
+        future.onComplete(ar -> order.append('c'));
+
+        future.complete("done");
+        future.fail(new RuntimeException("ignored"));
+        future.onSuccess(v -> order.append('d'));
+        assertEquals("abcd", order.toString());
+        assertTrue(future.succeeded());
+    }
+
+    @Test
+    public void testUntrackedFutures() {
+        Vertx.setTaskTracking(false);
+        try {
+            int before = Vertx.getPendingTaskCount();
+            Future<String> future = new Future<>();
+            future.map(String::length).compose(Future::succeededFuture);
+            assertEquals("关闭统计时不计数", before, Vertx.getPendingTaskCount());
+            future.complete("x");
+            assertEquals(before, Vertx.getPendingTaskCount());
+        } finally {
+            Vertx.setTaskTracking(true);
+        }
+    }
+
+    @Test
+    public void testCancelPropagatesUpstream() {
+        Future<String> source = new Future<>();
+        AtomicBoolean sourceCancelled = new AtomicBoolean();
+        source.onCancel(() -> sourceCancelled.set(true));
+        AtomicInteger steps = new AtomicInteger();
+        Future<Integer> chain = source.map(String::length)
+                .compose(len -> {
+                    steps.incrementAndGet();
+                    return Future.succeededFuture(len);
+                });
+
+        assertTrue(chain.cancel());
+        assertFalse("重复取消返回false", chain.cancel());
+        assertTrue(chain.isCancelled());
+        assertTrue("取消沿派生链传到源头", source.isCancelled());
+        assertTrue(sourceCancelled.get());
+        source.complete("ignored");
+        assertEquals("取消后不再执行后续步骤", 0, steps.get());
+    }
+
+    @Test
+    public void testCancelReachesComposedFuture() {
+        Future<String> source = new Future<>();
+        Future<Integer> inner = new Future<>();
+        Future<Integer> chain = source.compose(s -> inner).map(v -> v + 1);
+        source.complete("x");
+
+        chain.cancel();
+        assertTrue("compose 后等待的 Future 被取消", inner.isCancelled());
+    }
+
+    @Test
+    public void testCancelKeepsSharedSource() {
+        Future<String> source = new Future<>();
+        Future<Integer> first = source.map(String::length);
+        Future<String> second = source.map(String::trim);
+        AtomicReference<String> observed = new AtomicReference<>();
+        source.onSuccess(observed::set);
+
+        first.cancel();
+        assertFalse("还有其他等待者时源头不受影响", source.isComplete());
+        second.cancel();
+        assertFalse("普通回调也算等待者", source.isComplete());
+
+        source.complete(" v ");
+        assertEquals(" v ", observed.get());
+        assertTrue(first.isCancelled());
+        assertTrue(second.isCancelled());
+    }
+
+    @Test
+    public void testAny() {
+        Future<String> slow = new Future<>();
+        Future<String> fast = new Future<>();
+        Future<String> broken = new Future<>();
+        Future<String> any = Future.any(List.of(slow, fast, broken));
+        broken.fail(new RuntimeException("x"));
+        assertFalse("有一个失败时继续等待", any.isComplete());
+        fast.complete("fast");
+        assertEquals("fast", any.result());
+        assertTrue("无人等待的其余 Future 被取消", slow.isCancelled());
+
+        Future<String> a = new Future<>();
+        Future<String> b = new Future<>();
+        Future<String> allFailed = Future.any(List.of(a, b));
+        a.fail(new RuntimeException("a"));
+        b.fail(new RuntimeException("b"));
+        assertEquals("b", allFailed.cause().getMessage());
+        assertTrue(Future.<String>any(List.of()).failed());
+    }
+
+    @Test
+    public void testJoin() {
+        Future<String> ok = new Future<>();
+        Future<String> failed = new Future<>();
+        Future<List<AsyncResult<String>>> joined = Future.join(List.of(ok, failed));
+        failed.fail(new RuntimeException("x"));
+        assertFalse("失败时仍等待其余结果", joined.isComplete());
+        ok.complete("v");
+        List<AsyncResult<String>> results = joined.result();
+        assertEquals("v", results.get(0).result());
+        assertEquals("x", results.get(1).cause().getMessage());
+        assertTrue(Future.<String>join(List.of()).result().isEmpty());
+    }
+
+    @Test
+    public void testTimeout() throws Exception {
+        Future<String> never = new Future<>();
+        Future<String> timed = never.timeout(50, TimeUnit.MILLISECONDS);
+        try {
+            timed.toCompletionStage().get(5, TimeUnit.SECONDS);
+            fail("应当超时");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof TimeoutException);
+        }
+        // 取消在通知等待者之后进行
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!never.isComplete() && System.currentTimeMillis() < deadline) {
+            sleep(5);
+        }
+        assertTrue("超时后无人等待的源头被取消", never.isCancelled());
+
+        Future<String> source = new Future<>();
+        Future<String> inTime = source.timeout(Duration.ofSeconds(10));
+        source.complete("ok");
+        assertEquals("ok", inTime.result());
+        assertSame("已完成时原样返回", source, source.timeout(1, TimeUnit.MILLISECONDS));
+    }
+
     private void sleep(long millis) {
         try {
             Thread.sleep(millis);
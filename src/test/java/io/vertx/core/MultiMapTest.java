@@ -0,0 +1,167 @@
+package io.vertx.core;
+
+import io.vertx.core.http.impl.headers.HeadersMultiMap;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * 测试有序多值映射
+ */
+public class MultiMapTest {
+
+    @Test
+    public void testCaseInsensitiveLookup() {
+        MultiMap headers = MultiMap.caseInsensitiveMultiMap();
+        headers.set("Content-Type", "text/html");
+
+        assertEquals("text/html", headers.get("content-type"));
+        assertEquals("text/html", headers.get("CONTENT-TYPE"));
+        assertTrue(headers.contains("content-TYPE"));
+        assertTrue(headers.containsKey("Content-type"));
+
+        headers.set("content-type", "application/json");
+        assertEquals(1, headers.size());
+        assertEquals("application/json", headers.get("Content-Type"));
+    }
+
+    @Test
+    public void testCaseSensitiveByDefault() {
+        MultiMap params = new MultiMap();
+        params.set("key", "1");
+        params.set("Key", "2");
+
+        assertEquals("1", params.get("key"));
+        assertEquals("2", params.get("Key"));
+        assertEquals(2, params.size());
+    }
+
+    @Test
+    public void testHeadersMultiMapIsCaseInsensitive() {
+        MultiMap headers = new HeadersMultiMap();
+        headers.set("Content-Encoding", "gzip");
+        assertEquals("gzip", headers.get("content-encoding"));
+    }
+
+    @Test
+    public void testAddKeepsAllValuesInOrder() {
+        MultiMap headers = MultiMap.caseInsensitiveMultiMap();
+        headers.add("Set-Cookie", "a=1");
+        headers.add("X-Other", "x");
+        headers.add("set-cookie", "b=2");
+
+        assertEquals("a=1", headers.get("Set-Cookie"));
+        assertEquals(Arrays.asList("a=1", "b=2"), headers.getAll("SET-COOKIE"));
+        assertEquals(3, headers.size());
+
+        List<String> pairs = new ArrayList<>();
+        headers.forEach((k, v) -> pairs.add(k + "=" + v));
+        assertEquals(Arrays.asList("Set-Cookie=a=1", "X-Other=x", "set-cookie=b=2"), pairs);
+        assertEquals(2, headers.names().size());
+    }
+
+    @Test
+    public void testSetReplacesAllValues() {
+        MultiMap headers = MultiMap.caseInsensitiveMultiMap();
+        headers.add("Accept", "a").add("accept", "b");
+        headers.set("ACCEPT", "c");
+
+        assertEquals(Arrays.asList("c"), headers.getAll("accept"));
+        assertEquals(1, headers.size());
+    }
+
+    @Test
+    public void testRemove() {
+        MultiMap headers = MultiMap.caseInsensitiveMultiMap();
+        headers.add("A", "1").add("B", "2").add("a", "3");
+
+        assertEquals("1", headers.remove("a"));
+        assertFalse(headers.contains("A"));
+        assertEquals(1, headers.size());
+        assertTrue(headers.getAll("a").isEmpty());
+    }
+
+    @Test
+    public void testIteratorRemove() {
+        MultiMap headers = MultiMap.caseInsensitiveMultiMap();
+        headers.add("A", "1").add("B", "2").add("A", "3");
+
+        Iterator<Map.Entry<String, String>> it = headers.entrySet().iterator();
+        while (it.hasNext()) {
+            if ("1".equals(it.next().getValue())) {
+                it.remove();
+            }
+        }
+        assertEquals(Arrays.asList("3"), headers.getAll("a"));
+        assertEquals(2, headers.size());
+    }
+
+    @Test
+    public void testPutAllKeepsMultiValues() {
+        MultiMap source = MultiMap.caseInsensitiveMultiMap();
+        source.add("Cookie", "a=1").add("Cookie", "b=2");
+        MultiMap target = MultiMap.caseInsensitiveMultiMap();
+        target.set("cookie", "old").set("Host", "h");
+
+        target.putAll(source);
+        assertEquals(Arrays.asList("a=1", "b=2"), target.getAll("cookie"));
+        assertEquals("h", target.get("host"));
+    }
+
+    @Test
+    public void testAddAllReplacesByName() {
+        MultiMap form = new MultiMap();
+        form.set("page", "1").set("size", "20");
+        Map<String, String> update = new LinkedHashMap<>();
+        update.put("page", "2");
+        update.put("sort", "name");
+
+        form.addAll(update);
+        assertEquals(Arrays.asList("2"), form.getAll("page"));
+        assertEquals("20", form.get("size"));
+        assertEquals("name", form.get("sort"));
+        assertEquals(3, form.size());
+    }
+
+    @Test
+    public void testReadOnlyView() {
+        MultiMap headers = MultiMap.caseInsensitiveMultiMap();
+        headers.set("A", "1");
+        MultiMap view = headers.readOnlyView();
+
+        headers.add("a", "2");
+        assertEquals(Arrays.asList("1", "2"), view.getAll("A"));
+        assertTrue(view.isReadOnly());
+
+        try {
+            view.set("B", "x");
+            fail("只读视图不允许修改");
+        } catch (UnsupportedOperationException expected) {
+            // ok
+        }
+        try {
+            view.entrySet().iterator().next().setValue("x");
+            fail("只读视图的条目不允许修改");
+        } catch (UnsupportedOperationException expected) {
+            // ok
+        }
+    }
+
+    @Test
+    public void testEquals() {
+        MultiMap a = MultiMap.caseInsensitiveMultiMap();
+        a.add("X", "1").add("X", "2").add("Y", "3");
+        MultiMap b = MultiMap.caseInsensitiveMultiMap();
+        b.add("y", "3").add("x", "1").add("x", "2");
+
+        assertEquals(a, b);
+        assertEquals(a.hashCode(), b.hashCode());
+    }
+}
@@ -1,8 +1,14 @@
 package io.vertx.core;
 
+import org.junit.After;
+import org.junit.Before;
 import org.junit.Test;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.Assert.*;
 
@@ -11,6 +17,16 @@ import static org.junit.Assert.*;
  */
 public class VertxEventLoopLifecycleTest {
 
+    @Before
+    public void setUp() {
+        Vertx.setTaskTracking(true);
+    }
+
+    @After
+    public void tearDown() {
+        Vertx.setTaskTracking(false);
+    }
+
     @Test
     public void testEventLoopStartsAutomatically() {
         System.out.println("=== 测试事件循环自动启动 ===");
@@ -151,6 +167,108 @@ public class VertxEventLoopLifecycleTest {
         System.out.println("✓ 任务计数追踪测试通过");
     }
 
+    @Test
+    public void testTimersRunOnEventLoop() throws Exception {
+        Vertx vertx = Vertx.vertx();
+        try {
+            CompletableFuture<String> fired = new CompletableFuture<>();
+            long start = System.currentTimeMillis();
+            long id = vertx.setTimer(100, timerId -> fired.complete(timerId + "@" + Thread.currentThread().getName()));
+            String result = fired.get(2, TimeUnit.SECONDS);
+            assertTrue("定时器不应提前触发", System.currentTimeMillis() - start >= 100);
+            assertTrue(result.startsWith(id + "@vertx-eventloop-thread-"));
+            assertFalse("已触发的定时器不能再取消", vertx.cancelTimer(id));
+
+            AtomicInteger never = new AtomicInteger();
+            long cancelled = vertx.setTimer(200, timerId -> never.incrementAndGet());
+            assertTrue(vertx.cancelTimer(cancelled));
+            sleep(300);
+            assertEquals(0, never.get());
+            assertThrows(IllegalArgumentException.class, () -> vertx.setTimer(0, timerId -> {
+            }));
+        } finally {
+            vertx.close();
+        }
+    }
+
+    @Test
+    public void testPeriodicUntilCancelled() throws Exception {
+        Vertx vertx = Vertx.vertx();
+        try {
+            AtomicInteger ticks = new AtomicInteger();
+            CountDownLatch three = new CountDownLatch(3);
+            long id = vertx.setPeriodic(30, timerId -> {
+                ticks.incrementAndGet();
+                three.countDown();
+                if (ticks.get() == 2) {
+                    // 回调异常不影响后续触发
+                    throw new IllegalStateException("tick");
+                }
+            });
+            assertTrue(three.await(2, TimeUnit.SECONDS));
+            assertTrue(vertx.cancelTimer(id));
+            int afterCancel = ticks.get();
+            sleep(150);
+            assertEquals("取消后不再触发", afterCancel, ticks.get());
+        } finally {
+            vertx.close();
+        }
+    }
+
+    @Test
+    public void testRunOnContextKeepsLoop() throws Exception {
+        Vertx vertx = Vertx.vertx();
+        try {
+            CompletableFuture<String> threads = new CompletableFuture<>();
+            vertx.runOnContext(v -> {
+                String outer = Thread.currentThread().getName();
+                vertx.runOnContext(v2 -> threads.complete(outer + "|" + Thread.currentThread().getName()));
+            });
+            String[] names = threads.get(2, TimeUnit.SECONDS).split("\\|");
+            assertTrue(names[0].startsWith("vertx-eventloop-thread-"));
+            assertEquals("循环线程上提交的任务留在同一个循环", names[0], names[1]);
+        } finally {
+            vertx.close();
+        }
+    }
+
+    @Test
+    public void testCloseCancelsTimers() {
+        Vertx vertx = Vertx.vertx();
+        AtomicInteger fired = new AtomicInteger();
+        vertx.setTimer(200, id -> fired.incrementAndGet());
+        vertx.setPeriodic(50, id -> fired.incrementAndGet());
+        assertEquals(2, vertx.getTimerCount());
+        vertx.close();
+        assertEquals("关闭实例时取消它的全部定时器", 0, vertx.getTimerCount());
+        sleep(300);
+        assertEquals(0, fired.get());
+    }
+
+    @Test
+    public void testCloseCancelsOnlyOwnTimers() {
+        Vertx other = Vertx.vertx();
+        Vertx vertx = Vertx.vertx();
+        try {
+            AtomicInteger ownFired = new AtomicInteger();
+            AtomicInteger otherFired = new AtomicInteger();
+            vertx.setPeriodic(50, id -> ownFired.incrementAndGet());
+            other.setTimer(100, id -> otherFired.incrementAndGet());
+            assertEquals(1, vertx.getTimerCount());
+            assertEquals(1, other.getTimerCount());
+
+            vertx.close();
+            assertTrue("其他实例仍在运行", Vertx.isRunning());
+            assertEquals(0, vertx.getTimerCount());
+            int firedAtClose = ownFired.get();
+            sleep(300);
+            assertEquals("已关闭实例的周期定时器不再触发", firedAtClose, ownFired.get());
+            assertEquals("其他实例的定时器照常触发", 1, otherFired.get());
+        } finally {
+            other.close();
+        }
+    }
+
     private void sleep(long millis) {
         try {
             Thread.sleep(millis);
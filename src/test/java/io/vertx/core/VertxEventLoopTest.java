@@ -4,6 +4,8 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -16,6 +18,7 @@ public class VertxEventLoopTest {
 
     @Before
     public void setUp() {
+        Vertx.setTaskTracking(true);
         // 确保每个测试开始时任务计数为0
         while (Vertx.getPendingTaskCount() > 0) {
             try {
@@ -34,6 +37,7 @@ public class VertxEventLoopTest {
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
         }
+        Vertx.setTaskTracking(false);
     }
 
     @Test
@@ -130,6 +134,19 @@ public class VertxEventLoopTest {
         System.out.println("✓ 等待任务超时测试通过（耗时: " + elapsedTime + "ms）");
     }
 
+    @Test
+    public void testAwaitTerminationRequiresTracking() throws InterruptedException {
+        Vertx.setTaskTracking(false);
+        try {
+            Vertx.awaitTermination(1);
+            fail("未开启任务统计时应报错");
+        } catch (IllegalStateException e) {
+            assertTrue(e.getMessage().contains("setTaskTracking"));
+        } finally {
+            Vertx.setTaskTracking(true);
+        }
+    }
+
     @Test
     public void testAwaitTerminationWithNoTasks() throws InterruptedException {
         System.out.println("=== 测试无任务时立即返回 ===");
@@ -223,6 +240,30 @@ public class VertxEventLoopTest {
         System.out.println("✓ failedFuture工厂方法测试通过");
     }
 
+    @Test
+    public void testEventLoopAffinityAndBlocking() throws Exception {
+        EventLoopGroup loops = Vertx.eventLoops();
+        assertFalse(loops.inEventLoop());
+        CompletableFuture<Boolean> sameLoop = new CompletableFuture<>();
+        loops.execute(() -> sameLoop.complete(loops.next() == loops.next() && loops.inEventLoop()));
+        assertTrue("循环线程上选择的应是当前循环", sameLoop.get(5, TimeUnit.SECONDS));
+
+        Vertx vertx = Vertx.vertx();
+        try {
+            CompletableFuture<String> threads = new CompletableFuture<>();
+            loops.execute(() -> {
+                String caller = Thread.currentThread().getName();
+                vertx.executeBlocking(() -> Thread.currentThread().getName())
+                        .onSuccess(worker -> threads.complete(caller + "|" + worker + "|" + Thread.currentThread().getName()));
+            });
+            String[] names = threads.get(5, TimeUnit.SECONDS).split("\\|");
+            assertTrue(names[1].startsWith("vertx-worker-thread-"));
+            assertEquals("阻塞任务的结果应回到调用方所在的循环", names[0], names[2]);
+        } finally {
+            vertx.close();
+        }
+    }
+
     private void sleep(long millis) {
         try {
             Thread.sleep(millis);
@@ -231,4 +272,3 @@ public class VertxEventLoopTest {
         }
     }
 }
-
@@ -0,0 +1,86 @@
+package io.vertx.core.buffer;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Buffer 追加与视图访问的微基准
+ * <ul>
+ *     <li>appendString: 重复追加短字符串 (摊还扩容)</li>
+ *     <li>legacyAppendString: 旧实现的每次追加整体复制, 作为对照</li>
+ *     <li>viewAccess / copyAccess: 只读视图 与 getBytes() 复制 的对比</li>
+ * </ul>
+ * 运行: mvn test-compile 后执行 main 方法
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BufferBenchmark {
+
+    private static final String CHUNK = "{\"name\":\"file.zip\",\"size\":1024},";
+
+    @Param({"100", "1000"})
+    public int appends;
+
+    private Buffer body;
+
+    @Setup
+    public void setup() {
+        body = Buffer.buffer(new byte[256 * 1024]);
+    }
+
+    @Benchmark
+    public int appendString() {
+        Buffer buffer = Buffer.buffer();
+        for (int i = 0; i < appends; i++) {
+            buffer.appendString(CHUNK);
+        }
+        return buffer.length();
+    }
+
+    @Benchmark
+    public int legacyAppendString() {
+        byte[] bytes = null;
+        for (int i = 0; i < appends; i++) {
+            byte[] add = CHUNK.getBytes();
+            if (bytes == null) {
+                bytes = add;
+            } else {
+                byte[] newBytes = new byte[bytes.length + add.length];
+                System.arraycopy(bytes, 0, newBytes, 0, bytes.length);
+                System.arraycopy(add, 0, newBytes, bytes.length, add.length);
+                bytes = newBytes;
+            }
+        }
+        return bytes.length;
+    }
+
+    @Benchmark
+    public byte viewAccess() {
+        ByteBuffer view = body.getByteBuf();
+        return view.get(view.remaining() - 1);
+    }
+
+    @Benchmark
+    public byte copyAccess() {
+        byte[] copy = body.getBytes();
+        return copy[copy.length - 1];
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(BufferBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build();
+        new Runner(opt).run();
+    }
+}
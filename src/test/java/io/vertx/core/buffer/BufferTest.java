@@ -0,0 +1,87 @@
+package io.vertx.core.buffer;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ReadOnlyBufferException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+
+/**
+ * 测试Buffer的增长、切片与视图
+ */
+public class BufferTest {
+
+    @Test
+    public void testWrapDoesNotCopy() {
+        byte[] data = "hello".getBytes(StandardCharsets.UTF_8);
+        Buffer buffer = Buffer.buffer(data);
+        data[0] = 'j';
+        assertEquals("包装不复制, 应能看到原数组的修改", "jello", buffer.toString());
+    }
+
+    @Test
+    public void testGetBytesCopies() {
+        Buffer buffer = Buffer.buffer("hello");
+        byte[] copy = buffer.getBytes();
+        copy[0] = 'j';
+        assertEquals("getBytes应返回副本", "hello", buffer.toString());
+    }
+
+    @Test
+    public void testRepeatedAppend() {
+        Buffer buffer = Buffer.buffer();
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            buffer.appendString("段" + i);
+            expected.append("段").append(i);
+        }
+        buffer.appendByte((byte) '!').appendBuffer(Buffer.buffer("end"));
+        expected.append("!end");
+        assertEquals(expected.toString(), buffer.toString(StandardCharsets.UTF_8));
+        assertEquals(expected.toString().getBytes(StandardCharsets.UTF_8).length, buffer.length());
+    }
+
+    @Test
+    public void testAppendToWrappedArrayDoesNotTouchCaller() {
+        byte[] data = "abc".getBytes(StandardCharsets.UTF_8);
+        Buffer buffer = Buffer.buffer(data).appendString("def");
+        assertEquals("abcdef", buffer.toString());
+        assertArrayEquals("abc".getBytes(StandardCharsets.UTF_8), data);
+    }
+
+    @Test
+    public void testSliceSharesStorageAndCopiesOnAppend() {
+        Buffer parent = Buffer.buffer(64).appendString("0123456789");
+        Buffer slice = parent.slice(2, 5);
+        assertEquals("234", slice.toString());
+        assertEquals('3', slice.getByte(1));
+
+        slice.appendString("X");
+        assertEquals("234X", slice.toString());
+        assertEquals("追加切片不应影响原Buffer", "0123456789", parent.toString());
+
+        parent.appendString("AB");
+        assertEquals("0123456789AB", parent.toString());
+        assertEquals("234X", slice.toString());
+    }
+
+    @Test(expected = ReadOnlyBufferException.class)
+    public void testByteBufIsReadOnlyView() {
+        Buffer buffer = Buffer.buffer("hello world").slice(6, 11);
+        ByteBuffer view = buffer.getByteBuf();
+        assertEquals(5, view.remaining());
+        assertEquals('w', view.get(0));
+        view.put(0, (byte) 'x');
+    }
+
+    @Test
+    public void testEqualsAndCopy() {
+        Buffer a = Buffer.buffer("xxhelloxx").slice(2, 7);
+        Buffer b = Buffer.buffer("hello");
+        assertEquals(a, b);
+        assertEquals(a.hashCode(), b.hashCode());
+        assertEquals(b, a.copy());
+    }
+}
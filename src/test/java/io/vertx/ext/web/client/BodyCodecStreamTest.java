@@ -0,0 +1,115 @@
+package io.vertx.ext.web.client;
+
+import io.vertx.core.MultiMap;
+import io.vertx.core.buffer.Buffer;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * 测试流式响应体解码
+ */
+public class BodyCodecStreamTest {
+    private MockWebServer server;
+    private WebClient client;
+
+    @Before
+    public void setup() throws IOException {
+        server = new MockWebServer();
+        server.start();
+        client = WebClient.create();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    private static String largeBody() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 20000; i++) {
+            sb.append("line-").append(i).append('\n');
+        }
+        return sb.toString();
+    }
+
+    @Test
+    public void testStreamCodec() throws Exception {
+        String body = largeBody();
+        server.enqueue(new MockResponse().setBody(body));
+
+        HttpResponse<Integer> response = client.getAbs(server.url("/").toString())
+                .as(BodyCodec.stream(in -> {
+                    int lines = 0;
+                    int b;
+                    while ((b = in.read()) != -1) {
+                        if (b == '\n') {
+                            lines++;
+                        }
+                    }
+                    return lines;
+                }))
+                .send()
+                .toCompletionStage().toCompletableFuture().get(5, TimeUnit.SECONDS);
+
+        assertEquals(200, response.statusCode());
+        assertEquals(Integer.valueOf(20000), response.body());
+    }
+
+    @Test
+    public void testPipeCodec() throws Exception {
+        String body = largeBody();
+        server.enqueue(new MockResponse().setBody(body));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        client.getAbs(server.url("/").toString())
+                .as(BodyCodec.pipe(Channels.newChannel(out)))
+                .send()
+                .toCompletionStage().toCompletableFuture().get(5, TimeUnit.SECONDS);
+
+        assertEquals(body, out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testFileCodec() throws Exception {
+        String body = largeBody();
+        server.enqueue(new MockResponse().setBody(body));
+        Path file = Files.createTempFile("body-codec", ".txt");
+        try {
+            HttpResponse<Void> response = client.getAbs(server.url("/").toString())
+                    .as(BodyCodec.file(file))
+                    .send()
+                    .toCompletionStage().toCompletableFuture().get(5, TimeUnit.SECONDS);
+            assertNull(response.body());
+            assertEquals(body, Files.readString(file));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void testDefaultDecodeStreamBuffers() throws Exception {
+        BodyCodec<String> codec = BodyCodec.string();
+        String decoded = codec.decodeStream(
+                new ByteArrayInputStream("你好".getBytes(StandardCharsets.UTF_8)), MultiMap.caseInsensitiveMultiMap());
+        assertEquals("你好", decoded);
+
+        byte[] binary = {(byte) 0x89, 'P', 'N', 'G', (byte) 0xff, 0x00};
+        Buffer buffer = BodyCodec.buffer().decodeStream(
+                new ByteArrayInputStream(binary), MultiMap.caseInsensitiveMultiMap());
+        assertArrayEquals(binary, buffer.getBytes());
+    }
+}
@@ -0,0 +1,163 @@
+package io.vertx.ext.web.client;
+
+import io.netty.handler.codec.http.cookie.DefaultCookie;
+import okhttp3.Cookie;
+import okhttp3.HttpUrl;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * 测试按可注册域名索引的 Cookie 存储
+ */
+public class CookieStoreImplTest {
+    private static final HttpUrl WWW = HttpUrl.get("https://www.lanzn.com/file/abc");
+
+    private static Cookie parse(HttpUrl url, String setCookie) {
+        return Cookie.parse(url, setCookie);
+    }
+
+    @Test
+    public void testDomainCookieMatchesSubdomains() {
+        CookieStoreImpl store = new CookieStoreImpl();
+        store.put(parse(WWW, "sid=1; Domain=lanzn.com; Path=/"));
+
+        assertEquals(1, store.get(HttpUrl.get("https://pan.lanzn.com/")).size());
+        assertEquals(1, store.get(WWW).size());
+        assertTrue(store.get(HttpUrl.get("https://lanzn.org/")).isEmpty());
+        assertEquals(1, store.getAll().size());
+        assertTrue(store.getAll().containsKey("lanzn.com"));
+    }
+
+    @Test
+    public void testHostOnlyAndPathMatching() {
+        CookieStoreImpl store = new CookieStoreImpl();
+        store.put(parse(WWW, "a=1; Path=/file"));
+
+        assertEquals(1, store.get(HttpUrl.get("https://www.lanzn.com/file/x")).size());
+        assertTrue(store.get(HttpUrl.get("https://www.lanzn.com/other")).isEmpty());
+        assertTrue(store.get(HttpUrl.get("https://pan.lanzn.com/file/x")).isEmpty());
+    }
+
+    @Test
+    public void testDuplicatesReplaced() {
+        CookieStoreImpl store = new CookieStoreImpl();
+        store.put(parse(WWW, "token=old; Path=/"));
+        store.put(parse(WWW, "token=new; Path=/"));
+
+        List<Cookie> cookies = store.get(WWW);
+        assertEquals(1, cookies.size());
+        assertEquals("new", cookies.get(0).value());
+    }
+
+    @Test
+    public void testMaxAgeZeroDeletes() {
+        CookieStoreImpl store = new CookieStoreImpl();
+        store.put(parse(WWW, "token=v; Path=/"));
+        store.put(parse(WWW, "token=; Max-Age=0; Path=/"));
+
+        assertTrue(store.get(WWW).isEmpty());
+        assertTrue(store.getAll().isEmpty());
+    }
+
+    @Test
+    public void testNegativeMaxAgeDeletes() {
+        CookieStoreImpl store = new CookieStoreImpl();
+        store.put(parse(WWW, "token=v; Path=/"));
+        store.put(parse(WWW, "token=; Max-Age=-1; Path=/"));
+        assertTrue(store.getAll().isEmpty());
+
+        // netty Cookie 同样按删除处理, 未设置 Max-Age 的仍是会话 Cookie
+        DefaultCookie session = new DefaultCookie("sid", "1");
+        session.setDomain("lanzn.com");
+        session.setPath("/");
+        store.put(session);
+        assertEquals(1, store.get(WWW).size());
+        for (long maxAge : new long[]{0, -1}) {
+            store.put(session);
+            DefaultCookie removal = new DefaultCookie("sid", "");
+            removal.setDomain("lanzn.com");
+            removal.setPath("/");
+            removal.setMaxAge(maxAge);
+            store.put(removal);
+            assertTrue(store.get(WWW).isEmpty());
+        }
+    }
+
+    @Test
+    public void testExpiredEvictedOnRead() {
+        CookieStoreImpl store = new CookieStoreImpl();
+        Cookie shortLived = new Cookie.Builder().name("t").value("1").domain("lanzn.com")
+                .expiresAt(System.currentTimeMillis() + 50).build();
+        store.put(shortLived);
+        store.put(parse(WWW, "keep=1; Max-Age=3600; Path=/"));
+        assertEquals(2, store.get(WWW).size());
+
+        try {
+            Thread.sleep(100);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        assertEquals(1, store.get(WWW).size());
+        assertEquals(1, store.getAll().get("lanzn.com").size());
+    }
+
+    @Test
+    public void testNettyCookieWithLeadingDot() {
+        CookieStoreImpl store = new CookieStoreImpl();
+        DefaultCookie cookie = new DefaultCookie("acw_sc__v2", "xyz");
+        cookie.setDomain(".lanzn.com");
+        cookie.setPath("/");
+        store.put(cookie);
+
+        assertEquals(1, store.get(WWW).size());
+        assertEquals(1, store.get(".lanzn.com").size());
+        assertEquals(1, store.get("www.lanzn.com").size());
+    }
+
+    /**
+     * 只实现原有三个方法的存储, 后加方法走默认实现
+     */
+    private static class LegacyCookieStore implements CookieStore {
+        private final Map<String, List<Cookie>> cookies = new LinkedHashMap<>();
+
+        @Override
+        public void put(io.netty.handler.codec.http.cookie.Cookie cookie) {
+            cookies.computeIfAbsent(cookie.domain(), k -> new ArrayList<>())
+                    .add(new Cookie.Builder().name(cookie.name()).value(cookie.value())
+                            .domain(cookie.domain()).path(cookie.path()).build());
+        }
+
+        @Override
+        public List<Cookie> get(String domain) {
+            return cookies.getOrDefault(domain, List.of());
+        }
+
+        @Override
+        public Map<String, List<Cookie>> getAll() {
+            return cookies;
+        }
+
+        @Override
+        public void clear() {
+            cookies.clear();
+        }
+    }
+
+    @Test
+    public void testDefaultMethodsForLegacyStore() {
+        LegacyCookieStore store = new LegacyCookieStore();
+        store.put(parse(WWW, "sid=1; Domain=www.lanzn.com; Path=/file"));
+
+        assertEquals("1", store.get("www.lanzn.com").get(0).value());
+        assertEquals(1, store.get(WWW).size());
+        assertTrue(store.get(HttpUrl.get("https://www.lanzn.com/other")).isEmpty());
+        store.clear();
+        assertTrue(store.getAll().isEmpty());
+    }
+}
@@ -0,0 +1,66 @@
+package io.vertx.ext.web.client;
+
+import okhttp3.Call;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 单个请求构建 Call 的开销对比 (不发起网络请求)
+ * <ul>
+ *     <li>legacyRebuildClient: 旧实现, 每个请求 client.newBuilder()...build()</li>
+ *     <li>sharedVariant: 当前实现, 复用跳转策略变体 + Call 级超时</li>
+ * </ul>
+ * 运行: mvn test-compile 后执行 main 方法, 通过 -prof gc 查看 gc.alloc.rate.norm (每次操作分配字节数)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RequestBuilderBenchmark {
+
+    private static final String URL = "https://www.example.com/api/share/info?key=abc";
+
+    private WebClient client;
+
+    @Param({"false", "true"})
+    public boolean followRedirects;
+
+    @Setup
+    public void setup() {
+        client = WebClient.create(null, new WebClientOptions().setFollowRedirects(false));
+    }
+
+    @Benchmark
+    public Call legacyRebuildClient() {
+        OkHttpClient customClient = client.okHttpClient().newBuilder()
+                .followRedirects(followRedirects)
+                .callTimeout(15000, TimeUnit.MILLISECONDS)
+                .build();
+        return customClient.newCall(new Request.Builder().url(URL).get().build());
+    }
+
+    @Benchmark
+    public Call sharedVariant() {
+        return client.getAbs(URL)
+                .followRedirects(followRedirects)
+                .timeout(15000)
+                .newCall();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(RequestBuilderBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build();
+        new Runner(opt).run();
+    }
+}
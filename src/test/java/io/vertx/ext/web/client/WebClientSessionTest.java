@@ -0,0 +1,124 @@
+package io.vertx.ext.web.client;
+
+import io.vertx.core.buffer.Buffer;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * 测试会话 Cookie 的自动保存与携带
+ */
+public class WebClientSessionTest {
+    private MockWebServer server;
+
+    @Before
+    public void setup() throws IOException {
+        server = new MockWebServer();
+        server.start();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    private static HttpResponse<Buffer> await(io.vertx.core.Future<HttpResponse<Buffer>> future) throws Exception {
+        return future.toCompletionStage().toCompletableFuture().get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void testCookiesCapturedAndSent() throws Exception {
+        server.enqueue(new MockResponse().addHeader("Set-Cookie", "sid=abc; Path=/").setBody("1"));
+        server.enqueue(new MockResponse().setBody("2"));
+
+        WebClientSession session = WebClientSession.create(WebClient.create());
+        await(session.getAbs(server.url("/login").toString()).send());
+        await(session.getAbs(server.url("/data").toString()).send());
+
+        assertNull(server.takeRequest().getHeader("Cookie"));
+        assertEquals("sid=abc", server.takeRequest().getHeader("Cookie"));
+    }
+
+    @Test
+    public void testMaxAgeZeroRemovesCookie() throws Exception {
+        server.enqueue(new MockResponse().addHeader("Set-Cookie", "sid=abc; Path=/")
+                .addHeader("Set-Cookie", "lang=en; Path=/"));
+        server.enqueue(new MockResponse().addHeader("Set-Cookie", "sid=; Max-Age=0; Path=/")
+                .addHeader("Set-Cookie", "lang=; Max-Age=-1; Path=/"));
+        server.enqueue(new MockResponse());
+
+        WebClientSession session = WebClientSession.create(WebClient.create());
+        await(session.getAbs(server.url("/login").toString()).send());
+        await(session.getAbs(server.url("/logout").toString()).send());
+        await(session.getAbs(server.url("/data").toString()).send());
+
+        server.takeRequest();
+        assertEquals("sid=abc; lang=en", server.takeRequest().getHeader("Cookie"));
+        assertNull(server.takeRequest().getHeader("Cookie"));
+        assertTrue(session.cookieStore().getAll().isEmpty());
+    }
+
+    @Test
+    public void testCookieSetDuringRedirect() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(302)
+                .addHeader("Set-Cookie", "step=1; Path=/")
+                .addHeader("Location", "/next"));
+        server.enqueue(new MockResponse().setBody("done"));
+
+        WebClientSession session = WebClientSession.create(WebClient.create());
+        HttpResponse<Buffer> response = await(session.getAbs(server.url("/start").toString())
+                .followRedirects(true).send());
+
+        assertEquals("done", response.bodyAsString());
+        server.takeRequest();
+        assertEquals("step=1", server.takeRequest().getHeader("Cookie"));
+    }
+
+    @Test
+    public void testManualCookieHeaderMerged() throws Exception {
+        server.enqueue(new MockResponse().addHeader("Set-Cookie", "sid=abc; Path=/")
+                .addHeader("Set-Cookie", "lang=en; Path=/"));
+        server.enqueue(new MockResponse());
+
+        WebClientSession session = WebClientSession.create(WebClient.create());
+        await(session.getAbs(server.url("/").toString()).send());
+        await(session.getAbs(server.url("/").toString()).putHeader("Cookie", "lang=zh").send());
+
+        server.takeRequest();
+        RecordedRequest second = server.takeRequest();
+        assertEquals("lang=zh; sid=abc", second.getHeader("Cookie"));
+    }
+
+    @Test
+    public void testSharedCookieStore() throws Exception {
+        server.enqueue(new MockResponse().addHeader("Set-Cookie", "sid=shared; Path=/"));
+        server.enqueue(new MockResponse());
+
+        WebClientSession first = WebClientSession.create(WebClient.create());
+        WebClientSession second = WebClientSession.create(WebClient.create(), first.cookieStore());
+        await(first.getAbs(server.url("/").toString()).send());
+        await(second.getAbs(server.url("/").toString()).send());
+
+        server.takeRequest();
+        assertEquals("sid=shared", server.takeRequest().getHeader("Cookie"));
+    }
+
+    @Test
+    public void testCookieStorePutIsSent() throws Exception {
+        server.enqueue(new MockResponse());
+
+        WebClientSession session = WebClientSession.create(WebClient.create());
+        session.addCookie("acw_sc__v2", "v2", server.getHostName());
+        await(session.getAbs(server.url("/").toString()).send());
+
+        assertEquals("acw_sc__v2=v2", server.takeRequest().getHeader("Cookie"));
+    }
+}
@@ -1,10 +1,23 @@
 package io.vertx.ext.web.client;
 
+import io.vertx.core.CancellationToken;
 import io.vertx.core.Future;
+import io.vertx.core.MultiMap;
+import io.vertx.core.Promise;
 import io.vertx.core.buffer.Buffer;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
 import org.junit.Test;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import static org.junit.Assert.*;
 
 public class WebClientTest {
@@ -58,4 +71,263 @@ public class WebClientTest {
 
         assertTrue(latch.await(5, TimeUnit.SECONDS));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testMultipleSetCookieHeaders() throws Exception {
+        try (MockWebServer server = new MockWebServer()) {
+            server.enqueue(new MockResponse()
+                    .addHeader("Set-Cookie", "a=1; Path=/")
+                    .addHeader("Set-Cookie", "b=2; Path=/")
+                    .setBody("ok"));
+            server.start();
+
+            HttpResponse<Buffer> response = WebClient.create().getAbs(server.url("/").toString()).send()
+                    .toCompletionStage().toCompletableFuture().get(5, TimeUnit.SECONDS);
+
+            assertEquals(Arrays.asList("a=1; Path=/", "b=2; Path=/"), response.headers().getAll("set-cookie"));
+            assertEquals(Arrays.asList("a=1; Path=/", "b=2; Path=/"), response.cookies());
+        }
+    }
+
+    @Test
+    public void testCancelledSendCancelsCall() throws Exception {
+        try (MockWebServer server = new MockWebServer()) {
+            server.enqueue(new MockResponse().setHeadersDelay(10, TimeUnit.SECONDS).setBody("slow"));
+            server.start();
+
+            Future<HttpResponse<Buffer>> future = WebClient.create().getAbs(server.url("/slow").toString()).send();
+            assertNotNull(server.takeRequest(5, TimeUnit.SECONDS));
+            future.fail(new CancellationException("不再需要"));
+
+            long deadline = System.currentTimeMillis() + 5000;
+            while (WebClientTransport.root().dispatcher().runningCallsCount() > 0
+                    && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(0, WebClientTransport.root().dispatcher().runningCallsCount());
+            assertTrue(future.cause() instanceof CancellationException);
+        }
+    }
+
+    @Test
+    public void testCancelDerivedFutureCancelsCall() throws Exception {
+        try (MockWebServer server = new MockWebServer()) {
+            server.enqueue(new MockResponse().setHeadersDelay(10, TimeUnit.SECONDS).setBody("slow"));
+            server.start();
+
+            Future<HttpResponse<Buffer>> send = WebClient.create().getAbs(server.url("/slow").toString()).send();
+            Future<Integer> chain = send.map(HttpResponse::statusCode).map(code -> code + 1);
+            assertNotNull(server.takeRequest(5, TimeUnit.SECONDS));
+            assertTrue(chain.cancel());
+
+            awaitNoRunningCalls();
+            assertTrue(send.isCancelled());
+        }
+    }
+
+    @Test
+    public void testCancellationToken() throws Exception {
+        try (MockWebServer server = new MockWebServer()) {
+            server.enqueue(new MockResponse().setHeadersDelay(10, TimeUnit.SECONDS).setBody("slow"));
+            server.start();
+
+            CancellationToken token = new CancellationToken();
+            WebClient client = WebClient.create().withCancellation(token);
+            assertSame(token, client.cancellation());
+            Future<HttpResponse<Buffer>> future = client.getAbs(server.url("/slow").toString()).send();
+            assertNotNull(server.takeRequest(5, TimeUnit.SECONDS));
+            assertEquals(1, token.registrations());
+
+            token.cancel();
+            awaitNoRunningCalls();
+            assertEquals(0, token.registrations());
+            waitFor(future);
+            assertTrue(future.failed());
+
+            // 已取消的令牌: 新请求直接失败, 不发出
+            Future<HttpResponse<Buffer>> late = client.getAbs(server.url("/late").toString()).send();
+            waitFor(late);
+            assertTrue(late.cause() instanceof CancellationException);
+            assertEquals(1, server.getRequestCount());
+        }
+    }
+
+    private static void awaitNoRunningCalls() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (WebClientTransport.root().dispatcher().runningCallsCount() > 0
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, WebClientTransport.root().dispatcher().runningCallsCount());
+    }
+
+    private static void waitFor(Future<?> future) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!future.isComplete() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(future.isComplete());
+    }
+
+    @Test
+    public void testThrottleGatesRequests() throws Exception {
+        try (MockWebServer server = new MockWebServer()) {
+            server.enqueue(new MockResponse().setResponseCode(429).setHeader("Retry-After", "3"));
+            server.start();
+
+            Promise<Void> permit = Promise.promise();
+            List<String> responses = new CopyOnWriteArrayList<>();
+            WebClient client = WebClient.create().withThrottle(new RequestThrottle() {
+                @Override
+                public Future<Void> acquire(String host) {
+                    return permit.future();
+                }
+
+                @Override
+                public void onResponse(String host, int statusCode, MultiMap headers) {
+                    responses.add(host + " " + statusCode + " " + headers.get("Retry-After"));
+                }
+            });
+            Future<HttpResponse<Buffer>> future = client.getAbs(server.url("/").toString()).send();
+            // 未取得许可前不发出请求
+            assertNull(server.takeRequest(200, TimeUnit.MILLISECONDS));
+
+            permit.complete();
+            HttpResponse<Buffer> response = future.toCompletionStage().toCompletableFuture().get(5, TimeUnit.SECONDS);
+            assertEquals(429, response.statusCode());
+            assertEquals(List.of(server.getHostName() + " 429 3"), responses);
+
+            // 许可失败时请求以同一异常失败
+            Future<HttpResponse<Buffer>> rejected = WebClient.create()
+                    .withThrottle(host -> Future.failedFuture(new IllegalStateException("限流")))
+                    .getAbs(server.url("/").toString()).send();
+            assertEquals("限流", rejected.cause().getMessage());
+            assertEquals(1, server.getRequestCount());
+        }
+    }
+
+    @Test
+    public void testDeadlineBoundsCallTimeout() throws Exception {
+        try (MockWebServer server = new MockWebServer()) {
+            server.enqueue(new MockResponse().setHeadersDelay(5, TimeUnit.SECONDS).setBody("slow"));
+            server.start();
+
+            WebClient client = WebClient.create().withDeadline(System.currentTimeMillis() + 300);
+            long start = System.currentTimeMillis();
+            Future<HttpResponse<Buffer>> future = client.getAbs(server.url("/slow").toString()).send();
+            try {
+                future.toCompletionStage().toCompletableFuture().get(5, TimeUnit.SECONDS);
+                fail("应当超时");
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof IOException);
+            }
+            assertTrue(System.currentTimeMillis() - start < 2000);
+
+            // 截止时间已过, 请求不再发出
+            Future<HttpResponse<Buffer>> late = client.getAbs(server.url("/late").toString()).send();
+            assertTrue(late.cause() instanceof TimeoutException);
+            assertEquals(1, server.getRequestCount());
+            assertSame(client, client.withDeadline(client.deadline()));
+        }
+    }
+
+    @Test
+    public void testHedgedGet() throws Exception {
+        try (MockWebServer server = new MockWebServer()) {
+            server.enqueue(new MockResponse().setHeadersDelay(3, TimeUnit.SECONDS).setBody("slow"));
+            server.enqueue(new MockResponse().setBody("fast"));
+            server.start();
+
+            HedgePolicy policy = new HedgePolicy().setInitialDelayMillis(100);
+            WebClient client = WebClient.create().withHedging(policy);
+            long start = System.currentTimeMillis();
+            HttpResponse<Buffer> response = client.getAbs(server.url("/file").toString()).send()
+                    .toCompletionStage().toCompletableFuture().get(5, TimeUnit.SECONDS);
+            assertEquals("fast", response.bodyAsString());
+            assertTrue(System.currentTimeMillis() - start < 2000);
+            assertEquals(2, server.getRequestCount());
+            assertEquals(1, policy.getRequests());
+            assertEquals(1, policy.getHedged());
+            assertEquals(1, policy.getHedgeWins());
+
+            // 非幂等请求不对冲
+            server.enqueue(new MockResponse().setHeadersDelay(500, TimeUnit.MILLISECONDS).setBody("posted"));
+            response = client.postAbs(server.url("/post").toString()).sendBuffer(Buffer.buffer("x"))
+                    .toCompletionStage().toCompletableFuture().get(5, TimeUnit.SECONDS);
+            assertEquals("posted", response.bodyAsString());
+            assertEquals(3, server.getRequestCount());
+            assertEquals(1, policy.getRequests());
+        }
+    }
+
+    @Test
+    public void testLateHedgeCancelled() throws Exception {
+        try (MockWebServer server = new MockWebServer()) {
+            server.enqueue(new MockResponse().setHeadersDelay(300, TimeUnit.MILLISECONDS).setBody("primary"));
+            server.enqueue(new MockResponse().setHeadersDelay(10, TimeUnit.SECONDS).setBody("hedge"));
+            server.start();
+
+            CountDownLatch settled = new CountDownLatch(1);
+            // 对冲计时触发后, 等原请求有了结果并收尾后再发出对冲请求
+            HedgePolicy policy = new HedgePolicy() {
+                @Override
+                void recordHedge() {
+                    super.recordHedge();
+                    try {
+                        settled.await(5, TimeUnit.SECONDS);
+                        // 留出时间让原请求的收尾(取消已发出的请求)先执行完
+                        Thread.sleep(200);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            }.setInitialDelayMillis(100);
+            // 计时器所在的事件循环被阻塞, 结果直接在网络线程上回调
+            Future<HttpResponse<Buffer>> response = WebClient.create().withHedging(policy)
+                    .withCompletionExecutor(Runnable::run)
+                    .getAbs(server.url("/file").toString()).send();
+            response.onComplete(ar -> settled.countDown());
+
+            assertEquals("primary", response.toCompletionStage().toCompletableFuture()
+                    .get(5, TimeUnit.SECONDS).bodyAsString());
+            Thread.sleep(500);
+            assertEquals(1, policy.getHedged());
+            assertEquals(0, WebClientTransport.root().dispatcher().runningCallsCount());
+        }
+    }
+
+    @Test
+    public void testHedgeDelayFollowsPercentile() {
+        HedgePolicy policy = new HedgePolicy().setInitialDelayMillis(800).setPercentile(0.9);
+        assertEquals(800, policy.hedgeDelayMillis());
+        for (int i = 1; i <= 100; i++) {
+            policy.recordLatency(i * 10L);
+        }
+        assertEquals(900, policy.hedgeDelayMillis());
+        // 不低于下限
+        for (int i = 0; i < HedgePolicy.WINDOW; i++) {
+            policy.recordLatency(1);
+        }
+        assertEquals(HedgePolicy.DEFAULT_MIN_DELAY_MILLIS, policy.hedgeDelayMillis());
+    }
+
+    @Test
+    public void testCallbacksHopToEventLoop() throws Exception {
+        try (MockWebServer server = new MockWebServer()) {
+            server.enqueue(new MockResponse().setBody("a"));
+            server.enqueue(new MockResponse().setBody("b"));
+            server.start();
+
+            CompletableFuture<String> thread = new CompletableFuture<>();
+            WebClient.create().getAbs(server.url("/a").toString()).send()
+                    .onSuccess(res -> thread.complete(Thread.currentThread().getName()));
+            assertTrue(thread.get(5, TimeUnit.SECONDS).startsWith("vertx-eventloop-thread-"));
+
+            // 同步等待响应的调用方可以直接在网络线程回调
+            CompletableFuture<String> inline = new CompletableFuture<>();
+            WebClient.create().withCompletionExecutor(Runnable::run).getAbs(server.url("/b").toString()).send()
+                    .onSuccess(res -> inline.complete(Thread.currentThread().getName()));
+            assertTrue(inline.get(5, TimeUnit.SECONDS).startsWith("OkHttp"));
+        }
+    }
+}
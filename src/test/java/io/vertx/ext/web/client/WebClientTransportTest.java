@@ -0,0 +1,60 @@
+package io.vertx.ext.web.client;
+
+import okhttp3.Call;
+import okhttp3.OkHttpClient;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * 测试共享 OkHttp 传输层
+ */
+public class WebClientTransportTest {
+
+    @Test
+    public void testSameOptionsShareClient() {
+        WebClient a = WebClient.create(null, new WebClientOptions());
+        WebClient b = WebClient.create(null, new WebClientOptions());
+        assertSame("相同配置应复用同一个OkHttpClient", a.okHttpClient(), b.okHttpClient());
+    }
+
+    @Test
+    public void testVariantsShareConnectionPoolAndDispatcher() {
+        OkHttpClient root = WebClientTransport.root();
+        OkHttpClient noRedirects = WebClient.create(null,
+                new WebClientOptions().setFollowRedirects(false)).okHttpClient();
+        OkHttpClient disableUA = WebClient.create(null,
+                new WebClientOptions().setUserAgentEnabled(false)).okHttpClient();
+        OkHttpClient defaultClient = WebClient.create().okHttpClient();
+
+        assertNotSame(noRedirects, disableUA);
+        for (OkHttpClient c : new OkHttpClient[]{noRedirects, disableUA, defaultClient}) {
+            assertSame("变体应共享连接池", root.connectionPool(), c.connectionPool());
+            assertSame("变体应共享Dispatcher", root.dispatcher(), c.dispatcher());
+        }
+        assertFalse(noRedirects.followRedirects());
+    }
+
+    @Test
+    public void testPerRequestOptionsReuseVariants() {
+        WebClient client = WebClient.create(null, new WebClientOptions().setFollowRedirects(false));
+        OkHttpClient follow1 = WebClientTransport.withFollowRedirects(client.okHttpClient(), true);
+        OkHttpClient follow2 = WebClientTransport.withFollowRedirects(client.okHttpClient(), true);
+        assertSame("跳转变体应被复用", follow1, follow2);
+        assertTrue(follow1.followRedirects());
+        assertSame(client.okHttpClient(), WebClientTransport.withFollowRedirects(client.okHttpClient(), false));
+
+        Call call = client.getAbs("http://example.com").timeout(1234).newCall();
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(1234), call.timeout().timeoutNanos());
+    }
+
+    @Test
+    public void testVariantCacheIsBounded() {
+        for (int i = 0; i < 200; i++) {
+            WebClient.create(null, new WebClientOptions().setUserAgent("UA-" + i));
+        }
+        assertTrue(WebClientTransport.variantCount() <= 64);
+    }
+}
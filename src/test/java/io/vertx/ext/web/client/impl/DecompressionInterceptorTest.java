@@ -0,0 +1,176 @@
+package io.vertx.ext.web.client.impl;
+
+import io.airlift.compress.zstd.ZstdCompressor;
+import io.vertx.ext.web.client.HttpResponse;
+import io.vertx.ext.web.client.WebClient;
+import io.vertx.core.buffer.Buffer;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.Assert.*;
+
+/**
+ * 测试传输层解压: 响应体按 Content-Encoding 解码后交给调用方
+ */
+public class DecompressionInterceptorTest {
+    private static final String TEXT = "{\"msg\":\"压缩响应测试\",\"data\":\"" + "abc".repeat(2000) + "\"}";
+
+    private MockWebServer server;
+    private WebClient client;
+
+    @Before
+    public void setup() throws IOException {
+        server = new MockWebServer();
+        server.start();
+        client = WebClient.create();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    private static byte[] gzip(byte[] data) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gz = new GZIPOutputStream(out)) {
+            gz.write(data);
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] deflate(byte[] data, boolean nowrap) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (DeflaterOutputStream df = new DeflaterOutputStream(out, new Deflater(Deflater.DEFAULT_COMPRESSION, nowrap))) {
+            df.write(data);
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] zstd(byte[] data) {
+        ZstdCompressor compressor = new ZstdCompressor();
+        byte[] out = new byte[compressor.maxCompressedLength(data.length)];
+        int n = compressor.compress(data, 0, data.length, out, 0, out.length);
+        return Arrays.copyOf(out, n);
+    }
+
+    private void enqueue(byte[] body, String encoding) {
+        okio.Buffer buffer = new okio.Buffer().write(body);
+        MockResponse response = new MockResponse().setBody(buffer).setHeader("Content-Type", "application/json");
+        if (encoding != null) {
+            response.setHeader("Content-Encoding", encoding);
+        }
+        server.enqueue(response);
+    }
+
+    private HttpResponse<Buffer> get() throws Exception {
+        return client.getAbs(server.url("/").toString()).send()
+                .toCompletionStage().toCompletableFuture().get(5, TimeUnit.SECONDS);
+    }
+
+    private void assertDecoded(HttpResponse<Buffer> response) {
+        assertEquals(TEXT, response.bodyAsString());
+        assertNull(response.getHeader("Content-Encoding"));
+    }
+
+    @Test
+    public void testDefaultAcceptEncoding() throws Exception {
+        enqueue(TEXT.getBytes(StandardCharsets.UTF_8), null);
+        get();
+        RecordedRequest request = server.takeRequest();
+        assertEquals(DecompressionInterceptor.ACCEPT_ENCODING, request.getHeader("Accept-Encoding"));
+    }
+
+    @Test
+    public void testCustomAcceptEncodingKept() throws Exception {
+        enqueue(gzip(TEXT.getBytes(StandardCharsets.UTF_8)), "gzip");
+        HttpResponse<Buffer> response = client.getAbs(server.url("/").toString())
+                .putHeader("Accept-Encoding", "gzip")
+                .send().toCompletionStage().toCompletableFuture().get(5, TimeUnit.SECONDS);
+        assertEquals("gzip", server.takeRequest().getHeader("Accept-Encoding"));
+        assertDecoded(response);
+    }
+
+    @Test
+    public void testGzip() throws Exception {
+        enqueue(gzip(TEXT.getBytes(StandardCharsets.UTF_8)), "gzip");
+        assertDecoded(get());
+    }
+
+    @Test
+    public void testDeflateZlibAndRaw() throws Exception {
+        enqueue(deflate(TEXT.getBytes(StandardCharsets.UTF_8), false), "deflate");
+        assertDecoded(get());
+        enqueue(deflate(TEXT.getBytes(StandardCharsets.UTF_8), true), "deflate");
+        assertDecoded(get());
+    }
+
+    @Test
+    public void testZstd() throws Exception {
+        enqueue(zstd(TEXT.getBytes(StandardCharsets.UTF_8)), "zstd");
+        assertDecoded(get());
+    }
+
+    @Test
+    public void testStackedEncodings() throws Exception {
+        enqueue(gzip(zstd(TEXT.getBytes(StandardCharsets.UTF_8))), "zstd, gzip");
+        assertDecoded(get());
+    }
+
+    @Test
+    public void testSniffWithoutContentEncoding() throws Exception {
+        enqueue(gzip(TEXT.getBytes(StandardCharsets.UTF_8)), null);
+        assertDecoded(get());
+        enqueue(zstd(TEXT.getBytes(StandardCharsets.UTF_8)), null);
+        assertDecoded(get());
+    }
+
+    @Test
+    public void testBinaryNotSniffed() throws Exception {
+        byte[] archive = gzip(TEXT.getBytes(StandardCharsets.UTF_8));
+        server.enqueue(new MockResponse().setBody(new okio.Buffer().write(archive))
+                .setHeader("Content-Type", "application/gzip"));
+        assertArrayEquals(archive, get().body().getBytes());
+    }
+
+    @Test
+    public void testUnknownEncodingUntouched() throws Exception {
+        enqueue("raw".getBytes(StandardCharsets.UTF_8), "compress");
+        HttpResponse<Buffer> response = get();
+        assertEquals("raw", response.bodyAsString());
+        assertEquals("compress", response.getHeader("Content-Encoding"));
+    }
+
+    @Test
+    public void testEmptyRedirectBodyWithEncoding() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(302)
+                .setHeader("Location", "/target")
+                .setHeader("Content-Encoding", "gzip"));
+        HttpResponse<Buffer> response = client.getAbs(server.url("/").toString())
+                .followRedirects(false)
+                .send().toCompletionStage().toCompletableFuture().get(5, TimeUnit.SECONDS);
+        assertEquals(302, response.statusCode());
+        assertEquals("/target", response.getHeader("Location"));
+        assertEquals(0, response.body() == null ? 0 : response.body().length());
+    }
+
+    @Test
+    public void testEmptyBodyWithBrotli() throws Exception {
+        enqueue(new byte[0], "br");
+        HttpResponse<Buffer> response = get();
+        assertEquals(200, response.statusCode());
+        assertEquals(0, response.body() == null ? 0 : response.body().length());
+    }
+}
@@ -0,0 +1,142 @@
+package io.vertx.ext.web.client.impl;
+
+import io.airlift.compress.zstd.ZstdCompressor;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * 测试纯 Java zstd 解码器 (测试数据由 aircompressor 编码生成)
+ */
+public class ZstdInputStreamTest {
+
+    private static byte[] compress(byte[] data) {
+        ZstdCompressor compressor = new ZstdCompressor();
+        byte[] out = new byte[compressor.maxCompressedLength(data.length)];
+        int n = compressor.compress(data, 0, data.length, out, 0, out.length);
+        return Arrays.copyOf(out, n);
+    }
+
+    private static byte[] decompress(byte[] compressed) throws IOException {
+        try (InputStream in = new ZstdInputStream(new ByteArrayInputStream(compressed))) {
+            return in.readAllBytes();
+        }
+    }
+
+    private static byte[] jsonLike(int records) {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < records; i++) {
+            sb.append("{\"id\":").append(i)
+                    .append(",\"name\":\"文件-").append(i % 97)
+                    .append(".zip\",\"size\":").append(i * 7919L % 1000003)
+                    .append(",\"url\":\"https://example.com/d/").append(Integer.toHexString(i * 31)).append("\"},");
+        }
+        return sb.append("]").toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testSmallText() throws IOException {
+        byte[] data = "hello zstd, hello zstd, hello zstd".getBytes(StandardCharsets.UTF_8);
+        assertArrayEquals(data, decompress(compress(data)));
+    }
+
+    @Test
+    public void testEmpty() throws IOException {
+        assertArrayEquals(new byte[0], decompress(compress(new byte[0])));
+        assertArrayEquals(new byte[0], decompress(new byte[0]));
+    }
+
+    @Test
+    public void testMultiBlockText() throws IOException {
+        byte[] data = jsonLike(20000);
+        assertTrue(data.length > 1024 * 1024);
+        assertArrayEquals(data, decompress(compress(data)));
+    }
+
+    @Test
+    public void testIncompressible() throws IOException {
+        byte[] data = new byte[300 * 1024];
+        new Random(42).nextBytes(data);
+        assertArrayEquals(data, decompress(compress(data)));
+    }
+
+    @Test
+    public void testRepetitive() throws IOException {
+        byte[] data = new byte[500 * 1024];
+        Arrays.fill(data, (byte) 'a');
+        for (int i = 0; i < data.length; i += 4099) {
+            data[i] = (byte) ('0' + i % 10);
+        }
+        assertArrayEquals(data, decompress(compress(data)));
+    }
+
+    @Test
+    public void testConcatenatedAndSkippableFrames() throws IOException {
+        byte[] first = "first frame;".getBytes(StandardCharsets.UTF_8);
+        byte[] second = jsonLike(100);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.writeBytes(compress(first));
+        // 可跳过帧: magic 0x184D2A50 + 长度 3
+        out.writeBytes(new byte[]{0x50, 0x2A, 0x4D, 0x18, 3, 0, 0, 0, 1, 2, 3});
+        out.writeBytes(compress(second));
+
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        expected.writeBytes(first);
+        expected.writeBytes(second);
+        assertArrayEquals(expected.toByteArray(), decompress(out.toByteArray()));
+    }
+
+    @Test
+    public void testByteByByteRead() throws IOException {
+        byte[] data = jsonLike(500);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (InputStream in = new ZstdInputStream(new ByteArrayInputStream(compress(data)))) {
+            int b;
+            while ((b = in.read()) != -1) {
+                out.write(b);
+            }
+        }
+        assertArrayEquals(data, out.toByteArray());
+    }
+
+    @Test(expected = IOException.class)
+    public void testTruncated() throws IOException {
+        byte[] compressed = compress(jsonLike(1000));
+        decompress(Arrays.copyOf(compressed, compressed.length / 2));
+    }
+
+    /**
+     * 只有一个空 raw 块的帧, 窗口为 2^windowLog
+     */
+    private static byte[] emptyFrame(int windowLog) {
+        return new byte[]{
+                0x28, (byte) 0xB5, 0x2F, (byte) 0xFD,
+                0x00, (byte) ((windowLog - 10) << 3),
+                0x01, 0x00, 0x00};
+    }
+
+    @Test
+    public void testWindowLimit() throws IOException {
+        assertEquals(8 << 20, ZstdInputStream.MAX_WINDOW_SIZE);
+        assertArrayEquals(new byte[0], decompress(emptyFrame(23)));
+        try {
+            decompress(emptyFrame(24));
+            fail("超过 8MB 的窗口应被拒绝");
+        } catch (IOException e) {
+            assertTrue(e.getMessage().contains("窗口过大"));
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testBadMagic() throws IOException {
+        decompress("not zstd data".getBytes(StandardCharsets.UTF_8));
+    }
+}